@@ -15,14 +15,39 @@ public interface FastEventEngine {
 
 	void emitEvent(NorthstarEventType event, Object obj);
 
+	/**
+	 * 以无分配方式发布TICK事件
+	 * 由translator把行情直接写入事件对象预分配的 {@link TickSlot}，事件数据即为该TickSlot。
+	 * 默认实现会退化为复制成TICK对象再发布
+	 * @param <A>
+	 * @param translator
+	 * @param arg
+	 */
+	default <A> void emitTick(TickTranslator<A> translator, A arg) {
+		TickSlot slot = new TickSlot();
+		translator.translateTo(slot, arg);
+		emitEvent(NorthstarEventType.TICK, slot.toTick());
+	}
+
 	public static interface NorthstarEventDispatcher extends EventHandler<NorthstarEvent>{
 	}
-	
+
+	/**
+	 * TICK数据写入器
+	 * 写入前TickSlot已被清空
+	 * @param <A>
+	 */
+	@FunctionalInterface
+	public static interface TickTranslator<A> {
+
+		void translateTo(TickSlot slot, A arg);
+	}
+
 	public static class NorthstarEventFactory implements EventFactory<NorthstarEvent> {
 
 		@Override
 		public NorthstarEvent newInstance() {
-			return new NorthstarEvent(null, null);
+			return new NorthstarEvent(null, null, new TickSlot());
 		}
 
 	}
@@ -1,12 +1,27 @@
 package org.dromara.northstar.common.event;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
-@AllArgsConstructor
 @Data
 public class NorthstarEvent {
 
 	private NorthstarEventType event;
 	private Object data;
+	
+	/* 仅事件引擎预分配的事件对象持有，用于无分配地发布TICK */
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final TickSlot tickSlot;
+	
+	public NorthstarEvent(NorthstarEventType event, Object data) {
+		this(event, data, null);
+	}
+	
+	NorthstarEvent(NorthstarEventType event, Object data, TickSlot tickSlot) {
+		this.event = event;
+		this.data = data;
+		this.tickSlot = tickSlot;
+	}
 }
@@ -0,0 +1,567 @@
+package org.dromara.northstar.common.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.DateTimeConstant;
+import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
+
+import com.alibaba.fastjson.JSONObject;
+
+import xyz.redtorch.pb.CoreField.TickField;
+
+/**
+ * 可复用的TICK数据槽
+ * 预分配于事件引擎的环形队列中，行情以原始类型（包括盘口深度数组）直接写入，避免每个TICK都分配对象。
+ * 注意：槽内数据只在事件处理期间有效，需要保留数据的消费者必须通过 {@link #toTick()} 显式复制
+ * @author agent
+ *
+ */
+public class TickSlot implements TickView {
+
+	/**
+	 * 最大盘口深度
+	 */
+	public static final int MAX_DEPTH = 5;
+
+	private String gatewayId;
+	private Contract contract;		// 合约
+	private LocalDate actionDay;		// 行情归属日
+	private LocalTime actionTime;		// 行情归属时间
+	private LocalDate tradingDay;		// 交易日
+	private long actionTimestamp;		// 行情归属时间戳
+	private double lastPrice;		// 最新价
+	private double avgPrice;		// 均价
+	private double iopv;		// IOPV(ETF净值估值)
+	private long volumeDelta;		// 成交量变化
+	private long volume;		// 当天总成交量
+	private double turnover;		// 成交额变化
+	private double turnoverDelta;		// 当天成交总额变化
+	private double openInterest;		// 总持仓量
+	private double openInterestDelta;		// 持仓量变化
+	private double settlePrice;		// 结算价
+	private double preOpenInterest;		// 昨持仓
+	private double preClosePrice;		// 前收盘价
+	private double preSettlePrice;		// 昨结算价
+	private double openPrice;		// 开盘价
+	private double highPrice;		// 最高价
+	private double lowPrice;		// 最低价
+	private double upperLimit;		// 涨停价
+	private double lowerLimit;		// 跌停价
+	private TickType type;		// 行情类型
+	private JSONObject otherInfo;		// 额外信息
+	private ChannelType channelType;		// 渠道来源
+
+	private final double[] bidPrice = new double[MAX_DEPTH];		// 买价
+	private final double[] askPrice = new double[MAX_DEPTH];		// 卖价
+	private final int[] bidVolume = new int[MAX_DEPTH];			// 买量
+	private final int[] askVolume = new int[MAX_DEPTH];			// 卖量
+	private int depth;
+
+	public String gatewayId() {
+		return gatewayId;
+	}
+
+	public TickSlot gatewayId(String gatewayId) {
+		this.gatewayId = gatewayId;
+		return this;
+	}
+
+	public Contract contract() {
+		return contract;
+	}
+
+	public TickSlot contract(Contract contract) {
+		this.contract = contract;
+		return this;
+	}
+
+	public LocalDate actionDay() {
+		return actionDay;
+	}
+
+	public TickSlot actionDay(LocalDate actionDay) {
+		this.actionDay = actionDay;
+		return this;
+	}
+
+	public LocalTime actionTime() {
+		return actionTime;
+	}
+
+	public TickSlot actionTime(LocalTime actionTime) {
+		this.actionTime = actionTime;
+		return this;
+	}
+
+	public LocalDate tradingDay() {
+		return tradingDay;
+	}
+
+	public TickSlot tradingDay(LocalDate tradingDay) {
+		this.tradingDay = tradingDay;
+		return this;
+	}
+
+	public long actionTimestamp() {
+		return actionTimestamp;
+	}
+
+	public TickSlot actionTimestamp(long actionTimestamp) {
+		this.actionTimestamp = actionTimestamp;
+		return this;
+	}
+
+	public double lastPrice() {
+		return lastPrice;
+	}
+
+	public TickSlot lastPrice(double lastPrice) {
+		this.lastPrice = lastPrice;
+		return this;
+	}
+
+	public double avgPrice() {
+		return avgPrice;
+	}
+
+	public TickSlot avgPrice(double avgPrice) {
+		this.avgPrice = avgPrice;
+		return this;
+	}
+
+	public double iopv() {
+		return iopv;
+	}
+
+	public TickSlot iopv(double iopv) {
+		this.iopv = iopv;
+		return this;
+	}
+
+	public long volumeDelta() {
+		return volumeDelta;
+	}
+
+	public TickSlot volumeDelta(long volumeDelta) {
+		this.volumeDelta = volumeDelta;
+		return this;
+	}
+
+	public long volume() {
+		return volume;
+	}
+
+	public TickSlot volume(long volume) {
+		this.volume = volume;
+		return this;
+	}
+
+	public double turnover() {
+		return turnover;
+	}
+
+	public TickSlot turnover(double turnover) {
+		this.turnover = turnover;
+		return this;
+	}
+
+	public double turnoverDelta() {
+		return turnoverDelta;
+	}
+
+	public TickSlot turnoverDelta(double turnoverDelta) {
+		this.turnoverDelta = turnoverDelta;
+		return this;
+	}
+
+	public double openInterest() {
+		return openInterest;
+	}
+
+	public TickSlot openInterest(double openInterest) {
+		this.openInterest = openInterest;
+		return this;
+	}
+
+	public double openInterestDelta() {
+		return openInterestDelta;
+	}
+
+	public TickSlot openInterestDelta(double openInterestDelta) {
+		this.openInterestDelta = openInterestDelta;
+		return this;
+	}
+
+	public double settlePrice() {
+		return settlePrice;
+	}
+
+	public TickSlot settlePrice(double settlePrice) {
+		this.settlePrice = settlePrice;
+		return this;
+	}
+
+	public double preOpenInterest() {
+		return preOpenInterest;
+	}
+
+	public TickSlot preOpenInterest(double preOpenInterest) {
+		this.preOpenInterest = preOpenInterest;
+		return this;
+	}
+
+	public double preClosePrice() {
+		return preClosePrice;
+	}
+
+	public TickSlot preClosePrice(double preClosePrice) {
+		this.preClosePrice = preClosePrice;
+		return this;
+	}
+
+	public double preSettlePrice() {
+		return preSettlePrice;
+	}
+
+	public TickSlot preSettlePrice(double preSettlePrice) {
+		this.preSettlePrice = preSettlePrice;
+		return this;
+	}
+
+	public double openPrice() {
+		return openPrice;
+	}
+
+	public TickSlot openPrice(double openPrice) {
+		this.openPrice = openPrice;
+		return this;
+	}
+
+	public double highPrice() {
+		return highPrice;
+	}
+
+	public TickSlot highPrice(double highPrice) {
+		this.highPrice = highPrice;
+		return this;
+	}
+
+	public double lowPrice() {
+		return lowPrice;
+	}
+
+	public TickSlot lowPrice(double lowPrice) {
+		this.lowPrice = lowPrice;
+		return this;
+	}
+
+	public double upperLimit() {
+		return upperLimit;
+	}
+
+	public TickSlot upperLimit(double upperLimit) {
+		this.upperLimit = upperLimit;
+		return this;
+	}
+
+	public double lowerLimit() {
+		return lowerLimit;
+	}
+
+	public TickSlot lowerLimit(double lowerLimit) {
+		this.lowerLimit = lowerLimit;
+		return this;
+	}
+
+	public TickType type() {
+		return type;
+	}
+
+	public TickSlot type(TickType type) {
+		this.type = type;
+		return this;
+	}
+
+	public JSONObject otherInfo() {
+		return otherInfo;
+	}
+
+	public TickSlot otherInfo(JSONObject otherInfo) {
+		this.otherInfo = otherInfo;
+		return this;
+	}
+
+	public ChannelType channelType() {
+		return channelType;
+	}
+
+	public TickSlot channelType(ChannelType channelType) {
+		this.channelType = channelType;
+		return this;
+	}
+
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * 设置盘口深度，超出 {@link #MAX_DEPTH} 部分会被截断
+	 * @param depth
+	 * @return
+	 */
+	public TickSlot depth(int depth) {
+		this.depth = Math.min(depth, MAX_DEPTH);
+		return this;
+	}
+
+	public double bidPrice(int level) {
+		return bidPrice[level];
+	}
+
+	public double askPrice(int level) {
+		return askPrice[level];
+	}
+
+	public int bidVolume(int level) {
+		return bidVolume[level];
+	}
+
+	public int askVolume(int level) {
+		return askVolume[level];
+	}
+
+	/**
+	 * 写入一档盘口
+	 * @param level		档位，从0开始
+	 * @param bidPrice
+	 * @param bidVolume
+	 * @param askPrice
+	 * @param askVolume
+	 * @return
+	 */
+	public TickSlot level(int level, double bidPrice, int bidVolume, double askPrice, int askVolume) {
+		this.bidPrice[level] = bidPrice;
+		this.bidVolume[level] = bidVolume;
+		this.askPrice[level] = askPrice;
+		this.askVolume[level] = askVolume;
+		if(level >= depth) {
+			depth = level + 1;
+		}
+		return this;
+	}
+
+	/**
+	 * 复制行情数据
+	 * 来源为TICK对象或TickSlot时一并复制盘口与额外信息
+	 * @param tick
+	 * @return
+	 */
+	public TickSlot copyFrom(TickView tick) {
+		this.gatewayId = tick.gatewayId();
+		this.contract = tick.contract();
+		this.actionDay = tick.actionDay();
+		this.actionTime = tick.actionTime();
+		this.tradingDay = tick.tradingDay();
+		this.actionTimestamp = tick.actionTimestamp();
+		this.lastPrice = tick.lastPrice();
+		this.avgPrice = tick.avgPrice();
+		this.iopv = tick.iopv();
+		this.volumeDelta = tick.volumeDelta();
+		this.volume = tick.volume();
+		this.turnover = tick.turnover();
+		this.turnoverDelta = tick.turnoverDelta();
+		this.openInterest = tick.openInterest();
+		this.openInterestDelta = tick.openInterestDelta();
+		this.settlePrice = tick.settlePrice();
+		this.preOpenInterest = tick.preOpenInterest();
+		this.preClosePrice = tick.preClosePrice();
+		this.preSettlePrice = tick.preSettlePrice();
+		this.openPrice = tick.openPrice();
+		this.highPrice = tick.highPrice();
+		this.lowPrice = tick.lowPrice();
+		this.upperLimit = tick.upperLimit();
+		this.lowerLimit = tick.lowerLimit();
+		this.type = tick.type();
+		this.channelType = tick.channelType();
+		this.otherInfo = null;
+		clearDepth();
+		if(tick instanceof Tick t) {
+			this.otherInfo = t.otherInfo();
+			copyDepth(t.bidPrice(), bidPrice);
+			copyDepth(t.askPrice(), askPrice);
+			copyDepth(t.bidVolume(), bidVolume);
+			copyDepth(t.askVolume(), askVolume);
+		} else if(tick instanceof TickSlot slot) {
+			this.otherInfo = slot.otherInfo;
+			System.arraycopy(slot.bidPrice, 0, bidPrice, 0, slot.depth);
+			System.arraycopy(slot.askPrice, 0, askPrice, 0, slot.depth);
+			System.arraycopy(slot.bidVolume, 0, bidVolume, 0, slot.depth);
+			System.arraycopy(slot.askVolume, 0, askVolume, 0, slot.depth);
+			this.depth = slot.depth;
+		}
+		return this;
+	}
+
+	private void copyDepth(List<? extends Number> src, double[] dest) {
+		if(src == null) {
+			return;
+		}
+		int n = Math.min(src.size(), MAX_DEPTH);
+		for(int i=0; i<n; i++) {
+			dest[i] = src.get(i).doubleValue();
+		}
+		depth = Math.max(depth, n);
+	}
+
+	private void copyDepth(List<? extends Number> src, int[] dest) {
+		if(src == null) {
+			return;
+		}
+		int n = Math.min(src.size(), MAX_DEPTH);
+		for(int i=0; i<n; i++) {
+			dest[i] = src.get(i).intValue();
+		}
+		depth = Math.max(depth, n);
+	}
+
+	/**
+	 * 复制为不可变的TICK对象
+	 * @return
+	 */
+	public Tick toTick() {
+		List<Double> bidPriceList = new ArrayList<>(depth);
+		List<Double> askPriceList = new ArrayList<>(depth);
+		List<Integer> bidVolumeList = new ArrayList<>(depth);
+		List<Integer> askVolumeList = new ArrayList<>(depth);
+		for(int i=0; i<depth; i++) {
+			bidPriceList.add(bidPrice[i]);
+			askPriceList.add(askPrice[i]);
+			bidVolumeList.add(bidVolume[i]);
+			askVolumeList.add(askVolume[i]);
+		}
+		return Tick.builder()
+				.gatewayId(gatewayId)
+				.contract(contract)
+				.actionDay(actionDay)
+				.actionTime(actionTime)
+				.tradingDay(tradingDay)
+				.actionTimestamp(actionTimestamp)
+				.lastPrice(lastPrice)
+				.avgPrice(avgPrice)
+				.iopv(iopv)
+				.volumeDelta(volumeDelta)
+				.volume(volume)
+				.turnover(turnover)
+				.turnoverDelta(turnoverDelta)
+				.openInterest(openInterest)
+				.openInterestDelta(openInterestDelta)
+				.settlePrice(settlePrice)
+				.preOpenInterest(preOpenInterest)
+				.preClosePrice(preClosePrice)
+				.preSettlePrice(preSettlePrice)
+				.openPrice(openPrice)
+				.highPrice(highPrice)
+				.lowPrice(lowPrice)
+				.upperLimit(upperLimit)
+				.lowerLimit(lowerLimit)
+				.type(type)
+				.otherInfo(otherInfo)
+				.channelType(channelType)
+				.bidPrice(bidPriceList)
+				.askPrice(askPriceList)
+				.bidVolume(bidVolumeList)
+				.askVolume(askVolumeList)
+				.build();
+	}
+
+	/**
+	 * 直接编码为TickField，与 {@link Tick#toTickField()} 结果一致
+	 * @return
+	 */
+	public TickField toTickField() {
+		TickField.Builder builder = TickField.newBuilder()
+				.setGatewayId(Optional.ofNullable(gatewayId).orElse(contract.gatewayId()))
+				.setUnifiedSymbol(contract.unifiedSymbol())
+				.setActionDay(actionDay.format(DateTimeConstant.D_FORMAT_INT_FORMATTER))
+				.setActionTime(actionTime.format(DateTimeConstant.T_FORMAT_WITH_MS_INT_FORMATTER))
+				.setTradingDay(tradingDay.format(DateTimeConstant.D_FORMAT_INT_FORMATTER))
+				.setActionTimestamp(actionTimestamp)
+				.setLastPrice(lastPrice)
+				.setAvgPrice(avgPrice)
+				.setIopv(iopv)
+				.setVolumeDelta(volumeDelta)
+				.setVolume(volume)
+				.setTurnover(turnover)
+				.setTurnoverDelta(turnoverDelta)
+				.setOpenInterest(openInterest)
+				.setOpenInterestDelta(openInterestDelta)
+				.setSettlePrice(settlePrice)
+				.setPreOpenInterest(preOpenInterest)
+				.setPreClosePrice(preClosePrice)
+				.setPreSettlePrice(preSettlePrice)
+				.setOpenPrice(openPrice)
+				.setHighPrice(highPrice)
+				.setLowPrice(lowPrice)
+				.setUpperLimit(upperLimit)
+				.setLowerLimit(lowerLimit)
+				.setChannelType(channelType.toString());
+		for(int i=0; i<depth; i++) {
+			builder.addBidPrice(bidPrice[i]);
+			builder.addAskPrice(askPrice[i]);
+			builder.addBidVolume(bidVolume[i]);
+			builder.addAskVolume(askVolume[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * 清空数据
+	 */
+	public void clear() {
+		gatewayId = null;
+		contract = null;
+		actionDay = null;
+		actionTime = null;
+		tradingDay = null;
+		actionTimestamp = 0;
+		lastPrice = 0;
+		avgPrice = 0;
+		iopv = 0;
+		volumeDelta = 0;
+		volume = 0;
+		turnover = 0;
+		turnoverDelta = 0;
+		openInterest = 0;
+		openInterestDelta = 0;
+		settlePrice = 0;
+		preOpenInterest = 0;
+		preClosePrice = 0;
+		preSettlePrice = 0;
+		openPrice = 0;
+		highPrice = 0;
+		lowPrice = 0;
+		upperLimit = 0;
+		lowerLimit = 0;
+		type = null;
+		otherInfo = null;
+		channelType = null;
+		clearDepth();
+	}
+
+	private void clearDepth() {
+		Arrays.fill(bidPrice, 0);
+		Arrays.fill(askPrice, 0);
+		Arrays.fill(bidVolume, 0);
+		Arrays.fill(askVolume, 0);
+		depth = 0;
+	}
+}
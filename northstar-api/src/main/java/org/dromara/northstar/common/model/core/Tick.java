@@ -15,7 +15,7 @@ import com.alibaba.fastjson.JSONObject;
 import lombok.Builder;
 import xyz.redtorch.pb.CoreField.TickField;
 
-@Builder
+@Builder(toBuilder = true)
 public record Tick(
 		String gatewayId,
 		Contract contract,			// 合约
@@ -48,7 +48,7 @@ public record Tick(
 		TickType type,			// 行情类型
 		JSONObject otherInfo,    // 额外信息
 		ChannelType channelType    // 渠道来源
-) implements Timed{
+) implements Timed, TickView{
 
 	public TickField toTickField() {
 		return TickField.newBuilder()
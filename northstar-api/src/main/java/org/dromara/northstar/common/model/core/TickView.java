@@ -0,0 +1,69 @@
+package org.dromara.northstar.common.model.core;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.TickType;
+
+/**
+ * TICK行情的只读视图（不含盘口）
+ * 由 {@link Tick} 与可复用的 TickSlot 共同实现，K线合成、指数合成等只读取标量字段的组件以此为入参；
+ * 实现可能被复用，使用方不得持有其引用，需要保留时应复制所需字段
+ * @author agent
+ *
+ */
+public interface TickView {
+
+	String gatewayId();
+
+	Contract contract();
+
+	LocalDate actionDay();
+
+	LocalTime actionTime();
+
+	LocalDate tradingDay();
+
+	long actionTimestamp();
+
+	double lastPrice();
+
+	double avgPrice();
+
+	double iopv();
+
+	long volumeDelta();
+
+	long volume();
+
+	double turnover();
+
+	double turnoverDelta();
+
+	double openInterest();
+
+	double openInterestDelta();
+
+	double settlePrice();
+
+	double preOpenInterest();
+
+	double preClosePrice();
+
+	double preSettlePrice();
+
+	double openPrice();
+
+	double highPrice();
+
+	double lowPrice();
+
+	double upperLimit();
+
+	double lowerLimit();
+
+	TickType type();
+
+	ChannelType channelType();
+}
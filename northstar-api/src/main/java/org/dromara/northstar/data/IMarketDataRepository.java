@@ -1,7 +1,10 @@
 package org.dromara.northstar.data;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.gateway.IContract;
@@ -19,6 +22,14 @@ public interface IMarketDataRepository {
 	 */
 	void insert(Bar bar);
 	
+	/**
+	 * 批量保存数据
+	 * @param bars
+	 */
+	default void insertAll(List<Bar> bars) {
+		bars.forEach(this::insert);
+	}
+	
 	/**
 	 * 加载历史行情分钟K线数据
 	 * @param unifiedSymbol
@@ -28,6 +39,21 @@ public interface IMarketDataRepository {
 	 */
 	List<Bar> loadBars(IContract contract, LocalDate startDate, LocalDate endDate);
 	
+	/**
+	 * 批量加载多个合约的历史行情分钟K线数据
+	 * @param contracts
+	 * @param startDate
+	 * @param endDate
+	 * @return	合约 -> K线数据，按传入顺序排列
+	 */
+	default Map<IContract, List<Bar>> loadBars(Collection<IContract> contracts, LocalDate startDate, LocalDate endDate) {
+		Map<IContract, List<Bar>> resultMap = new LinkedHashMap<>();
+		for(IContract contract : contracts) {
+			resultMap.put(contract, loadBars(contract, startDate, endDate));
+		}
+		return resultMap;
+	}
+	
 	
 	/**
 	 * 加载历史行情日K线数据
@@ -38,4 +64,10 @@ public interface IMarketDataRepository {
 	 */
 	List<Bar> loadDailyBars(IContract contract, LocalDate startDate, LocalDate endDate);
 	
+	/**
+	 * 移除过期数据
+	 * @param expiredBefore	过期时间（毫秒），早于该时间过期的数据被移除
+	 */
+	default void removeExpiredData(long expiredBefore) {}
+	
 }
@@ -5,6 +5,8 @@ import java.util.Optional;
 
 import org.dromara.northstar.common.TickDataAware;
 import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.event.FastEventEngine.TickTranslator;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.ContractDefinition;
 import org.dromara.northstar.common.model.core.Tick;
@@ -40,6 +42,16 @@ public interface IMarketCenter extends IContractManager, TickDataAware {
 	 */
 	void loadContractGroup(ChannelType channelType);
 	
+	/**
+	 * 以槽位方式更新行情，并发布TICK事件
+	 * 供有原生行情回调的网关使用：行情由translator直接写入可复用的 {@link TickSlot}，无需先构造TICK对象；
+	 * 与 {@link #onTick(Tick)} 不同，本方法同时负责发布TICK事件，网关不应再自行发布
+	 * @param <A>
+	 * @param translator
+	 * @param arg
+	 */
+	<A> void onTick(TickTranslator<A> translator, A arg);
+	
 	/**
 	 * 获取最近一个TICK数据
 	 * @param contract
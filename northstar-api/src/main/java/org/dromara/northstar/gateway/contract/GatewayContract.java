@@ -10,9 +10,11 @@ import org.dromara.northstar.common.event.NorthstarEventType;
 import org.dromara.northstar.common.model.Identifier;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
 import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.IMarketCenter;
 import org.dromara.northstar.gateway.Instrument;
+import org.dromara.northstar.gateway.mktdata.BarCloseSweeper;
 import org.dromara.northstar.gateway.mktdata.MinuteBarGenerator;
 
 import lombok.extern.slf4j.Slf4j;
@@ -35,11 +37,12 @@ public class GatewayContract implements IContract, TickDataAware{
 	
 	private IMarketCenter mktCenter;
 	
-	public GatewayContract(IMarketCenter mktCenter, FastEventEngine feEngine, Instrument ins) {
+	public GatewayContract(IMarketCenter mktCenter, FastEventEngine feEngine, Instrument ins, BarCloseSweeper barCloseSweeper) {
 		this.ins = ins;
 		this.mktCenter = mktCenter;
 		this.contract = ins.contract();
 		this.barGen = new MinuteBarGenerator(contract, bar -> feEngine.emitEvent(NorthstarEventType.BAR, bar));
+		barCloseSweeper.register(barGen);
 	}
 	
 	@Override
@@ -61,6 +64,15 @@ public class GatewayContract implements IContract, TickDataAware{
 
 	@Override
 	public void onTick(Tick tick) {
+		onTick((TickView) tick);
+	}
+	
+	/**
+	 * 更新行情
+	 * 行情可能是可复用的TickSlot，不持有其引用
+	 * @param tick
+	 */
+	public void onTick(TickView tick) {
 		barGen.update(tick);
 	}
 
@@ -14,8 +14,10 @@ import org.dromara.northstar.common.event.NorthstarEventType;
 import org.dromara.northstar.common.model.Identifier;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
 import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.mktdata.IndexTicker;
+import org.dromara.northstar.gateway.mktdata.BarCloseSweeper;
 import org.dromara.northstar.gateway.mktdata.MinuteBarGenerator;
 
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +44,7 @@ public class IndexContract implements IContract, TickDataAware{
 	
 	private final IDataSource dataSrc;
 	
-	public IndexContract(FastEventEngine feEngine, List<IContract> monthContracts) {
+	public IndexContract(FastEventEngine feEngine, List<IContract> monthContracts, BarCloseSweeper barCloseSweeper) {
 		this.monthContracts = monthContracts;
 		this.contract = makeIndexContractField(monthContracts.get(0).contract());
 		this.dataSrc = monthContracts.get(0).dataSource();
@@ -53,6 +55,7 @@ public class IndexContract implements IContract, TickDataAware{
 			feEngine.emitEvent(NorthstarEventType.TICK, t);
 			barGen.update(t);
 		});
+		barCloseSweeper.register(barGen);
 	}
 	
 	private Contract makeIndexContractField(Contract proto) {
@@ -107,6 +110,15 @@ public class IndexContract implements IContract, TickDataAware{
 	
 	@Override
 	public void onTick(Tick tick) {
+		onTick((TickView) tick);
+	}
+	
+	/**
+	 * 更新月份合约行情
+	 * 行情可能是可复用的TickSlot，不持有其引用
+	 * @param tick
+	 */
+	public void onTick(TickView tick) {
 		log.trace("{} 合约收到月份合约数据：{}", contract.unifiedSymbol(), tick.contract().unifiedSymbol());
 		ticker.update(tick);
 	}
@@ -0,0 +1,68 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.model.core.Contract;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * K线收盘巡检器
+ * 由市场中心持有，以固定节拍巡检所有分钟K线生成器，替代每个TICK重新登记的延时任务：
+ * 分钟结束后即使没有新TICK也会按时收盘；长时间没有TICK的K线则强制收盘
+ * @author agent
+ *
+ */
+/* 注意，本类的日志输出在logs/DEBUG/MarketData_*.log文件 */
+@Slf4j
+public class BarCloseSweeper {
+
+	private static final long DEFAULT_PERIOD_MILLIS = 1000;
+
+	/* 同一个合约重复登记时（如网关重连），新生成器替换旧生成器 */
+	private final ConcurrentMap<Contract, MinuteBarGenerator> generators = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService scheduler;
+
+	public BarCloseSweeper() {
+		this(DEFAULT_PERIOD_MILLIS);
+	}
+
+	public BarCloseSweeper(long periodMillis) {
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "BarCloseSweeper");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleAtFixedRate(() -> sweep(System.currentTimeMillis()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public void register(MinuteBarGenerator barGen) {
+		generators.put(barGen.contract(), barGen);
+	}
+
+	/**
+	 * 巡检一次
+	 * @param now	当前时间（毫秒）
+	 */
+	void sweep(long now) {
+		for(MinuteBarGenerator barGen : generators.values()) {
+			try {
+				barGen.sweep(now);
+			} catch (Exception e) {
+				log.error("[{}] K线收盘巡检异常", barGen.contract().unifiedSymbol(), e);
+			}
+		}
+	}
+
+	/**
+	 * 停止巡检线程，由市场中心在应用关闭时调用
+	 */
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
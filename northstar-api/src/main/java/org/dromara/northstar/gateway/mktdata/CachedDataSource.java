@@ -0,0 +1,522 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.dromara.northstar.common.IDataSource;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.DateTimeConstant;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.springframework.beans.factory.DisposableBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 带本地缓存的数据源
+ * 在任意数据源之前增加两级K线缓存，缓存键为（合约，周期，起止交易日）：
+ * 内存层按字节数限制容量，超出时淘汰最久未使用的数据；磁盘层以紧凑的二进制格式持久化，重启后无需重新下载，
+ * 同样按字节数限制容量，超出时删除最久未使用的缓存文件（以文件修改时间记录使用顺序，重启后仍然有效）。
+ * 只缓存已经完结的交易日范围；查询分钟数据后，会在后台预取该合约下一周的分钟数据
+ * @author agent
+ *
+ */
+@Slf4j
+public class CachedDataSource implements IDataSource, DisposableBean {
+
+	enum Period {
+		MINUTE, QUARTER, HOUR, DAY
+	}
+
+	record CacheKey(String unifiedSymbol, Period period, LocalDate startDate, LocalDate endDate) {}
+
+	private static final int MAGIC = 0x4E534443;	// NSDC
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 12;
+	private static final int ROW_BYTES = 128;
+	private static final int NULL_DATE = Integer.MIN_VALUE;
+	private static final long NULL_TIME = -1;
+
+	private final IDataSource delegate;
+
+	private final Path dir;
+
+	private final long maxHeapBytes;
+
+	private final long maxDiskBytes;
+
+	private final boolean prefetch;
+
+	/* 内存层，按访问顺序排列 */
+	private final LinkedHashMap<CacheKey, byte[]> heap = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long heapBytes;
+
+	/* 磁盘层的缓存文件及其大小，按访问顺序排列 */
+	private final LinkedHashMap<Path, Long> diskFiles = new LinkedHashMap<>(64, 0.75f, true);
+
+	private long diskBytes;
+
+	/* 进行中的查询，同一范围的前台查询与后台预取只向数据源请求一次 */
+	private final ConcurrentMap<CacheKey, CompletableFuture<byte[]>> loading = new ConcurrentHashMap<>();
+
+	private final ExecutorService prefetchExec = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "BarCachePrefetcher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * @param delegate		实际的数据源
+	 * @param dir			磁盘缓存目录
+	 * @param maxHeapBytes	内存层容量（字节）
+	 * @param maxDiskBytes	磁盘层容量（字节）
+	 * @param prefetch		是否在后台预取下一周的分钟数据
+	 */
+	public CachedDataSource(IDataSource delegate, Path dir, long maxHeapBytes, long maxDiskBytes, boolean prefetch) {
+		this.delegate = delegate;
+		this.dir = dir;
+		this.maxHeapBytes = maxHeapBytes;
+		this.maxDiskBytes = maxDiskBytes;
+		this.prefetch = prefetch;
+		indexDiskFiles();
+	}
+
+	/* 按修改时间登记已有的缓存文件，最早修改的排在最前 */
+	private void indexDiskFiles() {
+		if(!Files.isDirectory(dir)) {
+			return;
+		}
+		record CacheFile(Path path, long size, FileTime lastModified) {}
+		try(Stream<Path> paths = Files.walk(dir)) {
+			List<CacheFile> files = paths
+					.filter(p -> p.getFileName().toString().endsWith(".bar"))
+					.map(p -> {
+						try {
+							BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+							return new CacheFile(p, attrs.size(), attrs.lastModifiedTime());
+						} catch (IOException e) {
+							return null;
+						}
+					})
+					.filter(Objects::nonNull)
+					.sorted(Comparator.comparing(CacheFile::lastModified))
+					.toList();
+			synchronized (diskFiles) {
+				for(CacheFile f : files) {
+					diskFiles.put(f.path(), f.size());
+					diskBytes += f.size();
+				}
+				evictDiskFiles(null);
+			}
+		} catch (IOException e) {
+			log.warn("读取缓存目录失败：{}", dir, e);
+		}
+	}
+
+	@Override
+	public List<Bar> getMinutelyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+		List<Bar> bars = load(Period.MINUTE, contract, startDate, endDate);
+		if(prefetch) {
+			prefetchNextWeek(contract, endDate);
+		}
+		return bars;
+	}
+
+	@Override
+	public List<Bar> getQuarterlyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+		return load(Period.QUARTER, contract, startDate, endDate);
+	}
+
+	@Override
+	public List<Bar> getHourlyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+		return load(Period.HOUR, contract, startDate, endDate);
+	}
+
+	@Override
+	public List<Bar> getDailyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+		return load(Period.DAY, contract, startDate, endDate);
+	}
+
+	@Override
+	public List<LocalDate> getHolidays(ChannelType channelType, LocalDate startDate, LocalDate endDate) {
+		return delegate.getHolidays(channelType, startDate, endDate);
+	}
+
+	@Override
+	public List<Contract> getAllContracts() {
+		return delegate.getAllContracts();
+	}
+
+	private List<Bar> load(Period period, Contract contract, LocalDate startDate, LocalDate endDate) {
+		// 未完结的交易日数据仍会变化，不做缓存
+		if(!endDate.isBefore(LocalDate.now())) {
+			return query(period, contract, startDate, endDate);
+		}
+		CacheKey key = new CacheKey(contract.unifiedSymbol(), period, startDate, endDate);
+		byte[] data = lookup(key);
+		if(data != null) {
+			return decode(data, contract);
+		}
+		CompletableFuture<byte[]> future = new CompletableFuture<>();
+		CompletableFuture<byte[]> inProgress = loading.putIfAbsent(key, future);
+		if(inProgress != null) {
+			data = await(inProgress);
+			return data != null ? decode(data, contract) : query(period, contract, startDate, endDate);
+		}
+		try {
+			List<Bar> bars = query(period, contract, startDate, endDate);
+			future.complete(store(key, bars));
+			return bars;
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+
+	private List<Bar> query(Period period, Contract contract, LocalDate startDate, LocalDate endDate) {
+		return switch(period) {
+		case MINUTE -> delegate.getMinutelyData(contract, startDate, endDate);
+		case QUARTER -> delegate.getQuarterlyData(contract, startDate, endDate);
+		case HOUR -> delegate.getHourlyData(contract, startDate, endDate);
+		case DAY -> delegate.getDailyData(contract, startDate, endDate);
+		};
+	}
+
+	private static byte[] await(CompletableFuture<byte[]> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if(e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw e;
+		}
+	}
+
+	/* 与 DataSourceDataLoader 的按周切片方式一致，预取到下周日为止 */
+	private void prefetchNextWeek(Contract contract, LocalDate endDate) {
+		LocalDate start = endDate.plusDays(1);
+		LocalDate end = start.plusDays(7L - start.getDayOfWeek().getValue());
+		if(!end.isBefore(LocalDate.now())) {
+			return;
+		}
+		CacheKey key = new CacheKey(contract.unifiedSymbol(), Period.MINUTE, start, end);
+		if(loading.containsKey(key) || lookup(key) != null) {
+			return;
+		}
+		try {
+			prefetchExec.execute(() -> {
+				try {
+					load(Period.MINUTE, contract, start, end);
+				} catch (Exception e) {
+					log.warn("预取 [{}] {} ~ {} 的分钟数据失败", contract.unifiedSymbol(), start, end, e);
+				}
+			});
+		} catch (Exception e) {
+			log.debug("预取任务已停止", e);
+		}
+	}
+
+	private byte[] lookup(CacheKey key) {
+		Path file = fileOf(key);
+		byte[] data = heapGet(key);
+		if(data != null) {
+			diskTouch(file, false);
+			return data;
+		}
+		if(!Files.exists(file)) {
+			return null;
+		}
+		try {
+			data = Files.readAllBytes(file);
+			if(!isValid(data)) {
+				log.warn("缓存文件已损坏，将重新下载：{}", file);
+				Files.deleteIfExists(file);
+				diskRemove(file);
+				return null;
+			}
+			diskTouch(file, true);
+			heapPut(key, data);
+			return data;
+		} catch (NoSuchFileException e) {
+			// 文件刚好被淘汰
+			return null;
+		} catch (IOException e) {
+			log.warn("读取缓存文件失败：{}", file, e);
+			return null;
+		}
+	}
+
+	/* 空结果不缓存，以免把数据源的暂时异常持久化 */
+	private byte[] store(CacheKey key, List<Bar> bars) {
+		if(bars.isEmpty()) {
+			return null;
+		}
+		byte[] data = encode(bars);
+		if(data == null) {
+			return null;
+		}
+		heapPut(key, data);
+		Path file = fileOf(key);
+		try {
+			Files.createDirectories(file.getParent());
+			Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+			Files.write(tmp, data);
+			try {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			diskPut(file, data.length);
+		} catch (IOException e) {
+			log.warn("写入缓存文件失败：{}", file, e);
+		}
+		return data;
+	}
+
+	private Path fileOf(CacheKey key) {
+		return dir.resolve(key.unifiedSymbol()).resolve(String.format("%s_%s_%s.bar", key.period(),
+				key.startDate().format(DateTimeConstant.D_FORMAT_INT_FORMATTER), key.endDate().format(DateTimeConstant.D_FORMAT_INT_FORMATTER)));
+	}
+
+	private synchronized byte[] heapGet(CacheKey key) {
+		return heap.get(key);
+	}
+
+	private synchronized void heapPut(CacheKey key, byte[] data) {
+		if(data.length > maxHeapBytes) {
+			return;
+		}
+		byte[] prev = heap.put(key, data);
+		heapBytes += data.length - (prev == null ? 0 : prev.length);
+		Iterator<Entry<CacheKey, byte[]>> itEntry = heap.entrySet().iterator();
+		while(heapBytes > maxHeapBytes && itEntry.hasNext()) {
+			Entry<CacheKey, byte[]> eldest = itEntry.next();
+			heapBytes -= eldest.getValue().length;
+			itEntry.remove();
+		}
+	}
+
+	synchronized long heapBytes() {
+		return heapBytes;
+	}
+
+	/* 命中磁盘文件时同时更新其修改时间，使重启后仍能按使用顺序淘汰 */
+	private void diskTouch(Path file, boolean persist) {
+		synchronized (diskFiles) {
+			if(diskFiles.get(file) == null) {
+				return;
+			}
+		}
+		if(persist) {
+			try {
+				Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			} catch (IOException e) {
+				log.debug("更新缓存文件修改时间失败：{}", file, e);
+			}
+		}
+	}
+
+	private void diskPut(Path file, long size) {
+		synchronized (diskFiles) {
+			Long prev = diskFiles.put(file, size);
+			diskBytes += size - (prev == null ? 0 : prev);
+			evictDiskFiles(file);
+		}
+	}
+
+	private void diskRemove(Path file) {
+		synchronized (diskFiles) {
+			Long prev = diskFiles.remove(file);
+			diskBytes -= prev == null ? 0 : prev;
+		}
+	}
+
+	/* 删除最久未使用的缓存文件，直到磁盘层不超出容量；刚写入的文件除外 */
+	private void evictDiskFiles(Path keep) {
+		Iterator<Entry<Path, Long>> itEntry = diskFiles.entrySet().iterator();
+		while(diskBytes > maxDiskBytes && itEntry.hasNext()) {
+			Entry<Path, Long> eldest = itEntry.next();
+			if(eldest.getKey().equals(keep)) {
+				continue;
+			}
+			try {
+				Files.deleteIfExists(eldest.getKey());
+			} catch (IOException e) {
+				log.warn("删除缓存文件失败：{}", eldest.getKey(), e);
+				continue;
+			}
+			diskBytes -= eldest.getValue();
+			itEntry.remove();
+		}
+	}
+
+	long diskBytes() {
+		synchronized (diskFiles) {
+			return diskBytes;
+		}
+	}
+
+	/*
+	 * 文件格式（大端）：
+	 * 文件头：MAGIC、VERSION、行数，随后为网关ID与渠道类型（长度前缀的UTF-8字符串，长度为-1表示空值）
+	 * 每行128字节：归属日、归属时间、交易日、时间戳，以及13个价量字段
+	 * 同一批K线的网关ID与渠道类型不一致时不做缓存
+	 */
+	private static byte[] encode(List<Bar> bars) {
+		Bar first = bars.get(0);
+		for(Bar bar : bars) {
+			if(!Objects.equals(bar.gatewayId(), first.gatewayId()) || bar.channelType() != first.channelType()) {
+				return null;
+			}
+		}
+		byte[] gatewayId = bytesOf(first.gatewayId());
+		byte[] channelType = bytesOf(first.channelType() == null ? null : first.channelType().name());
+		ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + lengthOf(gatewayId) + lengthOf(channelType) + bars.size() * ROW_BYTES);
+		buf.putInt(MAGIC).putInt(VERSION).putInt(bars.size());
+		putBytes(buf, gatewayId);
+		putBytes(buf, channelType);
+		for(Bar bar : bars) {
+			buf.putInt(bar.actionDay() == null ? NULL_DATE : (int) bar.actionDay().toEpochDay());
+			buf.putLong(bar.actionTime() == null ? NULL_TIME : bar.actionTime().toNanoOfDay());
+			buf.putInt(bar.tradingDay() == null ? NULL_DATE : (int) bar.tradingDay().toEpochDay());
+			buf.putLong(bar.actionTimestamp());
+			buf.putDouble(bar.openPrice());
+			buf.putDouble(bar.highPrice());
+			buf.putDouble(bar.lowPrice());
+			buf.putDouble(bar.closePrice());
+			buf.putDouble(bar.openInterest());
+			buf.putDouble(bar.openInterestDelta());
+			buf.putLong(bar.volume());
+			buf.putLong(bar.volumeDelta());
+			buf.putDouble(bar.turnover());
+			buf.putDouble(bar.turnoverDelta());
+			buf.putDouble(bar.preOpenInterest());
+			buf.putDouble(bar.preClosePrice());
+			buf.putDouble(bar.preSettlePrice());
+		}
+		return buf.array();
+	}
+
+	private static List<Bar> decode(byte[] data, Contract contract) {
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		buf.position(8);
+		int count = buf.getInt();
+		String gatewayId = getString(buf);
+		String channelTypeName = getString(buf);
+		ChannelType channelType = channelTypeName == null ? null : ChannelType.valueOf(channelTypeName);
+		List<Bar> bars = new ArrayList<>(count);
+		for(int i=0; i<count; i++) {
+			int actionDay = buf.getInt();
+			long actionTime = buf.getLong();
+			int tradingDay = buf.getInt();
+			bars.add(Bar.builder()
+					.gatewayId(gatewayId)
+					.contract(contract)
+					.channelType(channelType)
+					.actionDay(actionDay == NULL_DATE ? null : LocalDate.ofEpochDay(actionDay))
+					.actionTime(actionTime == NULL_TIME ? null : LocalTime.ofNanoOfDay(actionTime))
+					.tradingDay(tradingDay == NULL_DATE ? null : LocalDate.ofEpochDay(tradingDay))
+					.actionTimestamp(buf.getLong())
+					.openPrice(buf.getDouble())
+					.highPrice(buf.getDouble())
+					.lowPrice(buf.getDouble())
+					.closePrice(buf.getDouble())
+					.openInterest(buf.getDouble())
+					.openInterestDelta(buf.getDouble())
+					.volume(buf.getLong())
+					.volumeDelta(buf.getLong())
+					.turnover(buf.getDouble())
+					.turnoverDelta(buf.getDouble())
+					.preOpenInterest(buf.getDouble())
+					.preClosePrice(buf.getDouble())
+					.preSettlePrice(buf.getDouble())
+					.build());
+		}
+		return bars;
+	}
+
+	private static boolean isValid(byte[] data) {
+		if(data.length < HEADER_BYTES + 4) {
+			return false;
+		}
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		if(buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+			return false;
+		}
+		int count = buf.getInt();
+		try {
+			getString(buf);
+			getString(buf);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			return false;
+		}
+		return count > 0 && buf.remaining() == (long) count * ROW_BYTES;
+	}
+
+	private static byte[] bytesOf(String s) {
+		return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int lengthOf(byte[] bytes) {
+		return 2 + (bytes == null ? 0 : bytes.length);
+	}
+
+	private static void putBytes(ByteBuffer buf, byte[] bytes) {
+		if(bytes == null) {
+			buf.putShort((short) -1);
+			return;
+		}
+		buf.putShort((short) bytes.length);
+		buf.put(bytes);
+	}
+
+	private static String getString(ByteBuffer buf) {
+		int len = buf.getShort();
+		if(len < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[len];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		prefetchExec.shutdownNow();
+		// 等待正在写入的缓存文件落盘，避免留下半截的临时文件
+		if(!prefetchExec.awaitTermination(5, TimeUnit.SECONDS)) {
+			log.warn("K线缓存预取线程未能及时退出");
+		}
+	}
+
+}
@@ -1,37 +1,76 @@
 package org.dromara.northstar.gateway.mktdata;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.RealMatrix;
 import org.dromara.northstar.common.constant.Constants;
 import org.dromara.northstar.common.constant.TickType;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
+import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.contract.IndexContract;
 
 import lombok.extern.slf4j.Slf4j;
 
-/* 注意，本类的日志输出在logs/DEBUG/MarketData_*.log文件 */
+/**
+ * 指数TICK生成器
+ * 每个成分合约占用一个固定槽位，成分TICK只以新值替换槽位旧值；合成指数TICK时按槽位求和，不产生临时对象。
+ * 求和的顺序与补偿求和算法均与原先基于矩阵的实现一致，因此合成结果（包括按最小变动价位截断取整的价格）逐位相同
+ *
+ * 注意，本类的日志输出在logs/DEBUG/MarketData_*.log文件
+ */
 @Slf4j
 public class IndexTicker {
 
+	private static final List<Double> ZERO_PRICES = List.of(Constants.ZERO_D, Constants.ZERO_D, Constants.ZERO_D, Constants.ZERO_D, Constants.ZERO_D);
+	private static final List<Integer> ZERO_VOLUMES = List.of(Constants.ZERO, Constants.ZERO, Constants.ZERO, Constants.ZERO, Constants.ZERO);
+
+	/* 加权价格的列：开、高、低、新、结算、昨收、昨结 */
+	private static final int OPEN = 0;
+	private static final int HIGH = 1;
+	private static final int LOW = 2;
+	private static final int LAST = 3;
+	private static final int SETTLE = 4;
+	private static final int PRE_CLOSE = 5;
+	private static final int PRE_SETTLE = 6;
+	private static final int NUM_OF_PRICES = 7;
+
 	private IndexContract idxContract;
-	
+
 	private Consumer<Tick> onTickCallback;
-	
-	private final Set<Contract> memberContracts;
-	
-	private ConcurrentHashMap<Contract, Tick> tickMap = new ConcurrentHashMap<>(20);
-	
+
+	private final Map<Contract, Integer> slotOfMember = new HashMap<>();
+
+	/* 已收到行情的成分合约，迭代顺序与原实现的 tickMap 一致，决定了求和顺序 */
+	private final ConcurrentHashMap<Contract, Integer> activeMembers = new ConcurrentHashMap<>(20);
+
+	/* 按求和顺序排列的活跃槽位 */
+	private int[] activeSlots = new int[0];
+
+	private final int numOfMembers;
+
+	private final double priceTick;
+
+	/* 各槽位最近一次的数值 */
+	private final double[] slotOpenInterests;
+	private final double[] slotOpenInterestDeltas;
+	private final double[] slotPreOpenInterests;
+	private final long[] slotVolumes;
+	private final long[] slotVolumeDeltas;
+	private final double[] slotTurnovers;
+	private final double[] slotTurnoverDeltas;
+	private final double[] slotPrices;				// 按槽位排列，每个槽位 NUM_OF_PRICES 列
+
+	/* 补偿求和的中间值 */
+	private final double[] summation = new double[3];
+
 	private long lastTickTimestamp = -1;
-	
+
 	private double lastPrice;
 	private double highPrice;
 	private double lowPrice;
@@ -46,34 +85,46 @@ public class IndexTicker {
 	private double preOpenInterest;
 	private double preSettlePrice;
 	private double settlePrice;
-	
+
 	private Tick lastIdxTick;
-	
+
 	public IndexTicker(IndexContract idxContract, Consumer<Tick> onTickCallback) {
 		this.idxContract = idxContract;
-		this.memberContracts = idxContract.memberContracts().stream().map(c -> c.contract()).collect(Collectors.toSet());
 		this.onTickCallback = onTickCallback;
+		this.priceTick = idxContract.contract().priceTick();
+		for(IContract c : idxContract.memberContracts()) {
+			slotOfMember.putIfAbsent(c.contract(), slotOfMember.size());
+		}
+		this.numOfMembers = slotOfMember.size();
+		this.slotOpenInterests = new double[numOfMembers];
+		this.slotOpenInterestDeltas = new double[numOfMembers];
+		this.slotPreOpenInterests = new double[numOfMembers];
+		this.slotVolumes = new long[numOfMembers];
+		this.slotVolumeDeltas = new long[numOfMembers];
+		this.slotTurnovers = new double[numOfMembers];
+		this.slotTurnoverDeltas = new double[numOfMembers];
+		this.slotPrices = new double[numOfMembers * NUM_OF_PRICES];
 	}
-	
+
 	private double activeRate() {
-		return (double) tickMap.size() / memberContracts.size();
+		return (double) activeSlots.length / numOfMembers;
 	}
 
-	public synchronized void update(Tick tick) {
-		if(!memberContracts.contains(tick.contract())) {
+	/* 成分合约可能同时由行情网关与模拟网关推送，因此保留同步；锁内只有对槽位的读写与求和，不产生临时对象 */
+	public synchronized void update(TickView tick) {
+		Integer slot = slotOfMember.get(tick.contract());
+		if(Objects.isNull(slot)) {
 			log.warn("[{}]指数TICK生成器，无法处理 [{}] 的行情数据", idxContract.contract().unifiedSymbol(), tick.contract().unifiedSymbol());
 			return;
 		}
 		if(log.isTraceEnabled()) {
-			log.trace("{}指数合成器收到TICK: {} {} {} {}", idxContract.contract().unifiedSymbol(), tick.contract().symbol(), 
+			log.trace("{}指数合成器收到TICK: {} {} {} {}", idxContract.contract().unifiedSymbol(), tick.contract().symbol(),
 					tick.actionDay(), tick.actionTime(), tick.actionTimestamp());
 		}
 		// 如果有过期的TICK数据(例如不活跃的合约),则并入下个K线
 		if (0 < lastTickTimestamp && lastTickTimestamp < tick.actionTimestamp()) {
 			boolean isReady = activeRate() > 0.7;
-			if(isReady) {					
-				final Double zeroD = Constants.ZERO_D;
-				final Integer zero = Constants.ZERO;
+			if(isReady) {
 				//进行运算
 				calculate();
 				lastIdxTick = Tick.builder()
@@ -97,110 +148,132 @@ public class IndexTicker {
 						.preOpenInterest(preOpenInterest)
 						.preSettlePrice(preSettlePrice)
 						.settlePrice(settlePrice)
-						.askPrice(List.of(zeroD,zeroD,zeroD,zeroD,zeroD))
-						.bidPrice(List.of(zeroD,zeroD,zeroD,zeroD,zeroD))
-						.askVolume(List.of(zero,zero,zero,zero,zero))
-						.bidVolume(List.of(zero,zero,zero,zero,zero))
+						.askPrice(ZERO_PRICES)
+						.bidPrice(ZERO_PRICES)
+						.askVolume(ZERO_VOLUMES)
+						.bidVolume(ZERO_VOLUMES)
 						.type(tick.type())
 						.channelType(tick.channelType())
 						.build();
 				onTickCallback.accept(lastIdxTick);
 			} else {
-				log.debug("{}因月份数据不足，未达到指数合成条件，忽略指数TICK合成计算：当前合约数[{}]，总合约数[{}]，活跃率[{}]", 
-						idxContract.contract().unifiedSymbol(), tickMap.size(), memberContracts.size(), activeRate());
+				log.debug("{}因月份数据不足，未达到指数合成条件，忽略指数TICK合成计算：当前合约数[{}]，总合约数[{}]，活跃率[{}]",
+						idxContract.contract().unifiedSymbol(), activeSlots.length, numOfMembers, activeRate());
 			}
 		}
-		if(tick.type() == TickType.MARKET_TICK && tick.actionTimestamp() > lastTickTimestamp) {			
+		if(tick.type() == TickType.MARKET_TICK && tick.actionTimestamp() > lastTickTimestamp) {
 			lastTickTimestamp = tick.actionTimestamp();
 		}
 		// 同一个指数Tick
-		tickMap.compute(tick.contract(), (k, v) -> tick);
+		replace(tick.contract(), slot, tick);
 	}
-	
-	private void calculate() {
-		List<Tick> ticks = tickMap.values().stream().toList();
-		RealMatrix priceMat = matrixOf(ticks);
-		RealMatrix oiWeight = oiWeighted(priceMat);
-		RealMatrix bcResult = new Array2DRowRealMatrix(priceMat.getRowDimension(), priceMat.getColumnDimension());
-		for(int i=0; i<priceMat.getRowDimension(); i++) {
-			double scalar = oiWeight.getEntry(i, 0);
-			bcResult.setRow(i, priceMat.getRowMatrix(i).scalarMultiply(scalar).getRow(0));
+
+	/* 以新TICK替换槽位的旧值 */
+	private void replace(Contract contract, int slot, TickView tick) {
+		if(Objects.isNull(activeMembers.putIfAbsent(contract, slot))) {
+			int[] slots = new int[activeMembers.size()];
+			int i = 0;
+			for(int s : activeMembers.values()) {
+				slots[i++] = s;
+			}
+			activeSlots = slots;
 		}
-		
-		preOpenInterest = DoubleStream.of(priceMat.getColumn(13)).sum();
-		
+		slotOpenInterests[slot] = tick.openInterest();
+		slotOpenInterestDeltas[slot] = tick.openInterestDelta();
+		slotPreOpenInterests[slot] = tick.preOpenInterest();
+		slotVolumes[slot] = tick.volume();
+		slotVolumeDeltas[slot] = tick.volumeDelta();
+		slotTurnovers[slot] = tick.turnover();
+		slotTurnoverDeltas[slot] = tick.turnoverDelta();
+		int base = slot * NUM_OF_PRICES;
+		slotPrices[base + OPEN] = tick.openPrice();
+		slotPrices[base + HIGH] = tick.highPrice();
+		slotPrices[base + LOW] = tick.lowPrice();
+		slotPrices[base + LAST] = tick.lastPrice();
+		slotPrices[base + SETTLE] = tick.settlePrice();
+		slotPrices[base + PRE_CLOSE] = tick.preClosePrice();
+		slotPrices[base + PRE_SETTLE] = tick.preSettlePrice();
+	}
+
+	private void calculate() {
+		preOpenInterest = sumOf(slotPreOpenInterests);
+
 		// 合计持仓量
-		totalOpenInterest = DoubleStream.of(priceMat.getColumn(0)).sum();
-		totalOpenInterestDelta = Objects.nonNull(lastIdxTick) ? totalOpenInterest - lastIdxTick.openInterest() : DoubleStream.of(priceMat.getColumn(12)).sum();
-		
+		totalOpenInterest = sumOf(slotOpenInterests);
+		totalOpenInterestDelta = Objects.nonNull(lastIdxTick) ? totalOpenInterest - lastIdxTick.openInterest() : sumOf(slotOpenInterestDeltas);
+
 		// 合计成交量
-		totalVolume = (long) DoubleStream.of(priceMat.getColumn(8)).sum();
-		totalVolumeDelta = Objects.nonNull(lastIdxTick) ? totalVolume - lastIdxTick.volume() : (long) DoubleStream.of(priceMat.getColumn(9)).sum();
+		totalVolume = (long) sumOf(slotVolumes);
+		totalVolumeDelta = Objects.nonNull(lastIdxTick) ? totalVolume - lastIdxTick.volume() : (long) sumOf(slotVolumeDeltas);
 		// 合计成交额
-		totalTurnover = (long) DoubleStream.of(priceMat.getColumn(10)).sum();
-		totalTurnoverDelta = Objects.nonNull(lastIdxTick) ? totalTurnover - lastIdxTick.turnover() : (long) DoubleStream.of(priceMat.getColumn(11)).sum();
-		
-		openPrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(1)).sum());
-		highPrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(2)).sum());
-		lowPrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(3)).sum());
-		lastPrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(4)).sum());
-		settlePrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(5)).sum());
-		preClose = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(6)).sum());
-		preSettlePrice = roundWithPriceTick(DoubleStream.of(bcResult.getColumn(7)).sum());
-		
+		totalTurnover = (long) sumOf(slotTurnovers);
+		totalTurnoverDelta = Objects.nonNull(lastIdxTick) ? totalTurnover - lastIdxTick.turnover() : (long) sumOf(slotTurnoverDeltas);
+
+		// 持仓量加权价格
+		openPrice = roundWithPriceTick(weightedPriceOf(OPEN));
+		highPrice = roundWithPriceTick(weightedPriceOf(HIGH));
+		lowPrice = roundWithPriceTick(weightedPriceOf(LOW));
+		lastPrice = roundWithPriceTick(weightedPriceOf(LAST));
+		settlePrice = roundWithPriceTick(weightedPriceOf(SETTLE));
+		preClose = roundWithPriceTick(weightedPriceOf(PRE_CLOSE));
+		preSettlePrice = roundWithPriceTick(weightedPriceOf(PRE_SETTLE));
+	}
+
+	/* 与原实现相同：先把持仓量归一化为权重，再对 价格×权重 求和 */
+	private double weightedPriceOf(int col) {
+		beginSum();
+		for(int slot : activeSlots) {
+			addToSum(slotPrices[slot * NUM_OF_PRICES + col] * (slotOpenInterests[slot] / totalOpenInterest));
+		}
+		return endSum();
 	}
-	
-	private RealMatrix matrixOf(List<Tick> ticks) {
-	    int numFeatures = 14; // Open Interest, Open, High, Low, Last, Settle, Pre-Close, Pre-Settle prices
-	    int numTicks = ticks.size();
-
-	    // 创建一个空的矩阵
-	    RealMatrix tickMatrix = new Array2DRowRealMatrix(numTicks, numFeatures);
-
-	    // 填充矩阵
-	    for (int i = 0; i < numTicks; i++) {
-	        tickMatrix.setRow(i, vectorize(ticks.get(i)));
-	    }
-	    return tickMatrix;
+
+	private double sumOf(double[] values) {
+		beginSum();
+		for(int slot : activeSlots) {
+			addToSum(values[slot]);
+		}
+		return endSum();
+	}
+
+	private double sumOf(long[] values) {
+		beginSum();
+		for(int slot : activeSlots) {
+			addToSum(values[slot]);
+		}
+		return endSum();
 	}
 
-	private double[] vectorize(Tick t) {
-	    return new double[] {
-	        t.openInterest(),			// 0
-	        t.openPrice(),				
-	        t.highPrice(),				// 2
-	        t.lowPrice(),
-	        t.lastPrice(),				// 4
-	        t.settlePrice(),
-	        t.preClosePrice(),			// 6
-	        t.preSettlePrice(),			
-	        t.volume(),					// 8
-	        t.volumeDelta(),
-	        t.turnover(),				// 10
-	        t.turnoverDelta(),
-	        t.openInterestDelta(),		// 12
-	        t.preOpenInterest()
-	    };
+	/* 补偿求和，算法与 DoubleStream.sum() 相同 */
+	private void beginSum() {
+		summation[0] = 0;
+		summation[1] = 0;
+		summation[2] = 0;
 	}
 
-	private RealMatrix oiWeighted(RealMatrix matrix) {
-	    RealMatrix oi = matrix.getColumnMatrix(0); // 获取第一列
-	    
-	    double sumOI = DoubleStream.of(oi.getColumn(0)).sum();
-	    for (int i = 0; i < oi.getRowDimension(); i++) {
-	        oi.setEntry(i, 0, oi.getEntry(i, 0) / sumOI);
-	    }
-	    return oi;
+	private void addToSum(double value) {
+		double tmp = value - summation[1];
+		double sum = summation[0];
+		double velvel = sum + tmp;
+		summation[1] = (velvel - sum) - tmp;
+		summation[0] = velvel;
+		summation[2] += value;
+	}
+
+	private double endSum() {
+		double tmp = summation[0] - summation[1];
+		double simpleSum = summation[2];
+		return Double.isNaN(tmp) && Double.isInfinite(simpleSum) ? simpleSum : tmp;
 	}
 
 	//四舍五入处理
 	private double roundWithPriceTick(double weightedPrice) {
 		int enlargePrice = (int) (weightedPrice * 1000);
-		int enlargePriceTick = (int) (idxContract.contract().priceTick() * 1000);
+		int enlargePriceTick = (int) (priceTick * 1000);
 		int numOfTicks = enlargePrice / enlargePriceTick;
 		int tickCarry = (enlargePrice % enlargePriceTick) < (enlargePriceTick / 2) ? 0 : 1;
-		  
-		return  idxContract.contract().priceTick() * (numOfTicks + tickCarry);
+
+		return  priceTick * (numOfTicks + tickCarry);
 	}
-	
+
 }
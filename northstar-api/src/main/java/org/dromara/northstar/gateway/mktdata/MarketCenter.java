@@ -14,15 +14,17 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
-import org.dromara.northstar.common.TickDataAware;
 import org.dromara.northstar.common.constant.ChannelType;
 import org.dromara.northstar.common.constant.Constants;
 import org.dromara.northstar.common.event.FastEventEngine;
+import org.dromara.northstar.common.event.FastEventEngine.TickTranslator;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.exception.NoSuchElementException;
 import org.dromara.northstar.common.model.Identifier;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.ContractDefinition;
 import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
 import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.IMarketCenter;
 import org.dromara.northstar.gateway.Instrument;
@@ -65,10 +67,15 @@ public class MarketCenter implements IMarketCenter{
 	
 	private final Map<ChannelType, MarketGateway> gatewayMap = new EnumMap<>(ChannelType.class);
 	
-	private final ConcurrentMap<Contract, Tick> tickMap = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Contract, LastTick> tickMap = new ConcurrentHashMap<>();
+	
+	/* 以槽位方式写入行情时，各网关线程各自使用的暂存槽位 */
+	private final ThreadLocal<TickSlot> scratchSlot = ThreadLocal.withInitial(TickSlot::new);
 	
 	private final FastEventEngine feEngine;
 	
+	private final BarCloseSweeper barCloseSweeper = new BarCloseSweeper();
+	
 	private Set<ChannelType> loadedGroupOfChannel = new HashSet<>();
 	
 	public MarketCenter(FastEventEngine feEngine) {
@@ -98,7 +105,7 @@ public class MarketCenter implements IMarketCenter{
 			.ifPresent(def -> {
 				log.debug("[{}] 匹配合约定义 [{} {} {}]", ins.identifier().value(), def.exchange(), def.productClass(), def.symbolPattern().pattern());
 				ins.setContractDefinition(def);
-				IContract contract = new GatewayContract(this, feEngine, ins);
+				IContract contract = new GatewayContract(this, feEngine, ins, barCloseSweeper);
 				contractMap.put(ins.identifier(), contract);
 				
 				if(!channelDefContractGroups.contains(ins.channelType(), def)) {					
@@ -183,7 +190,7 @@ public class MarketCenter implements IMarketCenter{
 			if(e.getKey().productClass() != ProductClassEnum.FUTURES) {
 				continue;
 			}
-			IndexContract c = new IndexContract(feEngine, e.getValue());
+			IndexContract c = new IndexContract(feEngine, e.getValue(), barCloseSweeper);
 			contractMap.put(c.identifier(), c);
 			for(IContract memberContract : c.memberContracts()) {
 				idxContractMap.put(memberContract, c);
@@ -254,19 +261,38 @@ public class MarketCenter implements IMarketCenter{
 	@Override
 	public void onTick(Tick tick) {
 		// 避免同一个TICK进入两次
-		if(tickMap.containsKey(tick.contract()) && tickMap.get(tick.contract()) == tick) {
+		if(!tickMap.computeIfAbsent(tick.contract(), c -> new LastTick()).update(tick)) {
 			return; 
 		}
-		tickMap.put(tick.contract(), tick);
-		
+		dispatch(tick);
+	}
+	
+	/**
+	 * 以槽位方式更新行情并发布TICK事件
+	 * 行情先写入当前线程的暂存槽位，K线与指数合成直接读取该槽位，再复制进事件引擎预分配的槽位发布；
+	 * 最近一个TICK在查询时才复制成TICK对象，因此整个过程不分配对象
+	 */
+	@Override
+	public <A> void onTick(TickTranslator<A> translator, A arg) {
+		TickSlot tick = scratchSlot.get();
+		tick.clear();
+		translator.translateTo(tick, arg);
+		tickMap.computeIfAbsent(tick.contract(), c -> new LastTick()).update(tick);
+		dispatch(tick);
+		feEngine.emitTick(TickSlot::copyFrom, tick);
+	}
+	
+	private void dispatch(TickView tick) {
 		if(tick.contract().unifiedSymbol().contains(Constants.INDEX_SUFFIX)) {
 			return; // 直接忽略指数TICK的后续处理
 		}
 		
 		// 更新普通合约
 		IContract contract = getContract(tick.channelType(), tick.contract().unifiedSymbol());
-		if(contract instanceof TickDataAware tdAware) {
-			tdAware.onTick(tick);
+		switch(contract) {
+			case GatewayContract gc -> gc.onTick(tick);
+			case IndexContract ic -> ic.onTick(tick);
+			default -> {}
 		}
 		
 		// 更新指数合约
@@ -294,7 +320,44 @@ public class MarketCenter implements IMarketCenter{
 
 	@Override
 	public Optional<Tick> lastTick(Contract contract) {
-		return Optional.ofNullable(tickMap.get(contract));
+		LastTick last = tickMap.get(contract);
+		return Objects.isNull(last) ? Optional.empty() : Optional.ofNullable(last.get());
+	}
+	
+	/**
+	 * 停止K线收盘巡检
+	 */
+	public void shutdown() {
+		barCloseSweeper.shutdown();
+	}
+	
+	/* 合约最近一个TICK：TICK对象直接保存；以槽位方式写入的行情复制到预分配的槽位，查询时才复制成TICK对象 */
+	private static class LastTick {
+		
+		private final TickSlot slot = new TickSlot();
+		
+		private Tick tick;
+		
+		/* 同一个TICK对象再次进入时返回false */
+		synchronized boolean update(Tick tick) {
+			if(this.tick == tick) {
+				return false;
+			}
+			this.tick = tick;
+			return true;
+		}
+		
+		synchronized void update(TickSlot src) {
+			slot.copyFrom(src);
+			tick = null;
+		}
+		
+		synchronized Tick get() {
+			if(Objects.isNull(tick) && Objects.nonNull(slot.contract())) {
+				tick = slot.toTick();
+			}
+			return tick;
+		}
 	}
 
 }
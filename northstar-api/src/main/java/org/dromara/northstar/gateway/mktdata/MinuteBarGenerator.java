@@ -2,14 +2,14 @@ package org.dromara.northstar.gateway.mktdata;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Contract;
-import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TickView;
 import org.dromara.northstar.common.utils.CommonUtils;
 
 import lombok.extern.slf4j.Slf4j;
@@ -18,12 +18,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class MinuteBarGenerator {
 	
+	/* 超过该时长没有TICK的K线会被强制收盘 */
+	private static final long STALE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+	/* 分钟结束后，等待迟到TICK的时长 */
+	private static final long BAR_END_GRACE_MILLIS = 2000;
+	
 	private Long cutoffTime;
 	private LocalDateTime cutoffDT;
 	
 	private Contract contract;
 	
-	private Tick curTick;
+	/* 入参可能是可复用的TickSlot，因此复制保存最近一个TICK */
+	private final TickSlot curTick = new TickSlot();
 	
 	private Consumer<Bar> onBarCallback;
 	
@@ -35,21 +41,17 @@ public class MinuteBarGenerator {
 	private double openInterestDelta;
 	private double turnoverDelta;
 	
-	private CompletableFuture<Void> asyncCheck;
-	
-	private Runnable forceCloseBar = () -> {
-		synchronized(MinuteBarGenerator.this) {			
-			if(curTick != null && System.currentTimeMillis() - curTick.actionTimestamp() > TimeUnit.MINUTES.toMillis(2)) {
-				log.debug("强制K线收盘：{}", contract.name());
-				finishOfBar();
-			}
-		}
-	};
+	/* TICK计数，巡检时据此判断是否仍有TICK到达 */
+	private long numOfUpdates;
+	private long numOfUpdatesSwept;
+	private long lastActiveTime;
+	/* 观察到的行情时间相对本地时间的滞后（含时钟偏差），用于按行情时钟判断分钟是否结束 */
+	private long feedLag;
 	
 	/**
 	 * 用于实盘数据
+	 * 需要登记到 {@link BarCloseSweeper} 才会在分钟结束时收盘及强制收盘
 	 * @param contract
-	 * @param tradeTimeDefinition
 	 * @param onBarCallback
 	 */
 	public MinuteBarGenerator(Contract contract, Consumer<Bar> onBarCallback) {
@@ -62,7 +64,7 @@ public class MinuteBarGenerator {
 	 * 
 	 * @param tick
 	 */
-	public synchronized void update(Tick tick) {
+	public synchronized void update(TickView tick) {
 		// 如果tick为空或者合约不匹配则返回
 		if (tick == null) {
 			log.trace("TICK数据为空，将被忽略");
@@ -81,7 +83,7 @@ public class MinuteBarGenerator {
 			return;
 		}
 		
-		curTick = tick;
+		curTick.copyFrom(tick);
 		
 		if(Objects.nonNull(cutoffTime) && cutoffTime < tick.actionTimestamp()) {
 			finishOfBar();
@@ -103,12 +105,38 @@ public class MinuteBarGenerator {
 		openInterestDelta += tick.openInterestDelta();
 		volumeDelta += tick.volumeDelta();
 		turnoverDelta += tick.turnoverDelta();
-		
-		if(asyncCheck != null) {			
-			asyncCheck.cancel(false);
+		numOfUpdates++;
+	}
+	
+	/**
+	 * 由巡检器定期调用
+	 * 实时行情下，K线在分钟结束（按行情时钟，另留2秒等待迟到TICK）后收盘，不必等下一分钟的TICK；超过2分钟没有TICK的K线强制收盘
+	 * @param now	当前时间（毫秒）
+	 */
+	synchronized void sweep(long now) {
+		if(Objects.isNull(cutoffTime)) {
+			return;
+		}
+		long tickAge = now - curTick.actionTimestamp();
+		if(numOfUpdates != numOfUpdatesSwept) {
+			numOfUpdatesSwept = numOfUpdates;
+			lastActiveTime = now;
+			feedLag = tickAge;
+		}
+		// 仅对实时行情生效，回放的历史行情不受影响；以行情时钟判断，本地时钟偏快时不会提前收盘
+		if(tickAge < STALE_MILLIS && now - feedLag >= cutoffTime + BAR_END_GRACE_MILLIS) {
+			log.debug("分钟结束，K线收盘：{}", contract.name());
+			finishOfBar();
+			return;
 		}
-		// 2分钟后检查
-		asyncCheck = CompletableFuture.runAsync(forceCloseBar, CompletableFuture.delayedExecutor(2, TimeUnit.MINUTES));
+		if(now - lastActiveTime >= STALE_MILLIS && tickAge > STALE_MILLIS) {
+			log.debug("强制K线收盘：{}", contract.name());
+			finishOfBar();
+		}
+	}
+	
+	Contract contract() {
+		return contract;
 	}
 	
 	/**
@@ -1,18 +1,14 @@
 package org.dromara.northstar.gateway.mktdata;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 
 import org.dromara.northstar.common.IDataSource;
 import org.dromara.northstar.common.constant.ChannelType;
-import org.dromara.northstar.common.constant.Constants;
 import org.dromara.northstar.common.constant.DateTimeConstant;
 import org.dromara.northstar.common.model.ResultSet;
 import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Contract;
-import org.dromara.northstar.common.utils.CommonUtils;
 import org.springframework.util.Assert;
 
 import xyz.redtorch.pb.CoreEnum.CurrencyEnum;
@@ -49,64 +45,12 @@ public class NorthstarDataSource implements IDataSource{
 	}
 	
 	private List<Bar> convertMinuteData(ResultSet rs, Contract contract){
-		return rs.toJSONList().stream()
-				.map(json -> Bar.builder()
-						.actionDay(LocalDate.parse(json.getString("trade_time").substring(0, 10)))
-						.actionTime(LocalTime.parse(json.getString("trade_time").substring(11)))
-						.actionTimestamp(CommonUtils.localDateTimeToMills(LocalDateTime.parse(json.getString("trade_time"), DateTimeConstant.DT_FORMAT_FORMATTER)))
-						.tradingDay(LocalDate.parse(json.getString("trading_day")))
-						.channelType(contract.channelType())
-						.gatewayId(contract.channelType() + "")
-						.contract(contract)
-						.openPrice(indexContractPriceEnhance(contract, json.getDoubleValue("open")))
-						.closePrice(indexContractPriceEnhance(contract, json.getDoubleValue("close")))
-						.highPrice(indexContractPriceEnhance(contract, json.getDoubleValue("high")))
-						.lowPrice(indexContractPriceEnhance(contract, json.getDoubleValue("low")))
-						.openInterest(json.getDoubleValue("oi"))
-						.openInterestDelta(json.getDoubleValue("oi_delta"))
-						.volume(json.getLongValue("vol"))
-						.volumeDelta(json.getLongValue("vol_delta"))
-						.turnover(json.getDoubleValue("amount"))
-						.turnoverDelta(json.getDoubleValue("amount_delta"))
-						.preOpenInterest(json.getDoubleValue("pre_oi"))
-						.build())
-				.toList();
-	}
-	
-	private double indexContractPriceEnhance(Contract contract, double price) {
-		if(!contract.symbol().contains(Constants.INDEX_SUFFIX)) {
-			return price;
-		}
-		int numOfPriceTickInPrice = (int)(price * 1000) / (int)(contract.priceTick() * 1000);
-		return numOfPriceTickInPrice * contract.priceTick();
+		return new ResultSetBarDecoder(contract).decodeMinuteBars(rs);
 	}
 
 	@Override
 	public List<Bar> getDailyData(Contract contract, LocalDate startDate, LocalDate endDate) {
-		return dataService.getDailyData(contract.unifiedSymbol(), startDate, endDate)
-				.toJSONList()
-				.stream()
-				.map(json -> Bar.builder()
-						.actionDay(LocalDate.parse(json.getString("trade_date"), DateTimeConstant.D_FORMAT_INT_FORMATTER))
-						.tradingDay(LocalDate.parse(json.getString("trade_date"), DateTimeConstant.D_FORMAT_INT_FORMATTER))
-						.channelType(contract.channelType())
-						.gatewayId(contract.channelType() + "")
-						.contract(contract)
-						.openPrice(indexContractPriceEnhance(contract, json.getDoubleValue("open")))
-						.closePrice(indexContractPriceEnhance(contract, json.getDoubleValue("close")))
-						.highPrice(indexContractPriceEnhance(contract, json.getDoubleValue("high")))
-						.lowPrice(indexContractPriceEnhance(contract, json.getDoubleValue("low")))
-						.openInterest(json.getDoubleValue("oi"))
-						.openInterestDelta(json.getDoubleValue("oi_chg"))
-						.volume(json.getLongValue("vol"))
-						.volumeDelta(json.getLongValue("vol"))
-						.turnover(json.getDoubleValue("amount"))
-						.turnoverDelta(json.getDoubleValue("amount"))
-						.preOpenInterest(json.getDoubleValue("pre_oi"))
-						.preClosePrice(indexContractPriceEnhance(contract, json.getDoubleValue("pre_close")))
-						.preSettlePrice(json.getDoubleValue("pre_settle"))
-						.build())
-				.toList();
+		return new ResultSetBarDecoder(contract).decodeDailyBars(dataService.getDailyData(contract.unifiedSymbol(), startDate, endDate));
 	}
 
 	@Override
@@ -0,0 +1,290 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dromara.northstar.common.constant.Constants;
+import org.dromara.northstar.common.constant.DateTimeConstant;
+import org.dromara.northstar.common.model.ResultSet;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+
+/**
+ * 数据源结果集的K线解码器
+ * 每个结果集只解析一次字段位置，直接从字符串数组解析数值与日期，不再逐行生成 JSONObject。
+ * 日期按字典缓存，时间戳按本次解码时的时区偏移计算。数值与日期的解析结果与 JSONObject 取值方式一致，
+ * 非标准格式的日期时间回退到原有的解析方式
+ * @author agent
+ *
+ */
+final class ResultSetBarDecoder {
+
+	private final Contract contract;
+
+	private final String gatewayId;
+
+	private final boolean isIndexContract;
+
+	/* 日期字符串 -> 日期 */
+	private final Map<String, LocalDate> dateDict = new HashMap<>();
+
+	/* 最近一次解析的行情日期，结果集按时间排列，绝大多数行可直接复用 */
+	private int lastDateKey = -1;
+	private LocalDate lastDate;
+
+	private final long offsetSeconds = OffsetDateTime.now().getOffset().getTotalSeconds();
+
+	ResultSetBarDecoder(Contract contract) {
+		this.contract = contract;
+		this.gatewayId = contract.channelType() + "";
+		this.isIndexContract = contract.symbol() != null && contract.symbol().contains(Constants.INDEX_SUFFIX);
+	}
+
+	/**
+	 * 解码分钟级（分钟、季度、小时）K线
+	 */
+	List<Bar> decodeMinuteBars(ResultSet rs) {
+		String[] fields = rs.getFields();
+		int tradeTime = indexOf(fields, "trade_time");
+		int tradingDay = indexOf(fields, "trading_day");
+		int open = indexOf(fields, "open");
+		int close = indexOf(fields, "close");
+		int high = indexOf(fields, "high");
+		int low = indexOf(fields, "low");
+		int oi = indexOf(fields, "oi");
+		int oiDelta = indexOf(fields, "oi_delta");
+		int vol = indexOf(fields, "vol");
+		int volDelta = indexOf(fields, "vol_delta");
+		int amount = indexOf(fields, "amount");
+		int amountDelta = indexOf(fields, "amount_delta");
+		int preOi = indexOf(fields, "pre_oi");
+
+		String[][] items = rs.getItems();
+		List<Bar> bars = new ArrayList<>(items.length);
+		for(String[] row : items) {
+			String dateTime = value(row, tradeTime);
+			LocalDate actionDay;
+			LocalTime actionTime;
+			if(isStandardDateTime(dateTime)) {
+				actionDay = actionDayOf(dateTime);
+				actionTime = LocalTime.of(digits(dateTime, 11, 2), digits(dateTime, 14, 2), digits(dateTime, 17, 2));
+			} else {
+				actionDay = LocalDate.parse(dateTime.substring(0, 10));
+				actionTime = LocalTime.parse(dateTime.substring(11));
+				// 与原有解析方式一致，非标准格式在此抛出异常
+				LocalDateTime.parse(dateTime, DateTimeConstant.DT_FORMAT_FORMATTER);
+			}
+			bars.add(Bar.builder()
+					.actionDay(actionDay)
+					.actionTime(actionTime)
+					.actionTimestamp((actionDay.toEpochDay() * 86400 + actionTime.toSecondOfDay() - offsetSeconds) * 1000)
+					.tradingDay(isoDateOf(value(row, tradingDay)))
+					.channelType(contract.channelType())
+					.gatewayId(gatewayId)
+					.contract(contract)
+					.openPrice(priceOf(value(row, open)))
+					.closePrice(priceOf(value(row, close)))
+					.highPrice(priceOf(value(row, high)))
+					.lowPrice(priceOf(value(row, low)))
+					.openInterest(doubleOf(value(row, oi)))
+					.openInterestDelta(doubleOf(value(row, oiDelta)))
+					.volume(longOf(value(row, vol)))
+					.volumeDelta(longOf(value(row, volDelta)))
+					.turnover(doubleOf(value(row, amount)))
+					.turnoverDelta(doubleOf(value(row, amountDelta)))
+					.preOpenInterest(doubleOf(value(row, preOi)))
+					.build());
+		}
+		return bars;
+	}
+
+	/**
+	 * 解码日K线
+	 */
+	List<Bar> decodeDailyBars(ResultSet rs) {
+		String[] fields = rs.getFields();
+		int tradeDate = indexOf(fields, "trade_date");
+		int open = indexOf(fields, "open");
+		int close = indexOf(fields, "close");
+		int high = indexOf(fields, "high");
+		int low = indexOf(fields, "low");
+		int oi = indexOf(fields, "oi");
+		int oiChg = indexOf(fields, "oi_chg");
+		int vol = indexOf(fields, "vol");
+		int amount = indexOf(fields, "amount");
+		int preOi = indexOf(fields, "pre_oi");
+		int preClose = indexOf(fields, "pre_close");
+		int preSettle = indexOf(fields, "pre_settle");
+
+		String[][] items = rs.getItems();
+		List<Bar> bars = new ArrayList<>(items.length);
+		for(String[] row : items) {
+			LocalDate date = intDateOf(value(row, tradeDate));
+			long volume = longOf(value(row, vol));
+			double turnover = doubleOf(value(row, amount));
+			bars.add(Bar.builder()
+					.actionDay(date)
+					.tradingDay(date)
+					.channelType(contract.channelType())
+					.gatewayId(gatewayId)
+					.contract(contract)
+					.openPrice(priceOf(value(row, open)))
+					.closePrice(priceOf(value(row, close)))
+					.highPrice(priceOf(value(row, high)))
+					.lowPrice(priceOf(value(row, low)))
+					.openInterest(doubleOf(value(row, oi)))
+					.openInterestDelta(doubleOf(value(row, oiChg)))
+					.volume(volume)
+					.volumeDelta(volume)
+					.turnover(turnover)
+					.turnoverDelta(turnover)
+					.preOpenInterest(doubleOf(value(row, preOi)))
+					.preClosePrice(priceOf(value(row, preClose)))
+					.preSettlePrice(doubleOf(value(row, preSettle)))
+					.build());
+		}
+		return bars;
+	}
+
+	/* 缺失的字段视为空值 */
+	private static int indexOf(String[] fields, String fieldName) {
+		for(int i=0; i<fields.length; i++) {
+			if(fieldName.equals(fields[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String value(String[] row, int idx) {
+		return idx < 0 ? null : row[idx];
+	}
+
+	/* yyyy-MM-dd HH:mm:ss */
+	private static boolean isStandardDateTime(String s) {
+		if(s == null || s.length() != 19 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != ' ' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+			return false;
+		}
+		return isDigits(s, 0, 4) && isDigits(s, 5, 2) && isDigits(s, 8, 2) && isDigits(s, 11, 2) && isDigits(s, 14, 2) && isDigits(s, 17, 2);
+	}
+
+	private static boolean isDigits(String s, int from, int len) {
+		for(int i=from; i<from+len; i++) {
+			char c = s.charAt(i);
+			if(c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int digits(String s, int from, int len) {
+		int value = 0;
+		for(int i=from; i<from+len; i++) {
+			value = value * 10 + (s.charAt(i) - '0');
+		}
+		return value;
+	}
+
+	private LocalDate actionDayOf(String dateTime) {
+		int key = digits(dateTime, 0, 4) * 10000 + digits(dateTime, 5, 2) * 100 + digits(dateTime, 8, 2);
+		if(key != lastDateKey) {
+			lastDate = LocalDate.of(key / 10000, key / 100 % 100, key % 100);
+			lastDateKey = key;
+		}
+		return lastDate;
+	}
+
+	/* yyyy-MM-dd */
+	private LocalDate isoDateOf(String s) {
+		return dateDict.computeIfAbsent(s, LocalDate::parse);
+	}
+
+	/* yyyyMMdd */
+	private LocalDate intDateOf(String s) {
+		return dateDict.computeIfAbsent(s, str -> {
+			if(str.length() == 8 && isDigits(str, 0, 8)) {
+				try {
+					return LocalDate.of(digits(str, 0, 4), digits(str, 4, 2), digits(str, 6, 2));
+				} catch (DateTimeException e) {
+					// 回退到格式化器解析
+				}
+			}
+			return LocalDate.parse(str, DateTimeConstant.D_FORMAT_INT_FORMATTER);
+		});
+	}
+
+	private static boolean isEmpty(String s) {
+		return s == null || s.isEmpty() || "null".equalsIgnoreCase(s);
+	}
+
+	private static double doubleOf(String s) {
+		return isEmpty(s) ? 0 : parseDouble(s);
+	}
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/*
+	 * 普通小数（可带负号）的尾数不超过2^53且小数位不超过22位时，尾数与10的幂均可精确表示，
+	 * 一次除法的结果即为正确舍入值，与 Double.parseDouble 一致；其余情况交由 Double.parseDouble 处理
+	 */
+	private static double parseDouble(String s) {
+		int len = s.length();
+		int i = 0;
+		boolean negative = s.charAt(0) == '-';
+		if(negative) {
+			i++;
+		}
+		long mantissa = 0;
+		int numOfDigits = 0;
+		int decimalPlaces = -1;
+		for(; i<len; i++) {
+			char c = s.charAt(i);
+			if(c >= '0' && c <= '9') {
+				if(++numOfDigits > 16) {
+					return Double.parseDouble(s);
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				if(decimalPlaces >= 0) {
+					decimalPlaces++;
+				}
+			} else if(c == '.' && decimalPlaces < 0) {
+				decimalPlaces = 0;
+			} else {
+				return Double.parseDouble(s);
+			}
+		}
+		if(numOfDigits == 0 || mantissa > (1L << 53) || decimalPlaces >= POWERS_OF_TEN.length) {
+			return Double.parseDouble(s);
+		}
+		double value = decimalPlaces > 0 ? mantissa / POWERS_OF_TEN[decimalPlaces] : mantissa;
+		return negative ? -value : value;
+	}
+
+	private static long longOf(String s) {
+		if(isEmpty(s)) {
+			return 0;
+		}
+		return s.indexOf('.') >= 0 ? (long) Double.parseDouble(s) : Long.parseLong(s);
+	}
+
+	/* 指数合约的价格按最小变动价位取整 */
+	private double priceOf(String s) {
+		double price = doubleOf(s);
+		if(!isIndexContract) {
+			return price;
+		}
+		int numOfPriceTickInPrice = (int)(price * 1000) / (int)(contract.priceTick() * 1000);
+		return numOfPriceTickInPrice * contract.priceTick();
+	}
+}
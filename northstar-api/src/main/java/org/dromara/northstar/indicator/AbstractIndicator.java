@@ -1,11 +1,11 @@
 package org.dromara.northstar.indicator;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Stream;
 
 import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.DoubleRingArray;
 import org.dromara.northstar.indicator.model.Num;
 import org.dromara.northstar.indicator.model.RingArray;
 
@@ -19,23 +19,36 @@ import cn.hutool.core.lang.Assert;
  */
 public abstract class AbstractIndicator implements Indicator {
 	
+	/* 数值缓存；ringBuf 与 valueBuf 为同一个对象，前者保留原有类型供已有的子类使用 */
 	protected RingArray<Num> ringBuf;
 	
+	protected DoubleRingArray valueBuf;
+	
 	protected Configuration cfg;
 	
+	private volatile boolean following;
+	
 	protected AbstractIndicator(Configuration cfg) {
 		this.cfg = cfg;
-		ringBuf = new RingArray<>(cfg.cacheLength());
+		valueBuf = new DoubleRingArray(cfg.cacheLength());
+		ringBuf = valueBuf;
 	}
 	
 	@Override
 	public void update(Num num) {
-		if(ringBuf.size() > 0 && (num.timestamp() < get(0).timestamp() && num.unstable() == get(0).unstable() || num.timestamp() == get(0).timestamp() && !get(0).unstable())) {
-			return;	// 通过时间戳比对，确保同一个指标在同一种状态下只能被同一个时间的值更新一次
+		if(following) {
+			return;	// 数值由被跟随的指标负责更新
+		}
+		if(valueBuf.size() > 0) {
+			long timestamp = valueBuf.timestamp(0);
+			boolean unstable = valueBuf.unstable(0);
+			if(num.timestamp() < timestamp && num.unstable() == unstable || num.timestamp() == timestamp && !unstable) {
+				return;	// 通过时间戳比对，确保同一个指标在同一种状态下只能被同一个时间的值更新一次
+			}
 		}
 		Num updateNum = evaluate(num);
 		if(!updateNum.isNaN()) {
-			ringBuf.update(updateNum, updateNum.unstable());
+			valueBuf.update(updateNum);
 		}
 	}
 	
@@ -50,15 +63,15 @@ public abstract class AbstractIndicator implements Indicator {
 	public Num get(int step) {
 		Assert.isTrue(step <= 0, "回溯步长不能是正数");
 		Assert.isTrue(step > -cfg.cacheLength(), "回溯长度超过指标缓存大小");
-		if(Objects.isNull(ringBuf.get(step))) {
-			return Num.NaN();
-		}
-		return ringBuf.get(step);
+		Num num = valueBuf.get(step);
+		return num == null ? Num.NaN() : num;
 	}
 	
 	@Override
 	public double value(int step) {
-		return get(step).value();
+		Assert.isTrue(step <= 0, "回溯步长不能是正数");
+		Assert.isTrue(step > -cfg.cacheLength(), "回溯长度超过指标缓存大小");
+		return valueBuf.value(step);
 	}
 
 	/**
@@ -66,12 +79,51 @@ public abstract class AbstractIndicator implements Indicator {
 	 */
 	@Override
 	public boolean isReady() {
-		return ringBuf.length() == ringBuf.size();
+		return valueBuf.isFull();
 	}
 
 	@Override
 	public List<Num> getData() {
-		return Stream.of(ringBuf.toArray()).filter(Objects::nonNull).map(Num.class::cast).toList();
+		List<Num> data = new ArrayList<>(valueBuf.size());
+		for(int i=0; i<valueBuf.size(); i++) {
+			data.add(valueBuf.get(-i));
+		}
+		return Collections.unmodifiableList(data);
+	}
+	
+	/**
+	 * 改为跟随另一个同类指标
+	 * 此后本指标直接读取被跟随指标的数值，自身不再计算。仅用于在模组之间共享计算结果
+	 * @param leader	与本指标配置及公式相同，且当前数值一致的指标
+	 */
+	public void follow(AbstractIndicator leader) {
+		Assert.isTrue(getClass() == leader.getClass(), "只能跟随同类指标");
+		Assert.isTrue(hasSameValues(leader), "只能跟随数值一致的指标");
+		valueBuf = leader.valueBuf;
+		ringBuf = valueBuf;
+		following = true;
+	}
+	
+	public boolean isFollowing() {
+		return following;
+	}
+	
+	/**
+	 * 数值缓存的累计更新次数
+	 * 供依赖本指标的指标判断缓存是否只发生了一次更新，从而增量同步。跟随其他指标后，该计数改为被跟随指标的计数
+	 * @return
+	 */
+	public long numOfUpdates() {
+		return valueBuf.numOfUpdates();
+	}
+	
+	/**
+	 * 与另一个指标的已有数值是否完全一致
+	 * @param other
+	 * @return
+	 */
+	public boolean hasSameValues(AbstractIndicator other) {
+		return valueBuf == other.valueBuf || valueBuf.contentEquals(other.valueBuf);
 	}
 	
 	@Override
@@ -47,4 +47,23 @@ public interface Indicator {
 	 * @return
 	 */
 	public Configuration getConfiguration();
+	/**
+	 * 获取指标公式标识
+	 * 同一类指标在相同配置、相同公式、相同依赖指标下，对同一行情序列的计算结果一致，因此可以在实盘模组之间共享计算。
+	 * 公式标识需要包含构造参数中影响计算结果、但没有体现在配置信息与依赖指标中的部分，例如均线的周期数
+	 * @return			返回 null 代表该指标不参与共享
+	 */
+	public default String formula() {
+		return null;
+	}
+	/**
+	 * 是否支持批量预热
+	 * 支持批量预热的指标，同一根K线内的多次不稳定值更新与只做最后一次的效果相同（浮点舍入误差除外），
+	 * 因此模组预热时可以省略无人读取的中间不稳定值更新，只按合成K线更新。
+	 * 状态会随每次更新累积的指标（例如逐次记录成交量的指标）不能支持
+	 * @return			默认不支持，预热时逐根K线完整更新
+	 */
+	public default boolean supportsBulkWarmup() {
+		return false;
+	}
 }
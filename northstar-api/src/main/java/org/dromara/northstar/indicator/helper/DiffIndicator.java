@@ -39,4 +39,14 @@ public class DiffIndicator extends AbstractIndicator implements Indicator {
 	public List<Indicator> dependencies() {
 		return List.of(line1, line2);
 	}
+
+	@Override
+	public String formula() {
+		return "DIFF(" + multiplier1 + "," + multiplier2 + ")";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -16,9 +16,12 @@ public class HHVIndicator extends AbstractIndicator implements Indicator{
 
 	private Indicator srcIndicator;
 	
+	private SourceExtremum extremum;
+	
 	public HHVIndicator(Configuration cfg, Indicator indicator) {
 		super(cfg);
 		this.srcIndicator = indicator;
+		this.extremum = new SourceExtremum(indicator, true);
 	}
 	
 	@Override
@@ -31,9 +34,17 @@ public class HHVIndicator extends AbstractIndicator implements Indicator{
 		if(!srcIndicator.isReady()) {
 			return Num.NaN();
 		}
-		double val = srcIndicator.getData().stream().filter(nm -> !nm.isNaN()).mapToDouble(Num::value).max().getAsDouble();
+		double val = extremum.value();
 		return Num.of(val, num.timestamp(), num.unstable());
 	}
-	
-	
+
+	@Override
+	public String formula() {
+		return "HHV";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -16,9 +16,12 @@ public class LLVIndicator extends AbstractIndicator implements Indicator{
 
 	private Indicator srcIndicator;
 	
+	private SourceExtremum extremum;
+	
 	public LLVIndicator(Configuration cfg, Indicator indicator) {
 		super(cfg);
 		this.srcIndicator = indicator;
+		this.extremum = new SourceExtremum(indicator, false);
 	}
 	
 	@Override
@@ -31,8 +34,17 @@ public class LLVIndicator extends AbstractIndicator implements Indicator{
 		if(!srcIndicator.isReady()) {
 			return Num.NaN();
 		}
-		double val = srcIndicator.getData().stream().filter(nm -> !nm.isNaN()).mapToDouble(Num::value).min().getAsDouble();
+		double val = extremum.value();
 		return Num.of(val, num.timestamp(), num.unstable());
 	}
-	
+
+	@Override
+	public String formula() {
+		return "LLV";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
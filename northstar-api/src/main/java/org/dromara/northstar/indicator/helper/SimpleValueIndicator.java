@@ -20,5 +20,14 @@ public class SimpleValueIndicator extends AbstractIndicator implements Indicator
 	protected Num evaluate(Num num) {
 		return num;
 	}
-	
+
+	@Override
+	public String formula() {
+		return "VAL";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -0,0 +1,65 @@
+package org.dromara.northstar.indicator.helper;
+
+import java.util.List;
+
+import org.dromara.northstar.indicator.AbstractIndicator;
+import org.dromara.northstar.indicator.Indicator;
+import org.dromara.northstar.indicator.model.MonotonicDeque;
+import org.dromara.northstar.indicator.model.Num;
+
+/**
+ * 源指标全部缓存值的最大值或最小值
+ * 源指标为 {@link AbstractIndicator} 时，以单调队列镜像其缓存：缓存只更新了一次时按同样的规则增量同步，
+ * 其余情况（漏掉了更新、改为跟随其他指标）按缓存全量重建。其他源指标仍每次遍历其数据
+ * @author agent
+ *
+ */
+final class SourceExtremum {
+
+	private final Indicator srcIndicator;
+
+	private final boolean max;
+
+	private final MonotonicDeque window;
+
+	private long numOfSyncedUpdates;
+
+	private boolean srcFollowing;
+
+	SourceExtremum(Indicator srcIndicator, boolean max) {
+		this.srcIndicator = srcIndicator;
+		this.max = max;
+		this.window = srcIndicator instanceof AbstractIndicator
+				? new MonotonicDeque(srcIndicator.getConfiguration().cacheLength(), max)
+				: null;
+	}
+
+	double value() {
+		if(window == null) {
+			List<Num> data = srcIndicator.getData();
+			return (max ? data.stream().filter(nm -> !nm.isNaN()).mapToDouble(Num::value).max()
+						: data.stream().filter(nm -> !nm.isNaN()).mapToDouble(Num::value).min()).getAsDouble();
+		}
+		sync((AbstractIndicator) srcIndicator);
+		return window.value();
+	}
+
+	private void sync(AbstractIndicator src) {
+		long numOfUpdates = src.numOfUpdates();
+		boolean following = src.isFollowing();
+		if(numOfUpdates == numOfSyncedUpdates && following == srcFollowing) {
+			return;
+		}
+		if(numOfUpdates == numOfSyncedUpdates + 1 && following == srcFollowing) {
+			window.update(src.get(0));
+		} else {
+			window.clear();
+			List<Num> data = src.getData();
+			for(int i=data.size() - 1; i>=0; i--) {
+				window.update(data.get(i));
+			}
+		}
+		numOfSyncedUpdates = numOfUpdates;
+		srcFollowing = following;
+	}
+}
@@ -3,17 +3,18 @@ package org.dromara.northstar.indicator.helper;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Stream;
 
-import org.apache.commons.math3.stat.descriptive.moment.StandardDeviation;
 import org.dromara.northstar.indicator.AbstractIndicator;
 import org.dromara.northstar.indicator.Indicator;
 import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.DoubleRingArray;
 import org.dromara.northstar.indicator.model.Num;
-import org.dromara.northstar.indicator.model.RingArray;
 
 /**
- * 标准差指标
+ * 标准差指标（样本标准差）
+ * 自带样本时按滑动窗口累计偏移后的和与平方和，每次更新 O(1)；
+ * 每累计一个窗口长度的更新后从样本重新求和，以限制浮点误差的累积。
+ * 累计值只包含稳定值，不稳定值在求值时临时计入，因此结果与期间有过多少次不稳定值更新无关
  * @author KevinHuangwl
  *
  */
@@ -21,7 +22,21 @@ public class StandardDeviationIndicator extends AbstractIndicator implements Ind
 
 	private Indicator srcIndicator;
 	
-	private RingArray<Num> sample;
+	private DoubleRingArray sample;
+	
+	/* 累计的基准值，样本减去基准值后再累计，减小大数相减的精度损失 */
+	private double shift;
+	
+	/* 稳定样本与基准值之差的和 */
+	private double sum;
+	
+	/* 稳定样本与基准值之差的平方和 */
+	private double sumOfSquares;
+	
+	private int numOfNaN;
+	
+	/* 自上次重新求和以来的稳定值更新次数 */
+	private int numOfChanges;
 	
 	/**
 	 * 标准差指标
@@ -30,7 +45,7 @@ public class StandardDeviationIndicator extends AbstractIndicator implements Ind
 	 */
 	public StandardDeviationIndicator(Configuration cfg, int barCount) {
 		super(cfg);
-		this.sample = new RingArray<>(barCount);
+		this.sample = new DoubleRingArray(barCount);
 	}
 	
 	/**
@@ -45,23 +60,103 @@ public class StandardDeviationIndicator extends AbstractIndicator implements Ind
 	
 	@Override
 	protected Num evaluate(Num num) {
-		double[] data = null;
+		double std;
 		if(Objects.isNull(srcIndicator)) {
-			sample.update(num, num.unstable());
-			if(sample.toArray().length != sample.size()) {
+			int size = sample.size();
+			boolean overwriteUnstable = size > 0 && sample.unstable(0);
+			double oldVal = sample.update(num);
+			if(sample.size() == size && !overwriteUnstable) {
+				remove(oldVal);		// 样本已满时，移除被挤出的稳定值；被原位覆盖的不稳定值本就未计入
+			}
+			if(num.unstable()) {
+				if(!sample.isFull()) {
+					return Num.NaN();
+				}
+				double delta = num.value() - shift;
+				std = numOfNaN > 0 || Double.isNaN(delta) ? Double.NaN : std(sample.size(), sum + delta, sumOfSquares + delta * delta);
+				return Num.of(std, num.timestamp(), num.unstable());
+			}
+			add(num.value());
+			if(++numOfChanges >= sample.length()) {
+				resum();
+			}
+			if(!sample.isFull()) {
 				return Num.NaN();
 			}
-			data = Stream.of(sample.toArray()).map(Num.class::cast).mapToDouble(Num::value).toArray();
+			std = numOfNaN > 0 ? Double.NaN : std(sample.size(), sum, sumOfSquares);
 		} else {
 			if(!srcIndicator.isReady()) {
 				return Num.NaN();
 			}
-			data = srcIndicator.getData().stream().mapToDouble(Num::value).toArray();
+			std = stdOfSource();
 		}
-		
-		double std = new StandardDeviation().evaluate(data);
 		return Num.of(std, num.timestamp(), num.unstable());
 	}
+	
+	private void add(double value) {
+		if(Double.isNaN(value)) {
+			numOfNaN++;
+			return;
+		}
+		double delta = value - shift;
+		sum += delta;
+		sumOfSquares += delta * delta;
+	}
+	
+	private void remove(double value) {
+		if(Double.isNaN(value)) {
+			numOfNaN--;
+			return;
+		}
+		double delta = value - shift;
+		sum -= delta;
+		sumOfSquares -= delta * delta;
+	}
+	
+	/* 以当前样本均值为新的基准值重新求和，只在稳定值更新后调用，此时样本中全是稳定值 */
+	private void resum() {
+		double total = 0;
+		int count = 0;
+		for(int i=0; i<sample.size(); i++) {
+			double value = sample.value(-i);
+			if(!Double.isNaN(value)) {
+				total += value;
+				count++;
+			}
+		}
+		shift = count > 0 ? total / count : 0;
+		sum = 0;
+		sumOfSquares = 0;
+		numOfNaN = 0;
+		for(int i=0; i<sample.size(); i++) {
+			add(sample.value(-i));
+		}
+		numOfChanges = 0;
+	}
+	
+	/* 样本指标的数值由其自身维护，这里按 Welford 算法单次遍历求值，不再复制数据 */
+	private double stdOfSource() {
+		// 其他实现的指标只能通过 getData 取得全部数值
+		double[] data = srcIndicator instanceof AbstractIndicator ? null : srcIndicator.getData().stream().mapToDouble(Num::value).toArray();
+		int size = Objects.isNull(data) ? srcIndicator.getConfiguration().cacheLength() : data.length;
+		double mean = 0;
+		double m2 = 0;
+		for(int i=0; i<size; i++) {
+			double value = Objects.isNull(data) ? srcIndicator.value(-i) : data[i];
+			double delta = value - mean;
+			mean += delta / (i + 1);
+			m2 += delta * (value - mean);
+		}
+		return size == 1 ? 0 : Math.sqrt(m2 / (size - 1));
+	}
+	
+	private static double std(int n, double sum, double sumOfSquares) {
+		if(n == 1) {
+			return 0;
+		}
+		double variance = (sumOfSquares - sum * sum / n) / (n - 1);
+		return Math.sqrt(Math.max(variance, 0));
+	}
 
 	@Override
 	public List<Indicator> dependencies() {
@@ -71,4 +166,13 @@ public class StandardDeviationIndicator extends AbstractIndicator implements Ind
 		return List.of(srcIndicator);
 	}
 
+	@Override
+	public String formula() {
+		return "STD(" + sample.length() + ")";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
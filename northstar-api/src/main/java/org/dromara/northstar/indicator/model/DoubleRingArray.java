@@ -0,0 +1,186 @@
+package org.dromara.northstar.indicator.model;
+
+import java.util.BitSet;
+import java.util.Optional;
+
+/**
+ * 基本类型的环形数组
+ * 以并列的 double 值、long 时间戳与不稳定标识位保存 {@link Num}，更新规则与 {@link RingArray} 一致：
+ * 上一个值不稳定时原位覆盖，否则前移一位。
+ * 槽位只会被依次填满而不会被清空，因此实际大小可以直接计数。
+ * 继承 {@link RingArray} 以便原有按 {@code RingArray<Num>} 使用的代码无需修改
+ * @author agent
+ *
+ */
+public class DoubleRingArray extends RingArray<Num> {
+
+	private final double[] values;
+
+	private final long[] timestamps;
+
+	private final BitSet unstables;
+
+	private int cursor;
+
+	private int size;
+
+	private boolean lastFlag = true;
+
+	private long numOfUpdates;
+
+	public DoubleRingArray(int length) {
+		this.values = new double[length];
+		this.timestamps = new long[length];
+		this.unstables = new BitSet(length);
+	}
+
+	/**
+	 * 更新值
+	 * @return	被覆盖的旧值，槽位原本为空时返回 NaN
+	 */
+	public double update(double value, long timestamp, boolean unstable) {
+		// 先写入槽位，再移动游标与大小，读取方不会把尚未写入的槽位当作当前值
+		int idx = getIndex(lastFlag ? 0 : 1);
+		double old = idx < size ? values[idx] : Double.NaN;
+		values[idx] = value;
+		timestamps[idx] = timestamp;
+		unstables.set(idx, unstable);
+		if(idx == size) {
+			size++;
+		}
+		cursor = idx;
+		lastFlag = unstable;
+		numOfUpdates++;
+		return old;
+	}
+
+	public double update(Num num) {
+		return update(num.value(), num.timestamp(), num.unstable());
+	}
+
+	/**
+	 * 与 {@link RingArray#update(Object, boolean)} 一致，以参数 unstable 为准
+	 * @return	被覆盖的旧值
+	 */
+	@Override
+	public Optional<Num> update(Num num, boolean unstable) {
+		Num old = get(lastFlag ? 0 : 1);
+		update(num.value(), num.timestamp(), unstable);
+		return Optional.ofNullable(old);
+	}
+
+	/**
+	 * @param offset	回溯步长，0代表当前值，-1代表上一个值
+	 * @return			槽位为空时返回 NaN
+	 */
+	public double value(int offset) {
+		int idx = getIndex(offset);
+		return idx < size ? values[idx] : Double.NaN;
+	}
+
+	public long timestamp(int offset) {
+		return timestamps[getIndex(offset)];
+	}
+
+	public boolean unstable(int offset) {
+		return unstables.get(getIndex(offset));
+	}
+
+	public boolean isEmpty(int offset) {
+		return getIndex(offset) >= size;
+	}
+
+	/**
+	 * @return	槽位为空时返回 null，与 {@link RingArray#get(int)} 一致
+	 */
+	@Override
+	public Num get(int offset) {
+		int idx = getIndex(offset);
+		if(idx >= size) {
+			return null;
+		}
+		return new Num(values[idx], timestamps[idx], unstables.get(idx));
+	}
+
+	/**
+	 * 最旧的值
+	 */
+	public double tail() {
+		return value(1 - size);
+	}
+
+	private int getIndex(int incr) {
+		int idx = (cursor + incr) % values.length;
+		return idx < 0 ? idx + values.length : idx;
+	}
+
+	/**
+	 * 按从新到旧的顺序返回已有的值
+	 */
+	public double[] toDoubleArray() {
+		double[] result = new double[size];
+		for(int i=0; i<size; i++) {
+			result[i] = values[getIndex(-i)];
+		}
+		return result;
+	}
+
+	/**
+	 * 与 {@link RingArray#toArray()} 一致，按从新到旧的顺序返回全部槽位，空槽位为 null
+	 */
+	@Override
+	public Object[] toArray() {
+		Object[] result = new Object[values.length];
+		for(int i=0; i<size; i++) {
+			result[i] = get(-i);
+		}
+		return result;
+	}
+
+	/**
+	 * 实际大小
+	 * @return
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 累计更新次数
+	 * @return
+	 */
+	public long numOfUpdates() {
+		return numOfUpdates;
+	}
+
+	/**
+	 * 最大长度
+	 * @return
+	 */
+	@Override
+	public int length() {
+		return values.length;
+	}
+
+	public boolean isFull() {
+		return size == values.length;
+	}
+
+	/**
+	 * 按从新到旧的顺序比对已有的值、时间戳与不稳定标识
+	 * @param other
+	 * @return
+	 */
+	public boolean contentEquals(DoubleRingArray other) {
+		if(other.length() != length() || other.size != size) {
+			return false;
+		}
+		for(int i=0; i<size; i++) {
+			if(Double.compare(value(-i), other.value(-i)) != 0 || timestamp(-i) != other.timestamp(-i) || unstable(-i) != other.unstable(-i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,119 @@
+package org.dromara.northstar.indicator.model;
+
+/**
+ * 基本类型的单调队列
+ * 用于求滑动窗口内的最大值或最小值，每次更新均摊 O(1)。更新规则与 {@link DoubleRingArray} 一致：
+ * 上一个值不稳定时原位覆盖，否则窗口前移一位。
+ * 不稳定的最新值不进入队列，只在取值时单独参与比较，待其稳定后才入队，因此原位覆盖不会丢失被它淘汰过的旧值。
+ * NaN 占用窗口位置，但不参与比较
+ * @author agent
+ *
+ */
+public class MonotonicDeque {
+
+	private final int length;
+
+	private final boolean max;
+
+	private final double[] values;
+
+	private final long[] seqs;
+
+	private int head;
+
+	private int count;
+
+	/* 已稳定的值的个数，同时作为下一个稳定值的序号 */
+	private long numOfStables;
+
+	private boolean pending;
+
+	private double pendingValue;
+
+	/**
+	 * @param length	窗口长度
+	 * @param max		true 求最大值，false 求最小值
+	 */
+	public MonotonicDeque(int length, boolean max) {
+		if(length <= 0) {
+			throw new IllegalArgumentException("窗口长度必须大于0");
+		}
+		this.length = length;
+		this.max = max;
+		this.values = new double[length + 1];
+		this.seqs = new long[length + 1];
+	}
+
+	public void update(double value, boolean unstable) {
+		if(unstable) {
+			pending = true;
+			pendingValue = value;
+		} else {
+			pending = false;
+			push(value);
+		}
+		// 窗口起点只会前移
+		long start = numOfStables - length + (pending ? 1 : 0);
+		while(count > 0 && seqs[head] < start) {
+			head = (head + 1) % values.length;
+			count--;
+		}
+	}
+
+	public void update(Num num) {
+		update(num.value(), num.unstable());
+	}
+
+	private void push(double value) {
+		long seq = numOfStables++;
+		if(Double.isNaN(value)) {
+			return;
+		}
+		while(count > 0 && !dominates(values[tailIndex()], value)) {
+			count--;
+		}
+		int idx = (head + count) % values.length;
+		values[idx] = value;
+		seqs[idx] = seq;
+		count++;
+	}
+
+	/* 旧值严格优于新值时才保留，与 Math.max/Math.min 对 -0.0 的处理一致 */
+	private boolean dominates(double older, double newer) {
+		int cmp = Double.compare(older, newer);
+		return max ? cmp > 0 : cmp < 0;
+	}
+
+	private int tailIndex() {
+		return (head + count - 1) % values.length;
+	}
+
+	/**
+	 * 当前窗口的最大值或最小值
+	 * @return	窗口内没有有效值时返回 NaN
+	 */
+	public double value() {
+		double result = count > 0 ? values[head] : Double.NaN;
+		if(pending && !Double.isNaN(pendingValue)) {
+			if(Double.isNaN(result)) {
+				return pendingValue;
+			}
+			return max ? Math.max(result, pendingValue) : Math.min(result, pendingValue);
+		}
+		return result;
+	}
+
+	/**
+	 * 清空窗口
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+		numOfStables = 0;
+		pending = false;
+	}
+
+	public int length() {
+		return length;
+	}
+}
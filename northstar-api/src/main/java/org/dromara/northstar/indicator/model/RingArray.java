@@ -17,6 +17,11 @@ public class RingArray<T> {
 		this.array = (T[]) new Object[size];
 	}
 	
+	/**
+	 * 供自行管理存储的子类使用，子类需覆盖全部公共方法
+	 */
+	protected RingArray() {}
+	
 	public T get() {
 		return get(0);
 	}
@@ -59,6 +59,11 @@ public class KDIndicator extends AbstractIndicator implements Indicator{
 	public Indicator getD() {
 		return d;
 	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 	
 	public class RSVIndicator extends AbstractIndicator implements Indicator {
 		
@@ -88,5 +93,10 @@ public class KDIndicator extends AbstractIndicator implements Indicator{
 			return Num.of(val, num.timestamp(), num.unstable()) ;
 		}
 
+		@Override
+		public boolean supportsBulkWarmup() {
+			return true;
+		}
+
 	}
 }
@@ -48,5 +48,9 @@ public class RSIIndicator extends AbstractIndicator implements Indicator {
 		double val = numerator.value(0) / denominator.value(0) * 100;
 		return Num.of(val, num.timestamp(), num.unstable());
 	}
-	
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -18,10 +18,13 @@ public class EMAIndicator extends AbstractIndicator implements Indicator{
 	
 	private double factor;
 	
+	private int barCount;
+	
 	private Indicator srcIndicator;
 	
 	public EMAIndicator(Configuration cfg, int barCount) {
 		super(cfg);
+		this.barCount = barCount;
 		this.factor = 2D / (barCount + 1);	// EMA 的更新系数
 	}
 	
@@ -40,11 +43,11 @@ public class EMAIndicator extends AbstractIndicator implements Indicator{
 
 	protected Num evaluate(Num num) {
 		Num newVal = Objects.isNull(srcIndicator) ? num : srcIndicator.get(0);
-		if(newVal.isNaN() || ringBuf.size() == 0 || ringBuf.size() == 1 && ringBuf.get().unstable()) {
+		if(newVal.isNaN() || valueBuf.size() == 0 || valueBuf.size() == 1 && valueBuf.unstable(0)) {
 			// 当计算样本没有值，或只有一个不稳定值时
 			return newVal;
 		}
-		Num preVal = ringBuf.get().unstable() ? get(-1) : get(0); 
+		Num preVal = valueBuf.unstable(0) ? get(-1) : get(0); 
 		if(preVal.isNaN()) {
 			return newVal;
 		}
@@ -52,4 +55,13 @@ public class EMAIndicator extends AbstractIndicator implements Indicator{
 		return Num.of(val, num.timestamp(), num.unstable());
 	}
 
+	@Override
+	public String formula() {
+		return "EMA(" + barCount + ")";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
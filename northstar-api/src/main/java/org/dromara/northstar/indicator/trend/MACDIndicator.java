@@ -83,4 +83,14 @@ public class MACDIndicator extends AbstractIndicator implements Indicator{
 	public Indicator getDeaLine() {
 		return deaLine;
 	}
+
+	@Override
+	public String formula() {
+		return "MACD";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
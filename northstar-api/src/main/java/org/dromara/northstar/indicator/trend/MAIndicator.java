@@ -7,8 +7,8 @@ import java.util.Objects;
 import org.dromara.northstar.indicator.AbstractIndicator;
 import org.dromara.northstar.indicator.Indicator;
 import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.DoubleRingArray;
 import org.dromara.northstar.indicator.model.Num;
-import org.dromara.northstar.indicator.model.RingArray;
 
 /**
  * MA算术平均线
@@ -17,7 +17,7 @@ import org.dromara.northstar.indicator.model.RingArray;
  */
 public class MAIndicator extends AbstractIndicator implements Indicator {
 
-	private RingArray<Num> sample;
+	private DoubleRingArray sample;
 	
 	private double sum;
 	
@@ -25,7 +25,7 @@ public class MAIndicator extends AbstractIndicator implements Indicator {
 	
 	public MAIndicator(Configuration cfg, int barCount) {
 		super(cfg);
-		sample = new RingArray<>(barCount);
+		sample = new DoubleRingArray(barCount);
 	}
 	
 	public MAIndicator(Configuration cfg, Indicator srcIndicator, int barCount) {
@@ -38,8 +38,11 @@ public class MAIndicator extends AbstractIndicator implements Indicator {
 		if(newVal.isNaN()) {
 			return newVal;
 		}
-		sample.update(newVal, newVal.unstable()).ifPresent(val -> sum -= val.value());	// 减去旧的值
-		sum += newVal.value();															// 加上新的值
+		double oldVal = sample.update(newVal);
+		if(!Double.isNaN(oldVal)) {
+			sum -= oldVal;		// 减去旧的值
+		}
+		sum += newVal.value();	// 加上新的值
 		return Num.of(sum / sample.size(), num.timestamp(), num.unstable());
 	}
 	
@@ -50,5 +53,14 @@ public class MAIndicator extends AbstractIndicator implements Indicator {
 		}
 		return List.of(srcIndicator);
 	}
-	
+
+	@Override
+	public String formula() {
+		return "MA(" + sample.length() + ")";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -19,11 +19,17 @@ public class SMAIndicator extends AbstractIndicator implements Indicator{
 
 	private double factor;
 	
+	private int barCount;
+	
+	private int weight;
+	
 	private Indicator srcIndicator;
 	
 	public SMAIndicator(Configuration cfg, int barCount, int weight) {
 		super(cfg);
 		Assert.isTrue(barCount > weight, "更新权重设置异常");
+		this.barCount = barCount;
+		this.weight = weight;
 		this.factor = (double) weight / barCount;
 	}
 	
@@ -43,11 +49,11 @@ public class SMAIndicator extends AbstractIndicator implements Indicator{
 	@Override
 	protected Num evaluate(Num num) {
 		Num newVal = Objects.isNull(srcIndicator) ? num : srcIndicator.get(0);
-		if(newVal.isNaN() || ringBuf.size() == 0 || ringBuf.size() == 1 && ringBuf.get().unstable()) {
+		if(newVal.isNaN() || valueBuf.size() == 0 || valueBuf.size() == 1 && valueBuf.unstable(0)) {
 			// 当计算样本没有值，或只有一个不稳定值时
 			return newVal;
 		}
-		Num preVal = ringBuf.get().unstable() ? get(-1) : get(0); 
+		Num preVal = valueBuf.unstable(0) ? get(-1) : get(0); 
 		if(preVal.isNaN()) {
 			return newVal;
 		}
@@ -55,4 +61,13 @@ public class SMAIndicator extends AbstractIndicator implements Indicator{
 		return Num.of(val, num.timestamp(), num.unstable());
 	}
 
+	@Override
+	public String formula() {
+		return "SMA(" + barCount + "," + weight + ")";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
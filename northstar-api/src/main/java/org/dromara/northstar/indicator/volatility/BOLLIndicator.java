@@ -65,4 +65,14 @@ public class BOLLIndicator extends AbstractIndicator implements Indicator{
 	public Indicator getLower() {
 		return lower;
 	}
+
+	@Override
+	public String formula() {
+		return "BOLL";
+	}
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
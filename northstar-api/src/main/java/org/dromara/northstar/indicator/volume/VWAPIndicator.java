@@ -44,6 +44,9 @@ public class VWAPIndicator extends AbstractIndicator implements Indicator{
 		}
 		return Num.of(val/accVol, num.timestamp(), num.unstable());
 	}
-	
-	
+
+	@Override
+	public boolean supportsBulkWarmup() {
+		return true;
+	}
 }
@@ -1,7 +1,6 @@
 package org.dromara.northstar.indicator.wave;
 
 import java.util.List;
-import java.util.Objects;
 
 import org.dromara.northstar.indicator.AbstractIndicator;
 import org.dromara.northstar.indicator.Indicator;
@@ -22,10 +21,13 @@ public class MABasedWaveIndicator extends AbstractIndicator implements Indicator
 	private int numOfBarToConfirmTheSegment;
 	private EndpointType type;
 
-	private Boolean isGoingUp;
+	/* 波段方向与波段极值在第一个有效值到来时初始化，均为运行中的极值，无需回溯窗口 */
+	private boolean initialized;
 
-	private Double sectionMax;
-	private Double sectionMin;
+	private boolean isGoingUp;
+
+	private double sectionMax;
+	private double sectionMin;
 
 	private Indicator high;
 	private Indicator low;
@@ -56,12 +58,12 @@ public class MABasedWaveIndicator extends AbstractIndicator implements Indicator
 			return Num.NaN();
 		}
 		// 各关键值的初始化
-		if (Objects.isNull(isGoingUp)) 
+		if (!initialized) {
 			isGoingUp = close.value(0) > maLine.value(0);
-		if (Objects.isNull(sectionMax)) 
 			sectionMax = type == EndpointType.CLOSE ? close.value(0) : high.value(0);
-		if (Objects.isNull(sectionMin)) 
 			sectionMin = type == EndpointType.CLOSE ? close.value(0) : low.value(0);
+			initialized = true;
+		}
 
 		// 记录波段最大值
 		if (isGoingUp) {
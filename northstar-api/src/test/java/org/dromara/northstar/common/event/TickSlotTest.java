@@ -0,0 +1,109 @@
+package org.dromara.northstar.common.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.junit.jupiter.api.Test;
+
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+
+class TickSlotTest {
+
+	Tick tick = Tick.builder()
+			.gatewayId("testGatewayId")
+			.contract(Contract.builder()
+					.unifiedSymbol("testSymbol")
+					.symbol("testSymbol")
+					.exchange(ExchangeEnum.SHFE)
+					.build())
+			.actionDay(LocalDate.now())
+			.actionTime(LocalTime.now())
+			.tradingDay(LocalDate.now())
+			.actionTimestamp(System.currentTimeMillis())
+			.lastPrice(1.0)
+			.avgPrice(2.0)
+			.iopv(3.0)
+			.volumeDelta(4L)
+			.volume(5L)
+			.turnover(6.0)
+			.turnoverDelta(7.0)
+			.openInterest(8.0)
+			.openInterestDelta(9.0)
+			.settlePrice(10.0)
+			.preOpenInterest(11.0)
+			.preClosePrice(12.0)
+			.preSettlePrice(13.0)
+			.openPrice(14.0)
+			.highPrice(15.0)
+			.lowPrice(16.0)
+			.upperLimit(17.0)
+			.lowerLimit(18.0)
+			.bidPrice(List.of(19.0, 20.0))
+			.askPrice(List.of(21.0, 22.0))
+			.bidVolume(List.of(23, 24))
+			.askVolume(List.of(25, 26))
+			.type(TickType.MARKET_TICK)
+			.channelType(ChannelType.CTP)
+			.build();
+
+	@Test
+	void testCopyFromAndToTick() {
+		TickSlot slot = new TickSlot().copyFrom(tick);
+		assertEquals(2, slot.depth());
+		assertEquals(tick, slot.toTick());
+	}
+
+	@Test
+	void testCopyFromSlot() {
+		TickSlot slot = new TickSlot().copyFrom(new TickSlot().copyFrom(tick));
+		assertEquals(tick, slot.toTick());
+	}
+
+	@Test
+	void testToTickField() {
+		TickSlot slot = new TickSlot().copyFrom(tick);
+		assertEquals(tick.toTickField(), slot.toTickField());
+	}
+
+	@Test
+	void testWriteLevels() {
+		TickSlot slot = new TickSlot()
+				.contract(tick.contract())
+				.lastPrice(100)
+				.level(0, 99, 1, 101, 2)
+				.level(1, 98, 3, 102, 4);
+		Tick t = slot.toTick();
+		assertEquals(List.of(99.0, 98.0), t.bidPrice());
+		assertEquals(List.of(101.0, 102.0), t.askPrice());
+		assertEquals(List.of(1, 3), t.bidVolume());
+		assertEquals(List.of(2, 4), t.askVolume());
+	}
+
+	@Test
+	void testReuse() {
+		TickSlot slot = new TickSlot().copyFrom(tick);
+		slot.clear();
+		assertNull(slot.contract());
+		assertEquals(0, slot.depth());
+		assertEquals(0, slot.lastPrice());
+
+		Tick shallow = Tick.builder()
+				.contract(tick.contract())
+				.lastPrice(1.5)
+				.bidPrice(List.of(1.0))
+				.askPrice(List.of(2.0))
+				.bidVolume(List.of(3))
+				.askVolume(List.of(4))
+				.build();
+		slot.copyFrom(tick).copyFrom(shallow);
+		assertEquals(shallow, slot.toTick());
+	}
+}
@@ -0,0 +1,266 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import org.dromara.northstar.common.IDataSource;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachedDataSourceTest {
+
+	@TempDir
+	Path dir;
+
+	FakeDataSource fake = new FakeDataSource();
+
+	Contract c = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").channelType(ChannelType.PLAYBACK).build();
+
+	// 2024-03-04 为周一
+	LocalDate monday = LocalDate.of(2024, 3, 4);
+	LocalDate sunday = LocalDate.of(2024, 3, 10);
+
+	List<CachedDataSource> sources = new ArrayList<>();
+
+	@AfterEach
+	void cleanup() throws Exception {
+		for(CachedDataSource ds : sources) {
+			ds.destroy();
+		}
+	}
+
+	@Test
+	void shouldServeRepeatedQueriesFromHeap() {
+		CachedDataSource ds = cachedDataSource(1 << 20, false);
+		List<Bar> bars = ds.getMinutelyData(c, monday, sunday);
+		assertThat(ds.getMinutelyData(c, monday, sunday)).isEqualTo(bars);
+		assertThat(ds.getHourlyData(c, monday, sunday)).isEqualTo(fake.getHourlyData(c, monday, sunday));
+		assertThat(fake.queries).containsExactly("MINUTE " + monday + " " + sunday, "HOUR " + monday + " " + sunday, "HOUR " + monday + " " + sunday);
+	}
+
+	@Test
+	void shouldServeFromDiskAfterRestart() throws Exception {
+		List<Bar> minuteBars = cachedDataSource(1 << 20, false).getMinutelyData(c, monday, sunday);
+		List<Bar> dailyBars = sources.get(0).getDailyData(c, monday, sunday);
+		fake.queries.clear();
+
+		CachedDataSource restarted = cachedDataSource(1 << 20, false);
+		assertThat(restarted.getMinutelyData(c, monday, sunday)).isEqualTo(minuteBars);
+		assertThat(restarted.getDailyData(c, monday, sunday)).isEqualTo(dailyBars);
+		assertThat(fake.queries).isEmpty();
+	}
+
+	@Test
+	void shouldBoundHeapByBytes() {
+		CachedDataSource ds = cachedDataSource(250_000, false);
+		for(int i=0; i<10; i++) {
+			ds.getMinutelyData(c, monday.plusWeeks(i), sunday.plusWeeks(i));
+			assertThat(ds.heapBytes()).isPositive().isLessThanOrEqualTo(250_000);
+		}
+		// 每周约105KB，内存层最多保留两周；被淘汰的数据仍可从磁盘读取
+		fake.queries.clear();
+		assertThat(ds.getMinutelyData(c, monday, sunday)).isEqualTo(fake.getMinutelyData(c, monday, sunday));
+		assertThat(fake.queries).hasSize(1);
+	}
+
+	@Test
+	void shouldBoundDiskByBytes() {
+		CachedDataSource ds = cachedDataSource(0, 250_000, false);
+		for(int i=0; i<10; i++) {
+			ds.getMinutelyData(c, monday.plusWeeks(i), sunday.plusWeeks(i));
+			assertThat(ds.diskBytes()).isPositive().isLessThanOrEqualTo(250_000).isEqualTo(sizeOfDir());
+		}
+		// 磁盘层最多保留最近使用的两周
+		fake.queries.clear();
+		ds.getMinutelyData(c, monday.plusWeeks(9), sunday.plusWeeks(9));
+		ds.getMinutelyData(c, monday.plusWeeks(8), sunday.plusWeeks(8));
+		assertThat(fake.queries).isEmpty();
+		ds.getMinutelyData(c, monday, sunday);
+		assertThat(fake.queries).hasSize(1);
+	}
+
+	@Test
+	void shouldEvictLeastRecentlyUsedFile() {
+		CachedDataSource ds = cachedDataSource(0, 250_000, false);
+		ds.getMinutelyData(c, monday, sunday);
+		ds.getMinutelyData(c, monday.plusWeeks(1), sunday.plusWeeks(1));
+		ds.getMinutelyData(c, monday, sunday);
+		ds.getMinutelyData(c, monday.plusWeeks(2), sunday.plusWeeks(2));
+
+		fake.queries.clear();
+		ds.getMinutelyData(c, monday, sunday);
+		assertThat(fake.queries).isEmpty();
+		ds.getMinutelyData(c, monday.plusWeeks(1), sunday.plusWeeks(1));
+		assertThat(fake.queries).hasSize(1);
+	}
+
+	@Test
+	void shouldCountExistingFilesAfterRestart() {
+		CachedDataSource ds = cachedDataSource(0, 250_000, false);
+		ds.getMinutelyData(c, monday, sunday);
+		ds.getMinutelyData(c, monday.plusWeeks(1), sunday.plusWeeks(1));
+
+		CachedDataSource restarted = cachedDataSource(0, 250_000, false);
+		assertThat(restarted.diskBytes()).isEqualTo(ds.diskBytes());
+		restarted.getMinutelyData(c, monday.plusWeeks(2), sunday.plusWeeks(2));
+		assertThat(sizeOfDir()).isLessThanOrEqualTo(250_000);
+	}
+
+	@Test
+	void shouldNotCacheUnfinishedOrEmptyRanges() throws Exception {
+		CachedDataSource ds = cachedDataSource(1 << 20, false);
+		LocalDate today = LocalDate.now();
+		ds.getMinutelyData(c, today.minusDays(3), today);
+		ds.getMinutelyData(c, today.minusDays(3), today);
+		fake.empty = true;
+		ds.getMinutelyData(c, monday, sunday);
+		ds.getMinutelyData(c, monday, sunday);
+		assertThat(fake.queries).hasSize(4);
+		assertThat(Files.exists(dir.resolve(c.unifiedSymbol()))).isFalse();
+	}
+
+	@Test
+	void shouldPrefetchNextWeekInBackground() {
+		CachedDataSource ds = cachedDataSource(1 << 20, true);
+		ds.getMinutelyData(c, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 3));
+		await().atMost(Duration.ofSeconds(5)).until(() -> fake.queries.contains("MINUTE " + monday + " " + sunday));
+
+		ds.getMinutelyData(c, monday, sunday);
+		assertThat(fake.queries).filteredOn(q -> q.equals("MINUTE " + monday + " " + sunday)).hasSize(1);
+	}
+
+	@Test
+	void shouldDelegateNonBarQueries() {
+		CachedDataSource ds = cachedDataSource(1 << 20, false);
+		assertThat(ds.getAllContracts()).containsExactly(c);
+		assertThat(ds.getHolidays(ChannelType.CTP, monday, sunday)).containsExactly(LocalDate.of(2024, 3, 9), sunday);
+	}
+
+	private CachedDataSource cachedDataSource(long maxHeapBytes, boolean prefetch) {
+		return cachedDataSource(maxHeapBytes, 1 << 30, prefetch);
+	}
+
+	private CachedDataSource cachedDataSource(long maxHeapBytes, long maxDiskBytes, boolean prefetch) {
+		CachedDataSource ds = new CachedDataSource(fake, dir, maxHeapBytes, maxDiskBytes, prefetch);
+		sources.add(ds);
+		return ds;
+	}
+
+	private long sizeOfDir() {
+		try(Stream<Path> paths = Files.walk(dir)) {
+			return paths.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/* 按交易日每天生成固定根数K线的本地数据源，并记录收到的查询 */
+	static class FakeDataSource implements IDataSource {
+
+		List<String> queries = new CopyOnWriteArrayList<>();
+
+		volatile boolean empty;
+
+		@Override
+		public List<Bar> getMinutelyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+			queries.add("MINUTE " + startDate + " " + endDate);
+			return bars(contract, startDate, endDate, 120, 1);
+		}
+
+		@Override
+		public List<Bar> getQuarterlyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+			queries.add("QUARTER " + startDate + " " + endDate);
+			return bars(contract, startDate, endDate, 16, 15);
+		}
+
+		@Override
+		public List<Bar> getHourlyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+			queries.add("HOUR " + startDate + " " + endDate);
+			return bars(contract, startDate, endDate, 4, 60);
+		}
+
+		@Override
+		public List<Bar> getDailyData(Contract contract, LocalDate startDate, LocalDate endDate) {
+			queries.add("DAY " + startDate + " " + endDate);
+			List<Bar> bars = new ArrayList<>();
+			for(LocalDate date = startDate; !empty && !date.isAfter(endDate); date = date.plusDays(1)) {
+				bars.add(Bar.builder()
+						.gatewayId(contract.channelType().toString())
+						.contract(contract)
+						.channelType(contract.channelType())
+						.actionDay(date)
+						.tradingDay(date)
+						.openPrice(date.getDayOfMonth())
+						.closePrice(date.getDayOfMonth() + 0.5)
+						.volume(date.getDayOfYear())
+						.volumeDelta(date.getDayOfYear())
+						.preClosePrice(date.getDayOfMonth() - 0.1)
+						.preSettlePrice(date.getDayOfMonth() - 0.2)
+						.build());
+			}
+			return bars;
+		}
+
+		private List<Bar> bars(Contract contract, LocalDate startDate, LocalDate endDate, int barsPerDay, int minutes) {
+			if(empty) {
+				return Collections.emptyList();
+			}
+			List<Bar> bars = new ArrayList<>();
+			for(LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+				LocalTime time = LocalTime.of(9, 0);
+				for(int i=0; i<barsPerDay; i++, time = time.plusMinutes(minutes)) {
+					double price = 3500 + i * 0.2 + date.getDayOfMonth();
+					bars.add(Bar.builder()
+							.gatewayId(contract.channelType().toString())
+							.contract(contract)
+							.channelType(contract.channelType())
+							.actionDay(date)
+							.actionTime(time)
+							.tradingDay(date)
+							.actionTimestamp(date.atTime(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+							.openPrice(price)
+							.highPrice(price + 1)
+							.lowPrice(price - 1)
+							.closePrice(price + 0.4)
+							.openInterest(100000 + i)
+							.openInterestDelta(i % 5 - 2)
+							.volume(100L * i)
+							.volumeDelta(100)
+							.turnover(3.5e6 * i)
+							.turnoverDelta(3.5e6)
+							.preOpenInterest(99000)
+							.build());
+				}
+			}
+			return bars;
+		}
+
+		@Override
+		public List<LocalDate> getHolidays(ChannelType channelType, LocalDate startDate, LocalDate endDate) {
+			return List.of(endDate.minusDays(1), endDate);
+		}
+
+		@Override
+		public List<Contract> getAllContracts() {
+			return List.of(Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").channelType(ChannelType.PLAYBACK).build());
+		}
+	}
+}
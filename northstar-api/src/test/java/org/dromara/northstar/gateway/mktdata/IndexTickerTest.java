@@ -8,7 +8,10 @@ import static org.mockito.Mockito.when;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -108,6 +111,125 @@ class IndexTickerTest {
 		assertThat(ref.get().preSettlePrice()).isCloseTo(DoubleStream.of(weightedTickMatrix.getColumn(7).toDoubleVector()).sum(), offset(1e-2));
 	}
 	
+	/* 重写前的实现在以下行情上的输出摘要，格式见 digest */
+	static final String GOLDEN_OUTPUT = "13152|2024-01-02 2024-01-02 09:00 1704157319500 MARKET_TICK 3142.60/3150.40/3134.40/3143.40 3142.40/3146.40/3147.40 5098/169 159707000.00/5260540.00 433994.00/-28.00|2024-01-02 2024-01-02 09:00 1704167117000 MARKET_TICK 3117.40/3125.20/3109.20/3118.20 3117.20/3121.20/3122.20 485752/29 15051792730.00/383210.00 500187.00/-9.00|-263843487|480823|14897346270.0000|66165.0000";
+
+	/* 与重写前的实现的输出一致：包括活跃率不足时不合成、价格按最小变动价位四舍五入 */
+	@Test
+	void testSameOutputAsLegacyImplementation() {
+		IndexContract c = mock(IndexContract.class);
+		when(c.contract()).thenReturn(Contract.builder().unifiedSymbol("test0000").name("测试指数").priceTick(0.2).build());
+		when(c.memberContracts()).thenReturn(List.of(c0, c1, c2, c3, c4, c5, c6, c7, c8, c9));
+		List<Tick> actual = new ArrayList<>();
+		IndexTicker ticker = new IndexTicker(c, actual::add);
+
+		Random r = new Random(20240102);
+		long[] volumes = new long[contracts.size()];
+		double[] prices = new double[contracts.size()];
+		double[] ois = new double[contracts.size()];
+		for(int i=0; i<prices.length; i++) {
+			prices[i] = 3000 + r.nextInt(200);
+			ois[i] = 1000 + r.nextInt(100000);
+		}
+		long time = 1704157200000L;
+		for(int n=0; n<20000; n++) {
+			// 前若干笔只有部分合约活跃，用于覆盖活跃率不足的情形
+			int i = n < 200 ? r.nextInt(7) : r.nextInt(contracts.size());
+			time += r.nextInt(3) * 500L;
+			long volDelta = r.nextInt(50);
+			double oiDelta = r.nextInt(21) - 10;
+			volumes[i] += volDelta;
+			ois[i] += oiDelta;
+			prices[i] += r.nextInt(5) - 2;
+			double p = prices[i];
+			Tick t = Tick.builder()
+					.actionDay(LocalDate.of(2024, 1, 2))
+					.actionTime(LocalTime.of(9, 0))
+					.tradingDay(LocalDate.of(2024, 1, 2))
+					.actionTimestamp(time)
+					.contract(contracts.get(i))
+					.lastPrice(p).openPrice(prices[i] - (i % 3)).highPrice(p + 7).lowPrice(p - 9)
+					.settlePrice(p - 1).preClosePrice(p + 3).preSettlePrice(p + 4)
+					.volume(volumes[i]).volumeDelta(volDelta)
+					.turnover(volumes[i] * p * 10).turnoverDelta(volDelta * p * 10)
+					.openInterest(ois[i]).openInterestDelta(oiDelta).preOpenInterest(ois[i] - 500)
+					.type(n % 97 == 0 ? TickType.INFO_TICK : TickType.MARKET_TICK)
+					.build();
+			ticker.update(t);
+		}
+		assertThat(digest(actual)).isEqualTo(GOLDEN_OUTPUT);
+	}
+
+	/* 重写前的实现在取整边界附近的输出摘要，键为最小变动价位 */
+	static final Map<Double, String> GOLDEN_ROUNDING = Map.of(
+			0.2, "19988|2024-01-02 2024-01-02 09:00 1704157206000 MARKET_TICK 2999.60/2999.60/2999.40/2999.40 2999.20/2999.80/2999.40 56/8 1679788.00/239959.00 20.00/-3.00|2024-01-02 2024-01-02 09:00 1704167199500 MARKET_TICK 2999.80/3000.00/2999.60/2999.80 2999.60/3000.00/2999.80 199915/18 5997609833.00/500346.00 19.00/-2.00|-1202545493|199867|5996170004.0000|-4.0000",
+			0.5, "19988|2024-01-02 2024-01-02 09:00 1704157206000 MARKET_TICK 2999.00/2999.00/2998.50/2998.50 2998.00/2999.50/2998.50 56/8 1679464.00/239897.00 20.00/-3.00|2024-01-02 2024-01-02 09:00 1704167199500 MARKET_TICK 2999.50/3000.00/2999.00/2999.50 2999.00/3000.00/2999.50 199915/18 5997849575.00/440865.00 19.00/-2.00|-169578623|199867|5996410008.0000|-4.0000",
+			1.0, "19988|2024-01-02 2024-01-02 09:00 1704157206000 MARKET_TICK 2998.00/2998.00/2997.00/2997.00 2996.00/2999.00/2997.00 56/8 1678924.00/239795.00 20.00/-3.00|2024-01-02 2024-01-02 09:00 1704167199500 MARKET_TICK 2999.00/3000.00/2998.00/2999.00 2998.00/3000.00/2999.00 199915/18 5998249145.00/341730.00 19.00/-2.00|-1391187327|199867|5996810016.0000|-4.0000",
+			0.01, "19988|2024-01-02 2024-01-02 09:00 1704157206000 MARKET_TICK 2999.98/2999.98/2999.97/2999.97 2999.96/2999.99/2999.97 56/8 1679993.00/239997.00 20.00/-3.00|2024-01-02 2024-01-02 09:00 1704167199500 MARKET_TICK 2999.99/3000.00/2999.98/2999.99 2999.98/3000.00/2999.99 199915/18 5997457996.00/538017.00 19.00/-2.00|1752707691|199867|5996018000.0000|-4.0000",
+			0.05, "19988|2024-01-02 2024-01-02 09:00 1704157206000 MARKET_TICK 2999.90/2999.90/2999.85/2999.85 2999.80/2999.95/2999.85 56/8 1679950.00/239989.00 20.00/-3.00|2024-01-02 2024-01-02 09:00 1704167199500 MARKET_TICK 2999.95/3000.00/2999.90/2999.95 2999.90/3000.00/2999.95 199915/18 5997489962.00/530087.00 19.00/-2.00|-1908825060|199867|5996050001.0000|-4.0000");
+
+	/* 加权价格恰好落在取整边界（半个最小变动价位）附近时，与重写前的实现取整结果一致 */
+	@Test
+	void testSameRoundingAsLegacyAtBoundaries() {
+		for(double pt : new double[] {0.2, 0.5, 1, 0.01, 0.05}) {
+			IndexContract c = mock(IndexContract.class);
+			when(c.contract()).thenReturn(Contract.builder().unifiedSymbol("test0000").name("测试指数").priceTick(pt).build());
+			when(c.memberContracts()).thenReturn(List.of(c0, c1, c2, c3, c4, c5, c6, c7, c8, c9));
+			List<Tick> actual = new ArrayList<>();
+			IndexTicker ticker = new IndexTicker(c, actual::add);
+
+			// 价格为半个最小变动价位的整数倍，持仓量很小，加权价格频繁地恰好等于或紧挨取整边界
+			Random r = new Random(7);
+			long time = 1704157200000L;
+			for(int n=0; n<20000; n++) {
+				int i = r.nextInt(contracts.size());
+				time += 500;
+				double p = 3000 + (r.nextInt(40) - 20) * pt / 2;
+				double oi = 1 + r.nextInt(4);
+				Tick t = Tick.builder()
+						.actionDay(LocalDate.of(2024, 1, 2))
+						.actionTime(LocalTime.of(9, 0))
+						.tradingDay(LocalDate.of(2024, 1, 2))
+						.actionTimestamp(time)
+						.contract(contracts.get(i))
+						.lastPrice(p).openPrice(p + pt / 2).highPrice(p + pt).lowPrice(p - pt / 2)
+						.settlePrice(p - pt).preClosePrice(p + 1.5 * pt).preSettlePrice(p + pt / 10)
+						.volume(n).volumeDelta(1).turnover(n * p * 10 + 0.5).turnoverDelta(p * 10)
+						.openInterest(oi).openInterestDelta(r.nextInt(3) - 1).preOpenInterest(oi + 0.1)
+						.type(TickType.MARKET_TICK)
+						.build();
+				ticker.update(t);
+			}
+			assertThat(digest(actual)).as("priceTick %s", pt).isEqualTo(GOLDEN_ROUNDING.get(pt));
+		}
+	}
+
+	/* 三个成分持仓相同，价格 3000.0/3000.1/3000.2，加权价格在 0.2 最小变动价位下恰为 3000.1，位于进位边界 */
+	@Test
+	void testExactHalfTickBoundary() {
+		IndexContract c = mock(IndexContract.class);
+		when(c.contract()).thenReturn(Contract.builder().unifiedSymbol("test0000").name("测试指数").priceTick(0.2).build());
+		when(c.memberContracts()).thenReturn(List.of(c0, c1, c2));
+		List<Tick> actual = new ArrayList<>();
+		IndexTicker ticker = new IndexTicker(c, actual::add);
+		double[] prices = {3000.0, 3000.1, 3000.2, 3000.0};
+		for(int i=0; i<prices.length; i++) {
+			Tick t = Tick.builder()
+					.actionTimestamp(i + 1L)
+					.contract(contracts.get(i % 3))
+					.lastPrice(prices[i]).openInterest(3)
+					.type(TickType.MARKET_TICK)
+					.build();
+			ticker.update(t);
+		}
+		// 三个成分都有行情后才合成一笔，加权价格进位为第15001个最小变动价位，与重写前的实现一致
+		assertThat(actual).singleElement().satisfies(t -> {
+			assertThat(t.actionTimestamp()).isEqualTo(3);
+			assertThat(t.lastPrice()).isEqualTo(15001 * 0.2);
+			assertThat(t.openInterest()).isEqualTo(9);
+		});
+	}
+
 	@Test
 	void testMatrix() {
 		Tick t0 = createTick(cc0, 0);
@@ -223,4 +345,19 @@ class IndexTickerTest {
 				.build();
 	}
 	
+
+	/* 笔数|首笔|末笔|各价格字段逐笔的顺序哈希|成交量变化、成交额变化、持仓变化之和 */
+	static String digest(List<Tick> ticks) {
+		double[] prices = ticks.stream()
+				.flatMapToDouble(t -> DoubleStream.of(t.lastPrice(), t.openPrice(), t.highPrice(), t.lowPrice(), t.settlePrice(), t.preClosePrice(), t.preSettlePrice()))
+				.toArray();
+		return String.format(Locale.ROOT, "%d|%s|%s|%d|%d|%.4f|%.4f", ticks.size(), line(ticks.get(0)), line(ticks.get(ticks.size() - 1)), Arrays.hashCode(prices),
+				ticks.stream().mapToLong(Tick::volumeDelta).sum(), ticks.stream().mapToDouble(Tick::turnoverDelta).sum(), ticks.stream().mapToDouble(Tick::openInterestDelta).sum());
+	}
+
+	static String line(Tick t) {
+		return String.format(Locale.ROOT, "%s %s %s %d %s %.2f/%.2f/%.2f/%.2f %.2f/%.2f/%.2f %d/%d %.2f/%.2f %.2f/%.2f", t.tradingDay(), t.actionDay(), t.actionTime(), t.actionTimestamp(), t.type(),
+				t.openPrice(), t.highPrice(), t.lowPrice(), t.lastPrice(), t.settlePrice(), t.preClosePrice(), t.preSettlePrice(),
+				t.volume(), t.volumeDelta(), t.turnover(), t.turnoverDelta(), t.openInterest(), t.openInterestDelta());
+	}
 }
@@ -2,19 +2,32 @@ package org.dromara.northstar.gateway.mktdata;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.regex.Pattern;
 
 import org.dromara.northstar.common.constant.ChannelType;
 import org.dromara.northstar.common.constant.ConnectionState;
+import org.dromara.northstar.common.constant.TickType;
 import org.dromara.northstar.common.event.FastEventEngine;
+import org.dromara.northstar.common.event.FastEventEngine.TickTranslator;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.model.GatewayDescription;
 import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.ContractDefinition;
 import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.utils.CommonUtils;
 import org.dromara.northstar.gateway.Instrument;
 import org.dromara.northstar.gateway.MarketGateway;
 import org.junit.jupiter.api.Test;
@@ -24,7 +37,9 @@ import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
 
 class MarketCenterTest {
 	
-	MarketCenter mktCenter = new MarketCenter(mock(FastEventEngine.class));
+	FastEventEngine feEngine = mock(FastEventEngine.class);
+	
+	MarketCenter mktCenter = new MarketCenter(feEngine);
 	
 	@Test
 	void testAddAndGetDefinitions() {
@@ -101,6 +116,40 @@ class MarketCenterTest {
 		assertThat(mktCenter.lastTick(c)).hasValue(tick);
 	}
 
+	@Test
+	void testTickSlot() {
+		ContractDefinition cd = ContractDefinition.builder().name("test").exchange(ExchangeEnum.DCE).productClass(ProductClassEnum.FUTURES).symbolPattern(Pattern.compile(".+")).build();
+		mktCenter.addDefinitions(List.of(cd));
+		DummyInstrument ins = new DummyInstrument();
+		mktCenter.addInstrument(ins);
+		Contract c = ins.contract();
+		LocalDate day = LocalDate.of(2024, 3, 1);
+		TickTranslator<LocalTime> translator = (slot, time) -> slot.contract(c)
+				.channelType(ChannelType.CTP)
+				.type(TickType.MARKET_TICK)
+				.actionDay(day)
+				.tradingDay(day)
+				.actionTime(time)
+				.actionTimestamp(CommonUtils.localDateTimeToMills(LocalDateTime.of(day, time)))
+				.lastPrice(time.getMinute())
+				.level(0, 1, 2, 3, 4);
+		
+		mktCenter.onTick(translator, LocalTime.of(9, 0, 1));
+		mktCenter.onTick(translator, LocalTime.of(9, 1, 1));
+		// 由市场中心发布TICK，跨分钟的TICK使K线收盘
+		verify(feEngine, times(2)).emitTick(any(), any(TickSlot.class));
+		verify(feEngine).emitEvent(eq(NorthstarEventType.BAR), any(Bar.class));
+		// 最近一个TICK按需复制
+		Tick lastTick = mktCenter.lastTick(c).orElseThrow();
+		assertThat(lastTick.actionTime()).isEqualTo(LocalTime.of(9, 1, 1));
+		assertThat(lastTick.bidPrice()).containsExactly(1.0);
+		assertThat(mktCenter.lastTick(c)).containsSame(lastTick);
+		
+		Tick tick = Tick.builder().contract(c).channelType(ChannelType.CTP).build();
+		mktCenter.onTick(tick);
+		assertThat(mktCenter.lastTick(c)).hasValue(tick);
+	}
+
 	@Test
 	void testAddAndGetGateway() {
 		MarketGateway gateway = new DummyGateway();
@@ -141,7 +190,7 @@ class MarketCenterTest {
 
 		@Override
 		public Contract contract() {
-			return Contract.builder().unifiedSymbol("test").symbol("test").gatewayId("CTP").build();
+			return Contract.builder().unifiedSymbol("test").symbol("test").gatewayId("CTP").channelType(ChannelType.CTP).build();
 		}
 		
 	}
@@ -86,4 +86,79 @@ class MinuteBarGeneratorTest {
 		}
 		assertThat(results).hasSize(count);
 	}
+
+	@Test
+	void testCloseAtMinuteEndWithoutFurtherTicks() {
+		LocalDate date = LocalDate.now();
+		long tickTime = CommonUtils.localDateTimeToMills(LocalDateTime.of(date, LocalTime.of(10, 0, 30)));
+		long minuteEnd = CommonUtils.localDateTimeToMills(LocalDateTime.of(date, LocalTime.of(10, 1)));
+		barGen.update(tick(c, date, LocalTime.of(10, 0, 30)));
+		barGen.sweep(tickTime);
+		
+		barGen.sweep(minuteEnd + 1000);
+		assertThat(results).isEmpty();
+		barGen.sweep(minuteEnd + 2000);
+		assertThat(results).hasSize(1);
+		assertThat(results.get(0).actionTime()).isEqualTo(LocalTime.of(10, 1));
+		// 不会重复收盘
+		barGen.sweep(minuteEnd + 3000);
+		assertThat(results).hasSize(1);
+	}
+	
+	@Test
+	void testCloseByFeedClockWhenLocalClockAhead() {
+		LocalDate date = LocalDate.now();
+		long tickTime = CommonUtils.localDateTimeToMills(LocalDateTime.of(date, LocalTime.of(10, 0, 58)));
+		long minuteEnd = CommonUtils.localDateTimeToMills(LocalDateTime.of(date, LocalTime.of(10, 1)));
+		// 本地时钟比行情快5秒
+		long skew = 5000;
+		barGen.update(tick(c, date, LocalTime.of(10, 0, 58)));
+		barGen.sweep(tickTime + skew);
+		
+		barGen.sweep(minuteEnd + 2000);
+		barGen.sweep(minuteEnd + skew + 1000);
+		assertThat(results).isEmpty();
+		barGen.sweep(minuteEnd + skew + 2000);
+		assertThat(results).hasSize(1);
+	}
+	
+	@Test
+	void testForceCloseWhenTicksStop() {
+		// 行情时间落后本地时间超过2分钟，不按分钟结束收盘，只在TICK停止2分钟后强制收盘
+		LocalDate date = LocalDate.now();
+		LocalTime time = LocalTime.of(10, 0, 30);
+		long tickTime = CommonUtils.localDateTimeToMills(LocalDateTime.of(date, time));
+		barGen.update(tick(c, date, time));
+		
+		barGen.sweep(tickTime + 300000);
+		barGen.sweep(tickTime + 360000);
+		assertThat(results).isEmpty();
+		barGen.sweep(tickTime + 421000);
+		assertThat(results).hasSize(1);
+	}
+	
+	@Test
+	void testNoForceCloseWhileTicksKeepArriving() {
+		// 回放的历史行情：TICK时间远早于当前时间，但仍持续到达
+		LocalDate date = LocalDate.now().minusDays(10);
+		LocalTime time = LocalTime.of(10, 0, 30);
+		long now = System.currentTimeMillis();
+		for(int i=0; i<10; i++) {
+			barGen.update(tick(c, date, time));
+			barGen.sweep(now + i * 60000);
+		}
+		assertThat(results).isEmpty();
+	}
+	
+	private Tick tick(Contract contract, LocalDate date, LocalTime time) {
+		return Tick.builder()
+				.contract(contract)
+				.tradingDay(date)
+				.actionDay(date)
+				.actionTime(time)
+				.actionTimestamp(CommonUtils.localDateTimeToMills(LocalDateTime.of(date, time)))
+				.channelType(ChannelType.CTP)
+				.type(TickType.MARKET_TICK)
+				.build();
+	}
 }
@@ -0,0 +1,56 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.ResultSet;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 数据源结果集转换基准测试
+ * 测量直接解码20万行分钟数据（约一年半）的耗时与分配
+ * 运行方式：直接执行 main 方法（已启用 GC profiler）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ResultSetBarDecoderBenchmark {
+
+	Contract contract = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").symbol("rb2405").priceTick(1).channelType(ChannelType.PLAYBACK).build();
+
+	ResultSet rs;
+
+	@Setup
+	public void setup() {
+		rs = ResultSetBarDecoderTest.minuteResultSet(200000, 7);
+	}
+
+	@Benchmark
+	public List<Bar> decoder() {
+		return new ResultSetBarDecoder(contract).decodeMinuteBars(rs);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(ResultSetBarDecoderBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,196 @@
+package org.dromara.northstar.gateway.mktdata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.DateTimeConstant;
+import org.dromara.northstar.common.model.ResultSet;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.junit.jupiter.api.Test;
+
+class ResultSetBarDecoderTest {
+
+	static final String[] MINUTE_FIELDS = {"ts_code", "trade_time", "trading_day", "open", "close", "high", "low", "oi", "oi_delta", "vol", "vol_delta", "amount", "amount_delta", "pre_oi"};
+
+	static final String[] DAILY_FIELDS = {"ts_code", "trade_date", "pre_close", "pre_settle", "open", "high", "low", "close", "settle", "vol", "amount", "oi", "oi_chg", "pre_oi"};
+
+	Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").symbol("rb2405").priceTick(1).channelType(ChannelType.PLAYBACK).build();
+
+	Contract rbIndex = Contract.builder().unifiedSymbol("rb0000@SHFE@FUTURES").symbol("rb0000").priceTick(0.2).channelType(ChannelType.PLAYBACK).build();
+
+	/* 原有基于 JSONObject 的逐行转换在以下结果集上的输出摘要，格式见 digest */
+	static final String GOLDEN_MINUTE = "20000|PLAYBACK 2021-01-04 2021-01-04 09:01 1609750860000 PLAYBACK 3997.80/4000.80/3995.40/3998.80 0.00/0.00 1000000.00/-56.00/999000.00 485/485 19389330.00/19389330.00|PLAYBACK 2021-02-28 2021-02-28 12:20 1614514800000 PLAYBACK 11681.60/11684.60/11679.20/11682.60 0.00/0.00 1019999.00/-37.00/999000.00 5005701/497 584745968016.00/58057552.00|-1599876011";
+
+	static final String GOLDEN_MINUTE_INDEX = "20000|PLAYBACK 2021-01-04 2021-01-04 09:01 1609750860000 PLAYBACK 3997.80/4000.80/3995.40/3998.80 0.00/0.00 1000000.00/-56.00/999000.00 485/485 19389330.00/19389330.00|PLAYBACK 2021-02-28 2021-02-28 12:20 1614514800000 PLAYBACK 11681.60/11684.60/11679.20/11682.60 0.00/0.00 1019999.00/-37.00/999000.00 5005701/497 584745968016.00/58057552.00|-736025994";
+
+	static final String GOLDEN_DAILY = "2000|PLAYBACK 2015-01-06 2015-01-06 null 0 PLAYBACK 3993.80/4008.80/3986.60/3998.80 4000.00/3999.00 2000000.00/-3746.00/1990000.00 829485/829485 96289567.40/96289567.40|PLAYBACK 2020-06-27 2020-06-27 null 0 PLAYBACK 5167.40/5182.40/5160.20/5172.40 5161.40/5160.40 2001999.00/-1043.00/1991999.00 895009/895009 4089758425.51/4089758425.51|-1958410263";
+
+	static final String GOLDEN_DAILY_INDEX = "2000|PLAYBACK 2015-01-06 2015-01-06 null 0 PLAYBACK 3993.80/4008.80/3986.60/3998.80 4000.00/3999.00 2000000.00/-3746.00/1990000.00 829485/829485 96289567.40/96289567.40|PLAYBACK 2020-06-27 2020-06-27 null 0 PLAYBACK 5167.40/5182.40/5160.20/5172.40 5161.40/5160.40 2001999.00/-1043.00/1991999.00 895009/895009 4089758425.51/4089758425.51|-931483703";
+
+	@Test
+	void shouldDecodeMinuteBarsToGoldenResult() {
+		ResultSet rs = minuteResultSet(20000, 7);
+		assertThat(digest(new ResultSetBarDecoder(rb).decodeMinuteBars(rs))).isEqualTo(GOLDEN_MINUTE);
+		assertThat(digest(new ResultSetBarDecoder(rbIndex).decodeMinuteBars(rs))).isEqualTo(GOLDEN_MINUTE_INDEX);
+	}
+
+	@Test
+	void shouldDecodeDailyBarsToGoldenResult() {
+		ResultSet rs = dailyResultSet(2000, 7);
+		assertThat(digest(new ResultSetBarDecoder(rb).decodeDailyBars(rs))).isEqualTo(GOLDEN_DAILY);
+		assertThat(digest(new ResultSetBarDecoder(rbIndex).decodeDailyBars(rs))).isEqualTo(GOLDEN_DAILY_INDEX);
+	}
+
+	@Test
+	void shouldTreatMissingAndNullValuesAsZero() {
+		ResultSet rs = ResultSet.builder()
+				.fields(new String[] {"trade_time", "trading_day", "open", "vol", "vol_delta", "amount"})
+				.items(new String[][] {
+					{"2024-03-22 09:01:00", "2024-03-22", "", null, "12.0", "null"},
+					{"2024-03-22 09:02:00", "2024-03-22", "3500.5", "-7.6", "", "1e3"},
+				})
+				.build();
+		Bar template = Bar.builder()
+				.gatewayId("PLAYBACK")
+				.channelType(ChannelType.PLAYBACK)
+				.contract(rb)
+				.actionDay(LocalDate.of(2024, 3, 22))
+				.tradingDay(LocalDate.of(2024, 3, 22))
+				.build();
+		// 缺失字段、空串与 "null" 按0处理，整数字段的小数部分截断
+		assertThat(new ResultSetBarDecoder(rb).decodeMinuteBars(rs)).containsExactly(
+				template.toBuilder().actionTime(LocalTime.of(9, 1)).actionTimestamp(1711098060000L).volumeDelta(12).build(),
+				template.toBuilder().actionTime(LocalTime.of(9, 2)).actionTimestamp(1711098120000L).openPrice(3500.5).volume(-7).turnover(1000).build());
+	}
+
+	@Test
+	void shouldParseDecimalsExactlyAsDoubleParseDouble() {
+		Random rand = new Random(11);
+		String[][] items = new String[50000][];
+		for(int i=0; i<items.length; i++) {
+			double value = (rand.nextDouble() - 0.5) * Math.pow(10, rand.nextInt(12));
+			items[i] = new String[] {
+					"2024-03-22 09:01:00", "2024-03-22", 
+					String.format("%." + rand.nextInt(10) + "f", value),
+					String.valueOf(value),
+					String.valueOf(rand.nextLong()),
+					String.format("%.0f", value) + ".",
+			};
+		}
+		ResultSet rs = ResultSet.builder()
+				.fields(new String[] {"trade_time", "trading_day", "open", "amount", "oi", "pre_oi"})
+				.items(items)
+				.build();
+		List<Bar> bars = new ResultSetBarDecoder(rb).decodeMinuteBars(rs);
+		assertThat(bars).hasSize(items.length);
+		for(int i=0; i<items.length; i++) {
+			Bar bar = bars.get(i);
+			assertThat(bar.openPrice()).as(items[i][2]).isEqualTo(Double.parseDouble(items[i][2]));
+			assertThat(bar.turnover()).as(items[i][3]).isEqualTo(Double.parseDouble(items[i][3]));
+			assertThat(bar.openInterest()).as(items[i][4]).isEqualTo(Double.parseDouble(items[i][4]));
+			assertThat(bar.preOpenInterest()).as(items[i][5]).isEqualTo(Double.parseDouble(items[i][5]));
+		}
+	}
+
+	@Test
+	void shouldRejectNonStandardTradeTime() {
+		ResultSet rs = ResultSet.builder()
+				.fields(new String[] {"trade_time", "trading_day"})
+				.items(new String[][] {{"2024-03-22 09:01", "2024-03-22"}})
+				.build();
+		assertThatThrownBy(() -> new ResultSetBarDecoder(rb).decodeMinuteBars(rs)).isInstanceOf(DateTimeParseException.class);
+	}
+
+	static ResultSet minuteResultSet(int rows, long seed) {
+		Random rand = new Random(seed);
+		LocalDateTime time = LocalDateTime.of(2021, 1, 4, 9, 0);
+		LocalDate tradingDay = time.toLocalDate();
+		String[][] items = new String[rows][];
+		double price = 4000;
+		long vol = 0;
+		for(int i=0; i<rows; i++) {
+			time = time.plusMinutes(1);
+			if(time.getHour() == 15) {
+				time = time.plusHours(18);
+				tradingDay = time.toLocalDate();
+			}
+			price += rand.nextInt(11) - 5 + rand.nextInt(5) * 0.2;
+			long volDelta = rand.nextInt(500);
+			vol += volDelta;
+			items[i] = new String[] {
+					"RB.SHF",
+					time.format(DateTimeConstant.DT_FORMAT_FORMATTER),
+					tradingDay.toString(),
+					String.valueOf(price),
+					String.valueOf(price + 1),
+					String.valueOf(price + 3),
+					String.valueOf(price - 2.4),
+					String.valueOf(1000000.0 + i),
+					String.valueOf(rand.nextInt(200) - 100.0),
+					// 数据源的成交量可能带小数位
+					i % 3 == 0 ? vol + ".0" : String.valueOf(vol),
+					String.valueOf(volDelta),
+					String.valueOf(vol * price * 10),
+					String.valueOf(volDelta * price * 10),
+					String.valueOf(999000.0)
+			};
+		}
+		return ResultSet.builder().fields(MINUTE_FIELDS.clone()).items(items).build();
+	}
+
+	static ResultSet dailyResultSet(int rows, long seed) {
+		Random rand = new Random(seed);
+		LocalDate date = LocalDate.of(2015, 1, 5);
+		String[][] items = new String[rows][];
+		double price = 4000;
+		for(int i=0; i<rows; i++) {
+			date = date.plusDays(1);
+			double preClose = price;
+			price += rand.nextInt(41) - 20 + rand.nextInt(5) * 0.2;
+			items[i] = new String[] {
+					"RB.SHF",
+					date.format(DateTimeConstant.D_FORMAT_INT_FORMATTER),
+					String.valueOf(preClose),
+					String.valueOf(preClose - 1),
+					String.valueOf(price - 5),
+					String.valueOf(price + 10),
+					String.valueOf(price - 12.2),
+					String.valueOf(price),
+					String.valueOf(price - 1),
+					String.valueOf(rand.nextInt(1000000) + ".0"),
+					String.valueOf(rand.nextDouble() * 1e10),
+					String.valueOf(2000000.0 + i),
+					String.valueOf(rand.nextInt(20000) - 10000.0),
+					String.valueOf(1990000.0 + i)
+			};
+		}
+		return ResultSet.builder().fields(DAILY_FIELDS.clone()).items(items).build();
+	}
+
+	/* 根数|首根K线|末根K线|全部数值字段逐根的顺序哈希 */
+	static String digest(List<Bar> bars) {
+		double[] values = bars.stream()
+				.flatMapToDouble(b -> DoubleStream.of(b.openPrice(), b.highPrice(), b.lowPrice(), b.closePrice(), b.preClosePrice(), b.preSettlePrice(),
+						b.openInterest(), b.openInterestDelta(), b.preOpenInterest(), b.turnover(), b.turnoverDelta(), b.volume(), b.volumeDelta(), b.actionTimestamp()))
+				.toArray();
+		return String.format(Locale.ROOT, "%d|%s|%s|%d", bars.size(), line(bars.get(0)), line(bars.get(bars.size() - 1)), Arrays.hashCode(values));
+	}
+
+	static String line(Bar b) {
+		return String.format(Locale.ROOT, "%s %s %s %s %d %s %.2f/%.2f/%.2f/%.2f %.2f/%.2f %.2f/%.2f/%.2f %d/%d %.2f/%.2f", b.gatewayId(), b.tradingDay(), b.actionDay(), b.actionTime(), b.actionTimestamp(), b.channelType(),
+				b.openPrice(), b.highPrice(), b.lowPrice(), b.closePrice(), b.preClosePrice(), b.preSettlePrice(), b.openInterest(), b.openInterestDelta(), b.preOpenInterest(),
+				b.volume(), b.volumeDelta(), b.turnover(), b.turnoverDelta());
+	}
+}
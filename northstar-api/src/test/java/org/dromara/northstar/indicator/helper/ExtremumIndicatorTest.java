@@ -0,0 +1,99 @@
+package org.dromara.northstar.indicator.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.Num;
+import org.junit.jupiter.api.Test;
+
+class ExtremumIndicatorTest {
+
+	Contract contract = Contract.builder().build();
+
+	Configuration cfg = Configuration.builder().contract(contract).cacheLength(50).build();
+
+	SimpleValueIndicator src = new SimpleValueIndicator(cfg.toBuilder().cacheLength(14).build());
+
+	HHVIndicator hhv = new HHVIndicator(cfg, src);
+
+	LLVIndicator llv = new LLVIndicator(cfg, src);
+
+	/* 以下期望值由原有每次遍历源指标数据的实现在同一序列上得出 */
+	int count;
+
+	double hhvSum;
+
+	double llvSum;
+
+	@Test
+	void shouldMatchGoldenResultsOverLongRandomSeries() {
+		Random rand = new Random(17);
+		double price = 3500;
+		long timestamp = 0;
+		for(int i=0; i<100000; i++) {
+			timestamp += 60000;
+			// 每根K线之前有若干次不稳定更新
+			for(int j=rand.nextInt(4); j>0; j--) {
+				price += rand.nextInt(11) - 5;
+				update(Num.of(price, timestamp, true));
+			}
+			price += rand.nextInt(11) - 5;
+			update(Num.of(price, timestamp, false));
+			// 偶尔出现重复推送
+			if(rand.nextInt(100) == 0) {
+				update(Num.of(price + 1, timestamp, false));
+			}
+			// 偶尔只有源指标被更新
+			if(rand.nextInt(500) == 0) {
+				timestamp += 60000;
+				src.update(Num.of(price, timestamp, false));
+			}
+		}
+		assertThat(hhv.isReady()).isTrue();
+		assertGolden(251087, 668880525, 663024688, -1422073951, 1440531361);
+	}
+
+	@Test
+	void shouldResyncWhenSourceFollowsAnother() {
+		SimpleValueIndicator leader = new SimpleValueIndicator(cfg.toBuilder().cacheLength(14).build());
+		Random rand = new Random(19);
+		for(int i=1; i<=100; i++) {
+			Num num = Num.of(rand.nextInt(100), i, false);
+			leader.update(num);
+			update(num);
+		}
+		src.follow(leader);
+		for(int i=101; i<=300; i++) {
+			Num num = Num.of(rand.nextInt(100), i, rand.nextBoolean());
+			leader.update(num);
+			update(num);
+		}
+		assertGolden(287, 26506, 2527, 504229630, 1363472126);
+	}
+
+	private void update(Num num) {
+		src.update(num);
+		hhv.update(num);
+		llv.update(num);
+		assertThat(hhv.getData()).hasSameSizeAs(llv.getData());
+		if(hhv.getData().isEmpty()) {
+			return;
+		}
+		assertThat(hhv.value(0)).isGreaterThanOrEqualTo(llv.value(0));
+		count++;
+		hhvSum += hhv.value(0);
+		llvSum += llv.value(0);
+	}
+
+	/* 有效输出次数、最近值之和，以及最终缓存数据（含时间戳与不稳定标记）的哈希 */
+	private void assertGolden(int expCount, double expHhvSum, double expLlvSum, int hhvHash, int llvHash) {
+		assertThat(count).isEqualTo(expCount);
+		assertThat(hhvSum).isEqualTo(expHhvSum);
+		assertThat(llvSum).isEqualTo(expLlvSum);
+		assertThat(hhv.getData().hashCode()).isEqualTo(hhvHash);
+		assertThat(llv.getData().hashCode()).isEqualTo(llvHash);
+	}
+}
@@ -0,0 +1,125 @@
+package org.dromara.northstar.indicator.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Random;
+
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.indicator.Indicator;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.Num;
+import org.dromara.northstar.indicator.volatility.BOLLIndicator;
+import org.junit.jupiter.api.Test;
+
+class StandardDeviationIndicatorTest {
+
+	Contract contract = Contract.builder().build();
+
+	Configuration cfg = Configuration.builder().contract(contract).cacheLength(50).build();
+
+	/* 以下期望值由原有基于 commons-math 全量计算的实现在同一序列上得出 */
+	int count;
+
+	double sum;
+
+	@Test
+	void shouldMatchGoldenResultsOverLongRandomSeries() {
+		StandardDeviationIndicator std = new StandardDeviationIndicator(cfg, 20);
+		Random rand = new Random(11);
+		double price = 3500;
+		long timestamp = 0;
+		for(int i=0; i<200000; i++) {
+			timestamp += 60000;
+			// 每根K线之前有若干次不稳定更新
+			for(int j=rand.nextInt(4); j>0; j--) {
+				price += rand.nextGaussian() * 3;
+				update(Num.of(price, timestamp, true), std);
+			}
+			price += rand.nextGaussian() * 3;
+			// 偶尔出现无效值
+			double value = rand.nextInt(5000) == 0 ? Double.NaN : price;
+			update(Num.of(value, timestamp, false), std);
+		}
+		assertThat(std.isReady()).isTrue();
+		assertGolden(std, 500093, 4087470.4778317246, 11.227276769324162, 11.238722561838640, 5.6263439501465350);
+	}
+
+	@Test
+	void shouldStayAccurateForLargeValues() {
+		StandardDeviationIndicator std = new StandardDeviationIndicator(cfg, 30);
+		Random rand = new Random(3);
+		for(int i=1; i<=100000; i++) {
+			update(Num.of(1e8 + rand.nextDouble(), i, false), std);
+		}
+		assertGolden(std, 99971, 28729.704939309010, 0.30419484045346346, 0.30466437963189713, 0.27102750656191120);
+	}
+
+	@Test
+	void shouldMatchGoldenResultsWithSourceIndicator() {
+		Indicator src = new SimpleValueIndicator(cfg.toBuilder().cacheLength(20).build());
+		StandardDeviationIndicator std = new StandardDeviationIndicator(cfg, src);
+		Random rand = new Random(5);
+		double price = 3500;
+		for(int i=1; i<=20000; i++) {
+			boolean unstable = rand.nextBoolean();
+			price += rand.nextGaussian() * 3;
+			Num num = Num.of(price, unstable ? i + 1 : i, unstable);
+			src.update(num);
+			update(num, std);
+		}
+		assertGolden(std, 19963, 143601.06673121040, 4.2325984586773640, 4.9793263206214110, 6.2749265243242105);
+	}
+
+	@Test
+	void shouldNotChangeBollingerBands() {
+		BOLLIndicator boll = new BOLLIndicator(cfg, 20, 2);
+		Random rand = new Random(9);
+		double price = 3500;
+		for(int i=1; i<=1000; i++) {
+			price += rand.nextGaussian() * 3;
+			Num num = Num.of(price, i, false);
+			boll.dependencies().forEach(in -> in.dependencies().forEach(dep -> dep.update(num)));
+			boll.dependencies().forEach(in -> in.update(num));
+		}
+		double[] closes = new double[20];
+		Random replay = new Random(9);
+		double p = 3500;
+		for(int i=1; i<=1000; i++) {
+			p += replay.nextGaussian() * 3;
+			closes[i % 20] = p;
+		}
+		double mean = 0;
+		for(double c : closes) {
+			mean += c / 20;
+		}
+		double var = 0;
+		for(double c : closes) {
+			var += (c - mean) * (c - mean) / 19;
+		}
+		assertThat(boll.getUpper().value(0)).isCloseTo(mean + 2 * Math.sqrt(var), within(1e-8));
+		assertThat(boll.getLower().value(0)).isCloseTo(mean - 2 * Math.sqrt(var), within(1e-8));
+	}
+
+	private void update(Num num, StandardDeviationIndicator std) {
+		std.update(num);
+		if(std.getData().isEmpty()) {
+			return;
+		}
+		Num actual = std.get(0);
+		// 样本含无效值时不产生新值，最近值保持不变
+		assertThat(actual.timestamp()).isLessThanOrEqualTo(num.timestamp());
+		assertThat(actual.value()).isNotNaN();
+		count++;
+		sum += actual.value();
+	}
+
+	/* 有效输出次数、输出值之和，以及最近值、上一个值与回溯10步的值 */
+	private void assertGolden(StandardDeviationIndicator std, int expCount, double expSum, double v0, double v1, double v10) {
+		assertThat(count).isEqualTo(expCount);
+		assertThat(sum).isCloseTo(expSum, within(1e-9 * expSum));
+		assertThat(std.value(0)).isCloseTo(v0, within(1e-9 * v0));
+		assertThat(std.value(-1)).isCloseTo(v1, within(1e-9 * v1));
+		assertThat(std.value(-10)).isCloseTo(v10, within(1e-9 * v10));
+	}
+}
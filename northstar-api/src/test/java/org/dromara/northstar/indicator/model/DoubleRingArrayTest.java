@@ -0,0 +1,96 @@
+package org.dromara.northstar.indicator.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DoubleRingArrayTest {
+
+	@Test
+	void testEmpty() {
+		DoubleRingArray ring = new DoubleRingArray(5);
+		assertThat(ring.size()).isZero();
+		assertThat(ring.isEmpty(0)).isTrue();
+		assertThat(ring.value(0)).isNaN();
+		assertThat(ring.get(0)).isNull();
+		assertThat(ring.toDoubleArray()).isEmpty();
+		assertThat(ring.toArray()).hasSize(5).containsOnlyNulls();
+	}
+
+	@Test
+	void testUpdate() {
+		DoubleRingArray ring = new DoubleRingArray(3);
+		assertThat(ring.update(1, 1, false)).isNaN();
+		assertThat(ring.update(2, 2, true)).isNaN();
+		assertThat(ring.update(3, 2, true)).isEqualTo(2);
+		assertThat(ring.update(4, 2, false)).isEqualTo(3);
+		assertThat(ring.size()).isEqualTo(2);
+		assertThat(ring.isFull()).isFalse();
+		assertThat(ring.update(5, 3, false)).isNaN();
+		assertThat(ring.isFull()).isTrue();
+		assertThat(ring.update(6, 4, false)).isEqualTo(1);
+		assertThat(ring.numOfUpdates()).isEqualTo(6);
+
+		assertThat(ring.get(0)).isEqualTo(Num.of(6, 4));
+		assertThat(ring.get(-1)).isEqualTo(Num.of(5, 3));
+		assertThat(ring.tail()).isEqualTo(4);
+		assertThat(ring.toDoubleArray()).containsExactly(6, 5, 4);
+	}
+
+	@Test
+	void testContentEquals() {
+		DoubleRingArray ring1 = new DoubleRingArray(3);
+		DoubleRingArray ring2 = new DoubleRingArray(3);
+		// 起点不同，但最近的值一致
+		ring1.update(9, 0, false);
+		for(int i=1; i<=4; i++) {
+			ring1.update(i, i, false);
+			ring2.update(i, i, false);
+		}
+		assertThat(ring1.contentEquals(ring2)).isTrue();
+		ring1.update(5, 5, true);
+		assertThat(ring1.contentEquals(ring2)).isFalse();
+		ring2.update(5, 5, false);
+		assertThat(ring1.contentEquals(ring2)).isFalse();
+		assertThat(ring1.contentEquals(new DoubleRingArray(4))).isFalse();
+	}
+
+	@Test
+	void testUnstableFlag() {
+		DoubleRingArray ring = new DoubleRingArray(3);
+		ring.update(1, 1, false);
+		ring.update(2, 2, true);
+		assertThat(ring.unstable(0)).isTrue();
+		assertThat(ring.unstable(-1)).isFalse();
+		ring.update(2, 2, false);
+		assertThat(ring.unstable(0)).isFalse();
+		assertThat(ring.timestamp(0)).isEqualTo(2);
+	}
+
+	@Test
+	void shouldMatchRingArray() {
+		Random rand = new Random(7);
+		for(int length : new int[] {1, 4, 16}) {
+			RingArray<Num> expected = new RingArray<>(length);
+			DoubleRingArray ring = new DoubleRingArray(length);
+			// 按 RingArray 的接口使用
+			RingArray<Num> compat = new DoubleRingArray(length);
+			for(int i=0; i<500; i++) {
+				Num num = Num.of(rand.nextGaussian(), i, rand.nextInt(3) == 0);
+				Optional<Num> old = expected.update(num, num.unstable());
+				assertThat(Double.valueOf(ring.update(num))).isEqualTo(Double.valueOf(old.orElse(Num.NaN()).value()));
+				assertThat(compat.update(num, num.unstable())).isEqualTo(old);
+				assertThat(ring.size()).isEqualTo(expected.size());
+				assertThat(compat.size()).isEqualTo(expected.size());
+				assertThat(compat.toArray()).isEqualTo(expected.toArray());
+				for(int j=0; j>-length; j--) {
+					assertThat(ring.get(j)).isEqualTo(expected.get(j));
+					assertThat(compat.get(j)).isEqualTo(expected.get(j));
+				}
+			}
+		}
+	}
+}
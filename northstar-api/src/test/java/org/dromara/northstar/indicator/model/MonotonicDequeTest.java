@@ -0,0 +1,85 @@
+package org.dromara.northstar.indicator.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MonotonicDequeTest {
+
+	@Test
+	void testMax() {
+		MonotonicDeque deque = new MonotonicDeque(3, true);
+		assertThat(deque.value()).isNaN();
+		deque.update(5, false);
+		deque.update(3, false);
+		deque.update(4, false);
+		assertThat(deque.value()).isEqualTo(5);
+		deque.update(1, false);
+		assertThat(deque.value()).isEqualTo(4);
+	}
+
+	@Test
+	void shouldKeepValuesDominatedByUnstableValue() {
+		MonotonicDeque deque = new MonotonicDeque(3, true);
+		deque.update(5, false);
+		deque.update(3, false);
+		deque.update(4, true);
+		assertThat(deque.value()).isEqualTo(5);
+		deque.update(6, true);
+		assertThat(deque.value()).isEqualTo(6);
+		// 不稳定值曾经大于3，被覆盖后3仍在窗口内
+		deque.update(1, false);
+		deque.update(2, false);
+		assertThat(deque.value()).isEqualTo(3);
+		deque.clear();
+		deque.update(0, false);
+		deque.update(3, false);
+		deque.update(9, true);
+		deque.update(1, true);
+		assertThat(deque.value()).isEqualTo(3);
+	}
+
+	@Test
+	void testSignedZero() {
+		MonotonicDeque max = new MonotonicDeque(2, true);
+		MonotonicDeque min = new MonotonicDeque(2, false);
+		for(double v : new double[] {0.0, -0.0}) {
+			max.update(v, false);
+			min.update(v, false);
+		}
+		assertThat(Double.compare(max.value(), 0.0)).isZero();
+		assertThat(Double.compare(min.value(), -0.0)).isZero();
+	}
+
+	@Test
+	void shouldMatchFullScan() {
+		Random rand = new Random(13);
+		for(int length : new int[] {1, 2, 5, 30}) {
+			DoubleRingArray ring = new DoubleRingArray(length);
+			MonotonicDeque max = new MonotonicDeque(length, true);
+			MonotonicDeque min = new MonotonicDeque(length, false);
+			for(int i=0; i<20000; i++) {
+				double value = rand.nextInt(200) == 0 ? Double.NaN : rand.nextInt(50);
+				boolean unstable = rand.nextInt(3) == 0;
+				ring.update(value, i, unstable);
+				max.update(value, unstable);
+				min.update(value, unstable);
+				assertThat(Double.valueOf(max.value())).isEqualTo(Double.valueOf(scan(ring, true)));
+				assertThat(Double.valueOf(min.value())).isEqualTo(Double.valueOf(scan(ring, false)));
+			}
+		}
+	}
+
+	private double scan(DoubleRingArray ring, boolean max) {
+		double result = Double.NaN;
+		for(double v : ring.toDoubleArray()) {
+			if(Double.isNaN(v)) {
+				continue;
+			}
+			result = Double.isNaN(result) ? v : max ? Math.max(result, v) : Math.min(result, v);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,84 @@
+package org.dromara.northstar.indicator.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.indicator.trend.MAIndicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 指标环形数组基准测试
+ * 在1000长度的缓存上，对比泛型环形数组与基本类型环形数组的单步更新加取值，以及缓存长度为1000的MA指标的单步更新加取值
+ * 运行方式：直接执行 main 方法（已启用 GC profiler）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RingArrayBenchmark {
+
+	static final int LENGTH = 1000;
+
+	RingArray<Num> ringArray;
+
+	DoubleRingArray doubleRingArray;
+
+	MAIndicator ma;
+
+	long timestamp;
+
+	@Setup
+	public void setup() {
+		ringArray = new RingArray<>(LENGTH);
+		doubleRingArray = new DoubleRingArray(LENGTH);
+		ma = new MAIndicator(Configuration.builder().indicatorName("MA").contract(Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").build()).cacheLength(LENGTH).build(), 20);
+		for(int i=0; i<LENGTH; i++) {
+			ringArray.update(Num.of(i, i), false);
+			doubleRingArray.update(i, i, false);
+			ma.update(Num.of(i, i));
+		}
+		timestamp = LENGTH;
+	}
+
+	/* 原有指标取值路径：每次取值前判断是否已准备好 */
+	@Benchmark
+	public double ringArray() {
+		long t = timestamp++;
+		ringArray.update(Num.of(t, t), false);
+		return ringArray.length() == ringArray.size() ? ringArray.get(0).value() : Double.NaN;
+	}
+
+	@Benchmark
+	public double doubleRingArray() {
+		long t = timestamp++;
+		doubleRingArray.update(t, t, false);
+		return doubleRingArray.isFull() ? doubleRingArray.value(0) : Double.NaN;
+	}
+
+	@Benchmark
+	public double maIndicator() {
+		long t = timestamp++;
+		ma.update(Num.of(t, t));
+		return ma.isReady() ? ma.value(0) : Double.NaN;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(RingArrayBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -1,10 +1,15 @@
 package org.dromara.northstar.gateway.playback;
 
+import java.nio.file.Path;
+
+import org.dromara.northstar.common.IDataSource;
 import org.dromara.northstar.common.event.FastEventEngine;
 import org.dromara.northstar.data.IPlaybackRuntimeRepository;
 import org.dromara.northstar.gateway.IContractManager;
+import org.dromara.northstar.gateway.mktdata.CachedDataSource;
 import org.dromara.northstar.gateway.mktdata.NorthstarDataSource;
 import org.dromara.northstar.gateway.mktdata.QuantitDataServiceManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.annotation.EnableRetry;
@@ -24,6 +29,16 @@ public class PlaybackConfig {
 		return new NorthstarDataSource(dataService);
 	}
 	
+	/* 回放合约的数据源，在数据服务之前增加本地磁盘缓存 */
+	@Bean
+	IDataSource playbackCachedDataSource(NorthstarDataSource playbackDataServiceManager, 
+			@Value("${northstar.data-cache.dir:data/cache}") String cacheDir,
+			@Value("${northstar.data-cache.heap-size:256}") long heapSizeInMB,
+			@Value("${northstar.data-cache.disk-size:2048}") long diskSizeInMB,
+			@Value("${northstar.data-cache.prefetch:true}") boolean prefetch) {
+		return new CachedDataSource(playbackDataServiceManager, Path.of(cacheDir), heapSizeInMB * 1024 * 1024, diskSizeInMB * 1024 * 1024, prefetch);
+	}
+	
 	@Bean
 	PlaybackGatewayFactory playbackGatewayFactory(FastEventEngine feEngine, IContractManager contractMgr, IPlaybackRuntimeRepository pbrtRepo) {
 		return new PlaybackGatewayFactory(feEngine, contractMgr, pbrtRepo);
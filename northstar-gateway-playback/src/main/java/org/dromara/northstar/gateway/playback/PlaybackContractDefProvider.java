@@ -3,12 +3,13 @@ package org.dromara.northstar.gateway.playback;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import org.dromara.northstar.common.IDataSource;
 import org.dromara.northstar.common.model.core.ContractDefinition;
 import org.dromara.northstar.common.model.core.TimeSlot;
 import org.dromara.northstar.common.model.core.TradeTimeDefinition;
 import org.dromara.northstar.common.utils.DateTimeUtils;
-import org.dromara.northstar.gateway.mktdata.NorthstarDataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
@@ -18,7 +19,8 @@ import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
 public class PlaybackContractDefProvider {
 	
 	@Autowired
-	private NorthstarDataSource dataSource;
+	@Qualifier("playbackCachedDataSource")
+	private IDataSource dataSource;
 	
 	private static final ExchangeEnum SSE = ExchangeEnum.SSE;
 	private static final ExchangeEnum SZSE = ExchangeEnum.SZSE;
@@ -1,11 +1,23 @@
 package org.dromara.northstar.gateway.playback.ticker;
 
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.dromara.northstar.common.model.core.Bar;
 
 public class SimplePriceSimulation implements TickSimulationAlgorithm {
+	
+	/* 指定随机源时，相同的K线总是生成相同的TICK */
+	private final Random rand;
+	
+	public SimplePriceSimulation() {
+		this(null);
+	}
+	
+	public SimplePriceSimulation(Random rand) {
+		this.rand = rand;
+	}
 
 	@Override
 	public List<TickEntry> generateFrom(Bar bar) {
@@ -19,7 +31,8 @@ public class SimplePriceSimulation implements TickSimulationAlgorithm {
 	}
 	
 	private TickEntry randomAskBid(double price, double priceTick, long volumeDelta, double openInterestDelta, long tickTime) {
-		double askPrice = price + ThreadLocalRandom.current().nextInt(2) * priceTick;
+		Random random = rand == null ? ThreadLocalRandom.current() : rand;
+		double askPrice = price + random.nextInt(2) * priceTick;
 		double bidPrice = askPrice - priceTick;
 		return TickEntry.of(price, askPrice, bidPrice, volumeDelta, openInterestDelta, tickTime);
 	}
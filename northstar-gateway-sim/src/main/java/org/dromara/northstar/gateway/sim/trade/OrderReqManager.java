@@ -1,6 +1,6 @@
 package org.dromara.northstar.gateway.sim.trade;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -15,11 +15,12 @@ import org.dromara.northstar.gateway.sim.trade.OrderRequest.Type;
  */
 public class OrderReqManager implements TickDataAware{
 
-	protected Map<String, OrderRequest> orderMap = new HashMap<>();
+	/* 按委托先后撮合，成交回报的顺序可复现 */
+	protected Map<String, OrderRequest> orderMap = new LinkedHashMap<>();
 	
 	@Override
 	public synchronized void onTick(Tick tick) {
-		orderMap.values().parallelStream().forEach(orderReq -> orderReq.onTick(tick));
+		orderMap.values().forEach(orderReq -> orderReq.onTick(tick));
 	}
 	
 	public synchronized void submitOrder(OrderRequest orderReq) {
@@ -13,6 +13,7 @@ import org.dromara.northstar.common.model.core.Tick;
 import org.dromara.northstar.gateway.sim.trade.OrderRequest.Type;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 class OrderReqManagerTest {
@@ -37,6 +38,21 @@ class OrderReqManagerTest {
 		verify(mockOrderRequest, times(1)).onTick(mockTick);
 	}
 
+	@Test
+	void testOnTickInSubmissionOrder() {
+		OrderRequest[] orderReqs = new OrderRequest[5];
+		for(int i=0; i<orderReqs.length; i++) {
+			orderReqs[i] = Mockito.mock(OrderRequest.class);
+			when(orderReqs[i].originOrderId()).thenReturn("order" + (orderReqs.length - i));
+			manager.submitOrder(orderReqs[i]);
+		}
+		manager.onTick(mockTick);
+		InOrder inOrder = Mockito.inOrder((Object[]) orderReqs);
+		for(OrderRequest orderReq : orderReqs) {
+			inOrder.verify(orderReq).onTick(mockTick);
+		}
+	}
+
 	@Test
 	void testSubmitOrder() {
 		when(mockOrderRequest.originOrderId()).thenReturn("order1");
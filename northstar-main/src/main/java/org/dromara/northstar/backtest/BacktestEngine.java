@@ -0,0 +1,248 @@
+package org.dromara.northstar.backtest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.dromara.northstar.account.AccountManager;
+import org.dromara.northstar.account.TradeAccount;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.ModuleState;
+import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.ModuleAccountRuntimeDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.ModulePositionDescription;
+import org.dromara.northstar.common.model.ModuleRuntimeDescription;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Order;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.gateway.playback.ticker.TickEntry;
+import org.dromara.northstar.gateway.playback.ticker.TickSimulationAlgorithm;
+import org.dromara.northstar.gateway.sim.trade.SimGatewayAccount;
+import org.dromara.northstar.module.ModuleContext;
+import org.dromara.northstar.module.TradeModule;
+import org.dromara.northstar.strategy.TradeStrategy;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.slf4j.event.Level;
+
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * 无界面回测引擎
+ * 在单一线程、单一循环内依次驱动行情、模拟撮合、模组上下文与账户，不依赖 Spring 容器、事件引擎、前端推送与数据库。
+ * 时间以行情为准（虚拟时钟），不按回放速度暂停，相同的输入总能得到相同的成交。
+ *
+ * 每根分钟K线按TICK生成算法拆分为TICK，同一分钟内各合约的TICK按时间排序后依次处理，最后处理该分钟的K线。
+ * 每个TICK先用于撮合此前的挂单，再推送给模组，因此模组在某个TICK上发出的委托最早在下一个TICK成交；
+ * 撮合、校验与账户计算与模拟账户网关相同，订单与成交回报在当前步骤内按产生顺序处理，
+ * 处理回报前会先把模拟账户的资金与持仓同步给交易账户，代替模拟网关的定时上报
+ * @author agent
+ *
+ */
+public class BacktestEngine {
+
+	public static final String BACKTEST_GATEWAY = "BACKTEST";
+
+	private final ModuleDescription md;
+
+	private final TickSimulationAlgorithm tickGenAlgo;
+
+	private final BacktestMarketCenter mktCenter;
+
+	private final BacktestModuleRepository moduleRepo = new BacktestModuleRepository();
+
+	private final AccountManager accountMgr = new AccountManager();
+
+	private final Map<String, BacktestTradeGateway> gatewayMap = new LinkedHashMap<>();
+
+	private final ModuleContext ctx;
+
+	private final TradeModule module;
+
+	private final Queue<Object> pendingEvents = new ArrayDeque<>();
+
+	private final List<Trade> trades = new ArrayList<>();
+
+	/* 虚拟时钟，取最近一个TICK或K线的时间 */
+	private long currentTime;
+
+	private long numOfTicks;
+
+	private long numOfBars;
+
+	private long elapsedNanos;
+
+	/**
+	 * @param moduleDescription	模组配置，每个模组账户以模组初始资金入金
+	 * @param strategy			策略实例，须已完成参数初始化
+	 * @param contracts			回测合约，需包含模组绑定的全部合约
+	 * @param tickGenAlgo		TICK生成算法，算法确定时回测结果可复现
+	 */
+	public BacktestEngine(ModuleDescription moduleDescription, TradeStrategy strategy, Collection<Contract> contracts, TickSimulationAlgorithm tickGenAlgo) {
+		this.md = moduleDescription;
+		this.tickGenAlgo = tickGenAlgo;
+		this.mktCenter = new BacktestMarketCenter(BACKTEST_GATEWAY, contracts);
+		moduleDescription.getModuleAccountSettingsDescription().forEach(mad -> gatewayMap.computeIfAbsent(mad.getAccountGatewayId(), accountId -> {
+			BacktestTradeGateway gateway = new BacktestTradeGateway(accountId, pendingEvents::offer);
+			gateway.moneyIO((int) moduleDescription.getInitBalance());
+			accountMgr.add(new TradeAccount(mktCenter.getGateway(ChannelType.PLAYBACK), gateway, gateway.gatewayDescription()));
+			return gateway;
+		}));
+		ModuleRuntimeDescription mrd = ModuleRuntimeDescription.builder()
+				.moduleName(moduleDescription.getModuleName())
+				.moduleState(ModuleState.EMPTY)
+				.storeObject(new JSONObject())
+				.moduleAccountRuntime(ModuleAccountRuntimeDescription.builder()
+						.initBalance(moduleDescription.getInitBalance())
+						.positionDescription(new ModulePositionDescription())
+						.build())
+				.build();
+		strategy.setStoreObject(mrd.getStoreObject());
+		this.ctx = new ModuleContext(strategy, moduleDescription, mrd, mktCenter, moduleRepo, new BarMergerRegistry()) {
+
+			@Override
+			protected long currentTimeMillis() {
+				return currentTime;
+			}
+		};
+		this.module = new TradeModule(moduleDescription, ctx, accountMgr, mktCenter);
+		strategy.setContext(ctx);
+		gatewayMap.keySet().forEach(this::reportAccount);
+		setModuleLogLevel(Level.WARN);
+	}
+
+	/**
+	 * 设置模组日志级别
+	 * 默认为 WARN，避免逐个TICK写模组日志
+	 * @param level
+	 */
+	public void setModuleLogLevel(Level level) {
+		ctx.setLogLevel(level);
+	}
+
+	/**
+	 * 以历史K线预热模组，与实盘模组加载时相同，按合约依次初始化
+	 * @param bars
+	 */
+	public void warmup(List<Bar> bars) {
+		Map<Contract, List<Bar>> contractBarsMap = new LinkedHashMap<>();
+		bars.forEach(bar -> contractBarsMap.computeIfAbsent(bar.contract(), c -> new ArrayList<>()).add(bar));
+		contractBarsMap.values().forEach(ctx::initData);
+	}
+
+	/**
+	 * 回放分钟K线
+	 * 首次回放前模组会完成预热并启用
+	 * @param bars	各合约的分钟K线，按时间排序后回放
+	 * @return		引擎自创建以来的全部成交与平仓记录，以及累计的回放统计
+	 */
+	public BacktestResult run(List<Bar> bars) {
+		if(!ctx.isReady()) {
+			ctx.onReady();
+			module.setEnabled(true);
+		}
+		List<Bar> sortedBars = bars.stream()
+				.sorted(Comparator.comparingLong(Bar::actionTimestamp))
+				.map(bar -> bar.toBuilder().gatewayId(BACKTEST_GATEWAY).channelType(ChannelType.PLAYBACK).build())
+				.toList();
+		List<Tick> ticks = new ArrayList<>();
+		long startTime = System.nanoTime();
+		for(int i=0, j=0; i<sortedBars.size(); i=j) {
+			long barTime = sortedBars.get(i).actionTimestamp();
+			while(j < sortedBars.size() && sortedBars.get(j).actionTimestamp() == barTime) {
+				Bar bar = sortedBars.get(j++);
+				tickGenAlgo.generateFrom(bar).forEach(e -> ticks.add(toTick(bar, e)));
+			}
+			ticks.sort(Comparator.comparingLong(Tick::actionTimestamp));
+			ticks.forEach(this::onTick);
+			numOfTicks += ticks.size();
+			ticks.clear();
+			for(int k=i; k<j; k++) {
+				onBar(sortedBars.get(k));
+			}
+			numOfBars += j - i;
+		}
+		elapsedNanos += System.nanoTime() - startTime;
+		return new BacktestResult(List.copyOf(trades), moduleRepo.findAllDealRecords(md.getModuleName()), numOfTicks, numOfBars, elapsedNanos);
+	}
+
+	private void onTick(Tick tick) {
+		currentTime = tick.actionTimestamp();
+		mktCenter.onTick(tick);
+		gatewayMap.values().forEach(gateway -> gateway.onTick(tick));
+		dispatchPendingEvents();
+		module.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick));
+		dispatchPendingEvents();
+	}
+
+	private void onBar(Bar bar) {
+		currentTime = bar.actionTimestamp();
+		module.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar));
+		dispatchPendingEvents();
+	}
+
+	/* 回报处理过程中产生的新委托，其回报排在队尾继续处理 */
+	private void dispatchPendingEvents() {
+		Object data;
+		while((data = pendingEvents.poll()) != null) {
+			if(data instanceof Order order) {
+				reportAccount(order.gatewayId());
+				accountMgr.get(Identifier.of(order.gatewayId())).onOrder(order);
+				module.onEvent(new NorthstarEvent(NorthstarEventType.ORDER, order));
+			} else if(data instanceof Trade trade) {
+				reportAccount(trade.gatewayId());
+				accountMgr.get(Identifier.of(trade.gatewayId())).onTrade(trade);
+				trades.add(trade);
+				module.onEvent(new NorthstarEvent(NorthstarEventType.TRADE, trade));
+			}
+		}
+	}
+
+	private void reportAccount(String gatewayId) {
+		TradeAccount account = accountMgr.get(Identifier.of(gatewayId));
+		SimGatewayAccount simAccount = gatewayMap.get(gatewayId).getAccount();
+		account.onAccount(simAccount.account());
+		simAccount.getPositionManager().positionFields().forEach(account::onPosition);
+	}
+
+	static Tick toTick(Bar bar, TickEntry tickEntry) {
+		return Tick.builder()
+				.preClosePrice(bar.preClosePrice())		// 采用分钟K线的模糊值
+				.preOpenInterest(bar.preOpenInterest())	// 采用分钟K线的模糊值
+				.preSettlePrice(bar.preSettlePrice())	// 采用分钟K线的模糊值
+				.highPrice(bar.highPrice())				// 采用分钟K线的模糊值
+				.lowPrice(bar.lowPrice())				// 采用分钟K线的模糊值
+				.contract(bar.contract())
+				.gatewayId(BACKTEST_GATEWAY)
+				.tradingDay(bar.tradingDay())
+				.actionDay(bar.actionDay())
+				.actionTime(CommonUtils.millsToLocalDateTime(tickEntry.timestamp()).toLocalTime())
+				.actionTimestamp(tickEntry.timestamp())
+				.type(TickType.PLAYBACK_TICK)
+				.lastPrice(tickEntry.price())
+				.askPrice(List.of(tickEntry.askPrice0())) // 仅模拟卖一价
+				.bidPrice(List.of(tickEntry.bidPrice0())) // 仅模拟买一价
+				.askVolume(List.of(1))					// 撮合不考虑盘口量
+				.bidVolume(List.of(1))					// 撮合不考虑盘口量
+				.channelType(ChannelType.PLAYBACK)
+				.volume(bar.volume())								// 采用分钟K线的模糊值
+				.volumeDelta(Math.max(1, tickEntry.volume()))
+				.openInterest(bar.openInterest())					// 采用分钟K线的模糊值
+				.openInterestDelta(tickEntry.openInterestDelta())
+				.turnoverDelta(bar.turnoverDelta())					// 采用分钟K线的模糊值
+				.turnover(bar.turnover())							// 采用分钟K线的模糊值
+				.build();
+	}
+
+}
@@ -0,0 +1,246 @@
+package org.dromara.northstar.backtest;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.ConnectionState;
+import org.dromara.northstar.common.constant.GatewayUsage;
+import org.dromara.northstar.common.event.FastEventEngine.TickTranslator;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.exception.NoSuchElementException;
+import org.dromara.northstar.common.model.GatewayDescription;
+import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.gateway.IContract;
+import org.dromara.northstar.gateway.IMarketCenter;
+import org.dromara.northstar.gateway.Instrument;
+import org.dromara.northstar.gateway.MarketGateway;
+
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
+
+/**
+ * 回测市场中心
+ * 只保存回测合约与各合约的最新TICK，不生成K线，也不连接任何行情网关
+ * @author agent
+ *
+ */
+class BacktestMarketCenter implements IMarketCenter {
+
+	private final Map<Identifier, IContract> contractMap = new HashMap<>();
+
+	private final Map<Contract, Tick> lastTickMap = new ConcurrentHashMap<>();
+
+	private final MarketGateway gateway;
+
+	BacktestMarketCenter(String gatewayId, Collection<Contract> contracts) {
+		this.gateway = new BacktestMarketGateway(gatewayId);
+		contracts.forEach(c -> contractMap.put(Identifier.of(c.contractId()), new BacktestContract(c)));
+	}
+
+	@Override
+	public IContract getContract(Identifier identifier) {
+		IContract contract = contractMap.get(identifier);
+		if(contract == null) {
+			throw new NoSuchElementException("找不到回测合约：" + identifier);
+		}
+		return contract;
+	}
+
+	@Override
+	public IContract getContract(ChannelType channelType, String symbol) {
+		return contractMap.values().stream()
+				.filter(c -> c.contract().symbol().equals(symbol) || c.contract().unifiedSymbol().equals(symbol))
+				.findAny()
+				.orElseThrow(() -> new NoSuchElementException("找不到回测合约：" + symbol));
+	}
+
+	@Override
+	public List<IContract> getContracts(String gatewayId) {
+		return List.copyOf(contractMap.values());
+	}
+
+	@Override
+	public List<IContract> getContracts(ChannelType channelType) {
+		return List.copyOf(contractMap.values());
+	}
+
+	@Override
+	public Optional<ContractDefinition> getDefinition(ExchangeEnum exchange, ProductClassEnum productClass, String unifiedSymbol) {
+		return contractMap.values().stream()
+				.map(IContract::contract)
+				.filter(c -> c.unifiedSymbol().equals(unifiedSymbol))
+				.map(Contract::contractDefinition)
+				.findAny();
+	}
+
+	@Override
+	public void onTick(Tick tick) {
+		lastTickMap.put(tick.contract(), tick);
+	}
+
+	/* 回测没有事件引擎，TICK由回测引擎直接推送给模组，这里只记录最新TICK */
+	@Override
+	public <A> void onTick(TickTranslator<A> translator, A arg) {
+		TickSlot slot = new TickSlot();
+		translator.translateTo(slot, arg);
+		onTick(slot.toTick());
+	}
+
+	@Override
+	public Optional<Tick> lastTick(Contract contract) {
+		return Optional.ofNullable(lastTickMap.get(contract));
+	}
+
+	@Override
+	public void addDefinitions(List<ContractDefinition> contractDefs) {
+		/* 回测合约的定义随合约一同传入，无需另行登记 */
+	}
+
+	@Override
+	public void addInstrument(Instrument ins) {
+		/* 回测合约在创建引擎时确定，不接受新增 */
+	}
+
+	@Override
+	public void addGateway(MarketGateway gateway) {
+		/* 行情由回测引擎直接推送，不接入外部行情网关 */
+	}
+
+	@Override
+	public MarketGateway getGateway(ChannelType channelType) {
+		return gateway;
+	}
+
+	@Override
+	public void loadContractGroup(ChannelType channelType) {
+		/* 回测不生成合约组 */
+	}
+
+	private static class BacktestContract implements IContract {
+
+		private final Contract contract;
+
+		BacktestContract(Contract contract) {
+			this.contract = contract;
+		}
+
+		@Override
+		public boolean subscribe() {
+			return true;
+		}
+
+		@Override
+		public boolean unsubscribe() {
+			return true;
+		}
+
+		@Override
+		public String name() {
+			return contract.name();
+		}
+
+		@Override
+		public Identifier identifier() {
+			return Identifier.of(contract.contractId());
+		}
+
+		@Override
+		public ProductClassEnum productClass() {
+			return contract.productClass();
+		}
+
+		@Override
+		public ExchangeEnum exchange() {
+			return contract.exchange();
+		}
+
+		@Override
+		public ChannelType channelType() {
+			return contract.channelType();
+		}
+
+		@Override
+		public Contract contract() {
+			return contract;
+		}
+
+		@Override
+		public String gatewayId() {
+			return contract.gatewayId();
+		}
+	}
+
+	/* 行情由回测引擎直接推送，网关只用于标识TICK与K线的来源 */
+	private static class BacktestMarketGateway implements MarketGateway {
+
+		private final GatewayDescription gd;
+
+		BacktestMarketGateway(String gatewayId) {
+			this.gd = GatewayDescription.builder()
+					.gatewayId(gatewayId)
+					.gatewayUsage(GatewayUsage.MARKET_DATA)
+					.channelType(ChannelType.PLAYBACK)
+					.connectionState(ConnectionState.CONNECTED)
+					.build();
+		}
+
+		@Override
+		public GatewayDescription gatewayDescription() {
+			return gd;
+		}
+
+		@Override
+		public String gatewayId() {
+			return gd.getGatewayId();
+		}
+
+		@Override
+		public void connect() {
+			/* 回测行情无需连线 */
+		}
+
+		@Override
+		public void disconnect() {
+			/* 回测行情无需断开 */
+		}
+
+		@Override
+		public boolean getAuthErrorFlag() {
+			return false;
+		}
+
+		@Override
+		public ConnectionState getConnectionState() {
+			return ConnectionState.CONNECTED;
+		}
+
+		@Override
+		public boolean subscribe(Contract contract) {
+			return true;
+		}
+
+		@Override
+		public boolean unsubscribe(Contract contract) {
+			return true;
+		}
+
+		@Override
+		public boolean isActive() {
+			return true;
+		}
+
+		@Override
+		public ChannelType channelType() {
+			return ChannelType.PLAYBACK;
+		}
+	}
+
+}
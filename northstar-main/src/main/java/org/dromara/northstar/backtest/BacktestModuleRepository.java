@@ -0,0 +1,75 @@
+package org.dromara.northstar.backtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dromara.northstar.common.model.ModuleDealRecord;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.ModuleRuntimeDescription;
+import org.dromara.northstar.data.IModuleRepository;
+
+/**
+ * 回测模组仓库
+ * 只在内存中保留最新的运行时状态与交易记录，不作持久化
+ * @author agent
+ *
+ */
+class BacktestModuleRepository implements IModuleRepository {
+
+	private ModuleDescription moduleDescription;
+
+	private ModuleRuntimeDescription moduleRtDescription;
+
+	private final List<ModuleDealRecord> dealRecords = new ArrayList<>();
+
+	@Override
+	public void saveSettings(ModuleDescription moduleDescription) {
+		this.moduleDescription = moduleDescription;
+	}
+
+	@Override
+	public ModuleDescription findSettingsByName(String moduleName) {
+		return moduleDescription;
+	}
+
+	@Override
+	public List<ModuleDescription> findAllSettings() {
+		return moduleDescription == null ? List.of() : List.of(moduleDescription);
+	}
+
+	@Override
+	public void deleteSettingsByName(String moduleName) {
+		moduleDescription = null;
+	}
+
+	@Override
+	public void saveRuntime(ModuleRuntimeDescription moduleRtDescription) {
+		this.moduleRtDescription = moduleRtDescription;
+	}
+
+	@Override
+	public ModuleRuntimeDescription findRuntimeByName(String moduleName) {
+		return moduleRtDescription;
+	}
+
+	@Override
+	public void deleteRuntimeByName(String moduleName) {
+		moduleRtDescription = null;
+	}
+
+	@Override
+	public void saveDealRecord(ModuleDealRecord dealRecord) {
+		dealRecords.add(dealRecord);
+	}
+
+	@Override
+	public List<ModuleDealRecord> findAllDealRecords(String moduleName) {
+		return List.copyOf(dealRecords);
+	}
+
+	@Override
+	public void removeAllDealRecords(String moduleName) {
+		dealRecords.clear();
+	}
+
+}
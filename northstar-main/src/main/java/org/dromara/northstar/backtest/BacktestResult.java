@@ -0,0 +1,36 @@
+package org.dromara.northstar.backtest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.model.ModuleDealRecord;
+import org.dromara.northstar.common.model.core.Trade;
+
+/**
+ * 回测结果
+ * @param trades		按回报顺序排列的全部成交
+ * @param dealRecords	模组的平仓记录
+ * @param numOfTicks	回放的TICK数
+ * @param numOfBars		回放的分钟K线数
+ * @param elapsedNanos	回放耗时（不含预热）
+ * @author agent
+ *
+ */
+public record BacktestResult(List<Trade> trades, List<ModuleDealRecord> dealRecords, long numOfTicks, long numOfBars, long elapsedNanos) {
+
+	/**
+	 * 每秒回放的TICK数
+	 * @return
+	 */
+	public double ticksPerSecond() {
+		return elapsedNanos == 0 ? 0 : numOfTicks * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	/**
+	 * 平仓盈亏合计（已扣除手续费）
+	 * @return
+	 */
+	public double totalDealProfit() {
+		return dealRecords.stream().mapToDouble(ModuleDealRecord::getDealProfit).sum();
+	}
+}
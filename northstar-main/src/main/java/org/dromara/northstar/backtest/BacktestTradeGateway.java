@@ -0,0 +1,120 @@
+package org.dromara.northstar.backtest;
+
+import java.util.function.Consumer;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.ConnectionState;
+import org.dromara.northstar.common.constant.GatewayUsage;
+import org.dromara.northstar.common.model.GatewayDescription;
+import org.dromara.northstar.common.model.core.Order;
+import org.dromara.northstar.common.model.core.SubmitOrderReq;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.gateway.sim.trade.OrderReqManager;
+import org.dromara.northstar.gateway.sim.trade.OrderRequest;
+import org.dromara.northstar.gateway.sim.trade.SimGatewayAccount;
+import org.dromara.northstar.gateway.sim.trade.SimTradeGateway;
+
+import lombok.Getter;
+
+/**
+ * 回测交易网关
+ * 与 SimTradeGatewayLocal 使用同一套委托校验、撮合与账户计算，区别在于：
+ * 订单与成交回报交给回测引擎按序处理，而不是发布到事件引擎；不定时上报账户，也不持久化账户信息
+ * @author agent
+ *
+ */
+class BacktestTradeGateway implements SimTradeGateway {
+
+	@Getter
+	private final SimGatewayAccount account;
+
+	private final GatewayDescription gd;
+
+	private final OrderReqManager orderReqMgr = new OrderReqManager();
+
+	private final Consumer<Order> onOrderCallback;
+
+	private final Consumer<Trade> onTradeCallback;
+
+	BacktestTradeGateway(String gatewayId, Consumer<Object> eventSink) {
+		this.gd = GatewayDescription.builder()
+				.gatewayId(gatewayId)
+				.gatewayUsage(GatewayUsage.TRADE)
+				.channelType(ChannelType.SIM)
+				.connectionState(ConnectionState.CONNECTED)
+				.build();
+		this.account = new SimGatewayAccount(gatewayId);
+		this.account.setOrderReqMgr(orderReqMgr);
+		this.onOrderCallback = order -> {
+			account.getPositionManager().onOrder(order);
+			eventSink.accept(order);
+		};
+		this.onTradeCallback = trade -> {
+			account.onTrade(trade);
+			eventSink.accept(trade);
+		};
+	}
+
+	@Override
+	public String submitOrder(SubmitOrderReq submitOrderReq) {
+		OrderRequest orderReq = new OrderRequest(account, submitOrderReq, onOrderCallback, trans -> onTradeCallback.accept(trans.trade()));
+		if(orderReq.validate()) {
+			orderReqMgr.submitOrder(orderReq);
+		}
+		return submitOrderReq.originOrderId();
+	}
+
+	@Override
+	public boolean cancelOrder(String originOrderId) {
+		orderReqMgr.cancelOrder(originOrderId);
+		return true;
+	}
+
+	@Override
+	public void onTick(Tick tick) {
+		orderReqMgr.onTick(tick);
+		account.getPositionManager().onTick(tick);
+	}
+
+	@Override
+	public int moneyIO(int money) {
+		if(money >= 0) {
+			account.onDeposit(money);
+		} else {
+			account.onWithdraw(Math.abs(money));
+		}
+		return (int) account.balance();
+	}
+
+	@Override
+	public GatewayDescription gatewayDescription() {
+		return gd;
+	}
+
+	@Override
+	public String gatewayId() {
+		return gd.getGatewayId();
+	}
+
+	@Override
+	public void connect() {
+		/* 回测网关始终处于连线状态 */
+	}
+
+	@Override
+	public void disconnect() {
+		/* 回测网关始终处于连线状态 */
+	}
+
+	@Override
+	public boolean getAuthErrorFlag() {
+		return false;
+	}
+
+	@Override
+	public ConnectionState getConnectionState() {
+		return ConnectionState.CONNECTED;
+	}
+
+}
@@ -108,7 +108,7 @@ public class AppConfig implements WebMvcConfigurer, InitializingBean, Disposable
 		}
 	}
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     IMarketCenter marketCenter(FastEventEngine fastEventEngine) throws IOException {
         return new MarketCenter(fastEventEngine);
     }
@@ -1,8 +1,19 @@
 package org.dromara.northstar.config;
 
-import org.dromara.northstar.common.event.FastEventEngine;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.dromara.northstar.account.GatewayManager;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.Identifier;
 import org.dromara.northstar.event.DisruptorFastEventEngine;
+import org.dromara.northstar.event.DisruptorFastEventEngine.RingSpec;
 import org.dromara.northstar.event.DisruptorFastEventEngine.WaitStrategyEnum;
+import org.dromara.northstar.gateway.Gateway;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,10 +28,50 @@ import lombok.extern.slf4j.Slf4j;
 @Configuration
 class EngineConfig {
 
+	private static final Set<ChannelType> SIMULATED_CHANNELS = EnumSet.of(ChannelType.SIM, ChannelType.PLAYBACK);
+
 	@Bean
-	FastEventEngine eventEngine() throws Exception {
-		log.debug("创建EventEngine");
-		return new DisruptorFastEventEngine(WaitStrategyEnum.BlockingWaitStrategy);
+	DisruptorFastEventEngine eventEngine(@Value("${northstar.engine.mode:SINGLE}") EngineMode mode,
+			@Value("${northstar.engine.default.wait-strategy:BlockingWaitStrategy}") WaitStrategyEnum defaultStrategy,
+			@Value("${northstar.engine.default.buffer-size:65536}") int defaultBufSize,
+			@Value("${northstar.engine.market.wait-strategy:YieldingWaitStrategy}") WaitStrategyEnum marketStrategy,
+			@Value("${northstar.engine.market.buffer-size:65536}") int marketBufSize,
+			@Value("${northstar.engine.market.event-types:TICK,BAR}") Set<NorthstarEventType> marketTypes,
+			@Value("${northstar.engine.market.conflate-types:}") Set<NorthstarEventType> marketConflateTypes,
+			@Value("${northstar.engine.trade.wait-strategy:BlockingWaitStrategy}") WaitStrategyEnum tradeStrategy,
+			@Value("${northstar.engine.trade.buffer-size:8192}") int tradeBufSize,
+			@Value("${northstar.engine.trade.event-types:ORDER,TRADE,ACCOUNT,POSITION}") Set<NorthstarEventType> tradeTypes,
+			@Value("${northstar.engine.trade.conflate-types:}") Set<NorthstarEventType> tradeConflateTypes,
+			GatewayManager gatewayMgr) throws Exception {
+		log.debug("创建EventEngine，模式：{}", mode);
+		if(mode == EngineMode.SINGLE) {
+			return new DisruptorFastEventEngine(defaultStrategy);
+		}
+		DisruptorFastEventEngine engine = new DisruptorFastEventEngine(List.of(
+				RingSpec.builder().name("market").waitStrategy(marketStrategy).bufferSize(marketBufSize).eventTypes(marketTypes).conflateTypes(marketConflateTypes).build(),
+				RingSpec.builder().name("trade").waitStrategy(tradeStrategy).bufferSize(tradeBufSize).eventTypes(tradeTypes).conflateTypes(tradeConflateTypes).build(),
+				RingSpec.builder().name("default").waitStrategy(defaultStrategy).bufferSize(defaultBufSize).eventTypes(Set.of()).conflateTypes(Set.of()).build()));
+		engine.setSimulatedGateway(gatewayId -> {
+			Gateway gateway = gatewayMgr.get(Identifier.of(gatewayId));
+			return Objects.nonNull(gateway) && SIMULATED_CHANNELS.contains(gateway.gatewayDescription().getChannelType());
+		});
+		return engine;
 	}
 	
+	/**
+	 * 事件引擎模式
+	 */
+	enum EngineMode {
+		/**
+		 * 所有事件共用一个环形队列
+		 */
+		SINGLE,
+		/**
+		 * 行情、交易回报与其余低频事件分别使用独立的环形队列
+		 * 只保证同一队列内的事件有序：TICK与BAR之间、ORDER与TRADE之间保持发布顺序，
+		 * 但TICK与TRADE、BAR与ORDER等跨队列的事件不保证先后，例如撮合某个TICK产生的成交可能先于该TICK到达模组；
+		 * 同一个事件处理器也会被各队列的消费线程并发调用，处理器需自行保证线程安全
+		 */
+		MULTI;
+	}
 }
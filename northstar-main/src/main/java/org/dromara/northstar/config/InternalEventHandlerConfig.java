@@ -17,12 +17,16 @@ import org.dromara.northstar.event.ConnectionHandler;
 import org.dromara.northstar.event.EventNotificationHandler;
 import org.dromara.northstar.event.IllegalOrderHandler;
 import org.dromara.northstar.event.MarketDataHandler;
+import org.dromara.northstar.event.ModuleEventMailbox.OverflowPolicy;
 import org.dromara.northstar.event.ModuleHandler;
+import org.dromara.northstar.event.ModuleHandler.DispatchMode;
 import org.dromara.northstar.event.SimMarketHandler;
 import org.dromara.northstar.gateway.IContractManager;
+import org.dromara.northstar.indicator.IndicatorGraph;
 import org.dromara.northstar.module.ModuleManager;
 import org.dromara.northstar.strategy.IMessageSender;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -41,9 +45,11 @@ class InternalEventHandlerConfig {
 	}
 	
 	@Bean
-	BroadcastHandler broadcastEventHandler(SocketIOServer socketServer) {
+	BroadcastHandler broadcastEventHandler(SocketIOServer socketServer, 
+			@Value("${northstar.broadcast.flush-interval:200}") long flushInterval,
+			@Value("${northstar.broadcast.resync-interval:30000}") long resyncInterval) {
 		log.debug("注册：BroadcastHandler");
-		return new BroadcastHandler(socketServer);
+		return new BroadcastHandler(socketServer, flushInterval, resyncInterval);
 	}
 	
 	@Bean
@@ -59,15 +65,27 @@ class InternalEventHandlerConfig {
 	}
 	
 	@Bean
-	ModuleHandler moduleHandler(ModuleManager moduleMgr) {
+	IndicatorGraph indicatorGraph(@Value("${northstar.module.dispatch-mode:PARALLEL}") DispatchMode dispatchMode,
+			@Value("${northstar.module.share-indicators:true}") boolean shareIndicators) {
+		return new IndicatorGraph(shareIndicators && dispatchMode == DispatchMode.PARALLEL);
+	}
+	
+	@Bean
+	ModuleHandler moduleHandler(ModuleManager moduleMgr, 
+			@Value("${northstar.module.dispatch-mode:PARALLEL}") DispatchMode dispatchMode,
+			@Value("${northstar.module.mailbox-size:4096}") int mailboxSize,
+			@Value("${northstar.module.mailbox-overflow:DROP}") OverflowPolicy overflowPolicy, IndicatorGraph indicatorGraph) {
 		log.debug("注册：ModuleManager");
-		return new ModuleHandler(moduleMgr);
+		return new ModuleHandler(moduleMgr, dispatchMode, mailboxSize, overflowPolicy, indicatorGraph);
 	}
 	
 	@Bean 
-	MarketDataHandler marketDataHandler(IMarketDataRepository mdRepo) {
+	MarketDataHandler marketDataHandler(IMarketDataRepository mdRepo,
+			@Value("${northstar.market-data.queue-size:8192}") int queueSize,
+			@Value("${northstar.market-data.batch-size:500}") int batchSize,
+			@Value("${northstar.market-data.flush-interval:1000}") long flushIntervalMillis) {
 		log.debug("注册：MarketDataHandler");
-		return new MarketDataHandler(mdRepo);
+		return new MarketDataHandler(mdRepo, queueSize, batchSize, flushIntervalMillis);
 	}
 	
 	@Bean
@@ -1,11 +1,14 @@
 package org.dromara.northstar.config;
 
+import java.nio.file.Path;
+
 import org.dromara.northstar.data.IGatewayRepository;
 import org.dromara.northstar.data.IMarketDataRepository;
 import org.dromara.northstar.data.IMessageSenderRepository;
 import org.dromara.northstar.data.IModuleRepository;
 import org.dromara.northstar.data.IPlaybackRuntimeRepository;
 import org.dromara.northstar.data.ISimAccountRepository;
+import org.dromara.northstar.data.columnar.ColumnarMarketDataRepository;
 import org.dromara.northstar.data.jdbc.GatewayDescriptionRepository;
 import org.dromara.northstar.data.jdbc.GatewayRepoAdapter;
 import org.dromara.northstar.data.jdbc.MarketDataRepoAdapter;
@@ -22,11 +25,22 @@ import org.dromara.northstar.data.jdbc.PlaybackRuntimeRepository;
 import org.dromara.northstar.data.jdbc.SimAccountRepoAdapter;
 import org.dromara.northstar.data.jdbc.SimAccountRepository;
 import org.dromara.northstar.gateway.IContractManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class RepositoryConfig {
+	
+	/**
+	 * 本地行情数据的存储方式
+	 */
+	public enum MarketDataStore {
+		/* H2数据库，每根K线一行 protobuf */
+		JDBC,
+		/* 按合约与交易日分文件的列式存储 */
+		COLUMNAR
+	}
 
     @Bean
     IGatewayRepository gatewayRepo(GatewayDescriptionRepository delelgate) {
@@ -49,7 +63,12 @@ public class RepositoryConfig {
     }
     
     @Bean
-    IMarketDataRepository marketDataRepo(MarketDataRepository mdRepo, IContractManager contractMgr) {
+    IMarketDataRepository marketDataRepo(MarketDataRepository mdRepo, IContractManager contractMgr,
+    		@Value("${northstar.market-data.store:JDBC}") MarketDataStore store,
+    		@Value("${northstar.market-data.store-dir:data/bars}") String storeDir) {
+    	if(store == MarketDataStore.COLUMNAR) {
+    		return new ColumnarMarketDataRepository(Path.of(storeDir), contractMgr);
+    	}
     	return new MarketDataRepoAdapter(mdRepo, contractMgr);
     }
     
@@ -4,11 +4,15 @@ import org.dromara.northstar.account.AccountManager;
 import org.dromara.northstar.data.IMarketDataRepository;
 import org.dromara.northstar.data.IModuleRepository;
 import org.dromara.northstar.gateway.IContractManager;
+import org.dromara.northstar.indicator.IndicatorGraph;
 import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.module.ModuleSnapshotService;
+import org.dromara.northstar.support.utils.bar.MergedBarService;
 import org.dromara.northstar.web.service.AccountService;
 import org.dromara.northstar.web.service.GatewayService;
 import org.dromara.northstar.web.service.LogService;
 import org.dromara.northstar.web.service.ModuleService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.logging.LoggingSystem;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -33,10 +37,23 @@ public class ServiceConfig {
         return new GatewayService();
     }
 
+    @Bean
+    ModuleSnapshotService moduleSnapshotService(IModuleRepository moduleRepo,
+    		@Value("${northstar.module.snapshot-interval:5000}") long snapshotInterval,
+    		@Value("${northstar.module.snapshot-on-trade:true}") boolean snapshotOnTrade) {
+    	return new ModuleSnapshotService(moduleRepo, snapshotInterval, snapshotOnTrade);
+    }
+
+    @Bean
+    MergedBarService mergedBarService() {
+    	return new MergedBarService();
+    }
+
     @Bean
     ModuleService moduleService(ApplicationContext ctx, IModuleRepository moduleRepo, IMarketDataRepository mdRepo, 
-    		AccountManager accountMgr, ModuleManager moduleMgr, IContractManager contractMgr) {
-        return new ModuleService(ctx, moduleRepo, mdRepo, moduleMgr, contractMgr, accountMgr);
+    		AccountManager accountMgr, ModuleManager moduleMgr, IContractManager contractMgr, ModuleSnapshotService snapshotService,
+    		MergedBarService mergedBarService, IndicatorGraph indicatorGraph, @Value("${northstar.module.warmup-parallelism:4}") int warmupParallelism) {
+        return new ModuleService(ctx, moduleRepo, mdRepo, moduleMgr, contractMgr, accountMgr, snapshotService, mergedBarService, indicatorGraph, warmupParallelism);
     }
 
     @Bean
@@ -0,0 +1,295 @@
+package org.dromara.northstar.data.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+
+/**
+ * 单个合约单个交易日的分钟K线列式文件
+ * 文件由固定长度的文件头与若干数据块组成，每个数据块按列连续存放 BLOCK_ROWS 根K线的各字段（均为8字节），
+ * 追加时只扩展文件末尾的数据块，已写入的数据不再移动。文件头中的行数最后写入，作为追加的提交点。
+ * 网关与渠道来源记录在文件头，同一文件内的K线共用
+ * @author agent
+ *
+ */
+final class BarColumnFile implements Closeable {
+
+	private static final int MAGIC = 0x4E534243;		// NSBC
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 256;
+	private static final int OFFSET_MAGIC = 0;
+	private static final int OFFSET_VERSION = 4;
+	private static final int OFFSET_COUNT = 8;
+	private static final int OFFSET_META = 12;
+
+	static final int BLOCK_ROWS = 256;
+
+	/* 列定义，整数列与浮点列均以8字节存放 */
+	private static final int ACTION_DAY = 0;			// epochDay
+	private static final int ACTION_TIME = 1;			// nanoOfDay
+	private static final int ACTION_TIMESTAMP = 2;
+	private static final int VOLUME = 3;
+	private static final int VOLUME_DELTA = 4;
+	private static final int OPEN = 5;
+	private static final int HIGH = 6;
+	private static final int LOW = 7;
+	private static final int CLOSE = 8;
+	private static final int OPEN_INTEREST = 9;
+	private static final int OPEN_INTEREST_DELTA = 10;
+	private static final int TURNOVER = 11;
+	private static final int TURNOVER_DELTA = 12;
+	private static final int PRE_OPEN_INTEREST = 13;
+	private static final int PRE_CLOSE = 14;
+	private static final int PRE_SETTLE = 15;
+	private static final int NUM_OF_LONG_COLUMNS = 5;
+	private static final int NUM_OF_COLUMNS = 16;
+
+	private static final int BLOCK_SIZE = BLOCK_ROWS * NUM_OF_COLUMNS * Long.BYTES;
+
+	private final FileChannel channel;
+
+	private final boolean writable;
+
+	private MappedByteBuffer buf;
+
+	private int count;
+
+	private String gatewayId;
+
+	private ChannelType channelType;
+
+	private BarColumnFile(FileChannel channel, boolean writable) {
+		this.channel = channel;
+		this.writable = writable;
+	}
+
+	/**
+	 * 以追加方式打开，文件不存在时以首根K线的网关与渠道来源创建
+	 * K线未标明网关或渠道来源时取合约上的值，两者都没有时留空
+	 */
+	static BarColumnFile openForAppend(Path path, Bar first) throws IOException {
+		boolean exists = Files.exists(path);
+		if(!exists) {
+			Files.createDirectories(path.getParent());
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		BarColumnFile file = new BarColumnFile(channel, true);
+		try {
+			if(exists && channel.size() >= HEADER_SIZE) {
+				file.readHeader();
+			} else {
+				file.createHeader(Objects.nonNull(first.gatewayId()) ? first.gatewayId() : first.contract().gatewayId(),
+						Objects.nonNull(first.channelType()) ? first.channelType() : first.contract().channelType());
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return file;
+	}
+
+	/**
+	 * 以只读方式打开
+	 */
+	static BarColumnFile openForRead(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		BarColumnFile file = new BarColumnFile(channel, false);
+		try {
+			file.readHeader();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return file;
+	}
+
+	private void createHeader(String gatewayId, ChannelType channelType) throws IOException {
+		this.gatewayId = gatewayId;
+		this.channelType = channelType;
+		map(HEADER_SIZE + BLOCK_SIZE);
+		buf.putInt(OFFSET_MAGIC, MAGIC);
+		buf.putInt(OFFSET_VERSION, VERSION);
+		buf.putInt(OFFSET_COUNT, 0);
+		int pos = putString(OFFSET_META, Objects.toString(gatewayId, ""));
+		putString(pos, Objects.isNull(channelType) ? "" : channelType.name());
+	}
+
+	private void readHeader() throws IOException {
+		map(channel.size());
+		if(buf.getInt(OFFSET_MAGIC) != MAGIC || buf.getInt(OFFSET_VERSION) != VERSION) {
+			throw new IOException("不是有效的K线列式文件");
+		}
+		count = buf.getInt(OFFSET_COUNT);
+		if(channel.size() < HEADER_SIZE + (long) ((count + BLOCK_ROWS - 1) / BLOCK_ROWS) * BLOCK_SIZE) {
+			throw new IOException("K线列式文件长度不足，可能已损坏");
+		}
+		String gatewayIdValue = getString(OFFSET_META);
+		String channelTypeValue = getString(OFFSET_META + Short.BYTES + buf.getShort(OFFSET_META));
+		gatewayId = gatewayIdValue.isEmpty() ? null : gatewayIdValue;
+		channelType = channelTypeValue.isEmpty() ? null : ChannelType.valueOf(channelTypeValue);
+	}
+
+	private int putString(int pos, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if(pos + Short.BYTES + bytes.length > HEADER_SIZE) {
+			throw new IllegalArgumentException("网关名称过长：" + value);
+		}
+		buf.putShort(pos, (short) bytes.length);
+		buf.put(pos + Short.BYTES, bytes);
+		return pos + Short.BYTES + bytes.length;
+	}
+
+	private String getString(int pos) {
+		byte[] bytes = new byte[buf.getShort(pos)];
+		buf.get(pos + Short.BYTES, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void map(long size) throws IOException {
+		buf = channel.map(writable ? MapMode.READ_WRITE : MapMode.READ_ONLY, 0, size);
+		buf.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static long offset(int column, int row) {
+		return HEADER_SIZE + (long) (row / BLOCK_ROWS) * BLOCK_SIZE + (long) (column * BLOCK_ROWS + row % BLOCK_ROWS) * Long.BYTES;
+	}
+
+	/**
+	 * 追加一根K线
+	 */
+	void append(Bar bar) throws IOException {
+		if(count % BLOCK_ROWS == 0 && buf.capacity() < HEADER_SIZE + (long) (count / BLOCK_ROWS + 1) * BLOCK_SIZE) {
+			map(HEADER_SIZE + (long) (count / BLOCK_ROWS + 1) * BLOCK_SIZE);
+		}
+		int row = count;
+		putLong(ACTION_DAY, row, bar.actionDay().toEpochDay());
+		putLong(ACTION_TIME, row, bar.actionTime().toNanoOfDay());
+		putLong(ACTION_TIMESTAMP, row, bar.actionTimestamp());
+		putLong(VOLUME, row, bar.volume());
+		putLong(VOLUME_DELTA, row, bar.volumeDelta());
+		putDouble(OPEN, row, bar.openPrice());
+		putDouble(HIGH, row, bar.highPrice());
+		putDouble(LOW, row, bar.lowPrice());
+		putDouble(CLOSE, row, bar.closePrice());
+		putDouble(OPEN_INTEREST, row, bar.openInterest());
+		putDouble(OPEN_INTEREST_DELTA, row, bar.openInterestDelta());
+		putDouble(TURNOVER, row, bar.turnover());
+		putDouble(TURNOVER_DELTA, row, bar.turnoverDelta());
+		putDouble(PRE_OPEN_INTEREST, row, bar.preOpenInterest());
+		putDouble(PRE_CLOSE, row, bar.preClosePrice());
+		putDouble(PRE_SETTLE, row, bar.preSettlePrice());
+		count = row + 1;
+		buf.putInt(OFFSET_COUNT, count);
+	}
+
+	private void putLong(int column, int row, long value) {
+		buf.putLong((int) offset(column, row), value);
+	}
+
+	private void putDouble(int column, int row, double value) {
+		buf.putDouble((int) offset(column, row), value);
+	}
+
+	/**
+	 * 按列批量读取全部K线
+	 * @param contract		K线所属合约
+	 * @param tradingDay	交易日
+	 */
+	List<Bar> read(Contract contract, LocalDate tradingDay) {
+		int n = count;
+		long[][] longCols = new long[NUM_OF_LONG_COLUMNS][n];
+		double[][] doubleCols = new double[NUM_OF_COLUMNS - NUM_OF_LONG_COLUMNS][n];
+		for(int start = 0; start < n; start += BLOCK_ROWS) {
+			int len = Math.min(BLOCK_ROWS, n - start);
+			for(int col = 0; col < NUM_OF_COLUMNS; col++) {
+				ByteBuffer slice = buf.slice((int) offset(col, start), len * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				if(col < NUM_OF_LONG_COLUMNS) {
+					slice.asLongBuffer().get(longCols[col], start, len);
+				} else {
+					slice.asDoubleBuffer().get(doubleCols[col - NUM_OF_LONG_COLUMNS], start, len);
+				}
+			}
+		}
+		List<Bar> bars = new ArrayList<>(n);
+		for(int i = 0; i < n; i++) {
+			bars.add(Bar.builder()
+					.gatewayId(gatewayId)
+					.contract(contract)
+					.actionDay(LocalDate.ofEpochDay(longCols[ACTION_DAY][i]))
+					.actionTime(LocalTime.ofNanoOfDay(longCols[ACTION_TIME][i]))
+					.tradingDay(tradingDay)
+					.actionTimestamp(longCols[ACTION_TIMESTAMP][i])
+					.volume(longCols[VOLUME][i])
+					.volumeDelta(longCols[VOLUME_DELTA][i])
+					.openPrice(doubleCols[OPEN - NUM_OF_LONG_COLUMNS][i])
+					.highPrice(doubleCols[HIGH - NUM_OF_LONG_COLUMNS][i])
+					.lowPrice(doubleCols[LOW - NUM_OF_LONG_COLUMNS][i])
+					.closePrice(doubleCols[CLOSE - NUM_OF_LONG_COLUMNS][i])
+					.openInterest(doubleCols[OPEN_INTEREST - NUM_OF_LONG_COLUMNS][i])
+					.openInterestDelta(doubleCols[OPEN_INTEREST_DELTA - NUM_OF_LONG_COLUMNS][i])
+					.turnover(doubleCols[TURNOVER - NUM_OF_LONG_COLUMNS][i])
+					.turnoverDelta(doubleCols[TURNOVER_DELTA - NUM_OF_LONG_COLUMNS][i])
+					.preOpenInterest(doubleCols[PRE_OPEN_INTEREST - NUM_OF_LONG_COLUMNS][i])
+					.preClosePrice(doubleCols[PRE_CLOSE - NUM_OF_LONG_COLUMNS][i])
+					.preSettlePrice(doubleCols[PRE_SETTLE - NUM_OF_LONG_COLUMNS][i])
+					.channelType(channelType)
+					.build());
+		}
+		return bars;
+	}
+
+	int count() {
+		return count;
+	}
+
+	String gatewayId() {
+		return gatewayId;
+	}
+
+	ChannelType channelType() {
+		return channelType;
+	}
+
+	/**
+	 * 把已追加的数据刷到磁盘
+	 */
+	void force() {
+		buf.force();
+	}
+
+	boolean isOpen() {
+		return channel.isOpen();
+	}
+
+	/**
+	 * 重复关闭无副作用
+	 */
+	@Override
+	public void close() throws IOException {
+		if(!channel.isOpen()) {
+			return;
+		}
+		if(writable) {
+			buf.force();
+		}
+		channel.close();
+	}
+}
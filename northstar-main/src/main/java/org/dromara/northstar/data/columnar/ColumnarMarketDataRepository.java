@@ -0,0 +1,279 @@
+package org.dromara.northstar.data.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import org.dromara.northstar.common.IDataSource;
+import org.dromara.northstar.common.constant.DateTimeConstant;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.data.IMarketDataRepository;
+import org.dromara.northstar.gateway.IContract;
+import org.dromara.northstar.gateway.IContractManager;
+import org.springframework.beans.factory.DisposableBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本地行情数据仓库（列式文件实现）
+ * 每个合约每个交易日一个列式文件（{存储目录}/{合约}/{交易日}.bar），追加写入、内存映射读取。
+ * 加载时按文件名筛选交易日范围，每个交易日只需一次批量读取，不再逐行解析 protobuf。
+ * 每个合约只有最新交易日的文件保持打开，交易日切换时关闭前一个交易日的文件，打开的文件数不随运行时长增长。
+ * 过期规则与数据库实现一致：交易日当天20点后过期
+ * @author agent
+ *
+ */
+@Slf4j
+public class ColumnarMarketDataRepository implements IMarketDataRepository, DisposableBean {
+
+	private static final String FILE_SUFFIX = ".bar";
+
+	private final Path baseDir;
+
+	private final IContractManager contractMgr;
+
+	/* 正在追加的文件，读取时与写线程共用同一个映射 */
+	private final ConcurrentMap<Path, BarColumnFile> appendingFiles = new ConcurrentHashMap<>();
+
+	/* 合约 -> 正在追加的文件路径（最新交易日） */
+	private final ConcurrentMap<String, Path> appendingPathOfContract = new ConcurrentHashMap<>();
+
+	public ColumnarMarketDataRepository(Path baseDir, IContractManager contractMgr) {
+		this.baseDir = baseDir;
+		this.contractMgr = contractMgr;
+	}
+
+	@Override
+	public void insert(Bar bar) {
+		insertAll(List.of(bar));
+	}
+
+	/**
+	 * 同一批K线追加完成后统一刷盘
+	 */
+	@Override
+	public void insertAll(List<Bar> bars) {
+		log.trace("批量持久化行情数据：{} 条", bars.size());
+		Set<BarColumnFile> touchedFiles = new HashSet<>();
+		for(Bar bar : bars) {
+			String unifiedSymbol = bar.contract().unifiedSymbol();
+			Path path = pathOf(unifiedSymbol, bar.tradingDay());
+			rollover(unifiedSymbol, path);
+			BarColumnFile file;
+			do {
+				file = append(path, bar);
+			} while(Objects.isNull(file));
+			touchedFiles.add(file);
+		}
+		for(BarColumnFile file : touchedFiles) {
+			synchronized (file) {
+				if(file.isOpen()) {
+					file.force();
+				}
+			}
+		}
+	}
+
+	/* 合约的交易日切换时，关闭前一个交易日的文件 */
+	private void rollover(String unifiedSymbol, Path path) {
+		Path previous = appendingPathOfContract.put(unifiedSymbol, path);
+		if(Objects.nonNull(previous) && !previous.equals(path)) {
+			log.debug("[{}] 交易日切换，关闭行情数据文件：{}", unifiedSymbol, previous);
+			close(appendingFiles.remove(previous));
+		}
+	}
+
+	/* 文件在取出后被并发关闭时返回null，由调用方重新打开 */
+	private BarColumnFile append(Path path, Bar bar) {
+		BarColumnFile file = appendingFiles.computeIfAbsent(path, p -> {
+			try {
+				return BarColumnFile.openForAppend(p, bar);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		synchronized (file) {
+			if(!file.isOpen()) {
+				appendingFiles.remove(path, file);
+				return null;
+			}
+			try {
+				file.append(bar);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return file;
+	}
+
+	@Override
+	public List<Bar> loadBars(IContract contract, LocalDate startDate, LocalDate endDate) {
+		String unifiedSymbol = contract.contract().unifiedSymbol();
+		Path dir = baseDir.resolve(unifiedSymbol);
+		if(!Files.isDirectory(dir)) {
+			return Collections.emptyList();
+		}
+		List<Bar> resultList = new ArrayList<>();
+		for(LocalDate tradingDay : tradingDaysOf(dir)) {
+			if(tradingDay.isBefore(startDate) || tradingDay.isAfter(endDate)) {
+				continue;
+			}
+			log.debug("加载 [{}] 本地行情数据：{}", unifiedSymbol, tradingDay);
+			try {
+				resultList.addAll(read(pathOf(unifiedSymbol, tradingDay), contract.contract(), tradingDay));
+			} catch (Exception e) {
+				log.error("[{}] {} 本地行情数据读取异常", unifiedSymbol, tradingDay, e);
+			}
+		}
+		return resultList;
+	}
+
+	private List<Bar> read(Path path, Contract contract, LocalDate tradingDay) throws IOException {
+		BarColumnFile appendingFile = appendingFiles.get(path);
+		if(Objects.nonNull(appendingFile)) {
+			synchronized (appendingFile) {
+				if(appendingFile.isOpen()) {
+					return appendingFile.read(contractOf(appendingFile, contract), tradingDay);
+				}
+			}
+		}
+		try(BarColumnFile file = BarColumnFile.openForRead(path)) {
+			return file.read(contractOf(file, contract), tradingDay);
+		}
+	}
+
+	/* 与数据库实现一致，按写入时的渠道来源查找合约；文件未记录渠道来源时沿用查询的合约 */
+	private Contract contractOf(BarColumnFile file, Contract contract) {
+		if(Objects.isNull(file.channelType())) {
+			return contract;
+		}
+		return contractMgr.getContract(file.channelType(), contract.unifiedSymbol()).contract();
+	}
+
+	@Override
+	public List<Bar> loadDailyBars(IContract contract, LocalDate startDate, LocalDate endDate) {
+		IDataSource dataServiceDelegate = contract.dataSource();
+		try {
+			return dataServiceDelegate.getDailyData(contract.contract(), startDate, endDate);
+		} catch (Exception e) {
+			log.error("{}", e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * 删除交易日已过期的文件
+	 */
+	@Override
+	public void removeExpiredData(long expiredBefore) {
+		if(!Files.isDirectory(baseDir)) {
+			return;
+		}
+		try(Stream<Path> dirs = Files.list(baseDir)) {
+			for(Path dir : dirs.filter(Files::isDirectory).toList()) {
+				for(LocalDate tradingDay : tradingDaysOf(dir)) {
+					if(CommonUtils.localDateTimeToMills(LocalDateTime.of(tradingDay, LocalTime.of(20, 0))) < expiredBefore) {
+						delete(dir.resolve(fileNameOf(tradingDay)));
+					}
+				}
+				deleteIfEmpty(dir);
+			}
+		} catch (IOException e) {
+			log.error("移除过期行情数据异常", e);
+		}
+	}
+
+	/* Windows下仍被映射的文件可能无法立即删除，留待下次清理 */
+	private void delete(Path path) {
+		close(appendingFiles.remove(path));
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			log.warn("无法删除过期行情数据文件：{}", path, e);
+		}
+	}
+
+	private void close(BarColumnFile file) {
+		if(Objects.isNull(file)) {
+			return;
+		}
+		synchronized (file) {
+			try {
+				file.close();
+			} catch (IOException e) {
+				log.warn("关闭行情数据文件异常", e);
+			}
+		}
+	}
+
+	/**
+	 * 当前打开的文件数
+	 * @return
+	 */
+	int numOfOpenFiles() {
+		return appendingFiles.size();
+	}
+
+	private void deleteIfEmpty(Path dir) throws IOException {
+		try(Stream<Path> files = Files.list(dir)) {
+			if(files.findAny().isPresent()) {
+				return;
+			}
+		}
+		Files.deleteIfExists(dir);
+	}
+
+	private List<LocalDate> tradingDaysOf(Path dir) {
+		try(Stream<Path> files = Files.list(dir)) {
+			return files.map(path -> path.getFileName().toString())
+					.filter(name -> name.endsWith(FILE_SUFFIX))
+					.map(name -> parseTradingDay(name.substring(0, name.length() - FILE_SUFFIX.length())))
+					.filter(Objects::nonNull)
+					.sorted()
+					.toList();
+		} catch (IOException e) {
+			log.error("无法列出本地行情数据文件：{}", dir, e);
+			return Collections.emptyList();
+		}
+	}
+
+	private LocalDate parseTradingDay(String value) {
+		try {
+			return LocalDate.parse(value, DateTimeConstant.D_FORMAT_INT_FORMATTER);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	private Path pathOf(String unifiedSymbol, LocalDate tradingDay) {
+		return baseDir.resolve(unifiedSymbol).resolve(fileNameOf(tradingDay));
+	}
+
+	private String fileNameOf(LocalDate tradingDay) {
+		return tradingDay.format(DateTimeConstant.D_FORMAT_INT_FORMATTER) + FILE_SUFFIX;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		appendingPathOfContract.clear();
+		for(Path path : List.copyOf(appendingFiles.keySet())) {
+			close(appendingFiles.remove(path));
+		}
+	}
+}
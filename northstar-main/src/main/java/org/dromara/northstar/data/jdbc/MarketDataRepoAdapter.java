@@ -4,14 +4,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.dromara.northstar.common.IDataSource;
 import org.dromara.northstar.common.constant.ChannelType;
 import org.dromara.northstar.common.constant.DateTimeConstant;
 import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.utils.CommonUtils;
 import org.dromara.northstar.data.IMarketDataRepository;
 import org.dromara.northstar.data.jdbc.entity.BarDO;
@@ -20,6 +27,7 @@ import org.dromara.northstar.gateway.IContractManager;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 
+import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import xyz.redtorch.pb.CoreField.BarField;
 
@@ -43,40 +51,85 @@ public class MarketDataRepoAdapter implements IMarketDataRepository{
 	@Override
 	public void insert(Bar bar) {
 		log.trace("持久化行情数据：{} {} {} {}", bar.contract().name(), bar.actionDay(), bar.actionTime(), bar.actionTimestamp());
-		delegate.save(BarDO.builder()
+		delegate.save(toBarDO(bar));
+	}
+	
+	/**
+	 * 在同一个事务内批量写入，配合 hibernate.jdbc.batch_size 以JDBC批处理执行
+	 */
+	@Override
+	public void insertAll(List<Bar> bars) {
+		log.trace("批量持久化行情数据：{} 条", bars.size());
+		delegate.saveAll(bars.stream().map(this::toBarDO).toList());
+	}
+	
+	private BarDO toBarDO(Bar bar) {
+		return BarDO.builder()
 				.unifiedSymbol(bar.contract().unifiedSymbol())
 				.tradingDay(bar.tradingDay().format(DateTimeConstant.D_FORMAT_INT_FORMATTER))
 				.expiredAt(CommonUtils.localDateTimeToMills(LocalDateTime.of(bar.tradingDay(), LocalTime.of(20, 0))))
 				.barData(bar.toBarField().toByteArray())
-				.build());
+				.build();
 	}
 
+	/**
+	 * 以单个交易日范围查询流式读取，逐行直接解码为K线
+	 */
+	@Transactional
 	@Override
 	public List<Bar> loadBars(IContract contract, LocalDate startDate, LocalDate endDate) {
-		List<Bar> resultList = new ArrayList<>();
-		LocalDate date = startDate;
-		while(!date.isAfter(endDate)) {
-			resultList.addAll(findBarData(date, contract.contract().unifiedSymbol()));
-			date = date.plusDays(1);
+		String unifiedSymbol = contract.contract().unifiedSymbol();
+		log.debug("加载 [{}] 本地行情数据：{} ~ {}", unifiedSymbol, startDate, endDate);
+		try(Stream<byte[]> barData = delegate.streamBarData(unifiedSymbol, toTradingDay(startDate), toTradingDay(endDate))) {
+			return barData.map(barDecoder()).filter(Objects::nonNull).toList();
+		} catch (Exception e) {
+			log.error("数据转换异常", e);
+			return Collections.emptyList();
 		}
-		return resultList;
 	}
 	
-	private List<Bar> findBarData(LocalDate date, String unifiedSymbol){
-		String tradingDay = date.format(DateTimeConstant.D_FORMAT_INT_FORMATTER);
-		log.debug("加载 [{}] 本地行情数据：{}", unifiedSymbol, tradingDay);
-		try {
-			return delegate.findByUnifiedSymbolAndTradingDay(unifiedSymbol, tradingDay)
-					.stream()
-					.map(BarDO::getBarData)
-					.map(this::convertFrom)
-					.filter(Objects::nonNull)
-					.map(bar -> Bar.of(bar, contractMgr.getContract(ChannelType.valueOf(bar.getChannelType()), bar.getUnifiedSymbol()).contract()))
-					.toList();
+	/**
+	 * 多个合约共用一次查询
+	 */
+	@Transactional
+	@Override
+	public Map<IContract, List<Bar>> loadBars(Collection<IContract> contracts, LocalDate startDate, LocalDate endDate) {
+		Map<String, List<Bar>> symbolBarsMap = new HashMap<>();
+		Map<IContract, List<Bar>> resultMap = new LinkedHashMap<>();
+		for(IContract contract : contracts) {
+			resultMap.put(contract, symbolBarsMap.computeIfAbsent(contract.contract().unifiedSymbol(), symbol -> new ArrayList<>()));
+		}
+		if(symbolBarsMap.isEmpty()) {
+			return resultMap;
+		}
+		log.debug("加载 {} 本地行情数据：{} ~ {}", symbolBarsMap.keySet(), startDate, endDate);
+		try(Stream<byte[]> barData = delegate.streamBarData(symbolBarsMap.keySet(), toTradingDay(startDate), toTradingDay(endDate))) {
+			barData.map(barDecoder())
+				.filter(Objects::nonNull)
+				.forEach(bar -> symbolBarsMap.get(bar.contract().unifiedSymbol()).add(bar));
 		} catch (Exception e) {
 			log.error("数据转换异常", e);
-			return Collections.emptyList();
+			symbolBarsMap.values().forEach(List::clear);
 		}
+		return resultMap;
+	}
+	
+	private String toTradingDay(LocalDate date) {
+		return date.format(DateTimeConstant.D_FORMAT_INT_FORMATTER);
+	}
+	
+	/* 同一次查询内，同一合约只解析一次 */
+	private Function<byte[], Bar> barDecoder() {
+		Map<String, Contract> contractCache = new HashMap<>();
+		return data -> {
+			BarField bar = convertFrom(data);
+			if(Objects.isNull(bar)) {
+				return null;
+			}
+			Contract contract = contractCache.computeIfAbsent(bar.getChannelType() + "@" + bar.getUnifiedSymbol(), 
+					key -> contractMgr.getContract(ChannelType.valueOf(bar.getChannelType()), bar.getUnifiedSymbol()).contract());
+			return Bar.of(bar, contract);
+		};
 	}
 	
 	private BarField convertFrom(byte[] data) {
@@ -99,4 +152,9 @@ public class MarketDataRepoAdapter implements IMarketDataRepository{
 		}
 	}
 	
+	@Override
+	public void removeExpiredData(long expiredBefore) {
+		delegate.deleteByExpiredAtBefore(expiredBefore);
+	}
+	
 }
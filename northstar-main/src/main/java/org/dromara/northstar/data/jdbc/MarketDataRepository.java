@@ -1,13 +1,36 @@
 package org.dromara.northstar.data.jdbc;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.dromara.northstar.data.jdbc.entity.BarDO;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import jakarta.persistence.QueryHint;
+
 public interface MarketDataRepository extends CrudRepository<BarDO, Integer> {
 
 	List<BarDO> findByUnifiedSymbolAndTradingDay(String unifiedSymbol, String tradingDay);
 	
+	/**
+	 * 按交易日范围流式读取K线数据，按交易日与写入顺序排列
+	 * 需要在事务内消费
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("select b.barData from BarDO b where b.unifiedSymbol = ?1 and b.tradingDay between ?2 and ?3 order by b.tradingDay, b.id")
+	Stream<byte[]> streamBarData(String unifiedSymbol, String startTradingDay, String endTradingDay);
+	
+	/**
+	 * 按交易日范围流式读取多个合约的K线数据，按合约、交易日与写入顺序排列
+	 * 需要在事务内消费
+	 */
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("select b.barData from BarDO b where b.unifiedSymbol in ?1 and b.tradingDay between ?2 and ?3 order by b.unifiedSymbol, b.tradingDay, b.id")
+	Stream<byte[]> streamBarData(Collection<String> unifiedSymbols, String startTradingDay, String endTradingDay);
+	
 	void deleteByExpiredAtBefore(long expiredAt);
 }
@@ -1,16 +1,33 @@
 package org.dromara.northstar.event;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import org.dromara.northstar.common.event.AbstractEventHandler;
 import org.dromara.northstar.common.event.GenericEventHandler;
 import org.dromara.northstar.common.event.NorthstarEvent;
 import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.model.core.Account;
 import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.common.model.core.Notice;
 import org.dromara.northstar.common.model.core.Order;
 import org.dromara.northstar.common.model.core.Position;
@@ -41,8 +58,33 @@ public class BroadcastHandler extends AbstractEventHandler implements GenericEve
 	
 	private ExecutorService exec;
 	
+	private ScheduledExecutorService flusher;
+	
+	private final long flushIntervalMillis;
+	
+	private final long resyncIntervalMillis;
+	
 	private AtomicBoolean shutdown = new AtomicBoolean();
 	
+	/* 行情按房间合并为一个窗口（保留最高、最低与最新TICK，累加量值增量），K线按房间顺序暂存；账户与持仓分别只保留最新快照 */
+	private final ConcurrentMap<String, TickWindow> tickWindows = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Queue<Bar>> pendingBars = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Account> latestAccounts = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Position> latestPositions = new ConcurrentHashMap<>();
+	
+	/* 客户端协商的推送编码，未协商的客户端使用BASE64 */
+	private final ConcurrentMap<UUID, Codec> clientCodecs = new ConcurrentHashMap<>();
+	
+	/* 订阅了TICK增量推送的客户端会话，以及各房间最近一次的TICK（用于登录时的快照） */
+	private final ConcurrentMap<UUID, TickDeltaSession> deltaSessions = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Tick> lastTickOfRoom = new ConcurrentHashMap<>();
+	
+	/* 房间ID缓存：网关ID -> 合约 -> 房间ID */
+	private final ConcurrentMap<String, ConcurrentMap<Contract, String>> roomIdCache = new ConcurrentHashMap<>();
+	
+	private static final String TICK_SNAPSHOT = "TICK_SNAPSHOT";
+	private static final String TICK_DELTA = "TICK_DELTA";
+	
 	private static final Set<NorthstarEventType> TARGET_TYPE = EnumSet.of(
 			NorthstarEventType.TICK, 
 			NorthstarEventType.BAR,
@@ -54,67 +96,246 @@ public class BroadcastHandler extends AbstractEventHandler implements GenericEve
 	); 
 	
 	public BroadcastHandler(SocketIOServer socketServer) {
+		this(socketServer, 200, 30000);
+	}
+	
+	public BroadcastHandler(SocketIOServer socketServer, long flushIntervalMillis, long resyncIntervalMillis) {
 		this.socketServer = socketServer;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.resyncIntervalMillis = resyncIntervalMillis;
 	}
 	
 	/*****************************************************/
 	/**					消息发送端					  		**/
 	/*****************************************************/
 	public void emitEvent(NorthstarEvent event) throws SecurityException, IllegalArgumentException, InterruptedException {
-		// 为了避免接收端信息拥塞，把行情数据按合约分房间分发数据，可以提升客户端的接收效率
-		if(event.getData() instanceof Tick t) {
-			TickField tick = t.toTickField();
-			String rmid = String.format("%s@%s", tick.getUnifiedSymbol(), tick.getGatewayId());
-			log.trace("TICK数据分发：[{} {} {} {} 总仓：{} 仓：{} 总量：{} 量：{} 价：{} 类型：{}]", 
-					tick.getUnifiedSymbol(), tick.getActionDay(), tick.getActionTime(), tick.getActionTimestamp(),
-					(long)tick.getOpenInterest(), (long)tick.getOpenInterestDelta(), tick.getVolume(), tick.getVolumeDelta(), tick.getLastPrice(), t.type());
-			socketServer.getRoomOperations(rmid).sendEvent(NorthstarEventType.TICK.toString(), Base64.encode(tick.toByteArray()));
-		} else if(event.getData() instanceof Bar b) {
-			BarField bar = b.toBarField();
-			String rmid = String.format("%s@%s", bar.getUnifiedSymbol(), bar.getGatewayId());
-			log.trace("BAR数据分发：[{} {} {} {} 仓：{} 量：{} 价：{}]", rmid, bar.getActionDay(), bar.getActionTime(), bar.getActionTimestamp(),
-					(long)bar.getOpenInterestDelta(), bar.getVolumeDelta(), bar.getClosePrice());
-			socketServer.getRoomOperations(rmid).sendEvent(NorthstarEventType.BAR.toString(), Base64.encode(bar.toByteArray()));
-		} else if(event.getData() instanceof Account acc) {
+		if(event.getData() instanceof Order od) {
+			sendToAll(NorthstarEventType.ORDER, List.of(od.toOrderField().toByteArray()));
+		} else if(event.getData() instanceof Trade tr) {
+			sendToAll(NorthstarEventType.TRADE, List.of(tr.toTradeField().toByteArray()));
+		} else if(event.getData() instanceof Notice note) {
+			sendToAll(NorthstarEventType.NOTICE, List.of(note.toNoticeField().toByteArray()));
+		} 
+	}
+	
+	/**
+	 * 按节拍把合并后的数据推送给客户端
+	 * 每个房间的行情、K线各合并为一帧，账户、持仓各合并为一帧；没有订阅者的房间直接丢弃，不做编码
+	 */
+	void flush() {
+		for(String rmid : tickWindows.keySet()) {
+			TickWindow window = tickWindows.remove(rmid);
+			if(Objects.isNull(window)) {
+				continue;
+			}
+			List<Tick> ticks = window.ticks();
+			lastTickOfRoom.put(rmid, ticks.get(ticks.size() - 1));
+			Collection<SocketIOClient> clients = fullTickClients(rmid, ticks);
+			if(clients.isEmpty()) {
+				continue;
+			}
+			List<byte[]> messages = new ArrayList<>(ticks.size());
+			for(Tick t : ticks) {
+				TickField tick = t.toTickField();
+				log.trace("TICK数据分发：[{} {} {} {} 总仓：{} 仓：{} 总量：{} 量：{} 价：{} 类型：{}]", 
+						tick.getUnifiedSymbol(), tick.getActionDay(), tick.getActionTime(), tick.getActionTimestamp(),
+						(long)tick.getOpenInterest(), (long)tick.getOpenInterestDelta(), tick.getVolume(), tick.getVolumeDelta(), tick.getLastPrice(), t.type());
+				messages.add(tick.toByteArray());
+			}
+			send(clients, NorthstarEventType.TICK, messages);
+		}
+		if(!deltaSessions.isEmpty()) {
+			flushDeltaSessions();
+		}
+		for(Entry<String, Queue<Bar>> e : pendingBars.entrySet()) {
+			Queue<Bar> queue = e.getValue();
+			List<byte[]> messages = new ArrayList<>();
+			Collection<SocketIOClient> clients = null;
+			for(Bar b = queue.poll(); Objects.nonNull(b); b = queue.poll()) {
+				if(Objects.isNull(clients)) {
+					clients = socketServer.getRoomOperations(e.getKey()).getClients();
+				}
+				if(clients.isEmpty()) {
+					continue;
+				}
+				BarField bar = b.toBarField();
+				log.trace("BAR数据分发：[{} {} {} {} 仓：{} 量：{} 价：{}]", e.getKey(), bar.getActionDay(), bar.getActionTime(), bar.getActionTimestamp(),
+						(long)bar.getOpenInterestDelta(), bar.getVolumeDelta(), bar.getClosePrice());
+				messages.add(bar.toByteArray());
+			}
+			if(!messages.isEmpty()) {
+				send(clients, NorthstarEventType.BAR, messages);
+			}
+		}
+		List<byte[]> accounts = drain(latestAccounts, acc -> {
 			AccountField account = acc.toAccountField();
 			log.trace("账户信息分发: [{} {} {}]", account.getAccountId(), account.getGatewayId(), account.getBalance());
-			socketServer.getBroadcastOperations().sendEvent(NorthstarEventType.ACCOUNT.toString(), Base64.encode(account.toByteArray()));
-		} else if(event.getData() instanceof Position pos) {
+			return account.toByteArray();
+		});
+		if(!accounts.isEmpty()) {
+			sendToAll(NorthstarEventType.ACCOUNT, accounts);
+		}
+		List<byte[]> positions = drain(latestPositions, pos -> {
 			PositionField position = pos.toPositionField();
 			log.trace("持仓信息分发: [{} {} {}]", position.getAccountId(), position.getGatewayId(), position.getPositionId());
-			socketServer.getBroadcastOperations().sendEvent(NorthstarEventType.POSITION.toString(), Base64.encode(position.toByteArray()));
-		} else if(event.getData() instanceof Order od) {
-			socketServer.getBroadcastOperations().sendEvent(NorthstarEventType.ORDER.toString(), Base64.encode(od.toOrderField().toByteArray()));
-		} else if(event.getData() instanceof Trade tr) {
-			socketServer.getBroadcastOperations().sendEvent(NorthstarEventType.TRADE.toString(), Base64.encode(tr.toTradeField().toByteArray()));
-		} else if(event.getData() instanceof Notice note) {
-			socketServer.getBroadcastOperations().sendEvent(NorthstarEventType.NOTICE.toString(), Base64.encode(note.toNoticeField().toByteArray()));
-		} 
+			return position.toByteArray();
+		});
+		if(!positions.isEmpty()) {
+			sendToAll(NorthstarEventType.POSITION, positions);
+		}
+	}
+	
+	/* 增量订阅的客户端只暂存TICK，其余客户端返回给调用方推送完整TICK */
+	private Collection<SocketIOClient> fullTickClients(String rmid, List<Tick> ticks) {
+		Collection<SocketIOClient> clients = socketServer.getRoomOperations(rmid).getClients();
+		if(deltaSessions.isEmpty() || clients.isEmpty()) {
+			return clients;
+		}
+		List<SocketIOClient> fullClients = new ArrayList<>(clients.size());
+		for(SocketIOClient client : clients) {
+			TickDeltaSession session = deltaSessions.get(client.getSessionId());
+			if(Objects.isNull(session)) {
+				fullClients.add(client);
+			} else {
+				session.stage(rmid, ticks);
+			}
+		}
+		return fullClients;
+	}
+	
+	private void flushDeltaSessions() {
+		long now = System.currentTimeMillis();
+		for(Entry<UUID, TickDeltaSession> e : deltaSessions.entrySet()) {
+			SocketIOClient client = socketServer.getClient(e.getKey());
+			if(Objects.isNull(client)) {
+				continue;
+			}
+			TickDeltaSession.Frames frames = e.getValue().drain(now);
+			if(!frames.snapshots().isEmpty()) {
+				client.sendEvent(TICK_SNAPSHOT, pack(frames.snapshots()));
+			}
+			if(Objects.nonNull(frames.deltas())) {
+				client.sendEvent(TICK_DELTA, frames.deltas());
+			}
+		}
+	}
+	
+	private <T> List<byte[]> drain(ConcurrentMap<String, T> latest, Function<T, byte[]> encoder) {
+		if(latest.isEmpty() || socketServer.getAllClients().isEmpty()) {
+			latest.clear();
+			return List.of();
+		}
+		List<byte[]> messages = new ArrayList<>(latest.size());
+		for(String key : latest.keySet()) {
+			T obj = latest.remove(key);
+			if(Objects.nonNull(obj)) {
+				messages.add(encoder.apply(obj));
+			}
+		}
+		return messages;
+	}
+	
+	private void sendToAll(NorthstarEventType type, List<byte[]> messages) {
+		send(socketServer.getAllClients(), type, messages);
+	}
+	
+	/* 一帧内的多条消息：BASE64 客户端沿用原有的单消息帧逐条接收，BINARY 客户端总是接收一个长度前缀拼接的二进制附件；每种编码最多编码一次 */
+	private void send(Collection<SocketIOClient> clients, NorthstarEventType type, List<byte[]> messages) {
+		String event = type.toString();
+		String[] textPayload = null;
+		byte[] binaryPayload = null;
+		for(SocketIOClient client : clients) {
+			if(codecOf(client) == Codec.BINARY) {
+				if(Objects.isNull(binaryPayload)) {
+					binaryPayload = pack(messages);
+				}
+				client.sendEvent(event, binaryPayload);
+			} else {
+				if(Objects.isNull(textPayload)) {
+					textPayload = messages.stream().map(Base64::encode).toArray(String[]::new);
+				}
+				for(String payload : textPayload) {
+					client.sendEvent(event, payload);
+				}
+			}
+		}
+	}
+	
+	private Codec codecOf(SocketIOClient client) {
+		return clientCodecs.getOrDefault(client.getSessionId(), Codec.BASE64);
+	}
+	
+	/**
+	 * 把多条消息拼接为一个二进制帧，每条消息前有4字节（大端）的长度前缀
+	 * @param messages
+	 * @return
+	 */
+	static byte[] pack(List<byte[]> messages) {
+		int size = 0;
+		for(byte[] msg : messages) {
+			size += Integer.BYTES + msg.length;
+		}
+		ByteBuffer buf = ByteBuffer.allocate(size);
+		for(byte[] msg : messages) {
+			buf.putInt(msg.length).put(msg);
+		}
+		return buf.array();
+	}
+	
+	private String roomIdOf(Contract contract, String gatewayId) {
+		String gwId = Objects.isNull(gatewayId) ? contract.gatewayId() : gatewayId;
+		ConcurrentMap<Contract, String> rooms = roomIdCache.get(gwId);
+		if(Objects.isNull(rooms)) {
+			rooms = roomIdCache.computeIfAbsent(gwId, k -> new ConcurrentHashMap<>());
+		}
+		String rmid = rooms.get(contract);
+		if(Objects.isNull(rmid)) {
+			rmid = contract.unifiedSymbol() + "@" + gwId;
+			rooms.put(contract, rmid);
+		}
+		return rmid;
 	}
 	
 	/*************************************************/
 	/**					消息接收端						**/
 	/*************************************************/
 	@OnConnect  
-    private void onConnect(final SocketIOClient client) {
-    	log.info("【客户端连接】-[{}],建立连接", client.getSessionId());
+    void onConnect(final SocketIOClient client) {
+    	// 客户端在握手参数中声明 codec=binary 即可接收二进制帧，再声明 tick=delta 则TICK以快照加增量的方式推送
+    	Codec codec = Codec.of(client.getHandshakeData().getSingleUrlParam("codec"));
+    	clientCodecs.put(client.getSessionId(), codec);
+    	boolean deltaTick = codec == Codec.BINARY && "delta".equalsIgnoreCase(client.getHandshakeData().getSingleUrlParam("tick"));
+    	if(deltaTick) {
+    		deltaSessions.put(client.getSessionId(), new TickDeltaSession(resyncIntervalMillis));
+    	}
+    	log.info("【客户端连接】-[{}],建立连接，推送编码：{}，TICK增量推送：{}", client.getSessionId(), codec, deltaTick);
     }  
   
     @OnDisconnect  
     private void onDisconnect(final SocketIOClient client) {
+    	clientCodecs.remove(client.getSessionId());
+    	deltaSessions.remove(client.getSessionId());
     	log.info("【客户端断开】-[{}],断开连接", client.getSessionId());
     }
     
     @OnEvent("login")
-    private void login(final SocketIOClient client, String room) {
+    void login(final SocketIOClient client, String room) {
     	log.info("【登录房间】-[{}]加入房间{}", client.getSessionId(), room);
     	client.joinRoom(room);
+    	TickDeltaSession session = deltaSessions.get(client.getSessionId());
+    	if(Objects.nonNull(session)) {
+    		session.join(room, lastTickOfRoom.get(room));
+    	}
     }
     
     @OnEvent("logout")
     private void logout(final SocketIOClient client, String room) {
     	log.info("【离开房间】-[{}]离开房间{}", client.getSessionId(), room);
     	client.leaveRoom(room);
+    	TickDeltaSession session = deltaSessions.get(client.getSessionId());
+    	if(Objects.nonNull(session)) {
+    		session.leave(room);
+    	}
     }
 
 	@Override
@@ -127,23 +348,80 @@ public class BroadcastHandler extends AbstractEventHandler implements GenericEve
 		if(shutdown.get()) {
 			return;
 		}
-		exec.execute(() -> {
-			try {
-				BroadcastHandler.this.emitEvent(e);
-			} catch (SecurityException | IllegalArgumentException | InterruptedException ex) {
-				log.error("数据分发异常", ex);
-			}
-		});
+		// 事件对象会被事件引擎复用，必须在当前线程取出数据
+		switch(e.getEvent()) {
+		case TICK -> {
+			Tick tick = e.getData() instanceof TickSlot slot ? slot.toTick() : (Tick) e.getData();
+			tickWindows.compute(roomIdOf(tick.contract(), tick.gatewayId()), (rmid, window) -> {
+				TickWindow w = Objects.isNull(window) ? new TickWindow() : window;
+				w.add(tick);
+				return w;
+			});
+		}
+		case BAR -> {
+			Bar bar = (Bar) e.getData();
+			pendingBars.computeIfAbsent(roomIdOf(bar.contract(), bar.gatewayId()), k -> new ConcurrentLinkedQueue<>()).offer(bar);
+		}
+		case ACCOUNT -> {
+			Account acc = (Account) e.getData();
+			latestAccounts.put(acc.gatewayId(), acc);
+		}
+		case POSITION -> {
+			Position pos = (Position) e.getData();
+			latestPositions.put(pos.positionId(), pos);
+		}
+		default -> {
+			NorthstarEvent event = new NorthstarEvent(e.getEvent(), e.getData());
+			exec.execute(() -> {
+				try {
+					BroadcastHandler.this.emitEvent(event);
+				} catch (SecurityException | IllegalArgumentException | InterruptedException ex) {
+					log.error("数据分发异常", ex);
+				}
+			});
+		}
+		}
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		exec = CommonUtils.newThreadPerTaskExecutor(getClass());
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "BroadcastFlusher");
+			t.setDaemon(true);
+			return t;
+		});
+		flusher.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			} catch (Exception ex) {
+				log.error("数据分发异常", ex);
+			}
+		}, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
 	}
 	
 	@Override
 	public void destroy() throws Exception {
 		shutdown.set(true);
+		flusher.shutdownNow();
 		exec.close();
 	}
+	
+	/**
+	 * 推送编码
+	 */
+	public enum Codec {
+		/**
+		 * protobuf字节经Base64编码后以文本发送，每帧一条消息（与旧版客户端兼容）
+		 */
+		BASE64,
+		/**
+		 * protobuf字节按长度前缀拼接后以一个二进制附件发送，比BASE64少约三分之一的流量
+		 */
+		BINARY;
+		
+		public static Codec of(String name) {
+			return "binary".equalsIgnoreCase(name) ? BINARY : BASE64;
+		}
+	}
 }
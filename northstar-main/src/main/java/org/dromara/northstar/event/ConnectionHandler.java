@@ -1,7 +1,7 @@
 package org.dromara.northstar.event;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.dromara.northstar.account.GatewayManager;
 import org.dromara.northstar.common.Subscribable;
@@ -31,7 +31,7 @@ public class ConnectionHandler extends AbstractEventHandler implements GenericEv
 	protected GatewayManager gatewayMgr;
 	protected IContractManager contractMgr;
 	protected IGatewayRepository gatewayRepo;
-	protected Set<String> subscribedSet = new HashSet<>();
+	protected Set<String> subscribedSet = ConcurrentHashMap.newKeySet();
 	
 	public ConnectionHandler(GatewayManager gatewayMgr, IContractManager contractMgr, IGatewayRepository gatewayRepo) {
 		this.gatewayMgr = gatewayMgr;
@@ -1,22 +1,47 @@
 package org.dromara.northstar.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+import org.apache.commons.lang3.StringUtils;
+
+import org.dromara.northstar.common.constant.ChannelType;
 import org.dromara.northstar.common.event.FastEventEngine;
 import org.dromara.northstar.common.event.NorthstarEvent;
 import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.model.core.Account;
+import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Notice;
+import org.dromara.northstar.common.model.core.Order;
+import org.dromara.northstar.common.model.core.Position;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
 import org.springframework.beans.factory.DisposableBean;
 
 import com.lmax.disruptor.BatchEventProcessor;
 import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorTwoArg;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
 import com.lmax.disruptor.WaitStrategy;
@@ -25,25 +50,74 @@ import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import com.lmax.disruptor.util.DaemonThreadFactory;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 import xyz.redtorch.pb.CoreEnum.CommonStatusEnum;
 
 /**
  * 核心事件引擎
+ * 支持多个环形队列，每个队列可独立设置等待策略与容量，各事件类型按配置分流到对应队列。
+ * 同一事件类型始终进入同一队列，因此同类事件保持有序；不同队列之间的事件不保证先后顺序，
+ * 且同一个事件处理器会被各队列的消费线程并发调用。
+ * 合并需显式开启：开启后可合并的事件类型（TICK、ACCOUNT、POSITION）在队列余量不足时按键合并而不阻塞生产者，详见 {@link EventConflator}。
+ * 回放与模拟渠道的事件从不合并，因为模拟成交由这些事件驱动，合并会使成交结果取决于消费速度；
+ * 发布K线、订单、成交、账户、持仓前，会先补发与之相关的暂存事件，保证它们不会越过暂存的TICK或账户持仓快照。
+ * TICK也可经 {@link #emitTick} 直接写入事件对象预分配的 {@link TickSlot} 发布，此时事件数据为该槽位，需要保留的消费者须自行复制。
+ * 引擎同时作为 {@link MeterBinder} 暴露队列占用、处理器滞后、抽样的发布耗时与各类事件计数
  * @author KevinHuangwl
  *
  */
 @Slf4j
-public class DisruptorFastEventEngine implements FastEventEngine, DisposableBean {
+public class DisruptorFastEventEngine implements FastEventEngine, MeterBinder, DisposableBean {
 
 	private static final ExecutorService executor = Executors.newCachedThreadPool(DaemonThreadFactory.INSTANCE);
 	private static final int BUF_SIZE = 65536;
+	/* 可合并事件在队列余量低于容量的 1/RESERVE_RATIO 时开始合并，为不可合并的事件预留空间 */
+	private static final int RESERVE_RATIO = 8;
+	/* 每 TIMER_SAMPLE_RATE 个事件抽样记录一次发布耗时 */
+	private static final int TIMER_SAMPLE_RATE = 64;
+	/* 由模拟时间驱动的行情渠道，其事件从不合并 */
+	private static final Set<ChannelType> SIMULATED_CHANNELS = EnumSet.of(ChannelType.PLAYBACK, ChannelType.SIM);
 	
-	private final Map<EventHandler<NorthstarEvent>, BatchEventProcessor<NorthstarEvent>> handlerProcessorMap = new ConcurrentHashMap<>();
-
-	private Disruptor<NorthstarEvent> disruptor;
+	/* 可合并事件的合并键 */
+	private static final Map<NorthstarEventType, Function<Object, Object>> CONFLATE_KEYS = Map.of(
+			NorthstarEventType.TICK, data -> data instanceof Tick tick ? tick.contract() : data,
+			NorthstarEventType.ACCOUNT, data -> data instanceof Account acc ? acc.gatewayId() : data,
+			NorthstarEventType.POSITION, data -> data instanceof Position pos ? pos.positionId() : data);
+	
+	private final Map<EventHandler<NorthstarEvent>, List<BatchEventProcessor<NorthstarEvent>>> handlerProcessorMap = new ConcurrentHashMap<>();
 
-	private RingBuffer<NorthstarEvent> ringBuffer;
+	private final List<Disruptor<NorthstarEvent>> disruptors = new ArrayList<>();
+	
+	private final List<RingBuffer<NorthstarEvent>> ringBuffers = new ArrayList<>();
+	
+	private final List<String> ringNames = new ArrayList<>();
+	
+	/* 按事件类型序号索引的队列路由表 */
+	@SuppressWarnings("unchecked")
+	private final RingBuffer<NorthstarEvent>[] ringOfType = new RingBuffer[NorthstarEventType.values().length];
+	
+	private final EventConflator[] conflatorOfType = new EventConflator[NorthstarEventType.values().length];
+	
+	private final LongAdder[] counterOfType = new LongAdder[NorthstarEventType.values().length];
+	
+	/* 绑定指标注册表之后才抽样记录发布耗时 */
+	private final Timer[] publishTimerOfType = new Timer[NorthstarEventType.values().length];
+	
+	/* 判断网关是否为模拟或回放网关，其账户与持仓快照从不合并 */
+	private volatile Predicate<String> simulatedGateway = gatewayId -> false;
+	
+	private final Map<EventHandler<NorthstarEvent>, List<Meter>> handlerLagGauges = new ConcurrentHashMap<>();
+	
+	private volatile MeterRegistry registry;
+	
+	private ScheduledExecutorService drainer;
 	
 	private ExceptionHandler<NorthstarEvent> commonExceptionHandler = new ExceptionHandler<>() {
 
@@ -68,41 +142,131 @@ public class DisruptorFastEventEngine implements FastEventEngine, DisposableBean
 		
 	};
 	
+	/**
+	 * 单队列模式，所有事件共用一个环形队列
+	 * @param strategy
+	 * @throws Exception
+	 */
 	public DisruptorFastEventEngine(WaitStrategyEnum strategy) throws Exception {
-		WaitStrategy s = (WaitStrategy) strategy.getStrategyClass().getDeclaredConstructor().newInstance();
-		disruptor = new Disruptor<>(new NorthstarEventFactory(), BUF_SIZE, DaemonThreadFactory.INSTANCE,
-				ProducerType.MULTI, s);
-		ringBuffer = disruptor.start();
+		this(List.of(RingSpec.builder().name("default").waitStrategy(strategy).bufferSize(BUF_SIZE).eventTypes(Set.of()).conflateTypes(Set.of()).build()));
+	}
+	
+	/**
+	 * 多队列模式
+	 * 有且仅有一个队列的事件类型为空，作为默认队列接收未被显式分配的事件类型
+	 * @param specs
+	 * @throws Exception
+	 */
+	public DisruptorFastEventEngine(List<RingSpec> specs) throws Exception {
+		validate(specs);
+		RingBuffer<NorthstarEvent> defaultRing = null;
+		for(RingSpec spec : specs) {
+			WaitStrategy s = (WaitStrategy) spec.waitStrategy().getStrategyClass().getDeclaredConstructor().newInstance();
+			Disruptor<NorthstarEvent> disruptor = new Disruptor<>(new NorthstarEventFactory(), spec.bufferSize(), DaemonThreadFactory.INSTANCE,
+					ProducerType.MULTI, s);
+			RingBuffer<NorthstarEvent> ringBuffer = disruptor.start();
+			disruptors.add(disruptor);
+			ringBuffers.add(ringBuffer);
+			ringNames.add(spec.name());
+			if(spec.eventTypes().isEmpty()) {
+				defaultRing = ringBuffer;
+			}
+			for(NorthstarEventType type : spec.eventTypes()) {
+				ringOfType[type.ordinal()] = ringBuffer;
+			}
+			for(NorthstarEventType type : conflateTypesOf(spec)) {
+				conflatorOfType[type.ordinal()] = new EventConflator(type, ringBuffer, CONFLATE_KEYS.get(type), spec.bufferSize() / RESERVE_RATIO);
+			}
+			log.info("启动事件队列 [{}]，等待策略：{}，容量：{}，事件类型：{}，可合并类型：{}", spec.name(), spec.waitStrategy(), spec.bufferSize(),
+					spec.eventTypes().isEmpty() ? "默认" : spec.eventTypes(), conflateTypesOf(spec));
+		}
+		for(int i=0; i<ringOfType.length; i++) {
+			counterOfType[i] = new LongAdder();
+			if(Objects.isNull(ringOfType[i])) {
+				ringOfType[i] = defaultRing;
+			}
+		}
+		if(Arrays.stream(conflatorOfType).anyMatch(Objects::nonNull)) {
+			// 生产者停止发布时，由该线程负责把暂存事件补发回队列
+			drainer = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.INSTANCE);
+			drainer.scheduleWithFixedDelay(this::drainConflators, 1, 1, TimeUnit.MILLISECONDS);
+		}
 		log.info("启动事件引擎");
 	}
 	
+	private static void validate(List<RingSpec> specs) {
+		Set<NorthstarEventType> assigned = EnumSet.noneOf(NorthstarEventType.class);
+		int numOfDefault = 0;
+		for(RingSpec spec : specs) {
+			if(spec.eventTypes().isEmpty()) {
+				numOfDefault++;
+			}
+			for(NorthstarEventType type : spec.eventTypes()) {
+				if(!assigned.add(type)) {
+					throw new IllegalArgumentException("事件类型 [" + type + "] 被重复分配到多个事件队列");
+				}
+			}
+			for(NorthstarEventType type : conflateTypesOf(spec)) {
+				if(!spec.eventTypes().contains(type)) {
+					throw new IllegalArgumentException("可合并事件类型 [" + type + "] 未分配到事件队列 [" + spec.name() + "]");
+				}
+				if(!CONFLATE_KEYS.containsKey(type)) {
+					throw new IllegalArgumentException("事件类型 [" + type + "] 不支持合并");
+				}
+			}
+		}
+		if(numOfDefault != 1) {
+			throw new IllegalArgumentException("有且仅能有一个默认事件队列，当前数量：" + numOfDefault);
+		}
+	}
+	
+	private static Set<NorthstarEventType> conflateTypesOf(RingSpec spec) {
+		return Objects.isNull(spec.conflateTypes()) ? Set.of() : spec.conflateTypes();
+	}
+	
+	private void drainConflators() {
+		for(EventConflator conflator : conflatorOfType) {
+			if(Objects.nonNull(conflator)) {
+				conflator.drain();
+			}
+		}
+	}
+	
 	@Override
 	public void addHandler(NorthstarEventDispatcher handler) {
 		log.debug("加载：{}", handler);
-		BatchEventProcessor<NorthstarEvent> processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), handler);
-		processor.setExceptionHandler(commonExceptionHandler);
-		ringBuffer.addGatingSequences(processor.getSequence());
-		executor.execute(processor);
-		handlerProcessorMap.put(handler, processor);
+		List<BatchEventProcessor<NorthstarEvent>> processors = new ArrayList<>(ringBuffers.size());
+		for(RingBuffer<NorthstarEvent> ringBuffer : ringBuffers) {
+			BatchEventProcessor<NorthstarEvent> processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), handler);
+			processor.setExceptionHandler(commonExceptionHandler);
+			ringBuffer.addGatingSequences(processor.getSequence());
+			executor.execute(processor);
+			processors.add(processor);
+		}
+		handlerProcessorMap.put(handler, processors);
+		MeterRegistry reg = registry;
+		if(Objects.nonNull(reg)) {
+			bindLagGauges(reg, handler, processors);
+		}
 	}
 
 	@Override
 	public void removeHandler(NorthstarEventDispatcher handler) {
 		if (handlerProcessorMap.containsKey(handler)) {
-			BatchEventProcessor<NorthstarEvent> processor = handlerProcessorMap.get(handler);
-			// Remove a processor.
-			// Stop the processor
-			processor.halt();
-			// Wait for shutdown the complete
-//			try {
-//				handler.awaitShutdown();
-//			} catch (InterruptedException e) {
-//				e.printStackTrace();
-//				log.error("关闭时发生异常", e);
-//			}
-			// Remove the gating sequence from the ring buffer
-			ringBuffer.removeGatingSequence(processor.getSequence());
+			List<BatchEventProcessor<NorthstarEvent>> processors = handlerProcessorMap.get(handler);
+			for(int i=0; i<processors.size(); i++) {
+				BatchEventProcessor<NorthstarEvent> processor = processors.get(i);
+				// Stop the processor
+				processor.halt();
+				// Remove the gating sequence from the ring buffer
+				ringBuffers.get(i).removeGatingSequence(processor.getSequence());
+			}
 			handlerProcessorMap.remove(handler);
+			List<Meter> gauges = handlerLagGauges.remove(handler);
+			MeterRegistry reg = registry;
+			if(Objects.nonNull(gauges) && Objects.nonNull(reg)) {
+				gauges.forEach(reg::remove);
+			}
 		} else {
 			log.warn("未找到Processor,无法移除");
 		}
@@ -111,13 +275,120 @@ public class DisruptorFastEventEngine implements FastEventEngine, DisposableBean
 
 	@Override
 	public void destroy() throws Exception {
-		disruptor.halt();
-		disruptor.shutdown();
+		if(Objects.nonNull(drainer)) {
+			drainer.shutdownNow();
+		}
+		for(Disruptor<NorthstarEvent> disruptor : disruptors) {
+			disruptor.halt();
+			disruptor.shutdown();
+		}
+	}
+
+	/**
+	 * 设置模拟网关判断条件
+	 * 模拟或回放网关的账户与持仓快照从不合并
+	 * @param simulatedGateway	入参为网关ID
+	 */
+	public void setSimulatedGateway(Predicate<String> simulatedGateway) {
+		this.simulatedGateway = simulatedGateway;
 	}
 
 	@Override
 	public void emitEvent(NorthstarEventType event, Object obj) {
-		long sequence = ringBuffer.next(); // Grab the next sequence
+		int idx = event.ordinal();
+		counterOfType[idx].increment();
+		Timer timer = publishTimerOfType[idx];
+		boolean sampled = Objects.nonNull(timer) && ThreadLocalRandom.current().nextInt(TIMER_SAMPLE_RATE) == 0;
+		long startTime = sampled ? System.nanoTime() : 0;
+		flushRelated(event, obj);
+		RingBuffer<NorthstarEvent> ringBuffer = ringOfType[idx];
+		EventConflator conflator = conflatorOfType[idx];
+		if(Objects.isNull(conflator) || !isConflatable(obj)) {
+			long sequence = ringBuffer.next(); // Grab the next sequence
+			publish(ringBuffer, sequence, event, obj);
+		} else if(!tryPublish(ringBuffer, conflator, event, obj)) {
+			conflator.offer(obj);
+		}
+		if(sampled) {
+			timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	@Override
+	public <A> void emitTick(TickTranslator<A> translator, A arg) {
+		int idx = NorthstarEventType.TICK.ordinal();
+		if(Objects.nonNull(conflatorOfType[idx])) {
+			// 合并器需要暂存TICK对象，开启TICK合并时退化为复制成TICK对象发布
+			FastEventEngine.super.emitTick(translator, arg);
+			return;
+		}
+		counterOfType[idx].increment();
+		Timer timer = publishTimerOfType[idx];
+		boolean sampled = Objects.nonNull(timer) && ThreadLocalRandom.current().nextInt(TIMER_SAMPLE_RATE) == 0;
+		long startTime = sampled ? System.nanoTime() : 0;
+		ringOfType[idx].publishEvent(TICK_TRANSLATOR, translator, arg);
+		if(sampled) {
+			timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static final EventTranslatorTwoArg<NorthstarEvent, TickTranslator, Object> TICK_TRANSLATOR = (event, sequence, translator, arg) -> {
+		TickSlot slot = event.getTickSlot();
+		slot.clear();
+		translator.translateTo(slot, arg);
+		event.setEvent(NorthstarEventType.TICK);
+		event.setData(slot);
+	};
+	
+	private boolean isConflatable(Object data) {
+		return switch(data) {
+			case Tick tick -> !SIMULATED_CHANNELS.contains(tick.channelType()) && !simulatedGateway.test(tick.gatewayId());
+			case Account acc -> !simulatedGateway.test(acc.gatewayId());
+			case Position pos -> !simulatedGateway.test(pos.gatewayId());
+			default -> false;
+		};
+	}
+	
+	/* 发布事件前，先补发与之相关的暂存事件：同一合约的TICK，以及订单、成交之前的账户与持仓快照 */
+	private void flushRelated(NorthstarEventType event, Object obj) {
+		EventConflator tickConflator = conflatorOfType[NorthstarEventType.TICK.ordinal()];
+		if(Objects.nonNull(tickConflator)) {
+			switch(obj) {
+				case Bar bar -> tickConflator.flush(bar.contract());
+				case Order order -> tickConflator.flush(order.contract());
+				case Trade trade -> tickConflator.flush(trade.contract());
+				case Position pos -> tickConflator.flush(pos.contract());
+				case Account acc -> tickConflator.flushAll();
+				default -> {}
+			}
+		}
+		if(event == NorthstarEventType.ORDER || event == NorthstarEventType.TRADE) {
+			for(NorthstarEventType type : List.of(NorthstarEventType.ACCOUNT, NorthstarEventType.POSITION)) {
+				EventConflator conflator = conflatorOfType[type.ordinal()];
+				if(Objects.nonNull(conflator)) {
+					conflator.flushAll();
+				}
+			}
+		}
+	}
+	
+	/* 可合并事件从不阻塞：队列余量不足时返回false，由合并器暂存 */
+	private boolean tryPublish(RingBuffer<NorthstarEvent> ringBuffer, EventConflator conflator, NorthstarEventType event, Object obj) {
+		if(!conflator.canPublishDirectly()) {
+			return false;
+		}
+		long sequence;
+		try {
+			sequence = ringBuffer.tryNext();
+		} catch (InsufficientCapacityException e) {
+			return false;
+		}
+		publish(ringBuffer, sequence, event, obj);
+		return true;
+	}
+	
+	private void publish(RingBuffer<NorthstarEvent> ringBuffer, long sequence, NorthstarEventType event, Object obj) {
 		try {
 			NorthstarEvent fastEvent = ringBuffer.get(sequence); // Get the entry in the Disruptor for the sequence
 			fastEvent.setEvent(event);
@@ -128,6 +399,73 @@ public class DisruptorFastEventEngine implements FastEventEngine, DisposableBean
 		}
 	}
 	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for(int i=0; i<ringBuffers.size(); i++) {
+			RingBuffer<NorthstarEvent> ringBuffer = ringBuffers.get(i);
+			Gauge.builder("northstar.engine.ring.occupancy", ringBuffer, rb -> rb.getBufferSize() - rb.remainingCapacity())
+				.description("事件队列中未被全部处理器消费的事件数")
+				.tag("ring", ringNames.get(i))
+				.register(registry);
+			Gauge.builder("northstar.engine.ring.capacity", ringBuffer, RingBuffer::getBufferSize)
+				.description("事件队列容量")
+				.tag("ring", ringNames.get(i))
+				.register(registry);
+		}
+		for(NorthstarEventType type : NorthstarEventType.values()) {
+			int idx = type.ordinal();
+			String ringName = ringNames.get(ringBuffers.indexOf(ringOfType[idx]));
+			FunctionCounter.builder("northstar.engine.events", counterOfType[idx], LongAdder::sum)
+				.description("已发布事件数")
+				.tags("type", type.name(), "ring", ringName)
+				.register(registry);
+			publishTimerOfType[idx] = Timer.builder("northstar.engine.publish.latency")
+				.description("发布事件耗时（每" + TIMER_SAMPLE_RATE + "个事件抽样一次），包括因队列满而等待的时间")
+				.tags("type", type.name(), "ring", ringName)
+				.publishPercentiles(0.5, 0.99, 0.999)
+				.register(registry);
+			EventConflator conflator = conflatorOfType[idx];
+			if(Objects.nonNull(conflator)) {
+				FunctionCounter.builder("northstar.engine.conflated", conflator, EventConflator::conflatedCount)
+					.description("因合并而被丢弃的旧事件数")
+					.tags("type", type.name(), "ring", ringName)
+					.register(registry);
+				Gauge.builder("northstar.engine.conflation.pending", conflator, EventConflator::pendingSize)
+					.description("等待补发回队列的合并事件数")
+					.tags("type", type.name(), "ring", ringName)
+					.register(registry);
+			}
+		}
+		handlerProcessorMap.forEach((handler, processors) -> bindLagGauges(registry, handler, processors));
+		this.registry = registry;
+	}
+	
+	private void bindLagGauges(MeterRegistry registry, EventHandler<NorthstarEvent> handler, List<BatchEventProcessor<NorthstarEvent>> processors) {
+		String handlerName = StringUtils.defaultIfBlank(handler.getClass().getSimpleName(), handler.getClass().getName());
+		List<Meter> gauges = new ArrayList<>(processors.size());
+		for(int i=0; i<processors.size(); i++) {
+			RingBuffer<NorthstarEvent> ringBuffer = ringBuffers.get(i);
+			Sequence sequence = processors.get(i).getSequence();
+			gauges.add(Gauge.builder("northstar.engine.handler.lag", () -> ringBuffer.getCursor() - sequence.get())
+				.description("处理器落后于队列发布位置的事件数")
+				.tags("ring", ringNames.get(i), "handler", handlerName)
+				.strongReference(true)
+				.register(registry));
+		}
+		handlerLagGauges.put(handler, gauges);
+	}
+	
+	/**
+	 * 事件队列配置
+	 * @param name			队列名称
+	 * @param waitStrategy	消费者等待策略
+	 * @param bufferSize	队列容量，必须为2的幂
+	 * @param eventTypes	分配到该队列的事件类型，为空代表默认队列
+	 * @param conflateTypes	队列余量不足时可合并的事件类型，仅支持TICK、ACCOUNT、POSITION，且必须属于eventTypes；为空则不合并
+	 */
+	@Builder
+	public record RingSpec(String name, WaitStrategyEnum waitStrategy, int bufferSize, Set<NorthstarEventType> eventTypes, Set<NorthstarEventType> conflateTypes) {}
+	
 	public enum WaitStrategyEnum {
 		BlockingWaitStrategy(BlockingWaitStrategy.class),
 		BusySpinWaitStrategy(BusySpinWaitStrategy.class),
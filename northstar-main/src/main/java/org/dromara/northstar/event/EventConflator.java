@@ -0,0 +1,155 @@
+package org.dromara.northstar.event;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+
+/**
+ * 事件合并器
+ * 当环形队列余量低于保留值时，可合并的事件不再阻塞生产者，而是按键暂存，同一个键只保留最新值（丢弃旧值）；
+ * 暂存的事件按首次到达顺序尽快补发回队列。暂存期间新到达的同类事件一律进入暂存区，从而保证同一个键的事件有序。
+ * 与暂存事件相关的其他事件发布前，需先调用 {@link #flush(Object)} 或 {@link #flushAll()}，避免其越过暂存事件
+ * @author agent
+ *
+ */
+class EventConflator {
+
+	private final NorthstarEventType type;
+
+	private final RingBuffer<NorthstarEvent> ringBuffer;
+
+	private final Function<Object, Object> keyFunc;
+
+	private final long reserve;
+
+	private final Map<Object, Object> pending = new LinkedHashMap<>();
+
+	private volatile int pendingSize;
+
+	private final LongAdder conflatedCounter = new LongAdder();
+
+	EventConflator(NorthstarEventType type, RingBuffer<NorthstarEvent> ringBuffer, Function<Object, Object> keyFunc, long reserve) {
+		this.type = type;
+		this.ringBuffer = ringBuffer;
+		this.keyFunc = keyFunc;
+		this.reserve = reserve;
+	}
+
+	/**
+	 * 队列余量充足且没有暂存事件时，可以直接发布
+	 * @return
+	 */
+	boolean canPublishDirectly() {
+		return pendingSize == 0 && ringBuffer.remainingCapacity() > reserve;
+	}
+
+	/**
+	 * 暂存事件，同一个键的旧事件会被覆盖
+	 * @param data
+	 */
+	synchronized void offer(Object data) {
+		if(pending.put(keyFunc.apply(data), data) != null) {
+			conflatedCounter.increment();
+		}
+		drainLocked();
+	}
+
+	/**
+	 * 把暂存事件补发回队列，队列已满时保留剩余事件
+	 */
+	void drain() {
+		if(pendingSize == 0) {
+			return;
+		}
+		synchronized (this) {
+			drainLocked();
+		}
+	}
+
+	private void drainLocked() {
+		Iterator<Entry<Object, Object>> itr = pending.entrySet().iterator();
+		// 补发同样保留队列余量，避免挤占不可合并事件的空间
+		while(itr.hasNext() && ringBuffer.remainingCapacity() > reserve) {
+			long sequence;
+			try {
+				sequence = ringBuffer.tryNext();
+			} catch (InsufficientCapacityException e) {
+				break;
+			}
+			try {
+				NorthstarEvent event = ringBuffer.get(sequence);
+				event.setEvent(type);
+				event.setData(itr.next().getValue());
+			} finally {
+				ringBuffer.publish(sequence);
+			}
+			itr.remove();
+		}
+		pendingSize = pending.size();
+	}
+
+	/**
+	 * 立即发布指定键的暂存事件
+	 * 使用为不可合并事件预留的队列空间，队列已满时阻塞等待
+	 * @param key
+	 */
+	void flush(Object key) {
+		if(pendingSize == 0) {
+			return;
+		}
+		synchronized (this) {
+			Object data = pending.remove(key);
+			if(data != null) {
+				publishBlocking(data);
+				pendingSize = pending.size();
+			}
+		}
+	}
+
+	/**
+	 * 按到达顺序立即发布全部暂存事件
+	 * 使用为不可合并事件预留的队列空间，队列已满时阻塞等待
+	 */
+	void flushAll() {
+		if(pendingSize == 0) {
+			return;
+		}
+		synchronized (this) {
+			pending.values().forEach(this::publishBlocking);
+			pending.clear();
+			pendingSize = 0;
+		}
+	}
+
+	private void publishBlocking(Object data) {
+		long sequence = ringBuffer.next();
+		try {
+			NorthstarEvent event = ringBuffer.get(sequence);
+			event.setEvent(type);
+			event.setData(data);
+		} finally {
+			ringBuffer.publish(sequence);
+		}
+	}
+
+	int pendingSize() {
+		return pendingSize;
+	}
+
+	long conflatedCount() {
+		return conflatedCounter.sum();
+	}
+
+	NorthstarEventType type() {
+		return type;
+	}
+}
@@ -1,8 +1,13 @@
 package org.dromara.northstar.event;
 
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.dromara.northstar.common.constant.ChannelType;
 import org.dromara.northstar.common.event.AbstractEventHandler;
@@ -10,28 +15,56 @@ import org.dromara.northstar.common.event.GenericEventHandler;
 import org.dromara.northstar.common.event.NorthstarEvent;
 import org.dromara.northstar.common.event.NorthstarEventType;
 import org.dromara.northstar.common.model.core.Bar;
-import org.dromara.northstar.common.utils.CommonUtils;
 import org.dromara.northstar.data.IMarketDataRepository;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * 处理K线数据持久化
+ * K线先进入有界队列，由单个写线程批量写入：攒满一批或距本批首条K线超过刷新间隔即写入一次，每次写入为一个事务；
+ * 队列满时丢弃新K线并告警。停止时会把队列中剩余的K线全部写入
  * @author KevinHuangwl
  *
  */
-public class MarketDataHandler extends AbstractEventHandler implements GenericEventHandler, InitializingBean, DisposableBean{
+@Slf4j
+public class MarketDataHandler extends AbstractEventHandler implements GenericEventHandler, InitializingBean, DisposableBean, MeterBinder{
 
 	private IMarketDataRepository mdRepo;
-	
+
 	private AtomicBoolean shutdown = new AtomicBoolean();
-	
-	private ExecutorService exec;
-	
+
+	private final BlockingQueue<Bar> queue;
+
+	private final int batchSize;
+
+	private final long flushIntervalMillis;
+
+	private Thread writer;
+
+	private final LongAdder writtenCounter = new LongAdder();
+
+	private final LongAdder droppedCounter = new LongAdder();
+
+	private volatile Timer flushTimer;
+
 	public MarketDataHandler(IMarketDataRepository mdRepo) {
+		this(mdRepo, 8192, 500, 1000);
+	}
+
+	public MarketDataHandler(IMarketDataRepository mdRepo, int queueSize, int batchSize, long flushIntervalMillis) {
 		this.mdRepo = mdRepo;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.batchSize = batchSize;
+		this.flushIntervalMillis = flushIntervalMillis;
 	}
-	
+
 	@Override
 	public boolean canHandle(NorthstarEventType eventType) {
 		return eventType == NorthstarEventType.BAR;
@@ -42,19 +75,92 @@ public class MarketDataHandler extends AbstractEventHandler implements GenericEv
 		if(shutdown.get()) {
 			return;
 		}
-		if(e.getData() instanceof Bar bar && System.currentTimeMillis() - bar.actionTimestamp() < TimeUnit.MINUTES.toMillis(5) && bar.channelType() != ChannelType.SIM) {
-			exec.execute(() -> mdRepo.insert(bar)); 
+		if(e.getData() instanceof Bar bar && System.currentTimeMillis() - bar.actionTimestamp() < TimeUnit.MINUTES.toMillis(5) && bar.channelType() != ChannelType.SIM
+				&& !queue.offer(bar)) {
+			droppedCounter.increment();
+			log.warn("K线持久化队列已满，丢弃 [{}] {} {}", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime());
+		}
+	}
+
+	private void runWriter() {
+		List<Bar> batch = new ArrayList<>(batchSize);
+		try {
+			while(!shutdown.get()) {
+				Bar first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+				if(Objects.isNull(first)) {
+					continue;
+				}
+				batch.add(first);
+				long deadline = System.currentTimeMillis() + flushIntervalMillis;
+				while(batch.size() < batchSize && !shutdown.get()) {
+					long wait = deadline - System.currentTimeMillis();
+					if(queue.drainTo(batch, batchSize - batch.size()) == 0) {
+						Bar next = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+						if(Objects.isNull(next)) {
+							break;
+						}
+						batch.add(next);
+					}
+				}
+				flush(batch);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		// 停止前写入剩余的K线
+		do {
+			queue.drainTo(batch, batchSize - batch.size());
+			flush(batch);
+		} while(!queue.isEmpty());
+	}
+
+	/* 一次写入一批K线，写入失败的K线被丢弃 */
+	void flush(List<Bar> batch) {
+		if(batch.isEmpty()) {
+			return;
+		}
+		long startTime = System.nanoTime();
+		try {
+			mdRepo.insertAll(batch);
+			writtenCounter.add(batch.size());
+		} catch (Exception e) {
+			log.error("K线批量持久化失败，共 {} 条", batch.size(), e);
+		} finally {
+			Timer timer = flushTimer;
+			if(Objects.nonNull(timer)) {
+				timer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+			}
+			batch.clear();
 		}
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
-		exec = CommonUtils.newThreadPerTaskExecutor(getClass());
+		writer = new Thread(this::runWriter, "MarketDataWriter");
+		writer.setDaemon(true);
+		writer.start();
 	}
-	
+
 	@Override
 	public void destroy() throws Exception {
 		shutdown.set(true);
-		exec.close();
+		writer.join(TimeUnit.SECONDS.toMillis(30));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("northstar.bar.writer.queue.depth", queue, BlockingQueue::size)
+			.description("等待持久化的K线数")
+			.register(registry);
+		FunctionCounter.builder("northstar.bar.writer.written", writtenCounter, LongAdder::sum)
+			.description("已持久化的K线数")
+			.register(registry);
+		FunctionCounter.builder("northstar.bar.writer.dropped", droppedCounter, LongAdder::sum)
+			.description("因队列已满而丢弃的K线数")
+			.register(registry);
+		flushTimer = Timer.builder("northstar.bar.writer.flush.latency")
+			.description("每批K线的写入耗时")
+			.publishPercentiles(0.5, 0.99)
+			.register(registry);
 	}
 }
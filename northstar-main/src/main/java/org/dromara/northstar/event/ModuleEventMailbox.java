@@ -0,0 +1,217 @@
+package org.dromara.northstar.event;
+
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.strategy.IModule;
+
+import com.lmax.disruptor.BatchEventProcessor;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 模组事件信箱
+ * 每个模组独占一个环形队列及其消费线程，保证模组内事件有序，模组之间互不阻塞
+ * 投递从不阻塞：信箱已满时按溢出策略处理，一个模组消费过慢不会拖住事件引擎与其他模组
+ * 溢出策略只作用于行情（TICK、BAR），回报等其余事件在信箱已满时转入无界的待投递队列，
+ * 并按投递先后与环形队列中的事件合并消费，保证不丢失且不乱序
+ * @author agent
+ *
+ */
+@Slf4j
+public class ModuleEventMailbox implements EventHandler<NorthstarEvent>, TimeoutHandler {
+
+	/* 信箱已满时允许丢弃的事件类型 */
+	private static final Set<NorthstarEventType> DROPPABLE_TYPES = EnumSet.of(NorthstarEventType.TICK, NorthstarEventType.BAR);
+
+	/* 消费线程空闲时检查待投递队列的间隔 */
+	private static final long PENDING_CHECK_INTERVAL_MS = 5;
+
+	private final IModule module;
+
+	private final RingBuffer<NorthstarEvent> ringBuffer;
+
+	private final BatchEventProcessor<NorthstarEvent> processor;
+
+	private final Thread consumerThread;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final Queue<PendingEvent> pendingQueue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicLong numOfDropped = new AtomicLong();
+
+	private volatile boolean healthy = true;
+
+	private volatile boolean closed;
+
+	public ModuleEventMailbox(IModule module, int bufferSize) {
+		this(module, bufferSize, OverflowPolicy.DROP);
+	}
+
+	public ModuleEventMailbox(IModule module, int bufferSize, OverflowPolicy overflowPolicy) {
+		this.module = module;
+		this.overflowPolicy = overflowPolicy;
+		// 行情队列与回报队列的消费线程会同时投递，因此为多生产者
+		this.ringBuffer = RingBuffer.createMultiProducer(() -> new NorthstarEvent(null, null), bufferSize,
+				new TimeoutBlockingWaitStrategy(PENDING_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS));
+		this.processor = new BatchEventProcessor<>(ringBuffer, ringBuffer.newBarrier(), this);
+		this.processor.setExceptionHandler(new ExceptionHandler<>() {
+
+			@Override
+			public void handleEventException(Throwable ex, long sequence, NorthstarEvent event) {
+				log.warn("模组 [{}] 事件异常：{}", module.getName(), event, ex);
+			}
+
+			@Override
+			public void handleOnStartException(Throwable ex) {
+				log.warn("模组 [{}] 信箱启动异常", module.getName(), ex);
+			}
+
+			@Override
+			public void handleOnShutdownException(Throwable ex) {
+				log.warn("模组 [{}] 信箱中止异常", module.getName(), ex);
+			}
+
+		});
+		this.ringBuffer.addGatingSequences(processor.getSequence());
+		this.consumerThread = new Thread(processor, "ModuleMailbox-" + module.getName());
+		this.consumerThread.setDaemon(true);
+		this.consumerThread.start();
+		log.debug("创建模组 [{}] 事件信箱", module.getName());
+	}
+
+	/**
+	 * 投递事件
+	 * 可并发调用，复用环形队列中的事件对象，不产生额外分配
+	 * @param type
+	 * @param data
+	 * @return		信箱已关闭，或信箱已满且事件为行情时返回false，事件被丢弃
+	 */
+	public boolean post(NorthstarEventType type, Object data) {
+		if(closed) {
+			return false;
+		}
+		long sequence;
+		try {
+			sequence = ringBuffer.tryNext();
+		} catch (InsufficientCapacityException e) {
+			if(DROPPABLE_TYPES.contains(type)) {
+				onOverflow(type);
+				return false;
+			}
+			// 记下此刻已占用的最大序号，消费到该序号之后才投递，保持与行情的先后顺序
+			pendingQueue.offer(new PendingEvent(ringBuffer.getCursor(), new NorthstarEvent(type, data)));
+			log.warn("模组 [{}] 事件信箱已满，事件转入待投递队列：{}", module.getName(), type);
+			return true;
+		}
+		try {
+			NorthstarEvent slot = ringBuffer.get(sequence);
+			slot.setEvent(type);
+			slot.setData(data);
+		} finally {
+			ringBuffer.publish(sequence);
+		}
+		return true;
+	}
+
+	private void onOverflow(NorthstarEventType type) {
+		long dropped = numOfDropped.incrementAndGet();
+		if(overflowPolicy == OverflowPolicy.DISABLE && healthy) {
+			healthy = false;
+			module.setEnabled(false);
+			log.error("模组 [{}] 事件信箱已满，模组消费过慢，已停用模组。丢弃事件：{}", module.getName(), type);
+		} else if(dropped == 1 || dropped % 1000 == 0) {
+			log.warn("模组 [{}] 事件信箱已满，累计丢弃 {} 个事件。最近丢弃：{}", module.getName(), dropped, type);
+		}
+	}
+
+	@Override
+	public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+		drainPending(sequence - 1);
+		module.onEvent(event);
+		event.setData(null);	// 释放引用，避免环形队列长期持有行情对象
+		if(endOfBatch) {
+			drainPending(sequence);
+		}
+	}
+
+	/* 消费线程空闲时同样检查待投递队列，避免事件在信箱腾空后滞留 */
+	@Override
+	public void onTimeout(long sequence) throws Exception {
+		drainPending(sequence);
+	}
+
+	/* 投递所有在该序号（含）之前进入待投递队列的事件，仅在消费线程中调用 */
+	private void drainPending(long sequence) {
+		PendingEvent pending;
+		while((pending = pendingQueue.peek()) != null && pending.after() <= sequence) {
+			pendingQueue.poll();
+			try {
+				module.onEvent(pending.event());
+			} catch (Exception e) {
+				log.warn("模组 [{}] 事件异常：{}", module.getName(), pending.event(), e);
+			}
+		}
+	}
+
+	/**
+	 * 关闭信箱
+	 * 模组已被移除，未消费的事件直接丢弃
+	 */
+	public void close() {
+		closed = true;
+		processor.halt();
+		pendingQueue.clear();
+		log.debug("关闭模组 [{}] 事件信箱", module.getName());
+	}
+
+	public IModule getModule() {
+		return module;
+	}
+
+	/**
+	 * 信箱是否未曾因溢出而停用模组
+	 * @return
+	 */
+	public boolean isHealthy() {
+		return healthy;
+	}
+
+	/**
+	 * 因信箱已满而丢弃的事件数
+	 * @return
+	 */
+	public long getNumOfDropped() {
+		return numOfDropped.get();
+	}
+
+	private record PendingEvent(long after, NorthstarEvent event) {}
+
+	/**
+	 * 信箱溢出策略
+	 * 仅作用于行情事件，其余事件不会被丢弃
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * 丢弃新行情并记录告警，模组继续运行
+		 */
+		DROP,
+		/**
+		 * 丢弃新行情，将模组标记为不健康并停用，需人工检查后重新启用
+		 */
+		DISABLE;
+	}
+}
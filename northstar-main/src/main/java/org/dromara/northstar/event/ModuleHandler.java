@@ -1,31 +1,81 @@
 package org.dromara.northstar.event;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.dromara.northstar.common.event.AbstractEventHandler;
 import org.dromara.northstar.common.event.GenericEventHandler;
 import org.dromara.northstar.common.event.NorthstarEvent;
 import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Order;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.event.ModuleEventMailbox.OverflowPolicy;
+import org.dromara.northstar.indicator.IndicatorGraph;
 import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.strategy.IModule;
 
+import lombok.extern.slf4j.Slf4j;
 
 
+@Slf4j
 public class ModuleHandler extends AbstractEventHandler implements GenericEventHandler{
 
 	private ModuleManager moduleMgr;
-	
+
+	private final DispatchMode dispatchMode;
+
+	private final int mailboxSize;
+
+	private final IndicatorGraph indicatorGraph;
+
+	private final OverflowPolicy overflowPolicy;
+
+	/* 多队列事件引擎下会被多个消费线程同时调用：投递只读取当前信箱表，模组增删时在锁内生成新表再整体替换 */
+	private volatile Map<IModule, ModuleEventMailbox> mailboxMap = Map.of();
+	private volatile IModule[] lastSnapshot = new IModule[0];
+
 	private static final Set<NorthstarEventType> TARGET_TYPE = EnumSet.of(
 			NorthstarEventType.TICK,
 			NorthstarEventType.BAR,
 			NorthstarEventType.TRADE,
 			NorthstarEventType.ORDER
-	); 
-	
+	);
+
 	public ModuleHandler(ModuleManager moduleMgr) {
+		this(moduleMgr, DispatchMode.PARALLEL, 0);
+	}
+
+	public ModuleHandler(ModuleManager moduleMgr, DispatchMode dispatchMode, int mailboxSize) {
+		this(moduleMgr, dispatchMode, mailboxSize, new IndicatorGraph(false));
+	}
+
+	/**
+	 * @param indicatorGraph	共享指标图，仅在 PARALLEL 模式下使用：各模组同步处理同一个行情事件，共享指标在分发前计算
+	 */
+	public ModuleHandler(ModuleManager moduleMgr, DispatchMode dispatchMode, int mailboxSize, IndicatorGraph indicatorGraph) {
+		this(moduleMgr, dispatchMode, mailboxSize, OverflowPolicy.DROP, indicatorGraph);
+	}
+
+	/**
+	 * @param overflowPolicy	MAILBOX 模式下模组信箱已满时的处理方式，各模组的信箱独立执行
+	 * @param indicatorGraph	共享指标图，仅在 PARALLEL 模式下使用：各模组同步处理同一个行情事件，共享指标在分发前计算
+	 */
+	public ModuleHandler(ModuleManager moduleMgr, DispatchMode dispatchMode, int mailboxSize, OverflowPolicy overflowPolicy, IndicatorGraph indicatorGraph) {
 		this.moduleMgr = moduleMgr;
+		this.dispatchMode = dispatchMode;
+		this.mailboxSize = mailboxSize;
+		this.overflowPolicy = overflowPolicy;
+		this.indicatorGraph = indicatorGraph;
+		log.info("模组事件分发模式：{}", dispatchMode);
 	}
-	
+
 	@Override
 	public boolean canHandle(NorthstarEventType eventType) {
 		return TARGET_TYPE.contains(eventType);
@@ -33,7 +83,97 @@ public class ModuleHandler extends AbstractEventHandler implements GenericEventH
 
 	@Override
 	protected void doHandle(NorthstarEvent e) {
-		moduleMgr.allModules().parallelStream().forEach(module -> module.onEvent(e));
+		IModule[] targets = resolveTargets(e.getData());
+		if(targets.length == 0) {
+			return;
+		}
+		// TickSlot会被事件引擎复用，有模组订阅时才复制出TICK对象
+		NorthstarEvent event = e.getData() instanceof TickSlot slot ? new NorthstarEvent(NorthstarEventType.TICK, slot.toTick()) : e;
+		if(dispatchMode == DispatchMode.MAILBOX) {
+			dispatchToMailboxes(event, targets);
+		} else if(indicatorGraph.isEnabled()) {
+			indicatorGraph.dispatch(event.getData(), () -> dispatchInParallel(event, targets));
+		} else {
+			dispatchInParallel(event, targets);
+		}
+	}
+
+	private void dispatchInParallel(NorthstarEvent event, IModule[] targets) {
+		if(targets.length == 1) {
+			targets[0].onEvent(event);
+		} else {
+			Arrays.stream(targets).parallel().forEach(module -> module.onEvent(event));
+		}
+	}
+
+	/* 按路由表只投递给相关模组：行情按合约，回报按账户 */
+	private IModule[] resolveTargets(Object data) {
+		if(data instanceof Tick tick) {
+			return moduleMgr.modulesOfContract(tick.contract());
+		}
+		if(data instanceof TickSlot slot) {
+			return moduleMgr.modulesOfContract(slot.contract());
+		}
+		if(data instanceof Bar bar) {
+			return moduleMgr.modulesOfContract(bar.contract());
+		}
+		if(data instanceof Order order) {
+			return moduleMgr.modulesOfAccount(order.gatewayId());
+		}
+		if(data instanceof Trade trade) {
+			return moduleMgr.modulesOfAccount(trade.gatewayId());
+		}
+		return moduleMgr.moduleSnapshot();
+	}
+
+	/* 投递不持有锁，信箱已满时由各模组信箱按溢出策略处理，不会阻塞 */
+	private void dispatchToMailboxes(NorthstarEvent e, IModule[] targets) {
+		IModule[] snapshot = moduleMgr.moduleSnapshot();
+		Map<IModule, ModuleEventMailbox> mailboxes = snapshot == lastSnapshot ? mailboxMap : reconcile(snapshot);
+		// 事件引擎中的事件对象会被复用，因此只投递事件类型与数据
+		for(IModule module : targets) {
+			ModuleEventMailbox mailbox = mailboxes.get(module);
+			if(mailbox != null) {
+				mailbox.post(e.getEvent(), e.getData());
+			}
+		}
+	}
+
+	/* 模组增删后，为新模组创建信箱，并关闭已移除模组的信箱 */
+	private synchronized Map<IModule, ModuleEventMailbox> reconcile(IModule[] snapshot) {
+		if(snapshot == lastSnapshot) {
+			return mailboxMap;
+		}
+		Set<IModule> current = Collections.newSetFromMap(new IdentityHashMap<>());
+		Map<IModule, ModuleEventMailbox> mailboxes = new IdentityHashMap<>(mailboxMap);
+		for(IModule module : snapshot) {
+			current.add(module);
+			mailboxes.computeIfAbsent(module, m -> new ModuleEventMailbox(m, mailboxSize, overflowPolicy));
+		}
+		mailboxes.entrySet().removeIf(entry -> {
+			if(current.contains(entry.getKey())) {
+				return false;
+			}
+			entry.getValue().close();
+			return true;
+		});
+		mailboxMap = mailboxes;
+		lastSnapshot = snapshot;
+		return mailboxes;
+	}
+
+	/**
+	 * 模组事件分发模式
+	 */
+	public enum DispatchMode {
+		/**
+		 * 每个事件通过公共线程池并行分发给所有模组
+		 */
+		PARALLEL,
+		/**
+		 * 每个模组独占一个事件信箱与消费线程，事件按模组有序投递
+		 */
+		MAILBOX;
 	}
 
 }
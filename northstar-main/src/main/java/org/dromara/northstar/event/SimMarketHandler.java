@@ -10,6 +10,7 @@ import org.dromara.northstar.common.event.AbstractEventHandler;
 import org.dromara.northstar.common.event.GenericEventHandler;
 import org.dromara.northstar.common.event.NorthstarEvent;
 import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
 import org.dromara.northstar.common.model.Identifier;
 import org.dromara.northstar.common.model.core.Tick;
 import org.dromara.northstar.gateway.MarketGateway;
@@ -36,7 +37,8 @@ public class SimMarketHandler extends AbstractEventHandler implements GenericEve
 	@Override
 	protected void doHandle(NorthstarEvent e) {
 		if(NorthstarEventType.TICK == e.getEvent()) {			
-			Tick tick = (Tick) e.getData();
+			// TickSlot会被事件引擎复用，异步处理前需要复制
+			Tick tick = e.getData() instanceof TickSlot slot ? slot.toTick() : (Tick) e.getData();
 			exec.execute(() -> 
 				gatewayMgr.tradeGateways().stream()
 					.filter(SimTradeGateway.class::isInstance)
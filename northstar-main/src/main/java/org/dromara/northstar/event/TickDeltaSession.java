@@ -0,0 +1,267 @@
+package org.dromara.northstar.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.dromara.northstar.common.model.core.Tick;
+
+import com.google.protobuf.CodedOutputStream;
+
+/**
+ * 客户端的TICK增量推送会话
+ * 客户端登录房间后先收到一个完整快照，此后只收到相对上次推送的增量；每个房间在会话内分配一个小整数编号。
+ * 一次推送中同一房间可有多条TICK（见 {@link TickWindow}），按先后顺序逐条写入增量；
+ * 价格以最小变动价位的整数倍表示，成交量、持仓量、成交额以差值表示；无法用增量表达时（如交易日切换、价格不是最小变动价位的整数倍）
+ * 以及每隔固定周期，都会改为重新推送快照
+ * <p>
+ * 快照帧：若干条长度前缀消息，每条为 [varint 编号][8字节 最小变动价位][TickField]
+ * <p>
+ * 增量帧：若干条记录首尾相接，每条为 [varint 编号][varint 字段掩码][按掩码位顺序的 zigzag varint 差值]
+ * @author agent
+ *
+ */
+class TickDeltaSession {
+
+	/* 字段掩码位 */
+	static final int F_TIMESTAMP = 0;
+	static final int F_LAST_PRICE = 1;
+	static final int F_HIGH_PRICE = 2;
+	static final int F_LOW_PRICE = 3;
+	static final int F_VOLUME = 4;
+	static final int F_OPEN_INTEREST = 5;
+	static final int F_TURNOVER = 6;
+	static final int F_BID_PRICE = 7;	// 7~11
+	static final int F_ASK_PRICE = 12;	// 12~16
+	static final int F_BID_VOLUME = 17;	// 17~21
+	static final int F_ASK_VOLUME = 22;	// 22~26
+	static final int NUM_OF_FIELDS = 27;
+	static final int DEPTH = 5;
+
+	private static final double EPSILON = 1e-6;
+
+	private final long resyncIntervalMillis;
+
+	private final Map<String, RoomState> rooms = new HashMap<>();
+
+	private int nextIndex;
+
+	TickDeltaSession(long resyncIntervalMillis) {
+		this.resyncIntervalMillis = resyncIntervalMillis;
+	}
+
+	/**
+	 * 登录房间，若已有最新TICK则在下次推送时发送快照
+	 * @param room
+	 * @param lastTick	可为空
+	 */
+	synchronized void join(String room, Tick lastTick) {
+		RoomState state = rooms.computeIfAbsent(room, r -> new RoomState(nextIndex++));
+		state.needsSnapshot = true;
+		if(Objects.nonNull(lastTick)) {
+			state.pending = List.of(lastTick);
+		}
+	}
+
+	synchronized void leave(String room) {
+		rooms.remove(room);
+	}
+
+	/**
+	 * 暂存房间的最新TICK，未登录的房间忽略
+	 * @param room
+	 * @param tick
+	 */
+	void stage(String room, Tick tick) {
+		stage(room, List.of(tick));
+	}
+
+	/**
+	 * 暂存房间在本次推送内的TICK，按时间先后排列；未登录的房间忽略
+	 * @param room
+	 * @param ticks
+	 */
+	synchronized void stage(String room, List<Tick> ticks) {
+		RoomState state = rooms.get(room);
+		if(Objects.nonNull(state) && !ticks.isEmpty()) {
+			state.pending = ticks;
+		}
+	}
+
+	/**
+	 * 取出待推送的快照与增量
+	 * @param now
+	 * @return
+	 */
+	synchronized Frames drain(long now) {
+		List<byte[]> snapshots = new ArrayList<>();
+		ByteArrayOutputStream bos = null;
+		CodedOutputStream deltas = null;
+		try {
+			for(RoomState state : rooms.values()) {
+				List<Tick> ticks = state.pending;
+				if(Objects.isNull(ticks)) {
+					continue;
+				}
+				state.pending = null;
+				// 需要快照时，以第一条TICK为快照，其余TICK作为增量；任一TICK无法用增量表达时，只推送最新TICK的快照
+				Tick first = ticks.get(0);
+				boolean resync = state.needsSnapshot || now - state.lastSnapshotTime >= resyncIntervalMillis;
+				List<long[]> values = valuesOf(ticks, resync ? first.tradingDay() : state.tradingDay, resync ? first.actionDay() : state.actionDay, 
+						resync ? first.contract().priceTick() : state.priceTick);
+				if(Objects.isNull(values)) {
+					snapshots.add(snapshot(state, ticks.get(ticks.size() - 1), now));
+					continue;
+				}
+				if(resync) {
+					snapshots.add(snapshot(state, first, now));
+				}
+				for(int i = resync ? 1 : 0; i<values.size(); i++) {
+					if(Objects.isNull(deltas)) {
+						bos = new ByteArrayOutputStream();
+						deltas = CodedOutputStream.newInstance(bos);
+					}
+					writeDelta(deltas, state, values.get(i));
+				}
+			}
+			if(Objects.nonNull(deltas)) {
+				deltas.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new Frames(snapshots, Objects.isNull(bos) ? null : bos.toByteArray());
+	}
+
+	private static List<long[]> valuesOf(List<Tick> ticks, LocalDate tradingDay, LocalDate actionDay, double priceTick) {
+		List<long[]> result = new ArrayList<>(ticks.size());
+		for(Tick tick : ticks) {
+			long[] values = Objects.equals(tick.tradingDay(), tradingDay) && Objects.equals(tick.actionDay(), actionDay) ? toValues(tick, priceTick) : null;
+			if(Objects.isNull(values)) {
+				return null;
+			}
+			result.add(values);
+		}
+		return result;
+	}
+
+	private byte[] snapshot(RoomState state, Tick tick, long now) throws IOException {
+		state.needsSnapshot = false;
+		state.lastSnapshotTime = now;
+		state.tradingDay = tick.tradingDay();
+		state.actionDay = tick.actionDay();
+		state.priceTick = tick.contract().priceTick();
+		// 快照之后的增量以快照值为基准；价格无法以整数表达时，下次推送仍然走快照
+		state.last = toValues(tick, state.priceTick);
+		byte[] tickField = tick.toTickField().toByteArray();
+		ByteBuffer buf = ByteBuffer.allocate(CodedOutputStream.computeUInt32SizeNoTag(state.index) + Double.BYTES + tickField.length);
+		CodedOutputStream cos = CodedOutputStream.newInstance(buf);
+		cos.writeUInt32NoTag(state.index);
+		cos.writeDoubleNoTag(state.priceTick);
+		cos.writeRawBytes(tickField);
+		cos.flush();
+		return buf.array();
+	}
+
+	private void writeDelta(CodedOutputStream out, RoomState state, long[] values) throws IOException {
+		long[] last = state.last;
+		if(Objects.isNull(last)) {
+			state.needsSnapshot = true;
+			return;
+		}
+		int mask = 0;
+		for(int i=0; i<NUM_OF_FIELDS; i++) {
+			if(values[i] != last[i]) {
+				mask |= 1 << i;
+			}
+		}
+		if(mask == 0) {
+			return;
+		}
+		out.writeUInt32NoTag(state.index);
+		out.writeUInt32NoTag(mask);
+		for(int i=0; i<NUM_OF_FIELDS; i++) {
+			if((mask & (1 << i)) != 0) {
+				out.writeSInt64NoTag(values[i] - last[i]);
+			}
+		}
+		state.last = values;
+	}
+
+	/* 把TICK转换为整数字段，无法用整数表达时返回null */
+	static long[] toValues(Tick tick, double priceTick) {
+		if(priceTick <= 0) {
+			return null;
+		}
+		long[] values = new long[NUM_OF_FIELDS];
+		values[F_TIMESTAMP] = tick.actionTimestamp();
+		values[F_VOLUME] = tick.volume();
+		values[F_OPEN_INTEREST] = Math.round(tick.openInterest());
+		values[F_TURNOVER] = Math.round(tick.turnover());
+		if(!toTicks(tick.lastPrice(), priceTick, values, F_LAST_PRICE)
+				|| !toTicks(tick.highPrice(), priceTick, values, F_HIGH_PRICE)
+				|| !toTicks(tick.lowPrice(), priceTick, values, F_LOW_PRICE)) {
+			return null;
+		}
+		for(int i=0; i<DEPTH; i++) {
+			if(!toTicks(levelOf(tick.bidPrice(), i), priceTick, values, F_BID_PRICE + i)
+					|| !toTicks(levelOf(tick.askPrice(), i), priceTick, values, F_ASK_PRICE + i)) {
+				return null;
+			}
+			values[F_BID_VOLUME + i] = volumeOf(tick.bidVolume(), i);
+			values[F_ASK_VOLUME + i] = volumeOf(tick.askVolume(), i);
+		}
+		return values;
+	}
+
+	private static boolean toTicks(double price, double priceTick, long[] values, int field) {
+		if(!Double.isFinite(price)) {
+			return false;
+		}
+		double ticks = price / priceTick;
+		long rounded = Math.round(ticks);
+		if(Math.abs(ticks - rounded) > EPSILON || Math.abs(rounded) > (1L << 52)) {
+			return false;
+		}
+		values[field] = rounded;
+		return true;
+	}
+
+	private static double levelOf(List<Double> prices, int i) {
+		return Objects.nonNull(prices) && i < prices.size() ? prices.get(i) : 0;
+	}
+
+	private static int volumeOf(List<Integer> volumes, int i) {
+		return Objects.nonNull(volumes) && i < volumes.size() ? volumes.get(i) : 0;
+	}
+
+	/**
+	 * 一次推送的内容
+	 * @param snapshots	快照消息，按长度前缀拼接后发送
+	 * @param deltas	增量帧，没有增量时为null
+	 */
+	record Frames(List<byte[]> snapshots, byte[] deltas) {}
+
+	private static class RoomState {
+
+		final int index;
+		List<Tick> pending;
+		boolean needsSnapshot = true;
+		long lastSnapshotTime;
+		LocalDate tradingDay;
+		LocalDate actionDay;
+		double priceTick;
+		long[] last;
+
+		RoomState(int index) {
+			this.index = index;
+		}
+	}
+}
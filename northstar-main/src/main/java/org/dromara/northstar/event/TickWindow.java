@@ -0,0 +1,89 @@
+package org.dromara.northstar.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dromara.northstar.common.model.core.Tick;
+
+/**
+ * 一个推送节拍内同一房间的TICK
+ * 合并后只保留窗口内最高价、最低价与最新的TICK（按时间先后，至多三条）。被合并掉的TICK，其成交量、持仓量、成交额增量
+ * 累加到其后保留的那条TICK上，因此前端按TICK累加得到的K线量值与逐条推送时一致，K线的最高、最低价也不会丢失。
+ * 调用方需保证串行调用
+ * @author agent
+ *
+ */
+class TickWindow {
+
+	private final List<Entry> entries = new ArrayList<>(4);
+
+	void add(Tick tick) {
+		entries.add(new Entry(tick, tick.volumeDelta(), tick.openInterestDelta(), tick.turnoverDelta()));
+		if(entries.size() > 3) {
+			compact();
+		}
+	}
+
+	/* 移除既不是最高价、最低价也不是最新的TICK，其增量并入下一条 */
+	private void compact() {
+		int high = 0;
+		int low = 0;
+		for(int i=1; i<entries.size(); i++) {
+			double price = entries.get(i).tick.lastPrice();
+			if(price > entries.get(high).tick.lastPrice()) {
+				high = i;
+			}
+			if(price < entries.get(low).tick.lastPrice()) {
+				low = i;
+			}
+		}
+		for(int i=entries.size() - 2; i>=0; i--) {
+			if(i != high && i != low) {
+				Entry removed = entries.remove(i);
+				Entry next = entries.get(i);
+				next.volumeDelta += removed.volumeDelta;
+				next.openInterestDelta += removed.openInterestDelta;
+				next.turnoverDelta += removed.turnoverDelta;
+				if(high > i) {
+					high--;
+				}
+				if(low > i) {
+					low--;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 合并后的TICK，按时间先后排列，最后一条为最新TICK
+	 * @return
+	 */
+	List<Tick> ticks() {
+		List<Tick> result = new ArrayList<>(entries.size());
+		for(Entry e : entries) {
+			Tick t = e.tick;
+			boolean merged = e.volumeDelta != t.volumeDelta() || e.openInterestDelta != t.openInterestDelta() || e.turnoverDelta != t.turnoverDelta();
+			result.add(!merged ? t : t.toBuilder()
+					.volumeDelta(e.volumeDelta)
+					.openInterestDelta(e.openInterestDelta)
+					.turnoverDelta(e.turnoverDelta)
+					.build());
+		}
+		return result;
+	}
+
+	private static class Entry {
+
+		final Tick tick;
+		long volumeDelta;
+		double openInterestDelta;
+		double turnoverDelta;
+
+		Entry(Tick tick, long volumeDelta, double openInterestDelta, double turnoverDelta) {
+			this.tick = tick;
+			this.volumeDelta = volumeDelta;
+			this.openInterestDelta = openInterestDelta;
+			this.turnoverDelta = turnoverDelta;
+		}
+	}
+}
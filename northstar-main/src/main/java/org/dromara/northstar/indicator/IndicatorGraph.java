@@ -0,0 +1,450 @@
+package org.dromara.northstar.indicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.indicator.constant.PeriodUnit;
+import org.dromara.northstar.indicator.constant.ValueType;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.Num;
+import org.dromara.northstar.strategy.MergedBarListener;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 共享指标图
+ * 进程内按（行情网关，合约）维护实盘模组共用的指标节点。节点由指标类、归一化的配置信息、公式标识与依赖节点共同识别，
+ * 每根分钟K线或每个TICK在分发给模组之前按拓扑顺序计算一次，各模组中相同的指标直接跟随节点的计算结果。
+ *
+ * 共享要求各模组同步处理同一个行情事件，否则会读到超前于自身行情进度的数值，因此只在 PARALLEL 分发模式下启用；
+ * 模组预热、回测以及 MAILBOX 分发模式下，指标仍由各模组自行计算。
+ * 共享节点的数值会被各订阅模组在其他队列的线程上读取（如委托、成交回报），因此节点在持有全部订阅模组的锁时计算，
+ * 与模组自行计算指标时一样，指标数值只在模组锁内变化
+ * @author agent
+ *
+ */
+@Slf4j
+public class IndicatorGraph {
+
+	/* 只有指标类自身声明的公式标识才可信，避免子类沿用父类的标识却改变了计算方式 */
+	private static final ClassValue<Boolean> FORMULA_DECLARED = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("formula").getDeclaringClass() == type;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	private final boolean enabled;
+
+	private final ConcurrentMap<GraphKey, ContractGraph> graphMap = new ConcurrentHashMap<>();
+
+	private final AtomicLong subscriptionSeq = new AtomicLong();
+
+	public IndicatorGraph(boolean enabled) {
+		this.enabled = enabled;
+		log.info("实盘模组共享指标计算：{}", enabled ? "启用" : "停用");
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 先计算该行情的共享指标，再执行分发
+	 * 同一合约的共享指标计算与分发互斥，保证各模组在分发期间读到的是同一个行情进度的数值
+	 * @param data		TICK 或分钟K线，其他数据直接分发
+	 * @param fanout	分发动作
+	 */
+	public void dispatch(Object data, Runnable fanout) {
+		ContractGraph graph = null;
+		if(data instanceof Tick tick) {
+			graph = graphMap.get(new GraphKey(tick.gatewayId(), tick.contract().unifiedSymbol()));
+		} else if(data instanceof Bar bar) {
+			graph = graphMap.get(new GraphKey(bar.gatewayId(), bar.contract().unifiedSymbol()));
+		}
+		if(Objects.isNull(graph)) {
+			fanout.run();
+			return;
+		}
+		graph.lock.lock();
+		try {
+			graph.compute(data, graph.moduleLocks, 0);
+			fanout.run();
+		} finally {
+			graph.lock.unlock();
+		}
+	}
+
+	/**
+	 * 登记一个模组的指标
+	 * 模组预热完成后调用，此后模组在合成K线边界把与共享节点数值一致的指标改为跟随共享节点
+	 * @param helpers		模组的指标更新辅助类
+	 * @param moduleLock	模组处理事件时持有的锁，共享节点在持有该锁时计算
+	 * @return
+	 */
+	public Subscription subscribe(Collection<IndicatorValueUpdateHelper> helpers, Object moduleLock) {
+		return new Subscription(helpers, moduleLock, subscriptionSeq.incrementAndGet());
+	}
+
+	/**
+	 * 当前共享的指标节点数
+	 * @return
+	 */
+	public int numOfNodes() {
+		int count = 0;
+		for(ContractGraph graph : graphMap.values()) {
+			synchronized (graph) {
+				for(Stream stream : graph.streams) {
+					count += stream.nodeMap.size();
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 模组对共享指标图的订阅
+	 * 除 close 以外的方法只在模组处理行情的线程上调用
+	 */
+	public class Subscription {
+
+		private final List<IndicatorValueUpdateHelper> helpers;
+
+		private final Object moduleLock;
+
+		/* 各图按该序号依次获取模组锁，避免死锁 */
+		private final long seq;
+
+		/* 已接入共享节点的指标 -> 节点 */
+		private final Map<Indicator, Node> nodeOf = new IdentityHashMap<>();
+
+		/* 每个辅助类最近一次尝试接入时的合成K线时间戳，每根合成K线只尝试一次 */
+		private final Map<IndicatorValueUpdateHelper, Long> attempts = new IdentityHashMap<>();
+
+		private final Set<ContractGraph> graphs = new HashSet<>();
+
+		private boolean closed;
+
+		private Subscription(Collection<IndicatorValueUpdateHelper> helpers, Object moduleLock, long seq) {
+			this.helpers = List.copyOf(helpers);
+			this.moduleLock = moduleLock;
+			this.seq = seq;
+		}
+
+		/**
+		 * 模组处理完一根分钟K线后调用
+		 * @param bar
+		 */
+		public void onBar(Bar bar) {
+			ContractGraph graph = null;
+			for(IndicatorValueUpdateHelper helper : helpers) {
+				Configuration cfg = helper.getIndicator().getConfiguration();
+				if(!Objects.equals(cfg.contract().unifiedSymbol(), bar.contract().unifiedSymbol()) || nodeOf.containsKey(helper.getIndicator())) {
+					continue;
+				}
+				long mergedTimestamp = helper.lastMergedTimestamp();
+				if(mergedTimestamp == 0 || Objects.equals(attempts.get(helper), mergedTimestamp)) {
+					continue;
+				}
+				attempts.put(helper, mergedTimestamp);
+				if(Objects.isNull(graph)) {
+					graph = graphMap.computeIfAbsent(new GraphKey(bar.gatewayId(), bar.contract().unifiedSymbol()), key -> new ContractGraph());
+				}
+				graph.attach(this, helper, mergedTimestamp);
+			}
+		}
+
+		/**
+		 * 取消订阅
+		 * 模组卸载时调用，减少各共享节点的引用计数，无人引用的节点随即移除
+		 */
+		public void close() {
+			List<ContractGraph> toRelease;
+			synchronized (this) {
+				closed = true;
+				toRelease = List.copyOf(graphs);
+			}
+			toRelease.forEach(graph -> graph.release(this));
+		}
+
+		/**
+		 * 已跟随共享节点的指标数
+		 * @return
+		 */
+		public int numOfSharedIndicators() {
+			return nodeOf.size();
+		}
+
+		private synchronized boolean register(ContractGraph graph) {
+			if(closed) {
+				return false;
+			}
+			graphs.add(graph);
+			return true;
+		}
+
+		private void refresh() {
+			Set<Indicator> shared = Collections.unmodifiableSet(nodeOf.keySet());
+			helpers.forEach(helper -> helper.exclude(shared));
+		}
+	}
+
+	/* 同一（行情网关，合约）下的共享指标 */
+	private static class ContractGraph {
+
+		/* 共享指标计算与分发互斥 */
+		final ReentrantLock lock = new ReentrantLock();
+
+		long lastBarTimestamp;
+
+		/* 以下字段只在 synchronized (this) 下修改 */
+		final Map<StreamKey, Stream> streamMap = new HashMap<>();
+
+		volatile Stream[] streams = new Stream[0];
+
+		final Map<Subscription, List<Node>> attachments = new IdentityHashMap<>();
+
+		/* 已接入节点的订阅模组的锁，按订阅序号排列 */
+		volatile Object[] moduleLocks = new Object[0];
+
+		/* 依次获取全部订阅模组的锁后再计算 */
+		void compute(Object data, Object[] locks, int i) {
+			if(i < locks.length) {
+				synchronized (locks[i]) {
+					compute(data, locks, i + 1);
+				}
+				return;
+			}
+			if(data instanceof Tick tick) {
+				onTick(tick);
+			} else {
+				onBar((Bar) data);
+			}
+		}
+
+		void onTick(Tick tick) {
+			for(Stream stream : streams) {
+				stream.onTick(tick);
+			}
+		}
+
+		void onBar(Bar bar) {
+			// 与模组上下文一致，过滤掉可能存在的重复数据
+			if(bar.actionTimestamp() <= lastBarTimestamp) {
+				return;
+			}
+			lastBarTimestamp = bar.actionTimestamp();
+			for(Stream stream : streams) {
+				stream.onBar(bar);
+			}
+		}
+
+		/*
+		 * 在模组的合成K线边界接入
+		 * 调用时模组与共享节点都刚处理完同一根分钟K线，按拓扑顺序逐个比对：
+		 * 没有对应节点的指标成为新节点的计算者，已有节点且数值一致的指标改为跟随该节点，其余指标保持由模组自行计算
+		 */
+		synchronized void attach(Subscription sub, IndicatorValueUpdateHelper helper, long mergedTimestamp) {
+			if(!sub.register(this)) {
+				return;
+			}
+			Configuration cfg = helper.getIndicator().getConfiguration();
+			Stream stream = streamMap.computeIfAbsent(new StreamKey(cfg.numOfUnits(), cfg.period()), key -> new Stream(cfg.contract(), key.numOfUnits(), key.period()));
+			if(stream.subscribers.add(sub)) {
+				streams = streamMap.values().toArray(Stream[]::new);
+			}
+			if(stream.lastMergedTimestamp != mergedTimestamp) {
+				return;		// 合成K线的边界尚未对齐，等下一根合成K线
+			}
+			List<Node> attached = attachments.get(sub);
+			if(Objects.isNull(attached)) {
+				attached = new ArrayList<>();
+				attachments.put(sub, attached);
+				rebuildModuleLocks();
+			}
+			boolean changed = false;
+			for(Indicator indicator : helper.topology()) {
+				if(sub.nodeOf.containsKey(indicator)) {
+					continue;
+				}
+				NodeKey key = keyOf(indicator, sub, stream);
+				if(Objects.isNull(key)) {
+					continue;
+				}
+				AbstractIndicator member = (AbstractIndicator) indicator;
+				Node node = stream.nodeMap.get(key);
+				if(Objects.isNull(node)) {
+					node = new Node(key, stream, member);
+					stream.add(node);
+				} else if(member.hasSameValues(node.leader)) {
+					member.follow(node.leader);
+				} else {
+					continue;
+				}
+				node.refs++;
+				attached.add(node);
+				sub.nodeOf.put(indicator, node);
+				changed = true;
+			}
+			if(changed) {
+				sub.refresh();
+			}
+		}
+
+		private void rebuildModuleLocks() {
+			moduleLocks = attachments.keySet().stream()
+					.sorted(Comparator.comparingLong(sub -> sub.seq))
+					.map(sub -> sub.moduleLock)
+					.toArray();
+		}
+
+		/* 依赖指标全部已接入同一序列的节点时，才能生成节点标识 */
+		private NodeKey keyOf(Indicator indicator, Subscription sub, Stream stream) {
+			if(!(indicator instanceof AbstractIndicator) || Objects.isNull(indicator.formula()) || !FORMULA_DECLARED.get(indicator.getClass())) {
+				return null;
+			}
+			List<NodeKey> dependencies = new ArrayList<>();
+			for(Indicator dependency : indicator.dependencies()) {
+				Node node = sub.nodeOf.get(dependency);
+				if(Objects.isNull(node) || node.stream != stream) {
+					return null;
+				}
+				dependencies.add(node.key);
+			}
+			Configuration cfg = indicator.getConfiguration();
+			return new NodeKey(indicator.getClass(), indicator.formula(), cfg.valueType(), cfg.cacheLength(), cfg.numOfUnits(), cfg.period(), dependencies);
+		}
+
+		void release(Subscription sub) {
+			lock.lock();
+			try {
+				synchronized (this) {
+					for(Node node : attachments.getOrDefault(sub, List.of())) {
+						if(--node.refs == 0) {
+							node.stream.remove(node);
+						}
+					}
+					attachments.remove(sub);
+					rebuildModuleLocks();
+					streamMap.values().removeIf(stream -> stream.subscribers.remove(sub) && stream.subscribers.isEmpty());
+					streams = streamMap.values().toArray(Stream[]::new);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/* 同一周期的合成K线序列，及以其计算的共享节点 */
+	private static class Stream implements MergedBarListener {
+
+		final BarMergerRegistry registry = new BarMergerRegistry();
+
+		final InstantBarGenerator inbarGen;
+
+		final Map<NodeKey, Node> nodeMap = new HashMap<>();
+
+		/* 按加入的先后排列，依赖节点总是先于引用它的节点加入 */
+		final List<Node> nodes = new ArrayList<>();
+
+		final Set<Subscription> subscribers = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		/* 节点的计算顺序 */
+		AbstractIndicator[] order = new AbstractIndicator[0];
+
+		long lastMergedTimestamp;
+
+		Stream(Contract contract, int numOfUnits, PeriodUnit period) {
+			this.inbarGen = new InstantBarGenerator(contract);
+			registry.addListener(contract, numOfUnits, period, this);
+		}
+
+		void onTick(Tick tick) {
+			try {
+				inbarGen.update(tick).ifPresent(bar -> update(bar, true));
+			} catch (Exception e) {
+				log.error("共享指标即时K线生成异常", e);
+			}
+		}
+
+		void onBar(Bar bar) {
+			update(bar, true);
+			registry.onBar(bar);
+		}
+
+		@Override
+		public void onMergedBar(Bar bar) {
+			update(bar, false);
+			inbarGen.reset();
+			lastMergedTimestamp = bar.actionTimestamp();
+		}
+
+		private void update(Bar bar, boolean unstable) {
+			for(AbstractIndicator indicator : order) {
+				try {
+					indicator.update(Num.of(indicator.getConfiguration().valueType().resolve(bar), bar.actionTimestamp(), unstable));
+				} catch (Exception e) {
+					log.error("共享指标[{}] 数值更新异常", indicator.getConfiguration().indicatorName(), e);
+				}
+			}
+		}
+
+		void add(Node node) {
+			nodeMap.put(node.key, node);
+			nodes.add(node);
+			order = nodes.stream().map(n -> n.leader).toArray(AbstractIndicator[]::new);
+		}
+
+		void remove(Node node) {
+			nodeMap.remove(node.key);
+			nodes.remove(node);
+			order = nodes.stream().map(n -> n.leader).toArray(AbstractIndicator[]::new);
+		}
+	}
+
+	private static class Node {
+
+		final NodeKey key;
+
+		final Stream stream;
+
+		/* 负责计算的指标实例，其余模组的同类指标跟随它的数值 */
+		final AbstractIndicator leader;
+
+		int refs;
+
+		Node(NodeKey key, Stream stream, AbstractIndicator leader) {
+			this.key = key;
+			this.stream = stream;
+			this.leader = leader;
+		}
+	}
+
+	private record GraphKey(String gatewayId, String unifiedSymbol) {}
+
+	private record StreamKey(int numOfUnits, PeriodUnit period) {}
+
+	/* 配置信息中只保留影响计算结果的部分，名称与显示相关的配置不参与识别 */
+	private record NodeKey(Class<?> type, String formula, ValueType valueType, int cacheLength, int numOfUnits, PeriodUnit period, List<NodeKey> dependencies) {}
+}
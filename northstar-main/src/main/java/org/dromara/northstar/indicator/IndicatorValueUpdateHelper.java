@@ -1,5 +1,11 @@
 package org.dromara.northstar.indicator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.commons.lang3.StringUtils;
 import org.dromara.northstar.common.BarDataAware;
 import org.dromara.northstar.common.TickDataAware;
@@ -11,6 +17,12 @@ import org.dromara.northstar.strategy.MergedBarListener;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * 指标值更新辅助类
+ * 依赖树在注册时展开为去重后的拓扑顺序（依赖指标在前），每次行情只按该顺序把每个指标更新一次
+ * @author KevinHuangwl
+ *
+ */
 @Slf4j
 public class IndicatorValueUpdateHelper implements MergedBarListener, BarDataAware, TickDataAware{
 
@@ -20,10 +32,41 @@ public class IndicatorValueUpdateHelper implements MergedBarListener, BarDataAwa
 	
 	private InstantBarGenerator inbarGen;
 	
+	/* 依赖树的拓扑顺序 */
+	private final List<Indicator> topology;
+	
+	/* 需要由本类更新的指标，不含已交由共享指标图计算的指标 */
+	private Indicator[] updateOrder;
+	
+	private long lastMergedTimestamp;
+	
+	private final boolean bulkWarmupSupported;
+	
+	/* 批量预热期间只记录最近一根K线，不做不稳定值更新 */
+	private boolean deferring;
+	
+	private Bar deferredBar;
+	
 	public IndicatorValueUpdateHelper(Indicator indicator) {
 		this.indicator = indicator;
 		this.cfg = indicator.getConfiguration();
 		this.inbarGen = new InstantBarGenerator(cfg.contract());
+		List<Indicator> order = new ArrayList<>();
+		visit(indicator, Collections.newSetFromMap(new IdentityHashMap<>()), order);
+		this.topology = Collections.unmodifiableList(order);
+		this.updateOrder = order.toArray(Indicator[]::new);
+		this.bulkWarmupSupported = order.stream().allMatch(Indicator::supportsBulkWarmup);
+	}
+	
+	/* 后序遍历，与原来的递归更新保持相同的先后次序 */
+	private static void visit(Indicator indicator, Set<Indicator> visited, List<Indicator> order) {
+		if(!visited.add(indicator)) {
+			return;
+		}
+		for(Indicator dependency : indicator.dependencies()) {
+			visit(dependency, visited, order);
+		}
+		order.add(indicator);
 	}
 	
 	@Override
@@ -31,8 +74,10 @@ public class IndicatorValueUpdateHelper implements MergedBarListener, BarDataAwa
 		if(!StringUtils.equals(cfg.contract().unifiedSymbol(), bar.contract().unifiedSymbol())) {
 			return;
 		}
-		recursiveUpdate(indicator, bar, false);
+		deferredBar = null;
+		update(bar, false);
 		inbarGen.reset();
+		lastMergedTimestamp = bar.actionTimestamp();
 	}
 
 	@Override
@@ -40,7 +85,11 @@ public class IndicatorValueUpdateHelper implements MergedBarListener, BarDataAwa
 		if(!StringUtils.equals(cfg.contract().unifiedSymbol(), bar.contract().unifiedSymbol())) {
 			return;
 		}
-		recursiveUpdate(indicator, bar, true);
+		if(deferring) {
+			deferredBar = bar;
+			return;
+		}
+		update(bar, true);
 	}
 
 	@Override
@@ -55,17 +104,66 @@ public class IndicatorValueUpdateHelper implements MergedBarListener, BarDataAwa
 		return indicator;
 	}
 
-	/*
-	 * 递归更新
+	/**
+	 * 依赖树的拓扑顺序，依赖指标在前，根指标在最后
+	 * @return
 	 */
-	private void recursiveUpdate(Indicator indicator, Bar bar, boolean unstable) {
-		for(Indicator dependencyIndicator: indicator.dependencies()) {
-			recursiveUpdate(dependencyIndicator, bar, unstable);
+	public List<Indicator> topology() {
+		return topology;
+	}
+	
+	/**
+	 * 最近一根合成K线的时间戳
+	 * @return
+	 */
+	public long lastMergedTimestamp() {
+		return lastMergedTimestamp;
+	}
+	
+	/**
+	 * 依赖树中的指标是否全部支持批量预热
+	 * @return
+	 */
+	public boolean supportsBulkWarmup() {
+		return bulkWarmupSupported;
+	}
+	
+	/**
+	 * 开始批量预热
+	 * 此后分钟K线不再触发不稳定值更新，指标只在合成K线完成时更新。仅当预热期间没有其他地方读取指标的中间值时才能使用
+	 */
+	public void beginBulkWarmup() {
+		deferring = bulkWarmupSupported;
+	}
+	
+	/**
+	 * 结束批量预热
+	 * 以最近一根尚未合成完成的分钟K线补做一次不稳定值更新，使指标状态与逐根更新时一致
+	 */
+	public void endBulkWarmup() {
+		deferring = false;
+		if(deferredBar != null) {
+			Bar bar = deferredBar;
+			deferredBar = null;
+			update(bar, true);
 		}
-		try {			
-			indicator.update(Num.of(indicator.getConfiguration().valueType().resolve(bar), bar.actionTimestamp(), unstable));
-		} catch(Exception e) {
-			log.error("指标[{}] 数值更新异常", indicator.getConfiguration().indicatorName(), e);
+	}
+	
+	/**
+	 * 排除已由共享指标图负责计算的指标
+	 * @param shared
+	 */
+	public void exclude(Set<Indicator> shared) {
+		updateOrder = topology.stream().filter(ind -> !shared.contains(ind)).toArray(Indicator[]::new);
+	}
+
+	private void update(Bar bar, boolean unstable) {
+		for(Indicator ind : updateOrder) {
+			try {			
+				ind.update(Num.of(ind.getConfiguration().valueType().resolve(bar), bar.actionTimestamp(), unstable));
+			} catch(Exception e) {
+				log.error("指标[{}] 数值更新异常", ind.getConfiguration().indicatorName(), e);
+			}
 		}
 	}
 }
@@ -58,6 +58,7 @@ import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.IContractManager;
 import org.dromara.northstar.gateway.IMarketCenter;
 import org.dromara.northstar.indicator.Indicator;
+import org.dromara.northstar.indicator.IndicatorGraph;
 import org.dromara.northstar.indicator.IndicatorValueUpdateHelper;
 import org.dromara.northstar.indicator.constant.PeriodUnit;
 import org.dromara.northstar.indicator.model.Configuration;
@@ -106,6 +107,10 @@ public class ModuleContext implements IModuleContext{
 	
 	protected IModuleRepository moduleRepo;
 	
+	/* 为空时同步写入运行时快照 */
+	@Setter
+	protected ModuleSnapshotService snapshotService;
+	
 	protected ModuleAccount moduleAccount;
 	
 	/* originOrderId -> orderReq */
@@ -129,6 +134,16 @@ public class ModuleContext implements IModuleContext{
 	
 	protected final BarMergerRegistry registry;
 	
+	/* 共享指标图，为空时指标全部由本模组计算 */
+	protected final IndicatorGraph indicatorGraph;
+	
+	protected final int numOfMinPerBar;
+	
+	/* 策略另行监听了其他周期的合成K线时，预热期间可能读取指标的中间值，不能批量预热 */
+	protected boolean bulkWarmupDisabled;
+	
+	protected IndicatorGraph.Subscription indicatorSubscription;
+	
 	protected boolean enabled;
 	
 	protected LocalDate tradingDay;
@@ -141,10 +156,17 @@ public class ModuleContext implements IModuleContext{
 	
 	public ModuleContext(TradeStrategy tradeStrategy, ModuleDescription moduleDescription, ModuleRuntimeDescription moduleRtDescription,
 			IContractManager contractMgr, IModuleRepository moduleRepo, BarMergerRegistry barMergerRegistry) {
+		this(tradeStrategy, moduleDescription, moduleRtDescription, contractMgr, moduleRepo, barMergerRegistry, null);
+	}
+	
+	public ModuleContext(TradeStrategy tradeStrategy, ModuleDescription moduleDescription, ModuleRuntimeDescription moduleRtDescription,
+			IContractManager contractMgr, IModuleRepository moduleRepo, BarMergerRegistry barMergerRegistry, IndicatorGraph indicatorGraph) {
 		this.tradeStrategy = tradeStrategy;
+		this.indicatorGraph = indicatorGraph;
 		this.moduleRepo = moduleRepo;
 		this.mktCenter = (IMarketCenter) contractMgr;
 		this.registry = barMergerRegistry;
+		this.numOfMinPerBar = moduleDescription.getNumOfMinPerBar();
 		this.loggerFactory = new ModuleLoggerFactory(moduleDescription.getModuleName());
 		this.logger = loggerFactory.getLogger(getClass().getName());
 		this.bufSize.set(moduleDescription.getModuleCacheDataSize());
@@ -234,6 +256,14 @@ public class ModuleContext implements IModuleContext{
 		return loggerFactory;
 	}
 
+	/**
+	 * 设置模组日志级别
+	 * @param level
+	 */
+	public void setLogLevel(org.slf4j.event.Level level) {
+		loggerFactory.setLevel(level);
+	}
+
 	@Override
 	public void registerIndicator(Indicator indicator) {
 		checkIndicator(indicator);
@@ -261,9 +291,11 @@ public class ModuleContext implements IModuleContext{
 	
 	@Override
 	public void onTick(Tick tick) {
-		logger.trace("TICK信息: {} {} {} {}，最新价：{}，累计成交：{}，成交量：{}，累计持仓：{}，持仓量：{}", 
-				tick.contract().unifiedSymbol(), tick.actionDay(), tick.actionTime(), tick.actionTimestamp(),
-				tick.lastPrice(), tick.volume(), tick.volumeDelta(), tick.openInterest(), tick.openInterestDelta());
+		if(logger.isTraceEnabled()) {
+			logger.trace("TICK信息: {} {} {} {}，最新价：{}，累计成交：{}，成交量：{}，累计持仓：{}，持仓量：{}", 
+					tick.contract().unifiedSymbol(), tick.actionDay(), tick.actionTime(), tick.actionTimestamp(),
+					tick.lastPrice(), tick.volume(), tick.volumeDelta(), tick.openInterest(), tick.openInterestDelta());
+		}
 		if(tradeIntentMap.containsKey(tick.contract())) {
 			TradeIntent tradeIntent = tradeIntentMap.get(tick.contract());
 			tradeIntent.onTick(tick);
@@ -286,17 +318,24 @@ public class ModuleContext implements IModuleContext{
 			//过滤掉可能存在的重复数据
 			return;
 		}
-		logger.trace("分钟Bar信息: {} {} {} {}，最新价: {}，成交量：{}，累计持仓：{}，持仓量：{}", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime(), bar.actionTimestamp(),
-				bar.closePrice(), bar.volumeDelta(), bar.openInterest(), bar.openInterestDelta());
+		if(logger.isTraceEnabled()) {
+			logger.trace("分钟Bar信息: {} {} {} {}，最新价: {}，成交量：{}，累计持仓：{}，持仓量：{}", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime(), bar.actionTimestamp(),
+					bar.closePrice(), bar.volumeDelta(), bar.openInterest(), bar.openInterestDelta());
+		}
 		barFilterMap.put(bar.contract(), bar.actionTimestamp());
 		indicatorHelperSet.forEach(helper -> helper.onBar(bar));
 		registry.onBar(bar);		
+		if(Objects.nonNull(indicatorSubscription)) {
+			indicatorSubscription.onBar(bar);
+		}
 	}
 	
 	@Override
 	public void onMergedBar(Bar bar) {
-		logger.debug("合并Bar信息: {} {} {} {}，最新价: {}，成交量：{}，累计持仓：{}，持仓量：{}", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime(), bar.actionTimestamp(), 
-				bar.closePrice(), bar.volumeDelta(), bar.openInterest(), bar.openInterestDelta());
+		if(logger.isDebugEnabled()) {
+			logger.debug("合并Bar信息: {} {} {} {}，最新价: {}，成交量：{}，累计持仓：{}，持仓量：{}", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime(), bar.actionTimestamp(), 
+					bar.closePrice(), bar.volumeDelta(), bar.openInterest(), bar.openInterestDelta());
+		}
 		JSONObject json = assignBar(bar);
 		try {			
 			indicatorHelperSet.stream().map(IndicatorValueUpdateHelper::getIndicator).forEach(indicator -> visualize(indicator, bar, json));
@@ -308,7 +347,7 @@ public class ModuleContext implements IModuleContext{
 		}
 		dataFrameQMap.get(bar.contract()).offer(json);
 		if(isEnabled()) {
-			moduleRepo.saveRuntime(getRuntimeDescription(false));
+			saveRuntime(false);
 		}
 		
 		// 执行采样逻辑
@@ -375,7 +414,7 @@ public class ModuleContext implements IModuleContext{
 		}
 		moduleAccount.onTrade(trade);
 		moduleStateMachine.onTrade(trade);
-		moduleRepo.saveRuntime(getRuntimeDescription(false));
+		saveRuntime(true);
 		if(tradeIntentMap.containsKey(trade.contract())) {
 			TradeIntent tradeIntent = tradeIntentMap.get(trade.contract());
 			tradeIntent.onTrade(trade);
@@ -396,10 +435,23 @@ public class ModuleContext implements IModuleContext{
 		logger.debug("合约{} 初始化数据 {} {} -> {} {}", barData.get(0).contract().unifiedSymbol(),
 				barData.get(0).actionDay(), barData.get(0).actionTime(),
 				barData.get(barData.size() - 1).actionDay(), barData.get(barData.size() - 1).actionTime());
-		for(Bar bar : barData) {
-			onBar(bar);
+		// 与模组同周期的指标只在合成K线时被策略读取，预热时可省略中间的不稳定值更新
+		List<IndicatorValueUpdateHelper> bulkHelpers = isReady() || bulkWarmupDisabled ? List.of() : indicatorHelperSet.stream()
+				.filter(helper -> helper.supportsBulkWarmup() && isModulePeriod(helper.getIndicator().getConfiguration()))
+				.toList();
+		bulkHelpers.forEach(IndicatorValueUpdateHelper::beginBulkWarmup);
+		try {
+			for(Bar bar : barData) {
+				onBar(bar);
+			}
+		} finally {
+			bulkHelpers.forEach(IndicatorValueUpdateHelper::endBulkWarmup);
 		}
 	}
+	
+	private boolean isModulePeriod(Configuration cfg) {
+		return cfg.period() == PeriodUnit.MINUTE && cfg.numOfUnits() == numOfMinPerBar;
+	}
 
 	@Override
 	public ModuleRuntimeDescription getRuntimeDescription(boolean fullDescription) {
@@ -532,7 +584,7 @@ public class ModuleContext implements IModuleContext{
 				.timeCondition(priceType == PriceType.ANY_PRICE ? TimeConditionEnum.TC_IOC : TimeConditionEnum.TC_GFD)
 				.orderPriceType(priceType == PriceType.ANY_PRICE ? OrderPriceTypeEnum.OPT_AnyPrice : OrderPriceTypeEnum.OPT_LimitPrice)
 				.contingentCondition(ContingentConditionEnum.CC_Immediately)
-				.actionTimestamp(System.currentTimeMillis())
+				.actionTimestamp(currentTimeMillis())
 				.minVolume(1)
 				.build()));
 	}
@@ -574,7 +626,16 @@ public class ModuleContext implements IModuleContext{
 		}
 		
 		SubmitOrderReq orderReq = orderReqMap.get(originOrderId);
-		return System.currentTimeMillis() - orderReq.actionTimestamp() > timeout;
+		return currentTimeMillis() - orderReq.actionTimestamp() > timeout;
+	}
+	
+	/**
+	 * 模组的当前时间，委托时间与超时判断均以此为准
+	 * 回测时可覆盖为行情时间
+	 * @return
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
 	}
 
 	@Override
@@ -598,6 +659,15 @@ public class ModuleContext implements IModuleContext{
 		this.enabled = enabled;
 		moduleRepo.saveRuntime(getRuntimeDescription(false));
 	}
+	
+	/* 标记运行时状态已变化，快照由快照服务在刷新时生成并合并写入 */
+	private void saveRuntime(boolean onTrade) {
+		if(Objects.isNull(snapshotService)) {
+			moduleRepo.saveRuntime(getRuntimeDescription(false));
+			return;
+		}
+		snapshotService.markDirty(module.getName(), onTrade);
+	}
 
 	@Override
 	public boolean isEnabled() {
@@ -609,7 +679,8 @@ public class ModuleContext implements IModuleContext{
 		this.orderReqFilter = filter;
 	}
 
-	private boolean isReady;
+	/* 模组预热在加载线程上完成 */
+	private volatile boolean isReady;
 	
 	@Override
 	public boolean isReady() {
@@ -618,9 +689,24 @@ public class ModuleContext implements IModuleContext{
 
 	@Override
 	public void onReady() {
+		// 预热完成后，同周期的K线可与其他实盘模组共用合成结果，相同的指标可与其他实盘模组共用计算结果
+		registry.enableSharing();
+		if(Objects.nonNull(indicatorGraph) && indicatorGraph.isEnabled()) {
+			indicatorSubscription = indicatorGraph.subscribe(indicatorHelperSet, module);
+		}
 		isReady = true;
 	}
 
+	/**
+	 * 模组卸载时释放共享的K线合成序列与共享指标
+	 */
+	public void release() {
+		registry.release();
+		if(Objects.nonNull(indicatorSubscription)) {
+			indicatorSubscription.close();
+		}
+	}
+
 	@Override
 	public int getDefaultVolume() {
 		return module.getModuleDescription().getDefaultVolume();
@@ -633,6 +719,9 @@ public class ModuleContext implements IModuleContext{
 
 	@Override
 	public void addMergedBarListener(Contract contract, int numOfUnit, PeriodUnit unit, MergedBarListener listener) {
+		if(unit != PeriodUnit.MINUTE || numOfUnit != numOfMinPerBar) {
+			bulkWarmupDisabled = true;
+		}
 		registry.addListener(contract, numOfUnit, unit, listener);
 	}
 
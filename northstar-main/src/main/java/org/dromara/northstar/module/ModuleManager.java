@@ -1,32 +1,49 @@
 package org.dromara.northstar.module;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.dromara.northstar.common.ObjectManager;
 import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.core.Contract;
 import org.dromara.northstar.strategy.IModule;
 import org.springframework.stereotype.Component;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * 模组管理器
+ * 同时维护合约与账户到模组的路由表，供事件分发时按需投递
  * @author KevinHuangwl
  *
  */
+@Slf4j
 @Component
 public class ModuleManager implements ObjectManager<IModule>{
 
+	private static final IModule[] NONE = new IModule[0];
+
 	private ConcurrentMap<Identifier, IModule> moduleMap = new ConcurrentHashMap<>();
-	
+
+	/* 路由快照仅在增删模组时重建，供事件分发时无分配遍历 */
+	private volatile Routes routes = new Routes(NONE, Map.of(), Map.of(), NONE);
+
 	@Override
-	public void add(IModule module) {
+	public synchronized void add(IModule module) {
 		moduleMap.put(Identifier.of(module.getName()), module);
+		rebuildRoutes();
 	}
 
 	@Override
-	public void remove(Identifier id) {
+	public synchronized void remove(Identifier id) {
 		moduleMap.remove(id);
+		rebuildRoutes();
 	}
 
 	@Override
@@ -39,6 +56,40 @@ public class ModuleManager implements ObjectManager<IModule>{
 		return moduleMap.containsKey(id);
 	}
 
+	/**
+	 * 获取模组快照
+	 * 返回的数组在模组增删前保持不变，调用方不应修改其内容
+	 * @return
+	 */
+	public IModule[] moduleSnapshot() {
+		return routes.modules();
+	}
+
+	/**
+	 * 获取绑定了该合约的模组
+	 * 返回的数组在模组增删前保持不变，调用方不应修改其内容
+	 * @param contract
+	 * @return
+	 */
+	public IModule[] modulesOfContract(Contract contract) {
+		Routes r = routes;
+		return r.contractRoutes().getOrDefault(contract, r.wildcards());
+	}
+
+	/**
+	 * 获取绑定了该账户的模组
+	 * 返回的数组在模组增删前保持不变，调用方不应修改其内容
+	 * @param accountId
+	 * @return
+	 */
+	public IModule[] modulesOfAccount(String accountId) {
+		Routes r = routes;
+		if(Objects.isNull(accountId)) {
+			return r.wildcards();
+		}
+		return r.accountRoutes().getOrDefault(accountId, r.wildcards());
+	}
+
 	public List<IModule> allModules(){
 		return moduleMap.values().stream().toList();
 	}
@@ -47,4 +98,45 @@ public class ModuleManager implements ObjectManager<IModule>{
 	public List<IModule> findAll() {
 		return allModules();
 	}
+
+	private void rebuildRoutes() {
+		Map<Contract, List<IModule>> contractTbl = new HashMap<>();
+		Map<String, List<IModule>> accountTbl = new HashMap<>();
+		List<IModule> wildcards = new ArrayList<>();
+		for(IModule module : moduleMap.values()) {
+			if(Objects.isNull(module.getModuleDescription()) || Objects.isNull(module.getModuleContext())) {
+				log.debug("模组 [{}] 无法解析绑定关系，将接收全部事件", module.getName());
+				wildcards.add(module);
+				continue;
+			}
+			for(Contract c : module.getModuleContext().bindedContracts()) {
+				addRoute(contractTbl, c, module);
+			}
+			for(ModuleAccountDescription mad : module.getModuleDescription().getModuleAccountSettingsDescription()) {
+				addRoute(accountTbl, mad.getAccountGatewayId(), module);
+			}
+		}
+		Map<Contract, IModule[]> contractRoutes = new HashMap<>();
+		contractTbl.forEach((c, list) -> contractRoutes.put(c, withWildcards(list, wildcards)));
+		Map<String, IModule[]> accountRoutes = new HashMap<>();
+		accountTbl.forEach((acc, list) -> accountRoutes.put(acc, withWildcards(list, wildcards)));
+		routes = new Routes(moduleMap.values().toArray(IModule[]::new), contractRoutes, accountRoutes, wildcards.toArray(IModule[]::new));
+	}
+
+	private <K> void addRoute(Map<K, List<IModule>> tbl, K key, IModule module) {
+		List<IModule> modules = tbl.computeIfAbsent(key, k -> new ArrayList<>());
+		if(!modules.contains(module)) {
+			modules.add(module);
+		}
+	}
+
+	private IModule[] withWildcards(List<IModule> modules, List<IModule> wildcards) {
+		List<IModule> result = new ArrayList<>(modules.size() + wildcards.size());
+		result.addAll(modules);
+		result.addAll(wildcards);
+		return result.toArray(IModule[]::new);
+	}
+
+	/* wildcards：无法解析绑定关系的模组，接收全部事件 */
+	private record Routes(IModule[] modules, Map<Contract, IModule[]> contractRoutes, Map<String, IModule[]> accountRoutes, IModule[] wildcards) {}
 }
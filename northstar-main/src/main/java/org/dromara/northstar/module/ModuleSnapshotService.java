@@ -0,0 +1,162 @@
+package org.dromara.northstar.module;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dromara.northstar.data.IModuleRepository;
+import org.dromara.northstar.strategy.IModule;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 模组运行时快照服务
+ * 模组在K线、成交后只标记运行时状态已变化，由后台写线程合并写入：每个模组每个刷新周期最多生成并写入一次快照，
+ * 成交后可配置为立即写入。快照在刷新时才生成，生成与写入期间持有模组的监视器，
+ * 与模组的事件处理（{@link TradeModule#onEvent}）互斥，因此无需复制策略的计算状态。
+ * 停止时会把所有待写快照同步写入
+ * @author agent
+ *
+ */
+@Slf4j
+public class ModuleSnapshotService implements InitializingBean, DisposableBean, MeterBinder {
+
+	private final IModuleRepository moduleRepo;
+
+	private final long intervalMillis;
+
+	private final boolean snapshotOnTrade;
+
+	/* moduleName -> 模组；只接受已登记模组的标记，删除或卸载后注销 */
+	private final ConcurrentMap<String, IModule> registeredModules = new ConcurrentHashMap<>();
+
+	/* 运行时状态已变化、等待写入的模组；同一个模组多次标记只写入一次 */
+	private final Set<String> dirtyModules = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder writtenCounter = new LongAdder();
+
+	private final LongAdder failedCounter = new LongAdder();
+
+	private ScheduledExecutorService scheduler;
+
+	public ModuleSnapshotService(IModuleRepository moduleRepo, long intervalMillis, boolean snapshotOnTrade) {
+		this.moduleRepo = moduleRepo;
+		this.intervalMillis = intervalMillis;
+		this.snapshotOnTrade = snapshotOnTrade;
+	}
+
+	/**
+	 * 登记模组，模组（重新）加载时调用，使同名模组删除后重新创建时可以继续写入快照
+	 * @param module
+	 */
+	public synchronized void register(IModule module) {
+		registeredModules.put(module.getName(), module);
+	}
+
+	/**
+	 * 标记模组运行时状态已变化，未登记或已删除的模组忽略
+	 * @param moduleName	模组名称
+	 * @param onTrade		是否由成交引起
+	 */
+	public void markDirty(String moduleName, boolean onTrade) {
+		if(!registeredModules.containsKey(moduleName)) {
+			log.debug("模组 [{}] 未登记或已删除，忽略其运行时快照", moduleName);
+			return;
+		}
+		dirtyModules.add(moduleName);
+		if(onTrade && snapshotOnTrade && Objects.nonNull(scheduler) && !scheduler.isShutdown()) {
+			scheduler.execute(() -> flush(moduleName));
+		}
+	}
+
+	/**
+	 * 立即写入某个模组的待写快照
+	 * @param moduleName
+	 */
+	public synchronized void flush(String moduleName) {
+		if(dirtyModules.remove(moduleName)) {
+			write(moduleName);
+		}
+	}
+
+	/**
+	 * 立即写入全部待写快照
+	 */
+	public synchronized void flushAll() {
+		// 写入失败的模组会被重新标记，因此遍历副本
+		for(String moduleName : List.copyOf(dirtyModules)) {
+			flush(moduleName);
+		}
+	}
+
+	/**
+	 * 丢弃某个模组的待写快照并注销（模组卸载或删除时使用）
+	 * @param moduleName
+	 */
+	public synchronized void discard(String moduleName) {
+		dirtyModules.remove(moduleName);
+		registeredModules.remove(moduleName);
+	}
+
+	/* 持有模组监视器生成并写入快照，模组的事件线程最多每个周期等待一次写入；写入失败时重新标记为脏，等待下一个周期重试 */
+	private void write(String moduleName) {
+		IModule module = registeredModules.get(moduleName);
+		if(Objects.isNull(module)) {
+			return;
+		}
+		try {
+			synchronized (module) {
+				moduleRepo.saveRuntime(module.getModuleContext().getRuntimeDescription(false));
+			}
+			writtenCounter.increment();
+		} catch (Exception e) {
+			failedCounter.increment();
+			log.error("模组 [{}] 运行时快照写入失败，将在下一个周期重试", moduleName, e);
+			dirtyModules.add(moduleName);
+		}
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "ModuleSnapshotWriter");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleWithFixedDelay(this::flushAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		scheduler.shutdown();
+		if(!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.warn("模组快照写线程未能按时停止");
+		}
+		flushAll();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("northstar.module.snapshot.pending", dirtyModules, Set::size)
+			.description("等待写入运行时快照的模组数")
+			.register(registry);
+		FunctionCounter.builder("northstar.module.snapshot.written", writtenCounter, LongAdder::sum)
+			.description("已写入的模组运行时快照数")
+			.register(registry);
+		FunctionCounter.builder("northstar.module.snapshot.failed", failedCounter, LongAdder::sum)
+			.description("写入失败的模组运行时快照数")
+			.register(registry);
+	}
+}
@@ -7,7 +7,7 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Objects;
 
-import org.dromara.northstar.data.jdbc.MarketDataRepository;
+import org.dromara.northstar.data.IMarketDataRepository;
 import org.dromara.northstar.strategy.IMessageSender;
 import org.dromara.northstar.support.utils.ExceptionLogChecker;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,7 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 public class AppScheduleTask {
 	
 	@Autowired
-	private MarketDataRepository mdRepo;
+	private IMarketDataRepository mdRepo;
 	
 	@Autowired(required = false)
 	private IMessageSender msgSender;
@@ -69,7 +69,7 @@ public class AppScheduleTask {
 	@Scheduled(cron="0 30 20 ? * 1-5")
 	@Transactional
 	public void removeExpiredData() {
-		mdRepo.deleteByExpiredAtBefore(System.currentTimeMillis());
+		mdRepo.removeExpiredData(System.currentTimeMillis());
 		log.debug("移除过期行情数据");
 	}
 	
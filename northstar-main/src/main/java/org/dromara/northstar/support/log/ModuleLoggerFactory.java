@@ -57,5 +57,13 @@ public class ModuleLoggerFactory implements ILoggerFactory {
 	public synchronized Logger getLogger(String name) {
 		return loggerContext.getLogger(name);
 	}
+	
+	/**
+	 * 设置模组日志级别
+	 * @param level
+	 */
+	public void setLevel(org.slf4j.event.Level level) {
+		loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.toLevel(level.toString()));
+	}
 
 }
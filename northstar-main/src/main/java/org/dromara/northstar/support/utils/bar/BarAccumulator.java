@@ -0,0 +1,120 @@
+package org.dromara.northstar.support.utils.bar;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+
+/**
+ * 合成中的K线
+ * 以基本类型字段累计各分钟K线的数值，合成完成时才生成一个 Bar
+ * @author agent
+ *
+ */
+final class BarAccumulator {
+
+	private final Contract contract;
+
+	private boolean active;
+
+	private String gatewayId;
+	private LocalDate actionDay;
+	private LocalTime actionTime;
+	private long actionTimestamp;
+	private LocalDate tradingDay;
+	private ChannelType channelType;
+	private double openPrice;
+	private double highPrice;
+	private double lowPrice;
+	private double closePrice;
+	private double openInterest;
+	private double openInterestDelta;
+	private long volume;
+	private long volumeDelta;
+	private double turnover;
+	private double turnoverDelta;
+	private double preOpenInterest;
+	private double preClosePrice;
+	private double preSettlePrice;
+
+	BarAccumulator(Contract contract) {
+		this.contract = contract;
+	}
+
+	boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * 以一根分钟K线开始合成
+	 * @param withTotals	是否带上当天累计的成交量、成交额与持仓量
+	 */
+	void begin(Bar bar, LocalDate actionDay, LocalTime actionTime, long actionTimestamp, boolean withTotals) {
+		this.active = true;
+		this.gatewayId = bar.gatewayId();
+		this.actionDay = actionDay;
+		this.actionTime = actionTime;
+		this.actionTimestamp = actionTimestamp;
+		this.tradingDay = bar.tradingDay();
+		this.channelType = bar.channelType();
+		this.openPrice = bar.openPrice();
+		this.highPrice = bar.highPrice();
+		this.lowPrice = bar.lowPrice();
+		this.closePrice = bar.closePrice();
+		this.openInterest = withTotals ? bar.openInterest() : 0;
+		this.openInterestDelta = bar.openInterestDelta();
+		this.volume = withTotals ? bar.volume() : 0;
+		this.volumeDelta = bar.volumeDelta();
+		this.turnover = withTotals ? bar.turnover() : 0;
+		this.turnoverDelta = bar.turnoverDelta();
+		this.preOpenInterest = bar.preOpenInterest();
+		this.preClosePrice = bar.preClosePrice();
+		this.preSettlePrice = bar.preSettlePrice();
+	}
+
+	void merge(Bar bar) {
+		actionDay = bar.actionDay();
+		actionTime = bar.actionTime();
+		actionTimestamp = bar.actionTimestamp();
+		closePrice = bar.closePrice();
+		highPrice = Math.max(highPrice, bar.highPrice());
+		lowPrice = Math.min(lowPrice, bar.lowPrice());
+		volume = bar.volume();
+		volumeDelta += bar.volumeDelta();
+		openInterest = bar.openInterest();
+		openInterestDelta += bar.openInterestDelta();
+		turnover = bar.turnover();
+		turnoverDelta += bar.turnoverDelta();
+	}
+
+	/**
+	 * 生成合成结果，并结束本次合成
+	 */
+	Bar finish() {
+		active = false;
+		return Bar.builder()
+				.gatewayId(gatewayId)
+				.contract(contract)
+				.actionDay(actionDay)
+				.actionTime(actionTime)
+				.actionTimestamp(actionTimestamp)
+				.tradingDay(tradingDay)
+				.channelType(channelType)
+				.openPrice(openPrice)
+				.highPrice(highPrice)
+				.lowPrice(lowPrice)
+				.closePrice(closePrice)
+				.volume(volume)
+				.volumeDelta(volumeDelta)
+				.openInterest(openInterest)
+				.openInterestDelta(openInterestDelta)
+				.turnover(turnover)
+				.turnoverDelta(turnoverDelta)
+				.preClosePrice(preClosePrice)
+				.preOpenInterest(preOpenInterest)
+				.preSettlePrice(preSettlePrice)
+				.build();
+	}
+}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,15 +32,18 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class BarMerger implements BarDataAware{
 	
+	private static final int MINUTES_OF_DAY = 24 * 60;
+	
 	protected final Contract contract;
 	
 	protected long curBarTimestamp;
 	
 	private final int numOfMinPerBar;
 	
-	private LocalDateTime cutoffDateTime;
+	/* 当前K线结算时刻，以 epochDay * 1440 + 分钟序号表示 */
+	private long cutoffMinutes;
 	
-	protected Bar protoBar;
+	protected final BarAccumulator accumulator;
 	
 	protected final Set<MergedBarListener> listeners = new HashSet<>();
 	
@@ -48,10 +52,23 @@ public class BarMerger implements BarDataAware{
 	 */
 	protected final Map<LocalTime, LocalTime> barTimeMap;
 	
+	/**
+	 * 按一天中的分钟序号展开的映射表，K线结算时间的分钟序号，不在交易时段内为 -1
+	 */
+	private final int[] cutoffMinuteTbl = new int[MINUTES_OF_DAY];
+	
+	private final LocalTime[] cutoffTimeTbl = new LocalTime[MINUTES_OF_DAY];
+	
 	public BarMerger(int numOfMinPerBar, Contract contract) { 
 		this.contract = contract;
 		this.numOfMinPerBar = numOfMinPerBar;
 		this.barTimeMap = genBarTimeMap();
+		this.accumulator = new BarAccumulator(contract);
+		Arrays.fill(cutoffMinuteTbl, -1);
+		barTimeMap.forEach((time, barTime) -> {
+			cutoffMinuteTbl[minuteOfDay(time)] = minuteOfDay(barTime);
+			cutoffTimeTbl[minuteOfDay(time)] = barTime;
+		});
 	}
 
 	// 该方法用于生成分钟线时间对齐的映射表
@@ -115,30 +132,23 @@ public class BarMerger implements BarDataAware{
 		return timeSlots.get(timeSlots.size() - 1).end();
 	}
 
-	protected LocalDateTime toCutoffDateTime(Bar bar) {
-		LocalTime keyTime = bar.actionTime().withSecond(0).withNano(0);
-		if(!barTimeMap.containsKey(keyTime)) {
-			throw new IllegalStateException(String.format("[%s] 没有对应的K线时间", bar.actionTime()));
-		}
-		LocalTime cutoffTime = barTimeMap.get(keyTime);
-		if(cutoffTime.isBefore(bar.actionTime())) {
-			return LocalDateTime.of(bar.actionDay().plusDays(1), cutoffTime);
+	/* 整分钟时刻在一天中的分钟序号，非整分钟返回 -1 */
+	protected static int minuteOfDay(LocalTime time) {
+		if(Objects.isNull(time) || time.getSecond() != 0 || time.getNano() != 0) {
+			return -1;
 		}
-		return LocalDateTime.of(bar.actionDay(), cutoffTime);
+		return time.getHour() * 60 + time.getMinute();
 	}
 	
 	@Override
 	public synchronized void onBar(Bar bar) {
-		if(!contract.equals(bar.contract()) || !barTimeMap.containsKey(bar.actionTime())) {
+		int minute = minuteOfDay(bar.actionTime());
+		if(!contract.equals(bar.contract()) || minute < 0 || cutoffMinuteTbl[minute] < 0) {
 			if(log.isTraceEnabled()) {				
 				log.trace("[{}] K线合成器忽略Bar数据 [{}]", contract.unifiedSymbol(), String.format("%s:%s:%s", bar.contract().unifiedSymbol(), bar.actionDay(), bar.actionTime()));
 			}
 			return;
 		}
-		LocalDateTime barDateTime = LocalDateTime.of(bar.actionDay(), bar.actionTime());
-		if(Objects.isNull(cutoffDateTime)) {
-			cutoffDateTime = toCutoffDateTime(bar);
-		}
 		
 		if(bar.actionTimestamp() < curBarTimestamp) {
 			if(log.isTraceEnabled()) {				
@@ -149,41 +159,24 @@ public class BarMerger implements BarDataAware{
 		}
 		curBarTimestamp = bar.actionTimestamp();
 		
-		if(Objects.nonNull(protoBar) && !barDateTime.isAfter(cutoffDateTime)) {
-			doMerge(bar);
+		long barMinutes = bar.actionDay().toEpochDay() * MINUTES_OF_DAY + minute;
+		if(accumulator.isActive() && barMinutes <= cutoffMinutes) {
+			accumulator.merge(bar);
 		}
 		
-		if(Objects.nonNull(protoBar) && !barDateTime.isBefore(cutoffDateTime)) {
+		if(accumulator.isActive() && barMinutes >= cutoffMinutes) {
 			doGenerate();
 			return;
 		}
 		
-		if(Objects.isNull(protoBar)) {
-			cutoffDateTime = toCutoffDateTime(bar);
-			protoBar = Bar.builder()
-					.gatewayId(bar.gatewayId())
-					.contract(contract)
-					.actionDay(cutoffDateTime.toLocalDate())
-					.actionTime(cutoffDateTime.toLocalTime())
-					.actionTimestamp(CommonUtils.localDateTimeToMills(cutoffDateTime))
-					.tradingDay(bar.tradingDay())
-					.channelType(bar.channelType())
-					.openPrice(bar.openPrice())
-					.highPrice(bar.highPrice())
-					.lowPrice(bar.lowPrice())
-					.closePrice(bar.closePrice())
-					.volume(bar.volume())
-					.volumeDelta(bar.volumeDelta())
-					.openInterest(bar.openInterest())
-					.openInterestDelta(bar.openInterestDelta())
-					.turnover(bar.turnover())
-					.turnoverDelta(bar.turnoverDelta())
-					.preClosePrice(bar.preClosePrice())
-					.preOpenInterest(bar.preOpenInterest())
-					.preSettlePrice(bar.preSettlePrice())
-					.build();
+		if(!accumulator.isActive()) {
+			int cutoffMinute = cutoffMinuteTbl[minute];
+			LocalDate cutoffDate = cutoffMinute < minute ? bar.actionDay().plusDays(1) : bar.actionDay();
+			LocalTime cutoffTime = cutoffTimeTbl[minute];
+			cutoffMinutes = cutoffDate.toEpochDay() * MINUTES_OF_DAY + cutoffMinute;
+			accumulator.begin(bar, cutoffDate, cutoffTime, CommonUtils.localDateTimeToMills(LocalDateTime.of(cutoffDate, cutoffTime)), true);
 			
-			if(barDateTime.isEqual(cutoffDateTime)){
+			if(barMinutes == cutoffMinutes){
 				doGenerate();
 			}
 		}
@@ -194,31 +187,11 @@ public class BarMerger implements BarDataAware{
 	}
 	
 	protected void doGenerate() {
-		listeners.forEach(listener -> listener.onMergedBar(protoBar));
-		protoBar = null;
+		notifyListeners(accumulator.finish());
 	}
 	
-	protected void doMerge(Bar bar) {
-		double high = protoBar.highPrice();
-		double low = protoBar.lowPrice();
-		long volumeDelta = protoBar.volumeDelta();
-		double turnoverDelta = protoBar.turnoverDelta();
-		double openInterestDelta = protoBar.openInterestDelta();
-		
-        protoBar = protoBar.toBuilder()
-        		.actionDay(bar.actionDay())
-        		.actionTime(bar.actionTime())
-        		.actionTimestamp(bar.actionTimestamp())
-				.closePrice(bar.closePrice())
-				.highPrice(Math.max(high, bar.highPrice()))
-				.lowPrice(Math.min(low, bar.lowPrice()))
-				.volume(bar.volume())
-				.volumeDelta(volumeDelta + bar.volumeDelta())
-				.openInterest(bar.openInterest())
-				.openInterestDelta(openInterestDelta + bar.openInterestDelta())
-				.turnover(bar.turnover())
-				.turnoverDelta(turnoverDelta + bar.turnoverDelta())
-				.build();		
+	void notifyListeners(Bar mergedBar) {
+		listeners.forEach(listener -> listener.onMergedBar(mergedBar));
 	}
 	
 }
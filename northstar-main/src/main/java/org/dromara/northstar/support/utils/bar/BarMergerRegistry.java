@@ -1,10 +1,11 @@
 package org.dromara.northstar.support.utils.bar;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 
 import org.dromara.northstar.common.BarDataAware;
 import org.dromara.northstar.common.model.Identifier;
@@ -15,22 +16,45 @@ import org.dromara.northstar.indicator.constant.PeriodUnit;
 import org.dromara.northstar.strategy.IModuleContext;
 import org.dromara.northstar.strategy.MergedBarListener;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * K线合成中心
+ * 分钟K线只投递给所属合约的合成器，同一合约按指标、策略、模组上下文的顺序投递。
+ * 提供共享合成服务时，启用共享后的合成器会在完成一根K线后改用进程内共享的合成序列
  * @author KevinHuangwl
  *
  */
+@Slf4j
 public class BarMergerRegistry implements BarDataAware{
-	
+
+	private static final MergerEntry[] NONE = new MergerEntry[0];
+
 	protected Map<Identifier, BarMerger> mergerMap = new HashMap<>();
-	protected Map<ListenerType, Set<BarMerger>> listenTypeMap = new EnumMap<>(ListenerType.class);
-	
+
+	/* 合约 -> 该合约的合成器，按监听类型排序 */
+	private Map<Contract, MergerEntry[]> contractIndex = new HashMap<>();
+
+	private Map<ListenerType, List<MergerEntry>> listenTypeMap = new EnumMap<>(ListenerType.class);
+
+	private final MergedBarService mergedBarService;
+
+	private volatile boolean sharing;
+
 	public BarMergerRegistry() {
-		listenTypeMap.put(ListenerType.INDICATOR, new HashSet<>());
-		listenTypeMap.put(ListenerType.CONTEXT, new HashSet<>());
-		listenTypeMap.put(ListenerType.STRATEGY, new HashSet<>());
+		this(null);
+	}
+
+	/**
+	 * @param mergedBarService	共享合成服务，为空时只使用独立的合成器
+	 */
+	public BarMergerRegistry(MergedBarService mergedBarService) {
+		this.mergedBarService = mergedBarService;
+		for(ListenerType type : ListenerType.values()) {
+			listenTypeMap.put(type, new ArrayList<>());
+		}
 	}
-	
+
 	public void addListener(Contract contract, int numOfUnit, PeriodUnit unit, MergedBarListener listener) {
 		ListenerType type;
 		if(listener instanceof IModuleContext) {
@@ -45,16 +69,17 @@ public class BarMergerRegistry implements BarDataAware{
 		if(merger == null) {
 			merger = makeBarMerger(contract, numOfUnit, unit);
 			mergerMap.put(identifier, merger);
+			listenTypeMap.get(type).add(new MergerEntry(identifier, contract, numOfUnit, unit, merger));
+			rebuildIndex();
 		}
-		listenTypeMap.get(type).add(merger);
 		merger.addListener(listener);
 	}
-	
+
 	private Identifier makeIdentifier(ListenerType type, Contract contract, int numOfUnit, PeriodUnit unit) {
 		return Identifier.of(String.format("%s_%s_%d_%s", type, contract.unifiedSymbol(), numOfUnit, unit.symbol()));
 	}
-	
-	private BarMerger makeBarMerger(Contract contract, int numOfUnit, PeriodUnit unit) {
+
+	static BarMerger makeBarMerger(Contract contract, int numOfUnit, PeriodUnit unit) {
 		return switch(unit) {
 		case MINUTE -> new BarMerger(numOfUnit, contract);
 		case HOUR -> new BarMerger(numOfUnit * 60, contract);
@@ -63,17 +88,124 @@ public class BarMergerRegistry implements BarDataAware{
 		};
 	}
 
+	/* 保持原有的投递顺序：指标、策略、模组上下文 */
+	private void rebuildIndex() {
+		Map<Contract, List<MergerEntry>> tbl = new HashMap<>();
+		for(ListenerType type : List.of(ListenerType.INDICATOR, ListenerType.STRATEGY, ListenerType.CONTEXT)) {
+			listenTypeMap.get(type).forEach(entry -> tbl.computeIfAbsent(entry.contract, c -> new ArrayList<>()).add(entry));
+		}
+		Map<Contract, MergerEntry[]> index = new HashMap<>();
+		tbl.forEach((c, entries) -> index.put(c, entries.toArray(MergerEntry[]::new)));
+		contractIndex = index;
+	}
+
 	@Override
 	public void onBar(Bar bar) {
-		listenTypeMap.get(ListenerType.INDICATOR).forEach(merger -> merger.onBar(bar));
-		listenTypeMap.get(ListenerType.STRATEGY).forEach(merger -> merger.onBar(bar));
-		listenTypeMap.get(ListenerType.CONTEXT).forEach(merger -> merger.onBar(bar));
+		for(MergerEntry entry : contractIndex.getOrDefault(bar.contract(), NONE)) {
+			entry.onBar(bar);
+		}
 	}
-	
-	
+
+	/**
+	 * 启用共享合成
+	 * 模组预热完成后调用，此后各合成器在完成一根K线时尝试改用共享合成序列
+	 */
+	public void enableSharing() {
+		sharing = Objects.nonNull(mergedBarService);
+	}
+
+	/**
+	 * 释放共享合成序列
+	 * 模组卸载时调用，调用前应先停止向该模组分发事件
+	 */
+	public void release() {
+		sharing = false;
+		listenTypeMap.values().stream().flatMap(List::stream).forEach(MergerEntry::detach);
+	}
+
+	int numOfSharedMergers() {
+		return (int) listenTypeMap.values().stream().flatMap(List::stream).filter(entry -> Objects.nonNull(entry.series)).count();
+	}
+
 	public enum ListenerType {
 		INDICATOR,
 		CONTEXT,
 		STRATEGY;
 	}
+
+	/* 单个合成器；series 不为空时改由共享合成序列合成，再分发给该合成器的监听者。
+	 * series 可能在卸载模组的线程上被清空，投递K线时只读取一次 */
+	private class MergerEntry implements MergedBarListener {
+
+		private final Identifier identifier;
+		private final Contract contract;
+		private final int numOfUnit;
+		private final PeriodUnit unit;
+		private BarMerger merger;
+		private volatile MergedBarSeries series;
+		private long inputTimestamp;
+		/* 共享期间当前周期已投递的分钟K线，改回独立合成器时用于恢复当前周期的合成进度 */
+		private final List<Bar> openPeriodBars = new ArrayList<>();
+
+		MergerEntry(Identifier identifier, Contract contract, int numOfUnit, PeriodUnit unit, BarMerger merger) {
+			this.identifier = identifier;
+			this.contract = contract;
+			this.numOfUnit = numOfUnit;
+			this.unit = unit;
+			this.merger = merger;
+			merger.addListener(this);
+		}
+
+		void onBar(Bar bar) {
+			MergedBarSeries s = series;
+			if(Objects.isNull(s)) {
+				inputTimestamp = bar.actionTimestamp();
+				merger.onBar(bar);
+				return;
+			}
+			MergedBarSeries.Outcome outcome = s.onBar(bar);
+			if(!outcome.served()) {
+				// 进度落后过多，改回独立合成器；先补回当前周期已投递的分钟K线，使下一根合成K线仍覆盖完整周期
+				log.warn("[{}] 落后于共享K线合成序列，改用独立合成器", identifier.value());
+				detach();
+				BarMerger newMerger = makeBarMerger(contract, numOfUnit, unit);
+				openPeriodBars.forEach(newMerger::onBar);
+				openPeriodBars.clear();
+				merger.listeners.stream().filter(listener -> listener != this).forEach(newMerger::addListener);
+				newMerger.addListener(this);
+				merger = newMerger;
+				mergerMap.put(identifier, newMerger);
+				inputTimestamp = bar.actionTimestamp();
+				merger.onBar(bar);
+				return;
+			}
+			if(Objects.nonNull(outcome.mergedBar())) {
+				openPeriodBars.clear();
+				merger.notifyListeners(outcome.mergedBar());
+			} else {
+				openPeriodBars.add(bar);
+			}
+		}
+
+		/* 独立合成器完成一根K线时，尝试改用共享合成序列 */
+		@Override
+		public void onMergedBar(Bar bar) {
+			if(!sharing || Objects.nonNull(series)) {
+				return;
+			}
+			MergedBarSeries s = mergedBarService.attach(contract, numOfUnit, unit, inputTimestamp, bar);
+			if(Objects.nonNull(s)) {
+				openPeriodBars.clear();
+				series = s;
+			}
+		}
+
+		synchronized void detach() {
+			MergedBarSeries s = series;
+			if(Objects.nonNull(s)) {
+				series = null;
+				mergedBarService.detach(contract, numOfUnit, unit, s);
+			}
+		}
+	}
 }
@@ -2,8 +2,6 @@ package org.dromara.northstar.support.utils.bar;
 
 import java.time.LocalTime;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Contract;
@@ -20,7 +18,7 @@ public class DailyBarMerger extends BarMerger{
 	
 	private final LocalTime dayEndTime;
 	
-	private AtomicInteger count;
+	private int count;
 	
 	public DailyBarMerger(int numOfDayPerBar, Contract contract) {
 		super(0, contract);
@@ -35,35 +33,17 @@ public class DailyBarMerger extends BarMerger{
 			return;
 		}
 
-		if(Objects.isNull(protoBar)) {
-			count = new AtomicInteger(0);
-			protoBar = Bar.builder()
-					.gatewayId(bar.gatewayId())
-					.contract(contract)
-					.actionDay(bar.actionDay())
-					.actionTime(bar.actionTime())
-					.actionTimestamp(bar.actionTimestamp())
-					.tradingDay(bar.tradingDay())
-					.channelType(bar.channelType())
-					.openPrice(bar.openPrice())
-					.highPrice(bar.highPrice())
-					.lowPrice(bar.lowPrice())
-					.closePrice(bar.closePrice())
-					.volumeDelta(bar.volumeDelta())
-					.openInterestDelta(bar.openInterestDelta())
-					.turnoverDelta(bar.turnoverDelta())
-					.preClosePrice(bar.preClosePrice())
-					.preOpenInterest(bar.preOpenInterest())
-					.preSettlePrice(bar.preSettlePrice())
-					.build();
+		if(!accumulator.isActive()) {
+			count = 0;
+			accumulator.begin(bar, bar.actionDay(), bar.actionTime(), bar.actionTimestamp(), false);
 		}
 
-		if(bar.actionTime().equals(dayEndTime) && count.incrementAndGet() == numOfDayPerBar) {
+		if(bar.actionTime().equals(dayEndTime) && ++count == numOfDayPerBar) {
 			doGenerate();
 			return;
 		}
 		
-		doMerge(bar);
+		accumulator.merge(bar);
 	}
 
 	
@@ -0,0 +1,125 @@
+package org.dromara.northstar.support.utils.bar;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.dromara.northstar.common.model.core.Bar;
+
+/**
+ * 共享的K线合成序列
+ * 按分钟K线的时间戳合成，每根分钟K线只合成一次，并记录最近若干根分钟K线各自的合成结果，
+ * 使先后投递同一根分钟K线的各个订阅者得到同一个结果
+ * @author agent
+ *
+ */
+final class MergedBarSeries {
+
+	/* 记录最近的合成结果数，订阅者之间的进度差超过该数量时，落后的订阅者无法再取得结果 */
+	static final int MEMO_SIZE = 256;
+
+	static final Outcome NOTHING = new Outcome(true, null);
+
+	static final Outcome MISSED = new Outcome(false, null);
+
+	private final Supplier<BarMerger> mergerFactory;
+
+	private BarMerger merger;
+
+	private Bar output;
+
+	private long curTimestamp;
+
+	private final long[] memoTimestamps = new long[MEMO_SIZE];
+
+	private final Bar[] memoBars = new Bar[MEMO_SIZE];
+
+	private int memoCount;
+
+	private int memoHead;
+
+	private int numOfSubscribers;
+
+	MergedBarSeries(Supplier<BarMerger> mergerFactory) {
+		this.mergerFactory = mergerFactory;
+		resetMerger();
+	}
+
+	/**
+	 * 投递一根分钟K线
+	 * @param bar
+	 * @return	served 为 false 表示该分钟K线已超出记录范围，无法给出合成结果
+	 */
+	synchronized Outcome onBar(Bar bar) {
+		long timestamp = bar.actionTimestamp();
+		if(timestamp > curTimestamp) {
+			output = null;
+			merger.onBar(bar);
+			curTimestamp = timestamp;
+			record(timestamp, output);
+			return output == null ? NOTHING : new Outcome(true, output);
+		}
+		int idx = indexOf(timestamp);
+		if(idx < 0) {
+			return MISSED;
+		}
+		return memoBars[idx] == null ? NOTHING : new Outcome(true, memoBars[idx]);
+	}
+
+	/**
+	 * 订阅者的独立合成器在分钟K线 timestamp 处刚好完成了 mergedBar，尝试从下一根分钟K线起改用该序列
+	 * 序列无人订阅时，以该时刻重新开始；否则要求序列已经处理过该分钟K线，且得到相同的合成结果
+	 * @return	是否订阅成功
+	 */
+	synchronized boolean attach(long timestamp, Bar mergedBar) {
+		if(numOfSubscribers == 0) {
+			resetMerger();
+			curTimestamp = timestamp;
+			memoCount = 0;
+			record(timestamp, mergedBar);
+			numOfSubscribers++;
+			return true;
+		}
+		int idx = indexOf(timestamp);
+		if(idx >= 0 && Objects.equals(memoBars[idx], mergedBar)) {
+			numOfSubscribers++;
+			return true;
+		}
+		return false;
+	}
+
+	synchronized void detach() {
+		numOfSubscribers = Math.max(0, numOfSubscribers - 1);
+	}
+
+	synchronized int numOfSubscribers() {
+		return numOfSubscribers;
+	}
+
+	private void resetMerger() {
+		merger = mergerFactory.get();
+		merger.addListener(bar -> output = bar);
+	}
+
+	private void record(long timestamp, Bar bar) {
+		memoHead = (memoHead + 1) % MEMO_SIZE;
+		memoTimestamps[memoHead] = timestamp;
+		memoBars[memoHead] = bar;
+		memoCount = Math.min(memoCount + 1, MEMO_SIZE);
+	}
+
+	/* 订阅者之间的进度差通常只有一两根K线，从最新的记录往回找 */
+	private int indexOf(long timestamp) {
+		for(int i=0; i<memoCount; i++) {
+			int idx = (memoHead - i + MEMO_SIZE) % MEMO_SIZE;
+			if(memoTimestamps[idx] == timestamp) {
+				return idx;
+			}
+			if(memoTimestamps[idx] < timestamp) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	record Outcome(boolean served, Bar mergedBar) {}
+}
@@ -0,0 +1,55 @@
+package org.dromara.northstar.support.utils.bar;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.indicator.constant.PeriodUnit;
+
+/**
+ * 共享K线合成服务
+ * 进程内按（合约，周期单位，周期数）维护唯一的合成序列，实盘模组的同周期K线只合成一次，再分发给各模组的监听者。
+ * 预热与回测阶段各模组的行情进度不同，仍使用各自的合成器，见 {@link BarMergerRegistry}
+ * @author agent
+ *
+ */
+public class MergedBarService {
+
+	private final ConcurrentMap<SeriesKey, MergedBarSeries> seriesMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 订阅合成序列，订阅条件见 {@link MergedBarSeries#attach(long, Bar)}
+	 * @return	订阅成功时返回该序列，否则返回空值
+	 */
+	MergedBarSeries attach(Contract contract, int numOfUnit, PeriodUnit unit, long timestamp, Bar mergedBar) {
+		MergedBarSeries[] attached = new MergedBarSeries[1];
+		seriesMap.compute(new SeriesKey(contract, numOfUnit, unit), (key, s) -> {
+			MergedBarSeries series = Objects.nonNull(s) ? s : new MergedBarSeries(() -> BarMergerRegistry.makeBarMerger(contract, numOfUnit, unit));
+			if(series.attach(timestamp, mergedBar)) {
+				attached[0] = series;
+			}
+			return series.numOfSubscribers() > 0 ? series : null;
+		});
+		return attached[0];
+	}
+
+	/**
+	 * 退订合成序列，最后一个订阅者退订后移除该序列
+	 */
+	void detach(Contract contract, int numOfUnit, PeriodUnit unit, MergedBarSeries series) {
+		series.detach();
+		seriesMap.computeIfPresent(new SeriesKey(contract, numOfUnit, unit), (key, s) -> s.numOfSubscribers() > 0 ? s : null);
+	}
+
+	/**
+	 * 当前共享的合成序列数
+	 * @return
+	 */
+	public int numOfSeries() {
+		return seriesMap.size();
+	}
+
+	private record SeriesKey(Contract contract, int numOfUnit, PeriodUnit unit) {}
+}
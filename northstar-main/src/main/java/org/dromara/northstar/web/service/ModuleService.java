@@ -4,11 +4,17 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.dromara.northstar.account.AccountManager;
@@ -41,19 +47,21 @@ import org.dromara.northstar.data.IMarketDataRepository;
 import org.dromara.northstar.data.IModuleRepository;
 import org.dromara.northstar.gateway.IContract;
 import org.dromara.northstar.gateway.IContractManager;
-import org.dromara.northstar.gateway.mktdata.DataSourceDataLoader;
+import org.dromara.northstar.gateway.utils.DataLoadUtil;
+import org.dromara.northstar.indicator.IndicatorGraph;
 import org.dromara.northstar.module.ArbitrageModuleContext;
 import org.dromara.northstar.module.ModuleContext;
 import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.module.ModuleSnapshotService;
 import org.dromara.northstar.module.PlaybackModuleContext;
 import org.dromara.northstar.module.TradeModule;
 import org.dromara.northstar.strategy.DynamicParamsAware;
 import org.dromara.northstar.strategy.IAccount;
 import org.dromara.northstar.strategy.IModule;
-import org.dromara.northstar.strategy.IModuleContext;
 import org.dromara.northstar.strategy.StrategicComponent;
 import org.dromara.northstar.strategy.TradeStrategy;
 import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.dromara.northstar.support.utils.bar.MergedBarService;
 import org.dromara.northstar.web.PostLoadAware;
 import org.springframework.context.ApplicationContext;
 import org.springframework.util.StringUtils;
@@ -84,9 +92,23 @@ public class ModuleService implements IModuleService, PostLoadAware {
 
 	private AccountManager accountMgr;
 
+	private ModuleSnapshotService snapshotService;
+
+	private MergedBarService mergedBarService;
+
+	private IndicatorGraph indicatorGraph;
+
+	/* 模组加载时查询数据源与回放预热数据的并发数 */
+	private int warmupParallelism;
+
 	public ModuleService(ApplicationContext ctx, IModuleRepository moduleRepo, IMarketDataRepository mdRepo,
-						 ModuleManager moduleMgr, IContractManager contractMgr, AccountManager accountMgr) {
+						 ModuleManager moduleMgr, IContractManager contractMgr, AccountManager accountMgr, ModuleSnapshotService snapshotService,
+						 MergedBarService mergedBarService, IndicatorGraph indicatorGraph, int warmupParallelism) {
 		this.ctx = ctx;
+		this.mergedBarService = mergedBarService;
+		this.indicatorGraph = indicatorGraph;
+		this.warmupParallelism = warmupParallelism;
+		this.snapshotService = snapshotService;
 		this.moduleMgr = moduleMgr;
 		this.contractMgr = contractMgr;
 		this.moduleRepo = moduleRepo;
@@ -220,7 +242,25 @@ public class ModuleService implements IModuleService, PostLoadAware {
 		return moduleRepo.findAllSettings();
 	}
 
+	/* 已创建、待预热的模组 */
+	private record ModuleLoading(ModuleDescription md, ModuleRuntimeDescription mrd, ModuleContext ctx, List<IContract> contracts, LocalDate startDate) {}
+
+	/* 模组加载耗时：等待数据、回放预热数据 */
+	private record LoadingTiming(long waitMillis, long replayMillis, int numOfBars) {}
+
 	private void loadModule(ModuleDescription md, ModuleRuntimeDescription mrd) throws Exception {
+		ModuleLoading loading = prepareModule(md, mrd);
+		ExecutorService exec = newWarmupExecutor();
+		try {
+			warmup(List.of(loading), exec).get(0).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof Exception ex ? ex : e;
+		} finally {
+			exec.shutdown();
+		}
+	}
+
+	private ModuleLoading prepareModule(ModuleDescription md, ModuleRuntimeDescription mrd) throws Exception {
 		int weeksOfDataForPreparation = md.getWeeksOfDataForPreparation();
 		LocalDate date = LocalDate.now().minusWeeks(weeksOfDataForPreparation);
 
@@ -228,7 +268,7 @@ public class ModuleService implements IModuleService, PostLoadAware {
 		TradeStrategy strategy = resolveComponent(strategyComponent);
 		Assert.isTrue(strategy.type() == md.getType(), "该策略只能用于类型为[{}]的模组", strategy.type());
 		strategy.setStoreObject(mrd.getStoreObject());
-		IModuleContext moduleCtx = null;
+		ModuleContext moduleCtx = null;
 		if(md.getUsage() == ModuleUsage.PLAYBACK) {
 			mrd = ModuleRuntimeDescription.builder()
 					.moduleName(md.getModuleName())
@@ -241,45 +281,117 @@ public class ModuleService implements IModuleService, PostLoadAware {
 			moduleCtx = new PlaybackModuleContext(strategy, md, mrd, contractMgr, moduleRepo, new BarMergerRegistry());
 		} else {
 			if(md.getType() == ModuleType.ARBITRAGE) {
-				moduleCtx = new ArbitrageModuleContext(strategy, md, mrd, contractMgr, moduleRepo, new BarMergerRegistry());
+				moduleCtx = new ArbitrageModuleContext(strategy, md, mrd, contractMgr, moduleRepo, new BarMergerRegistry(mergedBarService));
 			} else {
-				moduleCtx = new ModuleContext(strategy, md, mrd, contractMgr, moduleRepo, new BarMergerRegistry());
+				moduleCtx = new ModuleContext(strategy, md, mrd, contractMgr, moduleRepo, new BarMergerRegistry(mergedBarService), indicatorGraph);
 			}
 		}
-		moduleMgr.add(new TradeModule(md, moduleCtx, accountMgr, contractMgr));
+		TradeModule module = new TradeModule(md, moduleCtx, accountMgr, contractMgr);
+		if(md.getUsage() != ModuleUsage.PLAYBACK) {
+			// 回测模组使用内存仓库，无需合并写入
+			snapshotService.register(module);
+			moduleCtx.setSnapshotService(snapshotService);
+		}
+		moduleMgr.add(module);
 		strategy.setContext(moduleCtx);
 		log.info("模组[{}] 初始化数据起始计算日为：{}", md.getModuleName(), date);
 		
-		final IModuleContext mctx = moduleCtx;
-		if(md.getUsage() != ModuleUsage.PLAYBACK) {
-			// 只有在非回测状态下，才需要预热数据
-			for(ModuleAccountDescription mad : md.getModuleAccountSettingsDescription()) {
-				for(ContractSimpleInfo csi : mad.getBindedContracts()) {
-					IContract c = contractMgr.getContract(Identifier.of(csi.getValue()));
-					IDataSource dataSrc = c.dataSource();
-					if(dataSrc == null) {
-						log.warn("合约 [{}] 缺少数据源配置，无法加载历史数据", c.name());
-					} else {
-						DataSourceDataLoader dataLoader = new DataSourceDataLoader(dataSrc);
-						// 历史数据从数据源加载，避免本地数据有问题
-						dataLoader.loadMinutelyData(c.contract(), LocalDate.now().minusWeeks(weeksOfDataForPreparation), LocalDate.now(), 
-								bars -> {
-									List<Bar> data = bars.reversed()
-											.stream()
-											.map(bar -> bar.toBuilder().gatewayId(null).build())
-											.toList();
-									mctx.initData(data);
-								});
-						// 本地仅加载最近的数据
-						List<Bar> data = mdRepo.loadBars(c, LocalDate.now(), LocalDate.now().plusDays(3));
-						mctx.initData(data);
-					}
+		// 只有在非回测状态下，才需要预热数据
+		List<IContract> contracts = md.getUsage() == ModuleUsage.PLAYBACK ? List.of() : md.getModuleAccountSettingsDescription().stream()
+				.flatMap(mad -> mad.getBindedContracts().stream())
+				.map(csi -> contractMgr.getContract(Identifier.of(csi.getValue())))
+				.toList();
+		return new ModuleLoading(md, mrd, moduleCtx, contracts, date);
+	}
+
+	/**
+	 * 预热模组并设置启停状态
+	 * 所有模组的绑定合约按合约去重，以最早的起始日按周切片，在加载线程池中并发查询数据源；
+	 * 每个模组在所需数据就绪后各自回放，模组内仍按合约、时间的原有顺序，回放完成后才设置启停状态。
+	 * 某个合约的数据查询失败只影响绑定了该合约的模组；本地数据的批量查询失败时，改为各模组单独查询
+	 */
+	private List<CompletableFuture<LoadingTiming>> warmup(List<ModuleLoading> loadings, ExecutorService exec) {
+		long startTime = System.currentTimeMillis();
+		LocalDate today = LocalDate.now();
+		Map<IContract, LocalDate> startDateMap = new LinkedHashMap<>();
+		for(ModuleLoading loading : loadings) {
+			for(IContract c : loading.contracts()) {
+				if(Objects.nonNull(c.dataSource())) {
+					startDateMap.merge(c, loading.startDate(), (d1, d2) -> d1.isBefore(d2) ? d1 : d2);
 				}
 			}
 		}
-		
-		moduleCtx.setEnabled(mrd.isEnabled());
-		moduleCtx.onReady();
+		// 本地仅加载最近的数据，所有合约一次查询
+		Map<IContract, List<Bar>> sharedLocalBarsMap = null;
+		try {
+			sharedLocalBarsMap = startDateMap.isEmpty() ? Map.of() : mdRepo.loadBars(startDateMap.keySet(), today, today.plusDays(3));
+		} catch (Exception e) {
+			log.warn("批量加载本地K线数据失败，改为逐个模组加载", e);
+		}
+		final Map<IContract, List<Bar>> localBarsMap = sharedLocalBarsMap;
+		Map<IContract, CompletableFuture<List<Bar>>> historyMap = new HashMap<>();
+		startDateMap.forEach((c, startDate) -> historyMap.put(c, fetchHistory(c, startDate, today, exec)));
+
+		return loadings.stream()
+				.map(loading -> CompletableFuture.allOf(loading.contracts().stream()
+								.map(historyMap::get)
+								.filter(Objects::nonNull)
+								.toArray(CompletableFuture[]::new))
+						.thenApplyAsync(v -> replay(loading, historyMap, Objects.nonNull(localBarsMap) ? localBarsMap : loadLocalBars(loading, today), startTime), exec))
+				.toList();
+	}
+
+	/* 历史数据从数据源加载，避免本地数据有问题 */
+	private CompletableFuture<List<Bar>> fetchHistory(IContract c, LocalDate startDate, LocalDate endDate, ExecutorService exec) {
+		IDataSource dataSrc = c.dataSource();
+		Contract contract = c.contract();
+		List<CompletableFuture<List<Bar>>> sections = new ArrayList<>();
+		new DataLoadUtil().splitByWeek(startDate, endDate, (start, end) -> 
+			sections.add(CompletableFuture.supplyAsync(() -> dataSrc.getMinutelyData(contract, start, end), exec)));
+		return CompletableFuture.allOf(sections.toArray(CompletableFuture[]::new))
+				.thenApply(v -> {
+					List<Bar> bars = new ArrayList<>();
+					for(CompletableFuture<List<Bar>> section : sections) {
+						section.join().reversed().forEach(bar -> bars.add(bar.toBuilder().gatewayId(null).build()));
+					}
+					return bars;
+				});
+	}
+
+	private Map<IContract, List<Bar>> loadLocalBars(ModuleLoading loading, LocalDate today) {
+		List<IContract> contracts = loading.contracts().stream().filter(c -> Objects.nonNull(c.dataSource())).toList();
+		return contracts.isEmpty() ? Map.of() : mdRepo.loadBars(contracts, today, today.plusDays(3));
+	}
+
+	private LoadingTiming replay(ModuleLoading loading, Map<IContract, CompletableFuture<List<Bar>>> historyMap, Map<IContract, List<Bar>> localBarsMap, long startTime) {
+		long replayStartTime = System.currentTimeMillis();
+		ModuleContext mctx = loading.ctx();
+		int numOfBars = 0;
+		for(IContract c : loading.contracts()) {
+			CompletableFuture<List<Bar>> history = historyMap.get(c);
+			if(Objects.isNull(history)) {
+				log.warn("合约 [{}] 缺少数据源配置，无法加载历史数据", c.name());
+				continue;
+			}
+			// 同一合约按最早的起始日查询，各模组按自身的起始日截取
+			List<Bar> bars = history.join().stream().filter(bar -> !bar.tradingDay().isBefore(loading.startDate())).toList();
+			List<Bar> localBars = localBarsMap.getOrDefault(c, List.of());
+			mctx.initData(bars);
+			mctx.initData(localBars);
+			numOfBars += bars.size() + localBars.size();
+		}
+		mctx.setEnabled(loading.mrd().isEnabled());
+		mctx.onReady();
+		return new LoadingTiming(replayStartTime - startTime, System.currentTimeMillis() - replayStartTime, numOfBars);
+	}
+
+	private ExecutorService newWarmupExecutor() {
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(warmupParallelism, r -> {
+			Thread t = new Thread(r, "ModuleWarmup-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
 	}
 
 	@SuppressWarnings("unchecked")
@@ -300,7 +412,15 @@ public class ModuleService implements IModuleService, PostLoadAware {
 	}
 
 	private void unloadModule(String moduleName) {
+		IModule module = moduleMgr.get(Identifier.of(moduleName));
+		// 先停止向模组分发事件，再释放其共享的K线合成序列
 		moduleMgr.remove(Identifier.of(moduleName));
+		if(Objects.nonNull(module) && module.getModuleContext() instanceof ModuleContext mctx) {
+			mctx.release();
+		}
+		// 卸载前写入待写快照，以免重新加载时读到旧的运行时状态
+		snapshotService.flush(moduleName);
+		snapshotService.discard(moduleName);
 		moduleRepo.deleteSettingsByName(moduleName);
 	}
 
@@ -403,15 +523,37 @@ public class ModuleService implements IModuleService, PostLoadAware {
 	@Override
 	public void postLoad() {
 		log.info("开始加载模组");
+		long startTime = System.currentTimeMillis();
+		List<ModuleLoading> loadings = new ArrayList<>();
 		for(ModuleDescription md : findAllModules()) {
 			try {
 				ModuleRuntimeDescription mrd = moduleRepo.findRuntimeByName(md.getModuleName());
-				loadModule(md, mrd);
+				loadings.add(prepareModule(md, mrd));
 			} catch (Exception e) {
 				log.warn(String.format("模组 [%s] 加载失败。原因：", md.getModuleName()), e);
 			}
 		}
-		log.info("模组加载完毕");
+		ExecutorService exec = newWarmupExecutor();
+		try {
+			List<CompletableFuture<LoadingTiming>> futures = warmup(loadings, exec);
+			StringBuilder report = new StringBuilder("模组加载耗时：");
+			for(int i=0; i<loadings.size(); i++) {
+				String moduleName = loadings.get(i).md().getModuleName();
+				try {
+					LoadingTiming timing = futures.get(i).join();
+					report.append(String.format("%n  [%s] 等待数据 %d 毫秒，回放 %d 根K线 %d 毫秒", moduleName, timing.waitMillis(), timing.numOfBars(), timing.replayMillis()));
+				} catch (CompletionException e) {
+					log.warn(String.format("模组 [%s] 加载失败。原因：", moduleName), e.getCause());
+					report.append(String.format("%n  [%s] 加载失败", moduleName));
+				}
+			}
+			log.info(report.toString());
+		} catch (Exception e) {
+			log.warn("模组预热失败", e);
+		} finally {
+			exec.shutdown();
+		}
+		log.info("模组加载完毕，共耗时 {} 毫秒", System.currentTimeMillis() - startTime);
 	}
 
 }
@@ -0,0 +1,163 @@
+package org.dromara.northstar.backtest;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.ClosingPolicy;
+import org.dromara.northstar.common.constant.ModuleType;
+import org.dromara.northstar.common.constant.ModuleUsage;
+import org.dromara.northstar.common.model.ContractSimpleInfo;
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.gateway.playback.ticker.SimplePriceSimulation;
+import org.dromara.northstar.strategy.example.IndicatorExampleStrategy;
+import org.slf4j.LoggerFactory;
+
+import cn.hutool.core.bean.BeanUtil;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
+
+/**
+ * 回测引擎吞吐量测试
+ * 以 IndicatorExampleStrategy 回放指定交易日数（默认250日）的分钟K线，每根K线生成4个TICK，输出每秒回放的TICK数，
+ * 并以同样的策略与数据经 {@link PlaybackRushPipeline}（回放网关 RUSH 速度的平台事件管线）回放，输出两者的吞吐量之比
+ * 运行方式：不依赖 Spring 容器，直接执行 main 方法，可选参数为回测的交易日数与对照管线的交易日数（默认10日）
+ * @author agent
+ *
+ */
+public class BacktestEngineBenchmark {
+
+	/* 每个交易日约345根分钟K线 */
+	static final int NUM_OF_BARS_PER_DAY = 345;
+
+	public static void main(String[] args) throws Exception {
+		// 脱离 Spring 运行时没有加载 logback-spring.xml，默认配置会输出 DEBUG 日志
+		((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+		int numOfDays = args.length > 0 ? Integer.parseInt(args[0]) : 250;
+		int numOfRushDays = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		Contract contract = contract();
+		List<Bar> warmupBars = minuteBars(contract, LocalDateTime.of(2023, 3, 5, 9, 0), 5 * NUM_OF_BARS_PER_DAY, 3);
+		List<Bar> bars = minuteBars(contract, LocalDateTime.of(2024, 3, 5, 9, 0), numOfDays * NUM_OF_BARS_PER_DAY, 5);
+		List<Bar> rushBars = bars.subList(0, Math.min(bars.size(), numOfRushDays * NUM_OF_BARS_PER_DAY));
+
+		// 先完整跑一轮，让JIT完成编译
+		newEngine(contract, warmupBars).run(bars);
+		BacktestResult result = newEngine(contract, warmupBars).run(bars);
+		print("回测引擎", result);
+
+		// 对照管线跨线程分发，吞吐量低得多，只回放较少的交易日
+		BacktestResult rushResult;
+		try(PlaybackRushPipeline pipeline = new PlaybackRushPipeline(moduleDescription(contract), strategy(contract), List.of(contract), new SimplePriceSimulation(new Random(7)))) {
+			pipeline.warmup(warmupBars);
+			pipeline.run(rushBars.subList(0, rushBars.size() / 2));
+			rushResult = pipeline.run(rushBars.subList(rushBars.size() / 2, rushBars.size()));
+		}
+		print("回放网关 RUSH 管线", rushResult);
+		System.out.printf("回测引擎吞吐量为回放网关 RUSH 管线的 %.1f 倍%n", result.ticksPerSecond() / rushResult.ticksPerSecond());
+		System.exit(0);		// SimMarketHandler 的工作线程不是守护线程
+	}
+
+	private static void print(String name, BacktestResult result) {
+		System.out.printf("[%s] 回放 %d 根分钟K线，%d 个TICK，耗时 %d ms%n", name, result.numOfBars(), result.numOfTicks(),
+				TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()));
+		System.out.printf("[%s] 吞吐量 %.0f TICK/秒，平仓 %d 次%n", name, result.ticksPerSecond(), result.dealRecords().size());
+	}
+
+	static BacktestEngine newEngine(Contract contract, List<Bar> warmupBars) throws Exception {
+		BacktestEngine engine = new BacktestEngine(moduleDescription(contract), strategy(contract), List.of(contract), new SimplePriceSimulation(new Random(7)));
+		engine.warmup(warmupBars);
+		return engine;
+	}
+
+	static IndicatorExampleStrategy strategy(Contract contract) {
+		IndicatorExampleStrategy strategy = new IndicatorExampleStrategy();
+		IndicatorExampleStrategy.InitParams params = (IndicatorExampleStrategy.InitParams) strategy.getDynamicParams();
+		BeanUtil.setFieldValue(params, "indicatorSymbol", contract.unifiedSymbol());
+		strategy.initWithParams(params);
+		return strategy;
+	}
+
+	static ModuleDescription moduleDescription(Contract contract) {
+		return ModuleDescription.builder()
+				.moduleName("回测吞吐量测试")
+				.initBalance(100000)
+				.closingPolicy(ClosingPolicy.FIRST_IN_FIRST_OUT)
+				.defaultVolume(1)
+				.moduleCacheDataSize(500)
+				.numOfMinPerBar(5)
+				.type(ModuleType.SPECULATION)
+				.usage(ModuleUsage.PLAYBACK)
+				.moduleAccountSettingsDescription(List.of(ModuleAccountDescription.builder()
+						.accountGatewayId("回测账户")
+						.bindedContracts(List.of(ContractSimpleInfo.builder()
+								.unifiedSymbol(contract.unifiedSymbol())
+								.value(contract.contractId())
+								.channelType(ChannelType.PLAYBACK)
+								.build()))
+						.build()))
+				.build();
+	}
+
+	static Contract contract() {
+		ContractDefinition cd = ContractDefinition.builder()
+				.commissionFee(2)
+				.tradeTimeDef(TradeTimeDefinition.builder()
+						.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+						.build())
+				.build();
+		return Contract.builder()
+				.gatewayId(BacktestEngine.BACKTEST_GATEWAY)
+				.contractId("rb2405@SHFE@FUTURES@BACKTEST")
+				.unifiedSymbol("rb2405@SHFE@FUTURES")
+				.symbol("rb2405")
+				.exchange(ExchangeEnum.SHFE)
+				.productClass(ProductClassEnum.FUTURES)
+				.channelType(ChannelType.PLAYBACK)
+				.multiplier(10)
+				.priceTick(1)
+				.longMarginRatio(0.1)
+				.shortMarginRatio(0.1)
+				.contractDefinition(cd)
+				.tradable(true)
+				.build();
+	}
+
+	static List<Bar> minuteBars(Contract contract, LocalDateTime start, int numOfBars, long seed) {
+		Random rand = new Random(seed);
+		List<Bar> result = new ArrayList<>(numOfBars);
+		LocalDateTime time = start;
+		double price = 3500;
+		for(int i=0; i<numOfBars; i++) {
+			double open = price;
+			price += rand.nextInt(11) - 5;
+			time = time.plusMinutes(1);
+			result.add(Bar.builder()
+					.contract(contract)
+					.gatewayId(BacktestEngine.BACKTEST_GATEWAY)
+					.actionDay(time.toLocalDate())
+					.actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate())
+					.actionTimestamp(CommonUtils.localDateTimeToMills(time))
+					.openPrice(open)
+					.highPrice(Math.max(open, price) + rand.nextInt(3))
+					.lowPrice(Math.min(open, price) - rand.nextInt(3))
+					.closePrice(price)
+					.volumeDelta(1 + rand.nextInt(100))
+					.build());
+		}
+		return result;
+	}
+}
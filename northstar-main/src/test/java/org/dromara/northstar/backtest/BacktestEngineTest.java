@@ -0,0 +1,256 @@
+package org.dromara.northstar.backtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.ClosingPolicy;
+import org.dromara.northstar.common.constant.ModuleType;
+import org.dromara.northstar.common.constant.ModuleUsage;
+import org.dromara.northstar.common.event.FastEventEngine;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.ContractSimpleInfo;
+import org.dromara.northstar.common.model.GatewayDescription;
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.ModuleDealRecord;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.SubmitOrderReq;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.data.ISimAccountRepository;
+import org.dromara.northstar.gateway.IMarketCenter;
+import org.dromara.northstar.gateway.playback.ticker.SimplePriceSimulation;
+import org.dromara.northstar.gateway.sim.trade.SimGatewayAccount;
+import org.dromara.northstar.gateway.sim.trade.SimTradeGatewayLocal;
+import org.dromara.northstar.strategy.example.IndicatorExampleStrategy;
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.core.bean.BeanUtil;
+import xyz.redtorch.pb.CoreEnum.DirectionEnum;
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+import xyz.redtorch.pb.CoreEnum.OffsetFlagEnum;
+import xyz.redtorch.pb.CoreEnum.OrderPriceTypeEnum;
+import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
+
+class BacktestEngineTest {
+
+	ContractDefinition cd = ContractDefinition.builder()
+			.commissionFee(2)
+			.tradeTimeDef(TradeTimeDefinition.builder()
+					.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+					.build())
+			.build();
+
+	Contract contract = Contract.builder()
+			.gatewayId(BacktestEngine.BACKTEST_GATEWAY)
+			.contractId("rb2205@SHFE@FUTURES@BACKTEST")
+			.unifiedSymbol("rb2205@SHFE@FUTURES")
+			.symbol("rb2205")
+			.name("螺纹2205")
+			.exchange(ExchangeEnum.SHFE)
+			.productClass(ProductClassEnum.FUTURES)
+			.channelType(ChannelType.PLAYBACK)
+			.multiplier(10)
+			.priceTick(1)
+			.longMarginRatio(0.1)
+			.shortMarginRatio(0.1)
+			.contractDefinition(cd)
+			.tradable(true)
+			.build();
+
+	List<Bar> warmupBars = minuteBars(LocalDateTime.of(2024, 3, 4, 0, 0), 1440, 3);
+
+	List<Bar> bars = minuteBars(LocalDateTime.of(2024, 3, 5, 0, 0), 3 * 1440, 5);
+
+	@Test
+	void shouldReplayDeterministically() throws Exception {
+		BacktestResult result = newEngine().run(bars);
+		BacktestResult result2 = newEngine().run(bars);
+
+		assertThat(result.numOfBars()).isEqualTo(bars.size());
+		assertThat(result.numOfTicks()).isEqualTo(bars.size() * 4L);
+		assertThat(result.trades()).isNotEmpty();
+		assertThat(result.dealRecords()).isNotEmpty();
+		assertThat(signatures(result2.trades())).isEqualTo(signatures(result.trades()));
+		assertThat(result2.dealRecords().stream().map(ModuleDealRecord::getDealProfit).toList())
+			.isEqualTo(result.dealRecords().stream().map(ModuleDealRecord::getDealProfit).toList());
+		assertThat(result.trades()).allMatch(t -> t.tradeTimestamp() > warmupBars.get(warmupBars.size() - 1).actionTimestamp());
+	}
+
+	@Test
+	void shouldContinueFromPreviousRun() throws Exception {
+		BacktestResult whole = newEngine().run(bars);
+		BacktestEngine engine = newEngine();
+		engine.run(bars.subList(0, 1440));
+		BacktestResult split = engine.run(bars.subList(1440, bars.size()));
+
+		assertThat(split.numOfBars()).isEqualTo(whole.numOfBars());
+		assertThat(signatures(split.trades())).isEqualTo(signatures(whole.trades()));
+	}
+
+	/* 对照管线按回放网关的方式经事件引擎分发，等到模组处理完全部行情才返回 */
+	@Test
+	void shouldDrainPlaybackRushPipeline() throws Exception {
+		try(PlaybackRushPipeline pipeline = new PlaybackRushPipeline(moduleDescription(), strategy(), List.of(contract), new SimplePriceSimulation(new Random(7)))) {
+			pipeline.warmup(warmupBars);
+			BacktestResult result = pipeline.run(bars.subList(0, 1440));
+
+			assertThat(result.numOfBars()).isEqualTo(1440);
+			assertThat(result.numOfTicks()).isEqualTo(1440 * 4L);
+			assertThat(result.dealRecords()).isNotEmpty();
+		}
+	}
+
+	/* 同样的委托与行情，回测网关与模拟账户网关的成交与账户权益一致 */
+	@Test
+	void shouldMatchSimTradeGateway() {
+		List<Trade> simTrades = Collections.synchronizedList(new ArrayList<>());
+		FastEventEngine feEngine = mock(FastEventEngine.class);
+		doAnswer(inv -> simTrades.add(inv.getArgument(1))).when(feEngine).emitEvent(eq(NorthstarEventType.TRADE), any());
+		SimGatewayAccount simAccount = new SimGatewayAccount("模拟账户");
+		SimTradeGatewayLocal simGateway = new SimTradeGatewayLocal(feEngine, GatewayDescription.builder().gatewayId("模拟账户").build(),
+				simAccount, mock(ISimAccountRepository.class), mock(IMarketCenter.class));
+		List<Trade> backtestTrades = new ArrayList<>();
+		BacktestTradeGateway backtestGateway = new BacktestTradeGateway("模拟账户", data -> {
+			if(data instanceof Trade trade) {
+				backtestTrades.add(trade);
+			}
+		});
+		simGateway.connect();
+		try {
+			simGateway.moneyIO(100000);
+			backtestGateway.moneyIO(100000);
+			Random rand = new Random(9);
+			SimplePriceSimulation tickGenAlgo = new SimplePriceSimulation(new Random(13));
+			for(Bar bar : bars.subList(0, 600)) {
+				for(Tick tick : tickGenAlgo.generateFrom(bar).stream().map(e -> Tick.builder()
+						.contract(contract)
+						.actionDay(bar.actionDay())
+						.actionTime(CommonUtils.millsToLocalDateTime(e.timestamp()).toLocalTime())
+						.tradingDay(bar.tradingDay())
+						.actionTimestamp(e.timestamp())
+						.lastPrice(e.price())
+						.askPrice(List.of(e.askPrice0()))
+						.bidPrice(List.of(e.bidPrice0()))
+						.build()).toList()) {
+					simGateway.onTick(tick);
+					backtestGateway.onTick(tick);
+					if(rand.nextInt(4) == 0) {
+						SubmitOrderReq orderReq = randomOrder(rand, tick, backtestGateway.getAccount());
+						simGateway.submitOrder(orderReq);
+						backtestGateway.submitOrder(orderReq);
+					}
+				}
+			}
+		} finally {
+			simGateway.disconnect();
+		}
+
+		assertThat(backtestTrades).hasSizeGreaterThan(10);
+		assertThat(signatures(backtestTrades)).isEqualTo(signatures(simTrades));
+		assertThat(backtestGateway.getAccount().balance()).isEqualTo(simAccount.balance());
+		assertThat(backtestGateway.getAccount().available()).isEqualTo(simAccount.available());
+	}
+
+	private SubmitOrderReq randomOrder(Random rand, Tick tick, SimGatewayAccount account) {
+		DirectionEnum direction = rand.nextBoolean() ? DirectionEnum.D_Buy : DirectionEnum.D_Sell;
+		boolean hasPosition = account.getPositionManager().positionFields().stream()
+				.anyMatch(p -> p.position() - p.frozen() > 0 && p.positionDirection().getNumber() == (direction == DirectionEnum.D_Buy ? 3 : 2));
+		boolean anyPrice = rand.nextInt(3) == 0;
+		return SubmitOrderReq.builder()
+				.originOrderId(UUID.randomUUID().toString())
+				.contract(contract)
+				.gatewayId("模拟账户")
+				.direction(direction)
+				.offsetFlag(hasPosition && rand.nextBoolean() ? OffsetFlagEnum.OF_Close : OffsetFlagEnum.OF_Open)
+				.volume(1)
+				.price(tick.lastPrice() + (rand.nextInt(5) - 2) * contract.priceTick())
+				.orderPriceType(anyPrice ? OrderPriceTypeEnum.OPT_AnyPrice : OrderPriceTypeEnum.OPT_LimitPrice)
+				.actionTimestamp(tick.actionTimestamp())
+				.build();
+	}
+
+	private BacktestEngine newEngine() throws Exception {
+		BacktestEngine engine = new BacktestEngine(moduleDescription(), strategy(), List.of(contract), new SimplePriceSimulation(new Random(7)));
+		engine.warmup(warmupBars);
+		return engine;
+	}
+
+	private IndicatorExampleStrategy strategy() {
+		IndicatorExampleStrategy strategy = new IndicatorExampleStrategy();
+		IndicatorExampleStrategy.InitParams params = (IndicatorExampleStrategy.InitParams) strategy.getDynamicParams();
+		BeanUtil.setFieldValue(params, "indicatorSymbol", contract.unifiedSymbol());
+		strategy.initWithParams(params);
+		return strategy;
+	}
+
+	private ModuleDescription moduleDescription() {
+		return ModuleDescription.builder()
+				.moduleName("回测引擎测试")
+				.initBalance(100000)
+				.closingPolicy(ClosingPolicy.FIRST_IN_FIRST_OUT)
+				.defaultVolume(1)
+				.moduleCacheDataSize(500)
+				.numOfMinPerBar(5)
+				.type(ModuleType.SPECULATION)
+				.usage(ModuleUsage.PLAYBACK)
+				.moduleAccountSettingsDescription(List.of(ModuleAccountDescription.builder()
+						.accountGatewayId("回测账户")
+						.bindedContracts(List.of(ContractSimpleInfo.builder()
+								.unifiedSymbol(contract.unifiedSymbol())
+								.value(contract.contractId())
+								.channelType(ChannelType.PLAYBACK)
+								.build()))
+						.build()))
+				.build();
+	}
+
+	private List<String> signatures(List<Trade> trades) {
+		return trades.stream()
+				.map(t -> String.format("%d %s %s %s %d", t.tradeTimestamp(), t.direction(), t.offsetFlag(), t.price(), t.volume()))
+				.toList();
+	}
+
+	private List<Bar> minuteBars(LocalDateTime start, int numOfMinutes, long seed) {
+		Random rand = new Random(seed);
+		List<Bar> result = new ArrayList<>();
+		LocalDateTime time = start;
+		double price = 3500;
+		for(int i=0; i<numOfMinutes; i++) {
+			double open = price;
+			price += rand.nextInt(11) - 5;
+			time = time.plusMinutes(1);
+			result.add(Bar.builder()
+					.contract(contract)
+					.gatewayId(BacktestEngine.BACKTEST_GATEWAY)
+					.actionDay(time.toLocalDate())
+					.actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate())
+					.actionTimestamp(CommonUtils.localDateTimeToMills(time))
+					.openPrice(open)
+					.highPrice(Math.max(open, price) + rand.nextInt(3))
+					.lowPrice(Math.min(open, price) - rand.nextInt(3))
+					.closePrice(price)
+					.volumeDelta(1 + rand.nextInt(100))
+					.build());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,267 @@
+package org.dromara.northstar.backtest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dromara.northstar.account.AccountManager;
+import org.dromara.northstar.account.GatewayManager;
+import org.dromara.northstar.account.TradeAccount;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.GatewayUsage;
+import org.dromara.northstar.common.constant.ModuleState;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.GatewayDescription;
+import org.dromara.northstar.common.model.ModuleAccountRuntimeDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.ModuleRuntimeDescription;
+import org.dromara.northstar.common.model.SimAccountDescription;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.data.ISimAccountRepository;
+import org.dromara.northstar.event.AccountHandler;
+import org.dromara.northstar.event.DisruptorFastEventEngine;
+import org.dromara.northstar.event.DisruptorFastEventEngine.WaitStrategyEnum;
+import org.dromara.northstar.event.ModuleHandler;
+import org.dromara.northstar.event.SimMarketHandler;
+import org.dromara.northstar.gateway.playback.ticker.TickSimulationAlgorithm;
+import org.dromara.northstar.gateway.sim.trade.SimGatewayAccount;
+import org.dromara.northstar.gateway.sim.trade.SimTradeGatewayLocal;
+import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.module.PlaybackModuleContext;
+import org.dromara.northstar.module.TradeModule;
+import org.dromara.northstar.strategy.IAccount;
+import org.dromara.northstar.strategy.IModule;
+import org.dromara.northstar.strategy.IModuleContext;
+import org.dromara.northstar.strategy.TradeStrategy;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.slf4j.event.Level;
+
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * 回放网关极速（RUSH）回放的对照管线
+ * 按平台回放时的方式组装：行情按 PlaybackContext 逐帧发布到事件引擎（每帧之后 Thread.sleep(0)），事件按 InternalDispatcher 的顺序
+ * 分发给 ModuleHandler、SimMarketHandler 与 AccountHandler，模组与平台加载回测模组时一样使用 PlaybackModuleContext，委托即时成交。
+ * 只省去了历史数据的网络加载与前端推送，因此测得的吞吐量是回放网关 RUSH 速度的上限，用于与 {@link BacktestEngine} 对比
+ * @author agent
+ *
+ */
+class PlaybackRushPipeline implements AutoCloseable {
+
+	private final TickSimulationAlgorithm tickGenAlgo;
+
+	private final BacktestMarketCenter mktCenter;
+
+	private final DisruptorFastEventEngine feEngine;
+
+	private final List<SimTradeGatewayLocal> gateways = new ArrayList<>();
+
+	private final PlaybackModuleContext ctx;
+
+	private final CountingModule module;
+
+	private final BacktestModuleRepository moduleRepo = new BacktestModuleRepository();
+
+	private final String moduleName;
+
+	/**
+	 * 参数含义与 {@link BacktestEngine} 相同，策略实例不能与回测引擎共用
+	 */
+	PlaybackRushPipeline(ModuleDescription moduleDescription, TradeStrategy strategy, Collection<Contract> contracts, TickSimulationAlgorithm tickGenAlgo) throws Exception {
+		this.tickGenAlgo = tickGenAlgo;
+		this.moduleName = moduleDescription.getModuleName();
+		this.mktCenter = new BacktestMarketCenter(BacktestEngine.BACKTEST_GATEWAY, contracts);
+		this.feEngine = new DisruptorFastEventEngine(WaitStrategyEnum.BlockingWaitStrategy);
+		GatewayManager gatewayMgr = new GatewayManager();
+		AccountManager accountMgr = new AccountManager();
+		ModuleManager moduleMgr = new ModuleManager();
+		ModuleHandler moduleHandler = new ModuleHandler(moduleMgr);
+		SimMarketHandler simMarketHandler = new SimMarketHandler(gatewayMgr, accountMgr);
+		AccountHandler accountHandler = new AccountHandler(accountMgr);
+		// 与 InternalDispatcher 的分发顺序相同
+		feEngine.addHandler((event, sequence, endOfBatch) -> {
+			moduleHandler.onEvent(event);
+			simMarketHandler.onEvent(event);
+			accountHandler.onEvent(event);
+		});
+
+		Map<String, SimTradeGatewayLocal> gatewayMap = new LinkedHashMap<>();
+		moduleDescription.getModuleAccountSettingsDescription().forEach(mad -> gatewayMap.computeIfAbsent(mad.getAccountGatewayId(), accountId -> {
+			GatewayDescription gd = GatewayDescription.builder()
+					.gatewayId(accountId)
+					.gatewayUsage(GatewayUsage.TRADE)
+					.channelType(ChannelType.SIM)
+					.bindedMktGatewayId(BacktestEngine.BACKTEST_GATEWAY)
+					.build();
+			SimTradeGatewayLocal gateway = new SimTradeGatewayLocal(feEngine, gd, new SimGatewayAccount(accountId), new NoopSimAccountRepository(), mktCenter);
+			gatewayMgr.add(gateway);
+			accountMgr.add(new TradeAccount(mktCenter.getGateway(ChannelType.PLAYBACK), gateway, gd));
+			gateway.connect();
+			gateway.moneyIO((int) moduleDescription.getInitBalance());
+			return gateway;
+		}));
+		gateways.addAll(gatewayMap.values());
+
+		ModuleRuntimeDescription mrd = ModuleRuntimeDescription.builder()
+				.moduleName(moduleDescription.getModuleName())
+				.moduleState(ModuleState.EMPTY)
+				.storeObject(new JSONObject())
+				.moduleAccountRuntime(ModuleAccountRuntimeDescription.builder()
+						.initBalance(moduleDescription.getInitBalance())
+						.build())
+				.build();
+		strategy.setStoreObject(mrd.getStoreObject());
+		this.ctx = new PlaybackModuleContext(strategy, moduleDescription, mrd, mktCenter, moduleRepo, new BarMergerRegistry());
+		this.module = new CountingModule(new TradeModule(moduleDescription, ctx, accountMgr, mktCenter));
+		strategy.setContext(ctx);
+		ctx.setLogLevel(Level.WARN);
+		moduleMgr.add(module);
+	}
+
+	void warmup(List<Bar> bars) {
+		Map<Contract, List<Bar>> contractBarsMap = new LinkedHashMap<>();
+		bars.forEach(bar -> contractBarsMap.computeIfAbsent(bar.contract(), c -> new ArrayList<>()).add(bar));
+		contractBarsMap.values().forEach(ctx::initData);
+	}
+
+	/**
+	 * 按回放网关的方式发布行情，并等待模组处理完全部行情
+	 * @param bars	各合约的分钟K线
+	 * @return		平仓记录与回放统计，回测模组的成交不经过事件引擎，不作统计
+	 */
+	BacktestResult run(List<Bar> bars) throws InterruptedException {
+		if(!ctx.isReady()) {
+			ctx.onReady();
+			module.setEnabled(true);
+		}
+		List<Bar> sortedBars = bars.stream()
+				.sorted(Comparator.comparingLong(Bar::actionTimestamp))
+				.map(bar -> bar.toBuilder().gatewayId(BacktestEngine.BACKTEST_GATEWAY).channelType(ChannelType.PLAYBACK).build())
+				.toList();
+		long target = module.counter.get();
+		long numOfTicks = 0;
+		List<Tick> ticks = new ArrayList<>();
+		long startTime = System.nanoTime();
+		for(int i=0, j=0; i<sortedBars.size(); i=j) {
+			long barTime = sortedBars.get(i).actionTimestamp();
+			while(j < sortedBars.size() && sortedBars.get(j).actionTimestamp() == barTime) {
+				Bar bar = sortedBars.get(j++);
+				tickGenAlgo.generateFrom(bar).forEach(e -> ticks.add(BacktestEngine.toTick(bar, e)));
+			}
+			ticks.sort(Comparator.comparingLong(Tick::actionTimestamp));
+			// 同一时间戳的TICK为一帧，与 PlaybackContext 相同，每帧之后让出一次线程
+			for(int k=0; k<ticks.size(); k++) {
+				Tick tick = ticks.get(k);
+				mktCenter.onTick(tick);
+				feEngine.emitEvent(NorthstarEventType.TICK, tick);
+				if(k == ticks.size() - 1 || ticks.get(k + 1).actionTimestamp() != tick.actionTimestamp()) {
+					Thread.sleep(0);
+				}
+			}
+			numOfTicks += ticks.size();
+			target += ticks.size();
+			ticks.clear();
+			for(int k=i; k<j; k++) {
+				feEngine.emitEvent(NorthstarEventType.BAR, sortedBars.get(k));
+			}
+			target += j - i;
+		}
+		while(module.counter.get() < target) {
+			Thread.sleep(1);
+		}
+		long elapsedNanos = System.nanoTime() - startTime;
+		return new BacktestResult(List.of(), moduleRepo.findAllDealRecords(moduleName), numOfTicks, sortedBars.size(), elapsedNanos);
+	}
+
+	@Override
+	public void close() throws Exception {
+		gateways.forEach(SimTradeGatewayLocal::disconnect);
+		feEngine.destroy();
+	}
+
+	/* 统计模组处理完的行情事件数，用于判断回放是否结束 */
+	private static class CountingModule implements IModule {
+
+		private final IModule delegate;
+
+		private final AtomicLong counter = new AtomicLong();
+
+		CountingModule(IModule delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void onEvent(NorthstarEvent event) {
+			delegate.onEvent(event);
+			if(event.getEvent() == NorthstarEventType.TICK || event.getEvent() == NorthstarEventType.BAR) {
+				counter.incrementAndGet();
+			}
+		}
+
+		@Override
+		public String getName() {
+			return delegate.getName();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			delegate.setEnabled(enabled);
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return delegate.isEnabled();
+		}
+
+		@Override
+		public IAccount getAccount(Contract contract) {
+			return delegate.getAccount(contract);
+		}
+
+		@Override
+		public ModuleRuntimeDescription getRuntimeDescription() {
+			return delegate.getRuntimeDescription();
+		}
+
+		@Override
+		public ModuleDescription getModuleDescription() {
+			return delegate.getModuleDescription();
+		}
+
+		@Override
+		public IModuleContext getModuleContext() {
+			return delegate.getModuleContext();
+		}
+
+		@Override
+		public TradeStrategy getTradeStrategy() {
+			return delegate.getTradeStrategy();
+		}
+	}
+
+	/* 对照管线不保存模拟账户 */
+	private static class NoopSimAccountRepository implements ISimAccountRepository {
+
+		@Override
+		public void save(SimAccountDescription simAccountDescription) {
+			/* 不保存 */
+		}
+
+		@Override
+		public SimAccountDescription findById(String accountId) {
+			return null;
+		}
+
+		@Override
+		public void deleteById(String accountId) {
+			/* 不保存 */
+		}
+	}
+}
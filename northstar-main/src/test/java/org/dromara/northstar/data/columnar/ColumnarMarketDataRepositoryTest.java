@@ -0,0 +1,164 @@
+package org.dromara.northstar.data.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.gateway.IContract;
+import org.dromara.northstar.gateway.IContractManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarMarketDataRepositoryTest {
+
+	@TempDir
+	Path dir;
+
+	ColumnarMarketDataRepository repo;
+
+	IContractManager contractMgr = mock(IContractManager.class);
+
+	IContract contract = mock(IContract.class);
+
+	Contract c = Contract.builder().unifiedSymbol("rb2210@SHFE@FUTURES").build();
+
+	LocalDate date = LocalDate.of(2024, 3, 5);
+
+	@BeforeEach
+	void prepare() {
+		when(contract.contract()).thenReturn(c);
+		when(contractMgr.getContract(any(ChannelType.class), anyString())).thenReturn(contract);
+		repo = new ColumnarMarketDataRepository(dir, contractMgr);
+	}
+
+	@AfterEach
+	void cleanup() throws Exception {
+		repo.destroy();
+	}
+
+	@Test
+	void shouldReadBackWhatWasInserted() {
+		Bar bar1 = bar(date, LocalTime.of(21, 0)).toBuilder()
+				.actionTimestamp(System.currentTimeMillis())
+				.openPrice(1)
+				.highPrice(2)
+				.lowPrice(3)
+				.closePrice(4)
+				.openInterest(5)
+				.openInterestDelta(6)
+				.volume(7)
+				.volumeDelta(8)
+				.turnover(9)
+				.turnoverDelta(10)
+				.preClosePrice(11)
+				.preOpenInterest(12)
+				.preSettlePrice(13)
+				.build();
+		Bar bar2 = bar(date, LocalTime.of(21, 1));
+		Bar bar3 = bar(date, LocalTime.of(21, 2));
+
+		repo.insert(bar1);
+		repo.insertAll(List.of(bar2, bar3));
+
+		assertThat(repo.loadBars(contract, date, date.plusDays(7))).containsExactly(bar1, bar2, bar3);
+	}
+
+	@Test
+	void shouldAcceptBarsWithoutChannelType() throws Exception {
+		Bar bar1 = bar(date, LocalTime.of(21, 0)).toBuilder().gatewayId(null).channelType(null).build();
+		Bar bar2 = bar(date, LocalTime.of(21, 1)).toBuilder().gatewayId(null).channelType(null).build();
+
+		repo.insertAll(List.of(bar1, bar2));
+
+		assertThat(repo.loadBars(contract, date, date)).containsExactly(bar1, bar2);
+		repo.destroy();
+		repo = new ColumnarMarketDataRepository(dir, contractMgr);
+		assertThat(repo.loadBars(contract, date, date)).containsExactly(bar1, bar2);
+	}
+
+	@Test
+	void shouldOnlyLoadTradingDaysInRange() {
+		List<Bar> bars = new ArrayList<>();
+		for(int i=0; i<10; i++) {
+			bars.add(bar(date.plusDays(i), LocalTime.of(9, 0)));
+		}
+		repo.insertAll(bars);
+
+		assertThat(repo.loadBars(contract, date.plusDays(2), date.plusDays(4))).containsExactlyElementsOf(bars.subList(2, 5));
+	}
+
+	@Test
+	void shouldGrowAcrossBlocksAndSurviveReopen() throws Exception {
+		List<Bar> bars = new ArrayList<>();
+		LocalTime time = LocalTime.of(9, 0);
+		for(int i=0; i<BarColumnFile.BLOCK_ROWS * 2 + 10; i++) {
+			bars.add(bar(date, time.plusMinutes(i)).toBuilder().closePrice(i).volume(i).build());
+		}
+		repo.insertAll(bars.subList(0, 300));
+		repo.destroy();
+
+		repo = new ColumnarMarketDataRepository(dir, contractMgr);
+		assertThat(repo.loadBars(contract, date, date)).containsExactlyElementsOf(bars.subList(0, 300));
+		repo.insertAll(bars.subList(300, bars.size()));
+		assertThat(repo.loadBars(contract, date, date)).containsExactlyElementsOf(bars);
+	}
+
+	@Test
+	void shouldCloseFileOfPreviousTradingDay() {
+		Contract c2 = Contract.builder().unifiedSymbol("hc2210@SHFE@FUTURES").build();
+		repo.insertAll(List.of(bar(date, LocalTime.of(9, 0)), bar(date, LocalTime.of(9, 1)).toBuilder().contract(c2).build()));
+		assertThat(repo.numOfOpenFiles()).isEqualTo(2);
+
+		for(int i=1; i<10; i++) {
+			repo.insert(bar(date.plusDays(i), LocalTime.of(9, 0)));
+		}
+		// 每个合约只保留最新交易日的文件
+		assertThat(repo.numOfOpenFiles()).isEqualTo(2);
+		assertThat(repo.loadBars(contract, date, date.plusDays(9))).hasSize(10);
+	}
+
+	@Test
+	void shouldRemoveExpiredTradingDays() {
+		repo.insertAll(List.of(bar(date, LocalTime.of(9, 0)), bar(date.plusDays(1), LocalTime.of(9, 0))));
+
+		repo.removeExpiredData(CommonUtils.localDateTimeToMills(LocalDateTime.of(date, LocalTime.of(20, 30))));
+
+		assertThat(repo.loadBars(contract, date, date.plusDays(1))).containsExactly(bar(date.plusDays(1), LocalTime.of(9, 0)));
+		assertThat(Files.exists(dir.resolve(c.unifiedSymbol()).resolve("20240305.bar"))).isFalse();
+
+		repo.removeExpiredData(CommonUtils.localDateTimeToMills(LocalDateTime.of(date.plusDays(1), LocalTime.of(20, 30))));
+		assertThat(Files.exists(dir.resolve(c.unifiedSymbol()))).isFalse();
+	}
+
+	@Test
+	void shouldReturnEmptyForUnknownContract() {
+		assertThat(repo.loadBars(contract, date, date)).isEmpty();
+	}
+
+	private Bar bar(LocalDate tradingDay, LocalTime time) {
+		return Bar.builder()
+				.gatewayId("CTP")
+				.contract(c)
+				.actionDay(tradingDay)
+				.actionTime(time)
+				.tradingDay(tradingDay)
+				.channelType(ChannelType.SIM)
+				.build();
+	}
+}
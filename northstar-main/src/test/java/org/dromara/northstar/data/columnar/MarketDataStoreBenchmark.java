@@ -0,0 +1,211 @@
+package org.dromara.northstar.data.columnar;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.data.IMarketDataRepository;
+import org.dromara.northstar.data.jdbc.MarketDataRepoAdapter;
+import org.dromara.northstar.data.jdbc.MarketDataRepository;
+import org.dromara.northstar.data.jdbc.entity.BarDO;
+import org.dromara.northstar.gateway.IContract;
+import org.dromara.northstar.gateway.IContractManager;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import jakarta.persistence.EntityManagerFactory;
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
+
+/**
+ * 本地行情加载基准测试
+ * 100个合约 × 30个交易日（每日240根分钟K线），对比H2数据库实现与列式文件实现加载全部合约的耗时
+ * 运行方式：直接执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class MarketDataStoreBenchmark {
+
+	static final int NUM_OF_CONTRACTS = 100;
+	static final int NUM_OF_DAYS = 30;
+	static final int BARS_PER_DAY = 240;
+
+	static final LocalDate START = LocalDate.of(2024, 1, 1);
+	static final LocalDate END = START.plusDays(NUM_OF_DAYS - 1L);
+
+	List<IContract> contracts = new ArrayList<>();
+
+	LocalContainerEntityManagerFactoryBean emfBean;
+
+	IMarketDataRepository jdbcRepo;
+
+	TransactionTemplate tx;
+
+	ColumnarMarketDataRepository columnarRepo;
+
+	Path dir;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Map<String, IContract> contractMap = new HashMap<>();
+		for(int i=0; i<NUM_OF_CONTRACTS; i++) {
+			Contract c = Contract.builder().unifiedSymbol(String.format("c%03d@SHFE@FUTURES", i)).gatewayId("CTP").channelType(ChannelType.CTP).build();
+			IContract contract = mock(IContract.class, withSettings().stubOnly());
+			when(contract.contract()).thenReturn(c);
+			contracts.add(contract);
+			contractMap.put(c.unifiedSymbol(), contract);
+		}
+		IContractManager contractMgr = new IContractManager() {
+			@Override
+			public IContract getContract(ChannelType channelType, String symbol) {
+				return contractMap.get(symbol);
+			}
+			@Override
+			public IContract getContract(Identifier identifier) {
+				throw new UnsupportedOperationException();
+			}
+			@Override
+			public List<IContract> getContracts(String gatewayId) {
+				throw new UnsupportedOperationException();
+			}
+			@Override
+			public List<IContract> getContracts(ChannelType channelType) {
+				throw new UnsupportedOperationException();
+			}
+			@Override
+			public Optional<ContractDefinition> getDefinition(ExchangeEnum exchange, ProductClassEnum productClass, String unifiedSymbol) {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+		ds.setUser("sa");
+		emfBean = new LocalContainerEntityManagerFactoryBean();
+		emfBean.setDataSource(ds);
+		emfBean.setPackagesToScan(BarDO.class.getPackageName());
+		emfBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		emfBean.setJpaPropertyMap(Map.of(
+				"hibernate.hbm2ddl.auto", "create",
+				"hibernate.jdbc.batch_size", "100",
+				"hibernate.order_inserts", "true"));
+		emfBean.afterPropertiesSet();
+		EntityManagerFactory emf = emfBean.getObject();
+		MarketDataRepository delegate = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(emf)).getRepository(MarketDataRepository.class);
+		tx = new TransactionTemplate(new JpaTransactionManager(emf));
+		jdbcRepo = new MarketDataRepoAdapter(delegate, contractMgr);
+
+		dir = Files.createTempDirectory("bars");
+		columnarRepo = new ColumnarMarketDataRepository(dir, contractMgr);
+
+		for(IContract contract : contracts) {
+			for(LocalDate day = START; !day.isAfter(END); day = day.plusDays(1)) {
+				List<Bar> bars = barsOf(contract.contract(), day);
+				tx.executeWithoutResult(status -> jdbcRepo.insertAll(bars));
+				columnarRepo.insertAll(bars);
+			}
+		}
+		// 关闭后重新打开，读取时走只读映射
+		columnarRepo.destroy();
+		columnarRepo = new ColumnarMarketDataRepository(dir, contractMgr);
+	}
+
+	private static List<Bar> barsOf(Contract c, LocalDate day) {
+		List<Bar> bars = new ArrayList<>(BARS_PER_DAY);
+		LocalTime time = LocalTime.of(9, 0);
+		double price = 3500;
+		for(int i=0; i<BARS_PER_DAY; i++, time = time.plusMinutes(1)) {
+			price += (i % 7) - 3;
+			bars.add(Bar.builder()
+					.gatewayId("CTP")
+					.contract(c)
+					.actionDay(day)
+					.actionTime(time)
+					.tradingDay(day)
+					.actionTimestamp(day.atTime(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+					.openPrice(price)
+					.highPrice(price + 2)
+					.lowPrice(price - 2)
+					.closePrice(price + 1)
+					.volume(1000L * i)
+					.volumeDelta(1000)
+					.openInterest(100000 + i)
+					.openInterestDelta(1)
+					.turnover(3.5e7 * i)
+					.turnoverDelta(3.5e7)
+					.channelType(ChannelType.CTP)
+					.build());
+		}
+		return bars;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		columnarRepo.destroy();
+		emfBean.destroy();
+		FileSystemUtils.deleteRecursively(dir);
+	}
+
+	@Benchmark
+	public void jdbc(Blackhole bh) {
+		// 生产环境中由 @Transactional 代理开启只读事务
+		for(IContract contract : contracts) {
+			bh.consume(tx.execute(status -> jdbcRepo.loadBars(contract, START, END)));
+		}
+	}
+
+	@Benchmark
+	public void columnar(Blackhole bh) {
+		for(IContract contract : contracts) {
+			bh.consume(columnarRepo.loadBars(contract, START, END));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(MarketDataStoreBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -9,6 +9,8 @@ import static org.mockito.Mockito.when;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.dromara.northstar.common.IDataSource;
 import org.dromara.northstar.common.constant.ChannelType;
@@ -101,4 +103,64 @@ class MarketDataRepoAdapterTest {
 		assertThat(results.get(2)).isEqualTo(bar3);
 	}
 
+	@Test
+	void testInsertAll() {
+		IContract contract = mock(IContract.class);
+		when(contract.contract()).thenReturn(c);
+
+		repo.insertAll(List.of(bar1, bar2, bar3));
+
+		List<Bar> results = repo.loadBars(contract, LocalDate.now(), LocalDate.now().plusDays(7));
+		assertThat(results).containsExactly(bar1, bar2, bar3);
+	}
+
+	@Test
+	void testRemoveExpiredData() {
+		IContract contract = mock(IContract.class);
+		when(contract.contract()).thenReturn(c);
+
+		repo.insertAll(List.of(bar1, bar2, bar3));
+		repo.removeExpiredData(System.currentTimeMillis());
+		assertThat(repo.loadBars(contract, LocalDate.now(), LocalDate.now().plusDays(7))).hasSize(3);
+
+		repo.removeExpiredData(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(2));
+		assertThat(repo.loadBars(contract, LocalDate.now(), LocalDate.now().plusDays(7))).isEmpty();
+	}
+
+	@Test
+	void testLoadBarsInRangeOrderedByTradingDay() {
+		IContract contract = mock(IContract.class);
+		when(contract.contract()).thenReturn(c);
+		Bar nextDayBar = bar1.toBuilder().tradingDay(date.plusDays(1)).build();
+		Bar outOfRangeBar = bar1.toBuilder().tradingDay(date.plusDays(9)).build();
+
+		repo.insertAll(List.of(nextDayBar, outOfRangeBar, bar1, bar2));
+
+		assertThat(repo.loadBars(contract, LocalDate.now(), LocalDate.now().plusDays(7))).containsExactly(bar1, bar2, nextDayBar);
+	}
+
+	@Test
+	void testLoadBarsOfMultipleContracts() {
+		Contract c2 = Contract.builder().unifiedSymbol("hc2210@SHFE@FUTURES").build();
+		IContract contract = mock(IContract.class);
+		IContract contract2 = mock(IContract.class);
+		IContract contract3 = mock(IContract.class);
+		when(contract.contract()).thenReturn(c);
+		when(contract2.contract()).thenReturn(c2);
+		when(contract3.contract()).thenReturn(Contract.builder().unifiedSymbol("i2209@DCE@FUTURES").build());
+		IContractManager contractMgr = mock(IContractManager.class);
+		when(contractMgr.getContract(ChannelType.SIM, c.unifiedSymbol())).thenReturn(contract);
+		when(contractMgr.getContract(ChannelType.SIM, c2.unifiedSymbol())).thenReturn(contract2);
+		repo = new MarketDataRepoAdapter(delegate, contractMgr);
+		Bar hcBar = bar2.toBuilder().contract(c2).build();
+
+		repo.insertAll(List.of(bar1, hcBar, bar2));
+
+		Map<IContract, List<Bar>> resultMap = repo.loadBars(List.of(contract, contract2, contract3), LocalDate.now(), LocalDate.now().plusDays(7));
+		assertThat(resultMap.keySet()).containsExactly(contract, contract2, contract3);
+		assertThat(resultMap.get(contract)).containsExactly(bar1, bar2);
+		assertThat(resultMap.get(contract2)).containsExactly(hcBar);
+		assertThat(resultMap.get(contract3)).isEmpty();
+	}
+
 }
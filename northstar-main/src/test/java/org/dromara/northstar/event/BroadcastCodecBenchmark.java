@@ -0,0 +1,107 @@
+package org.dromara.northstar.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cn.hutool.core.codec.Base64;
+
+/**
+ * 推送编码基准测试
+ * 模拟1000个已订阅合约的一次推送节拍：对比 BASE64 文本帧与长度前缀二进制帧的编码耗时，并打印每个节拍的字节数（含TICK增量帧）
+ * 运行方式：直接执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastCodecBenchmark {
+
+	private static final int NUM_OF_CONTRACTS = 1000;
+
+	List<Tick> ticks = new ArrayList<>();
+
+	/* protobuf编码两种方式相同，基准只比较其后的帧编码开销 */
+	List<byte[]> messages = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void setup() {
+		for(int i=0; i<NUM_OF_CONTRACTS; i++) {
+			Contract c = Contract.builder().unifiedSymbol("c" + i + "2405@SHFE@FUTURES").contractId("c" + i + "2405@SHFE@FUTURES@CTP").gatewayId("CTP").priceTick(1).build();
+			ticks.add(tickOf(c, 3000 + i, 123456, 10, 0));
+		}
+		ticks.forEach(t -> messages.add(t.toTickField().toByteArray()));
+	}
+
+	private static Tick tickOf(Contract c, double p, long volume, int bidVolume, long timeOffset) {
+		LocalDate today = LocalDate.now();
+		return Tick.builder().contract(c).gatewayId("CTP").channelType(ChannelType.CTP).type(TickType.MARKET_TICK)
+				.actionDay(today).tradingDay(today).actionTime(LocalTime.now()).actionTimestamp(System.currentTimeMillis() + timeOffset)
+				.lastPrice(p).openPrice(p - 10).highPrice(p + 20).lowPrice(p - 20).preClosePrice(p - 5).preSettlePrice(p - 6)
+				.upperLimit(p * 1.1).lowerLimit(p * 0.9).volume(volume).volumeDelta(12).openInterest(volume + 111111).openInterestDelta(3)
+				.turnover(volume * 10000D).turnoverDelta(4.5e5)
+				.bidPrice(List.of(p - 1, p - 2, p - 3, p - 4, p - 5)).askPrice(List.of(p + 1, p + 2, p + 3, p + 4, p + 5))
+				.bidVolume(List.of(bidVolume, 20, 30, 40, 50)).askVolume(List.of(11, 21, 31, 41, 51))
+				.build();
+	}
+
+	@Benchmark
+	public void base64Text(Blackhole bh) {
+		for(byte[] msg : messages) {
+			bh.consume(Base64.encode(msg));
+		}
+	}
+
+	@Benchmark
+	public void binary(Blackhole bh) {
+		for(byte[] msg : messages) {
+			bh.consume(BroadcastHandler.pack(List.of(msg)));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		BroadcastCodecBenchmark bm = new BroadcastCodecBenchmark();
+		bm.setup();
+		long textBytes = 0;
+		long binaryBytes = 0;
+		for(byte[] bytes : bm.messages) {
+			textBytes += Base64.encode(bytes).length();
+			binaryBytes += BroadcastHandler.pack(List.of(bytes)).length;
+		}
+		// 增量帧：先推送快照，再推送每个合约价格、成交量、持仓量、成交额以及一档盘口均有变化的TICK
+		TickDeltaSession session = new TickDeltaSession(Long.MAX_VALUE);
+		for(Tick t : bm.ticks) {
+			session.join(t.contract().unifiedSymbol(), t);
+		}
+		session.drain(0);
+		for(Tick t : bm.ticks) {
+			session.stage(t.contract().unifiedSymbol(), tickOf(t.contract(), t.lastPrice() + 1, t.volume() + 12, 12, 500));
+		}
+		int deltaBytes = session.drain(1).deltas().length;
+		System.out.printf("每个节拍负载字节数（%d个合约）：BASE64=%d，BINARY=%d，DELTA=%d%n", NUM_OF_CONTRACTS, textBytes, binaryBytes, deltaBytes);
+		new Runner(new OptionsBuilder().include(BroadcastCodecBenchmark.class.getSimpleName()).build()).run();
+	}
+}
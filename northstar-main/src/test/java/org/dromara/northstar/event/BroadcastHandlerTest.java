@@ -0,0 +1,150 @@
+package org.dromara.northstar.event;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.core.Account;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.corundumstudio.socketio.BroadcastOperations;
+import com.corundumstudio.socketio.HandshakeData;
+import com.corundumstudio.socketio.SocketIOClient;
+import com.corundumstudio.socketio.SocketIOServer;
+
+import cn.hutool.core.codec.Base64;
+
+class BroadcastHandlerTest {
+
+	SocketIOServer server = mock(SocketIOServer.class);
+	BroadcastOperations rbRoom = mock(BroadcastOperations.class);
+	BroadcastOperations hcRoom = mock(BroadcastOperations.class);
+
+	Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").gatewayId("CTP").build();
+	Contract hc = Contract.builder().unifiedSymbol("hc2405@SHFE@FUTURES").gatewayId("CTP").build();
+
+	BroadcastHandler handler;
+
+	SocketIOClient client = mockClient(null);
+	SocketIOClient binaryClient = mockClient("binary");
+
+	@BeforeEach
+	void prepare() throws Exception {
+		when(server.getRoomOperations("rb2405@SHFE@FUTURES@CTP")).thenReturn(rbRoom);
+		when(server.getRoomOperations("hc2405@SHFE@FUTURES@CTP")).thenReturn(hcRoom);
+		when(server.getAllClients()).thenReturn(List.of(client));
+		when(rbRoom.getClients()).thenReturn(List.of(client));
+		when(hcRoom.getClients()).thenReturn(List.of());
+		// 使用很长的节拍，由测试手动触发推送
+		handler = new BroadcastHandler(server, 60000, 30000);
+		handler.afterPropertiesSet();
+		handler.onConnect(client);
+		handler.onConnect(binaryClient);
+	}
+
+	@AfterEach
+	void cleanup() throws Exception {
+		handler.destroy();
+	}
+
+	@Test
+	void shouldMergeTicksOfRoomKeepingHighLowAndDeltas() {
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(rb, 3, 1)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(rb, 5, 2)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(rb, 4, 3)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(rb, 1, 4)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(rb, 2, 5)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, tick(hc, 3, 1)));
+		handler.flush();
+
+		// 最高价5的TICK并入了价格3的增量，最低价1的TICK并入了价格4的增量
+		verify(client).sendEvent("TICK", Base64.encode(tick(rb, 5, 3).toTickField().toByteArray()));
+		verify(client).sendEvent("TICK", Base64.encode(tick(rb, 1, 7).toTickField().toByteArray()));
+		verify(client).sendEvent("TICK", Base64.encode(tick(rb, 2, 5).toTickField().toByteArray()));
+
+		handler.flush();
+		// hc房间没有订阅者，两次推送合计只有rb房间的三条消息，每条消息单独一帧
+		verify(client, times(3)).sendEvent(eq("TICK"), any(Object[].class));
+	}
+
+	@Test
+	void shouldBatchBarsOfRoomInOneFrame() {
+		Bar b1 = bar(rb, 1);
+		Bar b2 = bar(rb, 2);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, b1));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, b2));
+		handler.flush();
+
+		verify(client).sendEvent("BAR", Base64.encode(b1.toBarField().toByteArray()));
+		verify(client).sendEvent("BAR", Base64.encode(b2.toBarField().toByteArray()));
+	}
+
+	@Test
+	void shouldSendLatestAccountSnapshot() {
+		Account a1 = Account.builder().gatewayId("acc").balance(1).build();
+		Account a2 = Account.builder().gatewayId("acc").balance(2).build();
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.ACCOUNT, a1));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.ACCOUNT, a2));
+		handler.flush();
+
+		verify(client).sendEvent("ACCOUNT", Base64.encode(a2.toAccountField().toByteArray()));
+	}
+
+	@Test
+	void shouldSendLengthPrefixedBinaryToNegotiatedClient() {
+		when(rbRoom.getClients()).thenReturn(List.of(client, binaryClient));
+		Bar b1 = bar(rb, 1);
+		Bar b2 = bar(rb, 2);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, b1));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, b2));
+		handler.flush();
+
+		byte[] m1 = b1.toBarField().toByteArray();
+		byte[] m2 = b2.toBarField().toByteArray();
+		byte[] expected = ByteBuffer.allocate(8 + m1.length + m2.length).putInt(m1.length).put(m1).putInt(m2.length).put(m2).array();
+		verify(binaryClient).sendEvent("BAR", expected);
+		verify(client).sendEvent("BAR", Base64.encode(m1));
+		verify(client).sendEvent("BAR", Base64.encode(m2));
+	}
+
+	private SocketIOClient mockClient(String codec) {
+		SocketIOClient c = mock(SocketIOClient.class);
+		HandshakeData hd = mock(HandshakeData.class);
+		when(hd.getSingleUrlParam("codec")).thenReturn(codec);
+		when(c.getHandshakeData()).thenReturn(hd);
+		when(c.getSessionId()).thenReturn(UUID.randomUUID());
+		return c;
+	}
+
+	private Tick tick(Contract c, double price, long volumeDelta) {
+		return Tick.builder().contract(c).gatewayId("CTP").lastPrice(price).volumeDelta(volumeDelta).openInterestDelta(-volumeDelta)
+				.actionDay(LocalDate.of(2024, 1, 2)).actionTime(LocalTime.of(9, 0)).tradingDay(LocalDate.of(2024, 1, 2))
+				.bidPrice(List.of(price)).askPrice(List.of(price)).bidVolume(List.of(1)).askVolume(List.of(1))
+				.channelType(ChannelType.CTP)
+				.build();
+	}
+
+	private Bar bar(Contract c, long timestamp) {
+		return Bar.builder().contract(c).gatewayId("CTP").actionTimestamp(timestamp)
+				.actionDay(LocalDate.now()).actionTime(LocalTime.now()).tradingDay(LocalDate.now())
+				.channelType(ChannelType.CTP)
+				.build();
+	}
+}
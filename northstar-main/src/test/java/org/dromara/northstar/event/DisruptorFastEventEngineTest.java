@@ -0,0 +1,320 @@
+package org.dromara.northstar.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.event.FastEventEngine.NorthstarEventDispatcher;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.model.core.Account;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.event.DisruptorFastEventEngine.RingSpec;
+import org.dromara.northstar.event.DisruptorFastEventEngine.WaitStrategyEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DisruptorFastEventEngineTest {
+
+	DisruptorFastEventEngine engine;
+
+	@AfterEach
+	void cleanup() throws Exception {
+		if(engine != null) {
+			engine.destroy();
+		}
+	}
+
+	private List<RingSpec> threeRings() {
+		return List.of(
+				RingSpec.builder().name("market").waitStrategy(WaitStrategyEnum.YieldingWaitStrategy).bufferSize(1024).eventTypes(Set.of(NorthstarEventType.TICK, NorthstarEventType.BAR)).build(),
+				RingSpec.builder().name("trade").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of(NorthstarEventType.ORDER, NorthstarEventType.TRADE)).build(),
+				RingSpec.builder().name("default").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of()).build());
+	}
+
+	@Test
+	void testTradeNotBlockedByMarketData() throws Exception {
+		engine = new DisruptorFastEventEngine(threeRings());
+		CountDownLatch tickBlocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch tradeArrived = new CountDownLatch(1);
+		CountDownLatch noticeArrived = new CountDownLatch(1);
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				switch(event.getEvent()) {
+				case TICK -> {
+					tickBlocked.countDown();
+					release.await();
+				}
+				case TRADE -> tradeArrived.countDown();
+				case NOTICE -> noticeArrived.countDown();
+				default -> {}
+				}
+			}
+		});
+
+		engine.emitEvent(NorthstarEventType.TICK, "tick");
+		assertThat(tickBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+		engine.emitEvent(NorthstarEventType.TRADE, "trade");
+		engine.emitEvent(NorthstarEventType.NOTICE, "notice");
+
+		// 行情消费线程阻塞期间，成交与其余事件仍能被及时处理
+		assertThat(tradeArrived.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(noticeArrived.await(5, TimeUnit.SECONDS)).isTrue();
+		release.countDown();
+	}
+
+	@Test
+	void testOrderPreservedPerType() throws Exception {
+		engine = new DisruptorFastEventEngine(threeRings());
+		int total = 5000;
+		List<Object> orders = new CopyOnWriteArrayList<>();
+		List<Object> ticks = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(total * 2);
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				if(event.getEvent() == NorthstarEventType.ORDER) {
+					orders.add(event.getData());
+				} else if(event.getEvent() == NorthstarEventType.TICK) {
+					ticks.add(event.getData());
+				}
+				latch.countDown();
+			}
+		});
+
+		for(int i=0; i<total; i++) {
+			engine.emitEvent(NorthstarEventType.TICK, i);
+			engine.emitEvent(NorthstarEventType.ORDER, i);
+		}
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(orders).hasSize(total).isSortedAccordingTo((a, b) -> Integer.compare((int) a, (int) b));
+		assertThat(ticks).hasSize(total).isSortedAccordingTo((a, b) -> Integer.compare((int) a, (int) b));
+	}
+
+	@Test
+	void testTicksConflatedWhenRingIsCongested() throws Exception {
+		engine = new DisruptorFastEventEngine(List.of(
+				RingSpec.builder().name("market").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64)
+					.eventTypes(Set.of(NorthstarEventType.TICK)).conflateTypes(Set.of(NorthstarEventType.TICK)).build(),
+				RingSpec.builder().name("default").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of()).build()));
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		engine.bindTo(registry);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Tick> received = new CopyOnWriteArrayList<>();
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				release.await();
+				received.add((Tick) event.getData());
+			}
+		});
+
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+		Contract hc = Contract.builder().unifiedSymbol("hc2405@SHFE@FUTURES").contractId("hc2405@SHFE@FUTURES@CTP").build();
+		int total = 1000;
+		// 消费者阻塞期间，生产者仍然不会被阻塞
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			for(int i=0; i<total; i++) {
+				engine.emitEvent(NorthstarEventType.TICK, Tick.builder().contract(i % 2 == 0 ? rb : hc).lastPrice(i).build());
+			}
+		});
+		assertThat(registry.get("northstar.engine.handler.lag").tag("ring", "market").gauge().value()).isPositive();
+		release.countDown();
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.size() > 0 && received.get(received.size() - 1).lastPrice() >= total - 2);
+		Thread.sleep(50);
+		assertThat(received.size()).isLessThan(total);
+		for(Contract c : List.of(rb, hc)) {
+			List<Double> prices = received.stream().filter(t -> t.contract().equals(c)).map(Tick::lastPrice).toList();
+			assertThat(prices).isSorted();
+			assertThat(prices.get(prices.size() - 1)).isGreaterThanOrEqualTo(total - 2);
+		}
+		assertThat(registry.get("northstar.engine.conflated").functionCounter().count()).isEqualTo(total - received.size());
+		assertThat(registry.get("northstar.engine.events").tag("type", "TICK").functionCounter().count()).isEqualTo(total);
+		// 发布耗时为抽样记录
+		assertThat(registry.get("northstar.engine.publish.latency").tag("type", "TICK").timer().count()).isBetween(1L, (long) total);
+	}
+
+	private DisruptorFastEventEngine conflatingEngine() throws Exception {
+		return new DisruptorFastEventEngine(List.of(
+				RingSpec.builder().name("market").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64)
+					.eventTypes(Set.of(NorthstarEventType.TICK, NorthstarEventType.BAR)).conflateTypes(Set.of(NorthstarEventType.TICK)).build(),
+				RingSpec.builder().name("trade").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64)
+					.eventTypes(Set.of(NorthstarEventType.TRADE, NorthstarEventType.ACCOUNT)).conflateTypes(Set.of(NorthstarEventType.ACCOUNT)).build(),
+				RingSpec.builder().name("default").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of()).build()));
+	}
+
+	@Test
+	void testPlaybackTicksNeverConflated() throws Exception {
+		engine = conflatingEngine();
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@PLAYBACK").build();
+		int total = 500;
+		List<Object> received = new CopyOnWriteArrayList<>();
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				Thread.sleep(0, 100_000);
+				received.add(event.getData());
+			}
+		});
+
+		for(int i=0; i<total; i++) {
+			engine.emitEvent(NorthstarEventType.TICK, Tick.builder().contract(rb).channelType(ChannelType.PLAYBACK).lastPrice(i).build());
+		}
+
+		Awaitility.await().atMost(Duration.ofSeconds(10)).until(() -> received.size() == total);
+		assertThat(received.stream().map(t -> ((Tick) t).lastPrice()).toList()).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void testSimulatedAccountsNeverConflated() throws Exception {
+		engine = conflatingEngine();
+		engine.setSimulatedGateway("模拟账户"::equals);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Object> received = new CopyOnWriteArrayList<>();
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				release.await();
+				received.add(event.getData());
+			}
+		});
+
+		int total = 200;
+		Thread producer = new Thread(() -> {
+			for(int i=0; i<total; i++) {
+				engine.emitEvent(NorthstarEventType.ACCOUNT, Account.builder().gatewayId("模拟账户").balance(i).build());
+			}
+		});
+		producer.start();
+		// 模拟账户的快照不合并，队列满时生产者等待
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> producer.getState() == Thread.State.TIMED_WAITING || producer.getState() == Thread.State.WAITING);
+		release.countDown();
+		producer.join(5000);
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == total);
+	}
+
+	@Test
+	void testHeldTickFlushedBeforeBar() throws Exception {
+		engine = conflatingEngine();
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+		CountDownLatch release = new CountDownLatch(1);
+		List<NorthstarEvent> received = new CopyOnWriteArrayList<>();
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				release.await();
+				received.add(new NorthstarEvent(event.getEvent(), event.getData()));
+			}
+		});
+
+		int total = 200;
+		for(int i=0; i<total; i++) {
+			engine.emitEvent(NorthstarEventType.TICK, Tick.builder().contract(rb).lastPrice(i).build());
+		}
+		engine.emitEvent(NorthstarEventType.BAR, Bar.builder().contract(rb).closePrice(total - 1).build());
+		release.countDown();
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.stream().anyMatch(e -> e.getEvent() == NorthstarEventType.BAR));
+		Thread.sleep(50);
+		// K线之前必须已收到最新的TICK
+		NorthstarEvent last = received.get(received.size() - 1);
+		NorthstarEvent beforeLast = received.get(received.size() - 2);
+		assertThat(last.getEvent()).isEqualTo(NorthstarEventType.BAR);
+		assertThat(((Tick) beforeLast.getData()).lastPrice()).isEqualTo(total - 1);
+	}
+
+	@Test
+	void testHeldAccountFlushedBeforeTrade() throws Exception {
+		engine = conflatingEngine();
+		CountDownLatch release = new CountDownLatch(1);
+		List<NorthstarEvent> received = new CopyOnWriteArrayList<>();
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				release.await();
+				received.add(new NorthstarEvent(event.getEvent(), event.getData()));
+			}
+		});
+
+		int total = 200;
+		for(int i=0; i<total; i++) {
+			engine.emitEvent(NorthstarEventType.ACCOUNT, Account.builder().gatewayId("实盘账户").balance(i).build());
+		}
+		engine.emitEvent(NorthstarEventType.TRADE, Trade.builder().gatewayId("实盘账户").build());
+		release.countDown();
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.stream().anyMatch(e -> e.getEvent() == NorthstarEventType.TRADE));
+		Thread.sleep(50);
+		NorthstarEvent last = received.get(received.size() - 1);
+		NorthstarEvent beforeLast = received.get(received.size() - 2);
+		assertThat(last.getEvent()).isEqualTo(NorthstarEventType.TRADE);
+		assertThat(((Account) beforeLast.getData()).balance()).isEqualTo(total - 1);
+	}
+
+	@Test
+	void testEmitTickThroughSlot() throws Exception {
+		engine = new DisruptorFastEventEngine(threeRings());
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+		List<Tick> ticks = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+		engine.addHandler(new NorthstarEventDispatcher() {
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				if(event.getData() instanceof TickSlot slot) {
+					ticks.add(slot.toTick());
+					latch.countDown();
+				}
+			}
+		});
+
+		for(int i=0; i<3; i++) {
+			engine.emitTick((slot, price) -> slot.contract(rb).lastPrice(price).level(0, price - 1, 1, price + 1, 2), 3500.0 + i);
+		}
+
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(ticks).extracting(Tick::lastPrice).containsExactly(3500.0, 3501.0, 3502.0);
+		assertThat(ticks.get(2).bidPrice()).containsExactly(3501.0);
+	}
+
+	@Test
+	void testInvalidSpecs() {
+		RingSpec market = RingSpec.builder().name("market").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of(NorthstarEventType.TICK)).build();
+		RingSpec dup = RingSpec.builder().name("dup").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of(NorthstarEventType.TICK)).build();
+		RingSpec def = RingSpec.builder().name("default").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64).eventTypes(Set.of()).build();
+
+		assertThatThrownBy(() -> new DisruptorFastEventEngine(List.of(market))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new DisruptorFastEventEngine(List.of(market, dup, def))).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new DisruptorFastEventEngine(List.of(def, def))).isInstanceOf(IllegalArgumentException.class);
+		RingSpec conflateOrder = RingSpec.builder().name("trade").waitStrategy(WaitStrategyEnum.BlockingWaitStrategy).bufferSize(64)
+				.eventTypes(Set.of(NorthstarEventType.ORDER)).conflateTypes(Set.of(NorthstarEventType.ORDER)).build();
+		assertThatThrownBy(() -> new DisruptorFastEventEngine(List.of(conflateOrder, def))).isInstanceOf(IllegalArgumentException.class);
+	}
+}
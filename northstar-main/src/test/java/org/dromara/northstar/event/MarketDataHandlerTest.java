@@ -0,0 +1,137 @@
+package org.dromara.northstar.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.data.IMarketDataRepository;
+import org.dromara.northstar.gateway.IContract;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MarketDataHandlerTest {
+
+	Contract c = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").build();
+
+	/* 记录每次批量写入的仓库 */
+	class FakeRepo implements IMarketDataRepository {
+
+		List<List<Bar>> batches = new CopyOnWriteArrayList<>();
+
+		CountDownLatch blocker = new CountDownLatch(0);
+
+		@Override
+		public void insert(Bar bar) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void insertAll(List<Bar> bars) {
+			try {
+				blocker.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			batches.add(new ArrayList<>(bars));
+		}
+
+		@Override
+		public List<Bar> loadBars(IContract contract, LocalDate startDate, LocalDate endDate) {
+			return List.of();
+		}
+
+		@Override
+		public List<Bar> loadDailyBars(IContract contract, LocalDate startDate, LocalDate endDate) {
+			return List.of();
+		}
+
+		int total() {
+			return batches.stream().mapToInt(List::size).sum();
+		}
+	}
+
+	FakeRepo repo = new FakeRepo();
+
+	MarketDataHandler handler;
+
+	@AfterEach
+	void cleanup() throws Exception {
+		handler.destroy();
+	}
+
+	@Test
+	void shouldWriteBurstInBatches() throws Exception {
+		handler = new MarketDataHandler(repo, 8192, 500, 200);
+		handler.afterPropertiesSet();
+		for(int i=0; i<1200; i++) {
+			handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.CTP)));
+		}
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> repo.total() == 1200);
+		assertThat(repo.batches).hasSizeLessThanOrEqualTo(4).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(500));
+	}
+
+	@Test
+	void shouldFlushSmallBatchAfterInterval() throws Exception {
+		handler = new MarketDataHandler(repo, 8192, 500, 100);
+		handler.afterPropertiesSet();
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.CTP)));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.CTP)));
+		// 模拟盘K线不持久化
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.SIM)));
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> repo.total() == 2);
+		assertThat(repo.batches).hasSize(1);
+	}
+
+	@Test
+	void shouldFlushRemainingBarsOnShutdown() throws Exception {
+		handler = new MarketDataHandler(repo, 8192, 500, TimeUnit.MINUTES.toMillis(1));
+		handler.afterPropertiesSet();
+		for(int i=0; i<10; i++) {
+			handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.CTP)));
+		}
+		handler.destroy();
+		assertThat(repo.total()).isEqualTo(10);
+	}
+
+	@Test
+	void shouldDropWhenQueueIsFull() throws Exception {
+		repo.blocker = new CountDownLatch(1);
+		handler = new MarketDataHandler(repo, 4, 1, 10);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		handler.bindTo(registry);
+		handler.afterPropertiesSet();
+		for(int i=0; i<20; i++) {
+			handler.onEvent(new NorthstarEvent(NorthstarEventType.BAR, bar(ChannelType.CTP)));
+		}
+		assertThat(registry.get("northstar.bar.writer.queue.depth").gauge().value()).isEqualTo(4);
+		assertThat(registry.get("northstar.bar.writer.dropped").functionCounter().count()).isPositive();
+		repo.blocker.countDown();
+
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> registry.get("northstar.bar.writer.queue.depth").gauge().value() == 0);
+		double dropped = registry.get("northstar.bar.writer.dropped").functionCounter().count();
+		Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> registry.get("northstar.bar.writer.written").functionCounter().count() == 20 - dropped);
+		assertThat(registry.get("northstar.bar.writer.flush.latency").timer().count()).isEqualTo(repo.batches.size());
+	}
+
+	private Bar bar(ChannelType channelType) {
+		return Bar.builder().contract(c).gatewayId("CTP").channelType(channelType)
+				.actionDay(LocalDate.now()).actionTime(LocalTime.now()).tradingDay(LocalDate.now())
+				.actionTimestamp(System.currentTimeMillis())
+				.build();
+	}
+}
@@ -0,0 +1,170 @@
+package org.dromara.northstar.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.ModuleRuntimeDescription;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.strategy.IAccount;
+import org.dromara.northstar.strategy.IModule;
+import org.dromara.northstar.strategy.IModuleContext;
+import org.dromara.northstar.strategy.TradeStrategy;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 模组事件分发基准测试
+ * 对比逐模组过滤（旧方式）与路由表分发在不同模组数量下的单TICK分发开销
+ * 运行方式：直接执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleHandlerBenchmark {
+
+	private static final int NUM_OF_CONTRACTS = 200;
+
+	@Param({"10", "60", "200"})
+	int numOfModules;
+
+	ModuleManager moduleMgr;
+	List<IModule> modules;
+	Tick[] ticks;
+	int cursor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		moduleMgr = new ModuleManager();
+		modules = new ArrayList<>();
+		Contract[] contracts = new Contract[NUM_OF_CONTRACTS];
+		ticks = new Tick[NUM_OF_CONTRACTS];
+		for(int i=0; i<NUM_OF_CONTRACTS; i++) {
+			contracts[i] = Contract.builder().unifiedSymbol("c" + i + "@SHFE@FUTURES").contractId("c" + i + "@SHFE@FUTURES@CTP").build();
+			ticks[i] = Tick.builder().contract(contracts[i]).gatewayId("CTP").build();
+		}
+		for(int i=0; i<numOfModules; i++) {
+			// 每个模组绑定两个合约
+			IModule module = new FilteringModule("m" + i, "acc" + i % 5, Set.of(contracts[i % NUM_OF_CONTRACTS], contracts[(i * 7 + 1) % NUM_OF_CONTRACTS]));
+			modules.add(module);
+			moduleMgr.add(module);
+		}
+	}
+
+	@Benchmark
+	public void broadcastAndFilter(Blackhole bh) {
+		NorthstarEvent e = new NorthstarEvent(NorthstarEventType.TICK, nextTick());
+		for(IModule module : modules) {
+			module.onEvent(e);
+		}
+		bh.consume(e);
+	}
+
+	@Benchmark
+	public void routed(Blackhole bh) {
+		Tick tick = nextTick();
+		NorthstarEvent e = new NorthstarEvent(NorthstarEventType.TICK, tick);
+		for(IModule module : moduleMgr.modulesOfContract(tick.contract())) {
+			module.onEvent(e);
+		}
+		bh.consume(e);
+	}
+
+	private Tick nextTick() {
+		cursor = (cursor + 1) % NUM_OF_CONTRACTS;
+		return ticks[cursor];
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(ModuleHandlerBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/* 模拟 TradeModule 的合约过滤逻辑 */
+	static class FilteringModule implements IModule {
+
+		final String name;
+		final Set<Contract> bindedContracts;
+		final ModuleDescription md;
+		final IModuleContext ctx = Mockito.mock(IModuleContext.class);
+		long counter;
+
+		FilteringModule(String name, String accountId, Set<Contract> bindedContracts) {
+			this.name = name;
+			this.bindedContracts = bindedContracts;
+			this.md = ModuleDescription.builder()
+					.moduleName(name)
+					.moduleAccountSettingsDescription(List.of(ModuleAccountDescription.builder().accountGatewayId(accountId).build()))
+					.build();
+			Mockito.when(ctx.bindedContracts()).thenReturn(List.copyOf(bindedContracts));
+		}
+
+		@Override
+		public synchronized void onEvent(NorthstarEvent event) {
+			if(event.getData() instanceof Tick tick && bindedContracts.contains(tick.contract())) {
+				counter++;
+			}
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public ModuleDescription getModuleDescription() {
+			return md;
+		}
+
+		@Override
+		public IModuleContext getModuleContext() {
+			return ctx;
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public IAccount getAccount(Contract contract) {
+			return null;
+		}
+
+		@Override
+		public ModuleRuntimeDescription getRuntimeDescription() {
+			return null;
+		}
+
+		@Override
+		public TradeStrategy getTradeStrategy() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package org.dromara.northstar.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.Trade;
+import org.dromara.northstar.event.ModuleEventMailbox.OverflowPolicy;
+import org.dromara.northstar.event.ModuleHandler.DispatchMode;
+import org.dromara.northstar.indicator.IndicatorGraph;
+import org.dromara.northstar.module.ModuleManager;
+import org.dromara.northstar.strategy.IModule;
+import org.dromara.northstar.strategy.IModuleContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ModuleHandlerTest {
+
+	ModuleManager moduleMgr = new ModuleManager();
+
+	IModule m1 = mock(IModule.class);
+	IModule m2 = mock(IModule.class);
+
+	@BeforeEach
+	void prepare() {
+		when(m1.getName()).thenReturn("m1");
+		when(m2.getName()).thenReturn("m2");
+		moduleMgr.add(m1);
+		moduleMgr.add(m2);
+	}
+
+	@Test
+	void testParallelDispatch() {
+		ModuleHandler handler = new ModuleHandler(moduleMgr);
+		NorthstarEvent e = new NorthstarEvent(NorthstarEventType.TICK, "data");
+		handler.onEvent(e);
+
+		verify(m1).onEvent(e);
+		verify(m2).onEvent(e);
+	}
+
+	@Test
+	void testMailboxDispatchKeepsOrderPerModule() throws InterruptedException {
+		int total = 10000;
+		List<Object> received1 = new CopyOnWriteArrayList<>();
+		List<Object> received2 = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(total * 2);
+		doAnswer(inv -> {
+			received1.add(inv.getArgument(0, NorthstarEvent.class).getData());
+			latch.countDown();
+			return null;
+		}).when(m1).onEvent(any());
+		doAnswer(inv -> {
+			received2.add(inv.getArgument(0, NorthstarEvent.class).getData());
+			latch.countDown();
+			return null;
+		}).when(m2).onEvent(any());
+
+		// 信箱满时不再阻塞投递，容量需容纳全部事件
+		ModuleHandler handler = new ModuleHandler(moduleMgr, DispatchMode.MAILBOX, 16384);
+		NorthstarEvent e = new NorthstarEvent(null, null);
+		for(int i=0; i<total; i++) {
+			// 模拟事件引擎复用事件对象
+			e.setEvent(NorthstarEventType.BAR);
+			e.setData(i);
+			handler.onEvent(e);
+		}
+
+		assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(received1).hasSize(total).isSortedAccordingTo((a, b) -> Integer.compare((int) a, (int) b));
+		assertThat(received2).hasSize(total).isSortedAccordingTo((a, b) -> Integer.compare((int) a, (int) b));
+	}
+
+	@Test
+	void testMailboxFollowsModuleChanges() {
+		ModuleHandler handler = new ModuleHandler(moduleMgr, DispatchMode.MAILBOX, 64);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TRADE, "t1"));
+		verify(m1, timeout(1000)).onEvent(any());
+		verify(m2, timeout(1000)).onEvent(any());
+
+		moduleMgr.remove(Identifier.of("m2"));
+		IModule m3 = mock(IModule.class);
+		when(m3.getName()).thenReturn("m3");
+		moduleMgr.add(m3);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TRADE, "t2"));
+
+		verify(m1, timeout(1000).times(2)).onEvent(any());
+		verify(m3, timeout(1000)).onEvent(any());
+		verify(m2, timeout(1000).times(1)).onEvent(any());
+	}
+
+	@Test
+	void testSlowModuleDoesNotBlockDispatch() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(inv -> {
+			release.await();
+			return null;
+		}).when(m1).onEvent(any());
+
+		ModuleHandler handler = new ModuleHandler(moduleMgr, DispatchMode.MAILBOX, 64, OverflowPolicy.DISABLE, new IndicatorGraph(false));
+		// 信箱已满的模组不会拖住后续投递
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			for(int i=0; i<1000; i++) {
+				handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, i));
+			}
+		});
+		release.countDown();
+
+		verify(m1, timeout(1000)).setEnabled(false);
+		verify(m2, timeout(1000).atLeast(64)).onEvent(any());
+	}
+
+	@Test
+	void testMailboxDropsOnOverflow() {
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(inv -> {
+			release.await();
+			return null;
+		}).when(m1).onEvent(any());
+		ModuleEventMailbox mailbox = new ModuleEventMailbox(m1, 8, OverflowPolicy.DROP);
+		int posted = 0;
+		for(int i=0; i<20; i++) {
+			posted += mailbox.post(NorthstarEventType.TICK, i) ? 1 : 0;
+		}
+		release.countDown();
+		mailbox.close();
+
+		assertThat(posted).isLessThan(20);
+		assertThat(mailbox.getNumOfDropped()).isEqualTo(20L - posted);
+		assertThat(mailbox.isHealthy()).isTrue();
+		verify(m1, never()).setEnabled(false);
+	}
+
+	@Test
+	void testMailboxKeepsTradeOnOverflow() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		List<Object> received = new CopyOnWriteArrayList<>();
+		doAnswer(inv -> {
+			release.await();
+			received.add(inv.getArgument(0, NorthstarEvent.class).getData());
+			return null;
+		}).when(m1).onEvent(any());
+		ModuleEventMailbox mailbox = new ModuleEventMailbox(m1, 8, OverflowPolicy.DISABLE);
+		for(int i=0; i<20; i++) {
+			mailbox.post(NorthstarEventType.TICK, i);
+		}
+		Trade trade = Trade.builder().gatewayId("acc").orderId("o1").build();
+		// 信箱已被行情占满，成交仍须送达
+		assertThat(mailbox.post(NorthstarEventType.TRADE, trade)).isTrue();
+		release.countDown();
+
+		verify(m1, timeout(1000)).onEvent(argThat(e -> e.getData() == trade));
+		assertThat(received.get(received.size() - 1)).isSameAs(trade);
+		assertThat(mailbox.getNumOfDropped()).isPositive();
+		mailbox.close();
+	}
+
+	@Test
+	void testIgnoreIrrelevantEvent() {
+		ModuleHandler handler = new ModuleHandler(moduleMgr, DispatchMode.MAILBOX, 64);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.ACCOUNT, "acc"));
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, "tick"));
+
+		verify(m1, timeout(1000).times(1)).onEvent(any());
+		verify(m2, timeout(1000).times(1)).onEvent(any());
+	}
+
+	@Test
+	void testRoutedDispatch() {
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+		Contract hc = Contract.builder().unifiedSymbol("hc2405@SHFE@FUTURES").contractId("hc2405@SHFE@FUTURES@CTP").build();
+		ModuleManager mgr = new ModuleManager();
+		IModule rbModule = mockBindedModule("rbModule", "acc1", rb);
+		IModule hcModule = mockBindedModule("hcModule", "acc2", hc);
+		mgr.add(rbModule);
+		mgr.add(hcModule);
+		ModuleHandler handler = new ModuleHandler(mgr);
+
+		NorthstarEvent tickEvent = new NorthstarEvent(NorthstarEventType.TICK, Tick.builder().contract(rb).build());
+		handler.onEvent(tickEvent);
+		verify(rbModule).onEvent(tickEvent);
+		verify(hcModule, never()).onEvent(tickEvent);
+
+		NorthstarEvent tradeEvent = new NorthstarEvent(NorthstarEventType.TRADE, Trade.builder().gatewayId("acc2").contract(rb).build());
+		handler.onEvent(tradeEvent);
+		verify(rbModule, never()).onEvent(tradeEvent);
+		verify(hcModule).onEvent(tradeEvent);
+	}
+
+	@Test
+	void testTickSlotIsCopiedOutForSubscribers() {
+		Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+		Contract hc = Contract.builder().unifiedSymbol("hc2405@SHFE@FUTURES").contractId("hc2405@SHFE@FUTURES@CTP").build();
+		ModuleManager mgr = new ModuleManager();
+		IModule rbModule = mockBindedModule("rbModule", "acc1", rb);
+		mgr.add(rbModule);
+		ModuleHandler handler = new ModuleHandler(mgr);
+
+		TickSlot slot = new TickSlot().contract(rb).lastPrice(3500);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, slot));
+		verify(rbModule).onEvent(new NorthstarEvent(NorthstarEventType.TICK, slot.toTick()));
+
+		slot.clear();
+		slot.contract(hc).lastPrice(3600);
+		handler.onEvent(new NorthstarEvent(NorthstarEventType.TICK, slot));
+		verify(rbModule, times(1)).onEvent(any());
+	}
+
+	private IModule mockBindedModule(String name, String accountId, Contract contract) {
+		IModule module = mock(IModule.class);
+		IModuleContext ctx = mock(IModuleContext.class);
+		when(module.getName()).thenReturn(name);
+		when(module.getModuleDescription()).thenReturn(ModuleDescription.builder()
+				.moduleName(name)
+				.moduleAccountSettingsDescription(List.of(ModuleAccountDescription.builder().accountGatewayId(accountId).build()))
+				.build());
+		when(module.getModuleContext()).thenReturn(ctx);
+		when(ctx.bindedContracts()).thenReturn(List.of(contract));
+		return module;
+	}
+}
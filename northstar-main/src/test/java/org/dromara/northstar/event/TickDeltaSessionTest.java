@@ -0,0 +1,167 @@
+package org.dromara.northstar.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.event.TickDeltaSession.Frames;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.CodedInputStream;
+
+import xyz.redtorch.pb.CoreField.TickField;
+
+class TickDeltaSessionTest {
+
+	Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").gatewayId("CTP").priceTick(1).build();
+	Contract au = Contract.builder().unifiedSymbol("au2406@SHFE@FUTURES").gatewayId("CTP").priceTick(0.02).build();
+
+	/* 模拟客户端：按编号保存最近一次的整数字段 */
+	Map<Integer, long[]> clientState = new HashMap<>();
+
+	@Test
+	void shouldReconstructTicksFromSnapshotAndDeltas() throws Exception {
+		TickDeltaSession session = new TickDeltaSession(60000);
+		session.join("rb", null);
+		session.join("au", null);
+
+		Tick rb1 = tick(rb, 3500, 1000, 10);
+		Tick au1 = tick(au, 456.78, 500, 20);
+		session.stage("rb", rb1);
+		session.stage("au", au1);
+		Frames frames = session.drain(0);
+		assertThat(frames.snapshots()).hasSize(2);
+		assertThat(frames.deltas()).isNull();
+		frames.snapshots().forEach(this::applySnapshot);
+
+		Tick rb2 = tick(rb, 3502, 1012, 10);
+		Tick au2 = tick(au, 456.70, 530, 22);
+		session.stage("rb", rb2);
+		session.stage("au", au2);
+		frames = session.drain(1000);
+		assertThat(frames.snapshots()).isEmpty();
+		applyDeltas(frames.deltas());
+
+		assertThat(clientState.values()).containsExactlyInAnyOrder(TickDeltaSession.toValues(rb2, 1), TickDeltaSession.toValues(au2, 0.02));
+		// 增量远小于完整的TICK
+		assertThat(frames.deltas().length).isLessThan(rb2.toTickField().toByteArray().length / 4);
+	}
+
+	@Test
+	void shouldResyncPeriodically() {
+		TickDeltaSession session = new TickDeltaSession(30000);
+		session.join("rb", tick(rb, 3500, 1000, 10));
+		assertThat(session.drain(0).snapshots()).hasSize(1);
+
+		session.stage("rb", tick(rb, 3501, 1001, 10));
+		assertThat(session.drain(10000).snapshots()).isEmpty();
+
+		session.stage("rb", tick(rb, 3502, 1002, 10));
+		assertThat(session.drain(30000).snapshots()).hasSize(1);
+	}
+
+	@Test
+	void shouldFallbackToSnapshotWhenPriceNotOnTick() {
+		TickDeltaSession session = new TickDeltaSession(60000);
+		session.join("rb", tick(rb, 3500, 1000, 10));
+		session.drain(0);
+
+		session.stage("rb", tick(rb, 3500.5, 1001, 10));
+		Frames frames = session.drain(1);
+		assertThat(frames.snapshots()).hasSize(1);
+		assertThat(frames.deltas()).isNull();
+	}
+
+	/* 一次推送内的多条TICK逐条写入增量，客户端能看到窗口内的最高、最低价 */
+	@Test
+	void shouldSendEveryTickOfWindow() throws Exception {
+		TickDeltaSession session = new TickDeltaSession(60000);
+		session.join("rb", tick(rb, 3500, 1000, 10));
+		session.drain(0).snapshots().forEach(this::applySnapshot);
+
+		session.stage("rb", List.of(tick(rb, 3510, 1005, 10), tick(rb, 3490, 1008, 10), tick(rb, 3500, 1010, 10)));
+		Frames frames = session.drain(1000);
+		assertThat(frames.snapshots()).isEmpty();
+		assertThat(applyDeltas(frames.deltas())).containsExactly(3510L, 3490L, 3500L);
+		assertThat(clientState.get(0)).isEqualTo(TickDeltaSession.toValues(tick(rb, 3500, 1010, 10), 1));
+	}
+
+	@Test
+	void shouldSnapshotFirstTickOfWindowWhenResync() throws Exception {
+		TickDeltaSession session = new TickDeltaSession(60000);
+		session.join("rb", null);
+
+		session.stage("rb", List.of(tick(rb, 3510, 1005, 10), tick(rb, 3490, 1008, 10), tick(rb, 3500, 1010, 10)));
+		Frames frames = session.drain(0);
+		assertThat(frames.snapshots()).hasSize(1);
+		frames.snapshots().forEach(this::applySnapshot);
+		assertThat(clientState.get(0)[TickDeltaSession.F_LAST_PRICE]).isEqualTo(3510L);
+		assertThat(applyDeltas(frames.deltas())).containsExactly(3490L, 3500L);
+	}
+
+	@Test
+	void shouldIgnoreRoomsNotJoined() {
+		TickDeltaSession session = new TickDeltaSession(60000);
+		session.stage("rb", tick(rb, 3500, 1000, 10));
+		Frames frames = session.drain(0);
+		assertThat(frames.snapshots()).isEmpty();
+		assertThat(frames.deltas()).isNull();
+	}
+
+	private void applySnapshot(byte[] msg) {
+		try {
+			CodedInputStream cis = CodedInputStream.newInstance(msg);
+			int index = cis.readUInt32();
+			double priceTick = cis.readDouble();
+			TickField tf = TickField.parseFrom(ByteBuffer.wrap(msg, cis.getTotalBytesRead(), msg.length - cis.getTotalBytesRead()));
+			Contract c = tf.getUnifiedSymbol().equals(rb.unifiedSymbol()) ? rb : au;
+			Tick t = Tick.builder().contract(c).actionTimestamp(tf.getActionTimestamp()).lastPrice(tf.getLastPrice())
+					.highPrice(tf.getHighPrice()).lowPrice(tf.getLowPrice()).volume(tf.getVolume())
+					.openInterest(tf.getOpenInterest()).turnover(tf.getTurnover())
+					.bidPrice(tf.getBidPriceList()).askPrice(tf.getAskPriceList()).bidVolume(tf.getBidVolumeList()).askVolume(tf.getAskVolumeList())
+					.build();
+			clientState.put(index, TickDeltaSession.toValues(t, priceTick));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/* 返回每条增量记录应用后的最新价 */
+	private List<Long> applyDeltas(byte[] deltas) throws Exception {
+		List<Long> lastPrices = new ArrayList<>();
+		CodedInputStream cis = CodedInputStream.newInstance(deltas);
+		while(!cis.isAtEnd()) {
+			long[] values = clientState.get(cis.readUInt32());
+			int mask = cis.readUInt32();
+			for(int i=0; i<TickDeltaSession.NUM_OF_FIELDS; i++) {
+				if((mask & (1 << i)) != 0) {
+					values[i] += cis.readSInt64();
+				}
+			}
+			lastPrices.add(values[TickDeltaSession.F_LAST_PRICE]);
+		}
+		return lastPrices;
+	}
+
+	private Tick tick(Contract c, double price, long volume, int bidVol) {
+		double pt = c.priceTick();
+		return Tick.builder().contract(c).gatewayId("CTP").channelType(ChannelType.CTP)
+				.actionDay(LocalDate.of(2024, 1, 2)).tradingDay(LocalDate.of(2024, 1, 2)).actionTime(LocalTime.of(9, 0))
+				.actionTimestamp(1704157200000L + volume)
+				.lastPrice(price).highPrice(price + 10 * pt).lowPrice(price - 10 * pt)
+				.volume(volume).openInterest(200000 + volume).turnover(volume * price * 10)
+				.bidPrice(List.of(price - pt, price - 2 * pt, price - 3 * pt, price - 4 * pt, price - 5 * pt))
+				.askPrice(List.of(price + pt, price + 2 * pt, price + 3 * pt, price + 4 * pt, price + 5 * pt))
+				.bidVolume(List.of(bidVol, 2, 3, 4, 5)).askVolume(List.of(1, 2, 3, 4, 5))
+				.build();
+	}
+}
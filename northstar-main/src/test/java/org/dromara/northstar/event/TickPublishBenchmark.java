@@ -0,0 +1,196 @@
+package org.dromara.northstar.event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.dromara.northstar.common.constant.ChannelType;
+import org.dromara.northstar.common.constant.TickType;
+import org.dromara.northstar.common.event.FastEventEngine.NorthstarEventDispatcher;
+import org.dromara.northstar.common.event.FastEventEngine.TickTranslator;
+import org.dromara.northstar.common.event.NorthstarEvent;
+import org.dromara.northstar.common.event.NorthstarEventType;
+import org.dromara.northstar.common.event.TickSlot;
+import org.dromara.northstar.common.model.Identifier;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.utils.CommonUtils;
+import org.dromara.northstar.event.DisruptorFastEventEngine.WaitStrategyEnum;
+import org.dromara.northstar.gateway.Instrument;
+import org.dromara.northstar.gateway.mktdata.MarketCenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import xyz.redtorch.pb.CoreEnum.ExchangeEnum;
+import xyz.redtorch.pb.CoreEnum.ProductClassEnum;
+
+/**
+ * TICK发布基准测试
+ * 模拟网关收到原生行情后经市场中心（最近TICK、K线合成）发布到事件引擎的全过程，
+ * 对比构造TICK对象发布与经TickSlot发布的延迟分布（含p99）及分配速率
+ * 运行方式：直接执行 main 方法（已启用 GC profiler）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickPublishBenchmark {
+
+	/* 模拟网关原生行情回调结构 */
+	static class NativeQuote {
+		double last = 3500;
+		double[] bids = {3499, 3498, 3497, 3496, 3495};
+		double[] asks = {3501, 3502, 3503, 3504, 3505};
+		int[] bidVols = {10, 20, 30, 40, 50};
+		int[] askVols = {11, 21, 31, 41, 51};
+		long volume;
+		long timestamp = CommonUtils.localDateTimeToMills(LocalDateTime.of(DAY, TIME));
+	}
+
+	static final Contract CONTRACT = Contract.builder().symbol("rb2405").unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP")
+			.channelType(ChannelType.CTP).build();
+	/* 固定行情时间，避免时间戳越过K线截止时间而在每个TICK上触发K线收盘 */
+	static final LocalDate DAY = LocalDate.now();
+	static final LocalTime TIME = LocalTime.of(10, 0, 30);
+
+	static final TickTranslator<NativeQuote> TRANSLATOR = (slot, q) -> {
+		slot.contract(CONTRACT)
+			.gatewayId("CTP")
+			.channelType(ChannelType.CTP)
+			.type(TickType.MARKET_TICK)
+			.actionDay(DAY)
+			.tradingDay(DAY)
+			.actionTime(TIME)
+			.actionTimestamp(q.timestamp)
+			.lastPrice(q.last)
+			.volume(q.volume);
+		for(int i=0; i<TickSlot.MAX_DEPTH; i++) {
+			slot.level(i, q.bids[i], q.bidVols[i], q.asks[i], q.askVols[i]);
+		}
+	};
+
+	DisruptorFastEventEngine engine;
+	MarketCenter mktCenter;
+	NorthstarEventDispatcher dispatcher;
+	NativeQuote quote = new NativeQuote();
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		engine = new DisruptorFastEventEngine(WaitStrategyEnum.YieldingWaitStrategy);
+		dispatcher = new NorthstarEventDispatcher() {
+			double sum;
+
+			@Override
+			public void onEvent(NorthstarEvent event, long sequence, boolean endOfBatch) throws Exception {
+				if(event.getData() instanceof TickSlot slot) {
+					sum += slot.lastPrice();
+				} else if(event.getData() instanceof Tick tick) {
+					sum += tick.lastPrice();
+				}
+			}
+		};
+		engine.addHandler(dispatcher);
+		mktCenter = new MarketCenter(engine);
+		mktCenter.addDefinitions(List.of(ContractDefinition.builder().name("rb").exchange(ExchangeEnum.SHFE).productClass(ProductClassEnum.FUTURES)
+				.symbolPattern(Pattern.compile("rb\\d+@SHFE@FUTURES")).build()));
+		mktCenter.addInstrument(new Instrument() {
+
+			@Override
+			public String name() {
+				return "rb2405";
+			}
+
+			@Override
+			public Identifier identifier() {
+				return Identifier.of(CONTRACT.unifiedSymbol());
+			}
+
+			@Override
+			public ProductClassEnum productClass() {
+				return ProductClassEnum.FUTURES;
+			}
+
+			@Override
+			public ExchangeEnum exchange() {
+				return ExchangeEnum.SHFE;
+			}
+
+			@Override
+			public ChannelType channelType() {
+				return ChannelType.CTP;
+			}
+
+			@Override
+			public void setContractDefinition(ContractDefinition contractDef) {
+			}
+
+			@Override
+			public Contract contract() {
+				return CONTRACT;
+			}
+		});
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() throws Exception {
+		mktCenter.shutdown();
+		engine.removeHandler(dispatcher);
+		engine.destroy();
+	}
+
+	@Benchmark
+	public void recordPath() {
+		NativeQuote q = quote;
+		q.volume++;
+		Tick tick = Tick.builder()
+				.contract(CONTRACT)
+				.gatewayId("CTP")
+				.channelType(ChannelType.CTP)
+				.type(TickType.MARKET_TICK)
+				.actionDay(DAY)
+				.tradingDay(DAY)
+				.actionTime(TIME)
+				.actionTimestamp(q.timestamp)
+				.lastPrice(q.last)
+				.volume(q.volume)
+				.bidPrice(List.of(q.bids[0], q.bids[1], q.bids[2], q.bids[3], q.bids[4]))
+				.askPrice(List.of(q.asks[0], q.asks[1], q.asks[2], q.asks[3], q.asks[4]))
+				.bidVolume(List.of(q.bidVols[0], q.bidVols[1], q.bidVols[2], q.bidVols[3], q.bidVols[4]))
+				.askVolume(List.of(q.askVols[0], q.askVols[1], q.askVols[2], q.askVols[3], q.askVols[4]))
+				.build();
+		mktCenter.onTick(tick);
+		engine.emitEvent(NorthstarEventType.TICK, tick);
+	}
+
+	@Benchmark
+	public void slotPath() {
+		NativeQuote q = quote;
+		q.volume++;
+		mktCenter.onTick(TRANSLATOR, q);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(TickPublishBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+}
@@ -0,0 +1,153 @@
+package org.dromara.northstar.indicator;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.momentum.KDIndicator;
+import org.dromara.northstar.indicator.momentum.RSIIndicator;
+import org.dromara.northstar.indicator.trend.EMAIndicator;
+import org.dromara.northstar.indicator.trend.MACDIndicator;
+import org.dromara.northstar.indicator.trend.MAIndicator;
+import org.dromara.northstar.indicator.trend.SMAIndicator;
+import org.dromara.northstar.indicator.volatility.BOLLIndicator;
+import org.dromara.northstar.indicator.volume.VWAPIndicator;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 指标批量预热基准测试
+ * 一个注册了20个5分钟指标的模组，以30个交易日的分钟K线预热，对比逐根完整更新与批量预热的耗时
+ * 运行方式：直接执行 main 方法（已启用 GC profiler）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicatorBulkWarmupBenchmark {
+
+	/* 每个交易日约345根分钟K线 */
+	static final int NUM_OF_BARS = 30 * 345;
+
+	Contract contract;
+
+	List<Bar> history;
+
+	Module module;
+
+	@Setup(Level.Trial)
+	public void setupData() {
+		ContractDefinition cd = ContractDefinition.builder()
+				.tradeTimeDef(TradeTimeDefinition.builder()
+						.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+						.build())
+				.build();
+		contract = Contract.builder().unifiedSymbol("rb2201").contractDefinition(cd).build();
+		Random rand = new Random(7);
+		history = new ArrayList<>(NUM_OF_BARS);
+		LocalDateTime time = LocalDateTime.of(2024, 3, 5, 9, 0);
+		double price = 3500;
+		for(int i=0; i<NUM_OF_BARS; i++) {
+			double open = price;
+			price += rand.nextInt(11) - 5;
+			time = time.plusMinutes(1);
+			history.add(Bar.builder().contract(contract).actionDay(time.toLocalDate()).actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate()).actionTimestamp(time.toInstant(ZoneOffset.ofHours(8)).toEpochMilli())
+					.openPrice(open).highPrice(Math.max(open, price) + 1).lowPrice(Math.min(open, price) - 1).closePrice(price)
+					.volumeDelta(1 + rand.nextInt(100)).build());
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setupModule() {
+		module = new Module(contract);
+	}
+
+	@Benchmark
+	public Module replay() {
+		history.forEach(module::onBar);
+		return module;
+	}
+
+	@Benchmark
+	public Module bulkWarmup() {
+		module.helpers.forEach(IndicatorValueUpdateHelper::beginBulkWarmup);
+		history.forEach(module::onBar);
+		module.helpers.forEach(IndicatorValueUpdateHelper::endBulkWarmup);
+		return module;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(IndicatorBulkWarmupBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+
+	/* 按模组上下文的方式更新指标 */
+	static class Module {
+
+		final Contract contract;
+		final BarMergerRegistry registry = new BarMergerRegistry();
+		final List<IndicatorValueUpdateHelper> helpers = new ArrayList<>();
+
+		Module(Contract contract) {
+			this.contract = contract;
+			Configuration cfg = Configuration.builder().contract(contract).numOfUnits(5).cacheLength(60).build();
+			for(int n : new int[] {5, 10, 20, 60}) {
+				register(new MAIndicator(cfg.toBuilder().indicatorName("MA" + n).build(), n));
+			}
+			for(int n : new int[] {12, 26, 50}) {
+				register(new EMAIndicator(cfg.toBuilder().indicatorName("EMA" + n).build(), n));
+			}
+			register(new SMAIndicator(cfg.toBuilder().indicatorName("SMA").build(), 9, 2));
+			register(new MACDIndicator(cfg.toBuilder().indicatorName("MACD").build(), 12, 26, 9));
+			register(new MACDIndicator(cfg.toBuilder().indicatorName("MACD2").build(), 5, 35, 5));
+			register(new BOLLIndicator(cfg.toBuilder().indicatorName("BOLL").build(), 20, 2));
+			register(new BOLLIndicator(cfg.toBuilder().indicatorName("BOLL2").build(), 26, 2));
+			register(new RSIIndicator(cfg.toBuilder().indicatorName("RSI6").build(), 6));
+			register(new RSIIndicator(cfg.toBuilder().indicatorName("RSI14").build(), 14));
+			register(new KDIndicator(cfg.toBuilder().indicatorName("KD").build(), 9, 3, 3));
+			register(new KDIndicator(cfg.toBuilder().indicatorName("KD2").build(), 18, 5, 5));
+			register(new VWAPIndicator(cfg.toBuilder().indicatorName("VWAP").build(), 20));
+			register(new VWAPIndicator(cfg.toBuilder().indicatorName("VWAP2").build(), 40));
+			register(new MAIndicator(cfg.toBuilder().indicatorName("MA120").build(), 120));
+			register(new EMAIndicator(cfg.toBuilder().indicatorName("EMA100").build(), 100));
+		}
+
+		void register(Indicator indicator) {
+			IndicatorValueUpdateHelper helper = new IndicatorValueUpdateHelper(indicator);
+			helpers.add(helper);
+			registry.addListener(contract, indicator.getConfiguration().numOfUnits(), indicator.getConfiguration().period(), helper);
+		}
+
+		void onBar(Bar bar) {
+			helpers.forEach(helper -> helper.onBar(bar));
+			registry.onBar(bar);
+		}
+	}
+}
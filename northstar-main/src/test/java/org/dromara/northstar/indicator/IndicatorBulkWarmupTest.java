@@ -0,0 +1,190 @@
+package org.dromara.northstar.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.model.Num;
+import org.dromara.northstar.indicator.momentum.KDIndicator;
+import org.dromara.northstar.indicator.momentum.RSIIndicator;
+import org.dromara.northstar.indicator.trend.EMAIndicator;
+import org.dromara.northstar.indicator.trend.MACDIndicator;
+import org.dromara.northstar.indicator.trend.MAIndicator;
+import org.dromara.northstar.indicator.trend.SMAIndicator;
+import org.dromara.northstar.indicator.volatility.BOLLIndicator;
+import org.dromara.northstar.indicator.volume.VWAPIndicator;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.junit.jupiter.api.Test;
+
+class IndicatorBulkWarmupTest {
+
+	ContractDefinition cd = ContractDefinition.builder()
+			.tradeTimeDef(TradeTimeDefinition.builder()
+					.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+					.build())
+			.build();
+
+	Contract contract = Contract.builder().unifiedSymbol("rb2201").contractDefinition(cd).build();
+
+	/* 分钟数不是5的整数倍，预热结束时最后一根合成K线尚未完成 */
+	List<Bar> history = minuteBars(LocalDateTime.of(2024, 3, 5, 9, 0), 6003, 7);
+
+	List<Bar> live = minuteBars(LocalDateTime.of(2024, 3, 5, 9, 0).plusMinutes(6003), 300, 11);
+
+	@Test
+	void shouldMatchReplayAfterWarmup() {
+		FakeModule replay = new FakeModule();
+		FakeModule bulk = new FakeModule();
+		history.forEach(replay::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::beginBulkWarmup);
+		history.forEach(bulk::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::endBulkWarmup);
+
+		assertThat(bulk.helpers).allMatch(IndicatorValueUpdateHelper::supportsBulkWarmup);
+		assertSameState(bulk, replay);
+		assertThat(bulk.ma.get(0).unstable()).isTrue();
+	}
+
+	@Test
+	void shouldStayInLineWithReplayAfterWarmup() {
+		FakeModule replay = new FakeModule();
+		FakeModule bulk = new FakeModule();
+		history.forEach(replay::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::beginBulkWarmup);
+		history.forEach(bulk::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::endBulkWarmup);
+
+		for(Bar bar : live) {
+			Tick tick = Tick.builder().contract(contract).actionDay(bar.actionDay()).actionTime(bar.actionTime().minusSeconds(30))
+					.tradingDay(bar.tradingDay()).actionTimestamp(bar.actionTimestamp() - 30000).lastPrice(bar.closePrice()).build();
+			replay.onTick(tick);
+			bulk.onTick(tick);
+			replay.onBar(bar);
+			bulk.onBar(bar);
+		}
+		assertSameState(bulk, replay);
+	}
+
+	@Test
+	void shouldReplayIndicatorsWithoutBulkSupport() {
+		FakeModule replay = new FakeModule();
+		FakeModule bulk = new FakeModule();
+		CountingIndicator replayCounter = replay.register(new CountingIndicator(replay.cfg));
+		CountingIndicator bulkCounter = bulk.register(new CountingIndicator(bulk.cfg));
+		history.forEach(replay::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::beginBulkWarmup);
+		history.forEach(bulk::onBar);
+		bulk.helpers.forEach(IndicatorValueUpdateHelper::endBulkWarmup);
+
+		assertThat(bulkCounter.numOfEvaluations).isEqualTo(replayCounter.numOfEvaluations).isEqualTo(history.size() + history.size() / 5);
+	}
+
+	private void assertSameState(FakeModule actual, FakeModule expected) {
+		for(int i=0; i<expected.helpers.size(); i++) {
+			List<Indicator> expectedNodes = expected.helpers.get(i).topology();
+			List<Indicator> actualNodes = actual.helpers.get(i).topology();
+			for(int j=0; j<expectedNodes.size(); j++) {
+				assertSameValues(actualNodes.get(j), expectedNodes.get(j));
+			}
+		}
+	}
+
+	private void assertSameValues(Indicator actual, Indicator expected) {
+		List<Num> expectedData = expected.getData();
+		List<Num> actualData = actual.getData();
+		assertThat(actualData).hasSameSizeAs(expectedData);
+		for(int i=0; i<expectedData.size(); i++) {
+			Num e = expectedData.get(i);
+			Num a = actualData.get(i);
+			assertThat(a.timestamp()).isEqualTo(e.timestamp());
+			assertThat(a.unstable()).isEqualTo(e.unstable());
+			assertThat(a.value()).as("%s[%d]", expected.getConfiguration().indicatorName(), i).isEqualTo(e.value());
+		}
+	}
+
+	private List<Bar> minuteBars(LocalDateTime start, int numOfMinutes, long seed) {
+		Random rand = new Random(seed);
+		List<Bar> bars = new ArrayList<>();
+		LocalDateTime time = start;
+		double price = 3500;
+		for(int i=0; i<numOfMinutes; i++) {
+			double open = price;
+			price += rand.nextInt(11) - 5;
+			time = time.plusMinutes(1);
+			bars.add(Bar.builder()
+					.contract(contract)
+					.actionDay(time.toLocalDate())
+					.actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate())
+					.actionTimestamp(time.toInstant(ZoneOffset.ofHours(8)).toEpochMilli())
+					.openPrice(open)
+					.highPrice(Math.max(open, price) + rand.nextInt(3))
+					.lowPrice(Math.min(open, price) - rand.nextInt(3))
+					.closePrice(price)
+					.volumeDelta(1 + rand.nextInt(100))
+					.build());
+		}
+		return bars;
+	}
+
+	/* 按模组上下文的方式更新指标 */
+	class FakeModule {
+
+		BarMergerRegistry registry = new BarMergerRegistry();
+		List<IndicatorValueUpdateHelper> helpers = new ArrayList<>();
+
+		Configuration cfg = Configuration.builder().contract(contract).numOfUnits(5).cacheLength(30).build();
+		MAIndicator ma = register(new MAIndicator(cfg.toBuilder().indicatorName("MA").build(), 10));
+		EMAIndicator ema = register(new EMAIndicator(cfg.toBuilder().indicatorName("EMA").build(), 20));
+		SMAIndicator sma = register(new SMAIndicator(cfg.toBuilder().indicatorName("SMA").build(), 9, 2));
+		MACDIndicator macd = register(new MACDIndicator(cfg.toBuilder().indicatorName("MACD").build(), 12, 26, 9));
+		BOLLIndicator boll = register(new BOLLIndicator(cfg.toBuilder().indicatorName("BOLL").build(), 20, 2));
+		RSIIndicator rsi = register(new RSIIndicator(cfg.toBuilder().indicatorName("RSI").build(), 14));
+		KDIndicator kd = register(new KDIndicator(cfg.toBuilder().indicatorName("KD").build(), 9, 3, 3));
+		VWAPIndicator vwap = register(new VWAPIndicator(cfg.toBuilder().indicatorName("VWAP").build(), 20));
+
+		<T extends Indicator> T register(T indicator) {
+			IndicatorValueUpdateHelper helper = new IndicatorValueUpdateHelper(indicator);
+			helpers.add(helper);
+			registry.addListener(contract, indicator.getConfiguration().numOfUnits(), indicator.getConfiguration().period(), helper);
+			return indicator;
+		}
+
+		void onTick(Tick tick) {
+			helpers.forEach(helper -> helper.onTick(tick));
+		}
+
+		void onBar(Bar bar) {
+			helpers.forEach(helper -> helper.onBar(bar));
+			registry.onBar(bar);
+		}
+	}
+
+	/* 每次更新都会累计状态，不支持批量预热 */
+	static class CountingIndicator extends AbstractIndicator {
+
+		int numOfEvaluations;
+
+		CountingIndicator(Configuration cfg) {
+			super(cfg);
+		}
+
+		@Override
+		protected Num evaluate(Num num) {
+			numOfEvaluations++;
+			return num;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package org.dromara.northstar.indicator;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.trend.EMAIndicator;
+import org.dromara.northstar.indicator.trend.MACDIndicator;
+import org.dromara.northstar.indicator.trend.MAIndicator;
+import org.dromara.northstar.indicator.volatility.BOLLIndicator;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 共享指标图基准测试
+ * 50个模组订阅同一合约的 MA、EMA、MACD、BOLL，对比各模组自行计算与共享指标图计算时，每分钟行情（两个TICK加一根分钟K线）的处理开销。
+ * 分发在单线程上依次进行，只比较指标计算量
+ * 运行方式：直接执行 main 方法（已启用 GC profiler）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicatorGraphBenchmark {
+
+	static final long MINUTE = 60000;
+
+	@Param({"50"})
+	int numOfModules;
+
+	Contract contract;
+
+	List<Module> privateModules;
+
+	List<Module> sharedModules;
+
+	IndicatorGraph graph;
+
+	Random rand = new Random(7);
+
+	long time = 1709600400000L;
+
+	double price = 3500;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		ContractDefinition cd = ContractDefinition.builder()
+				.tradeTimeDef(TradeTimeDefinition.builder()
+						.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+						.build())
+				.build();
+		contract = Contract.builder().unifiedSymbol("rb2201").contractDefinition(cd).build();
+		graph = new IndicatorGraph(true);
+		privateModules = new ArrayList<>();
+		sharedModules = new ArrayList<>();
+		for(int i=0; i<numOfModules; i++) {
+			privateModules.add(new Module(contract));
+			sharedModules.add(new Module(contract));
+		}
+		// 预热
+		for(int i=0; i<300; i++) {
+			oneMinute(data -> {
+				privateModules.forEach(m -> m.on(data));
+				sharedModules.forEach(m -> m.on(data));
+			});
+		}
+		sharedModules.forEach(m -> m.sub = graph.subscribe(m.helpers, m));
+		// 经过合成K线边界后完成接入
+		for(int i=0; i<20; i++) {
+			oneMinute(data -> {
+				privateModules.forEach(m -> m.on(data));
+				graph.dispatch(data, () -> sharedModules.forEach(m -> m.on(data)));
+			});
+		}
+		if(sharedModules.stream().anyMatch(m -> m.sub.numOfSharedIndicators() == 0)) {
+			throw new IllegalStateException("模组未接入共享指标图");
+		}
+	}
+
+	@Benchmark
+	public void privateIndicators(Blackhole bh) {
+		oneMinute(data -> privateModules.forEach(m -> m.on(data)));
+		bh.consume(privateModules.get(0).macd.value(0));
+	}
+
+	@Benchmark
+	public void sharedIndicators(Blackhole bh) {
+		oneMinute(data -> graph.dispatch(data, () -> sharedModules.forEach(m -> m.on(data))));
+		bh.consume(sharedModules.get(0).macd.value(0));
+	}
+
+	private void oneMinute(Consumer<Object> consumer) {
+		double open = price;
+		double high = price;
+		double low = price;
+		for(int j=1; j<=2; j++) {
+			price += rand.nextInt(11) - 5;
+			high = Math.max(high, price);
+			low = Math.min(low, price);
+			LocalDateTime tickTime = toDateTime(time + 20000L * j);
+			consumer.accept(Tick.builder().contract(contract).gatewayId("CTP").actionDay(tickTime.toLocalDate()).actionTime(tickTime.toLocalTime())
+					.tradingDay(tickTime.toLocalDate()).actionTimestamp(time + 20000L * j).lastPrice(price).build());
+		}
+		time += MINUTE;
+		LocalDateTime barTime = toDateTime(time);
+		consumer.accept(Bar.builder().contract(contract).gatewayId("CTP").actionDay(barTime.toLocalDate()).actionTime(barTime.toLocalTime())
+				.tradingDay(barTime.toLocalDate()).actionTimestamp(time)
+				.openPrice(open).highPrice(high).lowPrice(low).closePrice(price).volumeDelta(10).build());
+	}
+
+	private static LocalDateTime toDateTime(long timestamp) {
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.ofHours(8));
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(IndicatorGraphBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+
+	/* 按模组上下文的方式更新指标 */
+	static class Module {
+
+		final Contract contract;
+		final BarMergerRegistry registry = new BarMergerRegistry();
+		final List<IndicatorValueUpdateHelper> helpers = new ArrayList<>();
+		final MACDIndicator macd;
+		IndicatorGraph.Subscription sub;
+		long lastBarTimestamp;
+
+		Module(Contract contract) {
+			this.contract = contract;
+			Configuration cfg = Configuration.builder().contract(contract).numOfUnits(5).cacheLength(60).build();
+			register(new MAIndicator(cfg.toBuilder().indicatorName("MA10").build(), 10));
+			register(new EMAIndicator(cfg.toBuilder().indicatorName("EMA20").build(), 20));
+			macd = register(new MACDIndicator(cfg.toBuilder().indicatorName("MACD").build(), 12, 26, 9));
+			register(new BOLLIndicator(cfg.toBuilder().indicatorName("BOLL").build(), 20, 2));
+		}
+
+		<T extends Indicator> T register(T indicator) {
+			IndicatorValueUpdateHelper helper = new IndicatorValueUpdateHelper(indicator);
+			helpers.add(helper);
+			registry.addListener(contract, indicator.getConfiguration().numOfUnits(), indicator.getConfiguration().period(), helper);
+			return indicator;
+		}
+
+		void on(Object data) {
+			if(data instanceof Tick tick) {
+				helpers.forEach(helper -> helper.onTick(tick));
+			} else if(data instanceof Bar bar && bar.actionTimestamp() > lastBarTimestamp) {
+				lastBarTimestamp = bar.actionTimestamp();
+				helpers.forEach(helper -> helper.onBar(bar));
+				registry.onBar(bar);
+				if(sub != null) {
+					sub.onBar(bar);
+				}
+			}
+		}
+	}
+}
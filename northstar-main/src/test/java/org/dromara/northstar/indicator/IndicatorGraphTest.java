@@ -0,0 +1,228 @@
+package org.dromara.northstar.indicator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.dromara.northstar.common.model.core.Bar;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.common.model.core.ContractDefinition;
+import org.dromara.northstar.common.model.core.Tick;
+import org.dromara.northstar.common.model.core.TimeSlot;
+import org.dromara.northstar.common.model.core.TradeTimeDefinition;
+import org.dromara.northstar.indicator.model.Configuration;
+import org.dromara.northstar.indicator.trend.EMAIndicator;
+import org.dromara.northstar.indicator.trend.MACDIndicator;
+import org.dromara.northstar.indicator.volatility.BOLLIndicator;
+import org.dromara.northstar.support.utils.bar.BarMergerRegistry;
+import org.junit.jupiter.api.Test;
+
+class IndicatorGraphTest {
+
+	ContractDefinition cd = ContractDefinition.builder()
+			.tradeTimeDef(TradeTimeDefinition.builder()
+					.timeSlots(List.of(TimeSlot.builder().start(LocalTime.of(0, 0)).end(LocalTime.of(0, 0)).build()))
+					.build())
+			.build();
+
+	Contract contract = Contract.builder().unifiedSymbol("rb2201").contractDefinition(cd).build();
+
+	IndicatorGraph graph = new IndicatorGraph(true);
+
+	List<Object> feed = marketData(600);
+
+	@Test
+	void shouldShareIdenticalIndicatorsAcrossModules() {
+		FakeModule reference = new FakeModule();
+		List<FakeModule> modules = List.of(new FakeModule(), new FakeModule(), new FakeModule());
+		warmup(feed.subList(0, 200), reference, modules);
+		modules.forEach(m -> m.sub = graph.subscribe(m.helpers, m));
+
+		feed.subList(200, feed.size()).forEach(data -> graph.dispatch(data, () -> {
+			reference.on(data);
+			modules.forEach(m -> m.on(data));
+		}));
+
+		// MACD 与 BOLL 各有5个指标，另有一个EMA，各模组共用同一组节点
+		assertThat(graph.numOfNodes()).isEqualTo(11);
+		for(FakeModule m : modules) {
+			assertThat(m.sub.numOfSharedIndicators()).isEqualTo(11);
+			assertThat(m.macd.getData()).isEqualTo(reference.macd.getData());
+			assertThat(m.macd.getDiffLine().getData()).isEqualTo(reference.macd.getDiffLine().getData());
+			assertThat(m.boll.getUpper().getData()).isEqualTo(reference.boll.getUpper().getData());
+			assertThat(m.boll.getLower().getData()).isEqualTo(reference.boll.getLower().getData());
+		}
+		assertThat(reference.boll.getUpper().isReady()).isTrue();
+		assertThat(modules.get(1).macd.isFollowing() || modules.get(2).macd.isFollowing()).isTrue();
+	}
+
+	@Test
+	void shouldReleaseNodesWhenModulesUnload() {
+		List<FakeModule> modules = List.of(new FakeModule(), new FakeModule());
+		warmup(feed.subList(0, 200), new FakeModule(), modules);
+		modules.forEach(m -> m.sub = graph.subscribe(m.helpers, m));
+		feed.subList(200, 300).forEach(data -> graph.dispatch(data, () -> modules.forEach(m -> m.on(data))));
+		assertThat(graph.numOfNodes()).isEqualTo(11);
+
+		modules.get(0).sub.close();
+		assertThat(graph.numOfNodes()).isEqualTo(11);
+
+		// 负责计算的模组卸载后，节点仍为其余模组继续计算
+		FakeModule reference = new FakeModule();
+		warmup(feed.subList(0, 300), reference, List.of());
+		feed.subList(300, feed.size()).forEach(data -> graph.dispatch(data, () -> {
+			reference.on(data);
+			modules.get(1).on(data);
+		}));
+		assertThat(modules.get(1).macd.getData()).isEqualTo(reference.macd.getData());
+
+		modules.get(1).sub.close();
+		assertThat(graph.numOfNodes()).isZero();
+	}
+
+	@Test
+	void shouldKeepDivergedIndicatorsPrivate() {
+		FakeModule leader = new FakeModule();
+		FakeModule diverged = new FakeModule();
+		FakeModule twin = new FakeModule();
+		warmup(feed.subList(0, 900), leader, List.of());
+		// 预热起点不同，EMA 的初值不同
+		warmup(feed.subList(450, 900), diverged, List.of(twin));
+		leader.sub = graph.subscribe(leader.helpers, leader);
+		diverged.sub = graph.subscribe(diverged.helpers, diverged);
+
+		// EMA 的差异随时间衰减，数值完全一致之后才会改为共享，这里只验证差异尚存的阶段
+		feed.subList(900, 1200).forEach(data -> graph.dispatch(data, () -> {
+			leader.on(data);
+			diverged.on(data);
+			twin.on(data);
+		}));
+
+		assertThat(diverged.ema.isFollowing()).isFalse();
+		assertThat(diverged.macd.isFollowing()).isFalse();
+		assertThat(diverged.ema.getData()).isEqualTo(twin.ema.getData()).isNotEqualTo(leader.ema.getData());
+		// 与历史无关的布林带仍然可以共享
+		assertThat(diverged.boll.getUpper().getData()).isEqualTo(leader.boll.getUpper().getData());
+	}
+
+	/* 共享节点的数值会在其他线程上被模组读取，计算时须持有各订阅模组的锁 */
+	@Test
+	void shouldComputeSharedNodesUnderModuleLocks() throws Exception {
+		List<FakeModule> modules = List.of(new FakeModule(), new FakeModule());
+		warmup(feed.subList(0, 200), new FakeModule(), modules);
+		modules.forEach(m -> m.sub = graph.subscribe(m.helpers, m));
+		feed.subList(200, 300).forEach(data -> graph.dispatch(data, () -> modules.forEach(m -> m.on(data))));
+		assertThat(modules.get(1).sub.numOfSharedIndicators()).isPositive();
+
+		CountDownLatch locked = new CountDownLatch(1);
+		AtomicBoolean released = new AtomicBoolean();
+		Thread tradeThread = new Thread(() -> {
+			synchronized (modules.get(1)) {
+				locked.countDown();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				released.set(true);
+			}
+		});
+		tradeThread.start();
+		locked.await();
+		Object data = feed.get(300);
+		graph.dispatch(data, () -> modules.forEach(m -> m.on(data)));
+		assertThat(released).isTrue();
+		tradeThread.join();
+	}
+
+	private void warmup(List<Object> data, FakeModule first, List<FakeModule> others) {
+		data.forEach(d -> {
+			first.on(d);
+			others.forEach(m -> m.on(d));
+		});
+	}
+
+	/* 每分钟两个TICK，随后一根分钟K线 */
+	private List<Object> marketData(int numOfMinutes) {
+		Random rand = new Random(7);
+		List<Object> data = new ArrayList<>();
+		LocalDateTime time = LocalDateTime.of(2024, 3, 5, 9, 0);
+		double price = 3500;
+		for(int i=0; i<numOfMinutes; i++) {
+			double open = price;
+			double high = price;
+			double low = price;
+			for(int j=1; j<=2; j++) {
+				price += rand.nextInt(11) - 5;
+				high = Math.max(high, price);
+				low = Math.min(low, price);
+				LocalDateTime tickTime = time.plusSeconds(20L * j);
+				data.add(Tick.builder()
+						.contract(contract)
+						.gatewayId("CTP")
+						.actionDay(tickTime.toLocalDate())
+						.actionTime(tickTime.toLocalTime())
+						.tradingDay(tickTime.toLocalDate())
+						.actionTimestamp(tickTime.toInstant(ZoneOffset.ofHours(8)).toEpochMilli())
+						.lastPrice(price)
+						.build());
+			}
+			time = time.plusMinutes(1);
+			data.add(Bar.builder()
+					.contract(contract)
+					.gatewayId("CTP")
+					.actionDay(time.toLocalDate())
+					.actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate())
+					.actionTimestamp(time.toInstant(ZoneOffset.ofHours(8)).toEpochMilli())
+					.openPrice(open)
+					.highPrice(high)
+					.lowPrice(low)
+					.closePrice(price)
+					.volumeDelta(10)
+					.build());
+		}
+		return data;
+	}
+
+	/* 按模组上下文的方式更新指标 */
+	class FakeModule {
+
+		BarMergerRegistry registry = new BarMergerRegistry();
+		List<IndicatorValueUpdateHelper> helpers = new ArrayList<>();
+		IndicatorGraph.Subscription sub;
+		long lastBarTimestamp;
+
+		Configuration cfg = Configuration.builder().contract(contract).numOfUnits(5).cacheLength(30).build();
+		MACDIndicator macd = register(new MACDIndicator(cfg.toBuilder().indicatorName("MACD").build(), 12, 26, 9));
+		BOLLIndicator boll = register(new BOLLIndicator(cfg.toBuilder().indicatorName("BOLL").build(), 20, 2));
+		EMAIndicator ema = register(new EMAIndicator(cfg.toBuilder().indicatorName("EMA").numOfUnits(3).build(), 10));
+
+		<T extends Indicator> T register(T indicator) {
+			IndicatorValueUpdateHelper helper = new IndicatorValueUpdateHelper(indicator);
+			helpers.add(helper);
+			registry.addListener(contract, indicator.getConfiguration().numOfUnits(), indicator.getConfiguration().period(), helper);
+			return indicator;
+		}
+
+		void on(Object data) {
+			if(data instanceof Tick tick) {
+				helpers.forEach(helper -> helper.onTick(tick));
+			} else if(data instanceof Bar bar && bar.actionTimestamp() > lastBarTimestamp) {
+				lastBarTimestamp = bar.actionTimestamp();
+				helpers.forEach(helper -> helper.onBar(bar));
+				registry.onBar(bar);
+				if(sub != null) {
+					sub.onBar(bar);
+				}
+			}
+		}
+	}
+}
@@ -7,6 +7,11 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
+import org.dromara.northstar.common.model.ModuleAccountDescription;
+import org.dromara.northstar.common.model.ModuleDescription;
+import org.dromara.northstar.common.model.core.Contract;
+import org.dromara.northstar.strategy.IModuleContext;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -86,4 +91,52 @@ class ModuleManagerTest {
         assertTrue(modules.contains(module1));
         assertTrue(modules.contains(module2));
     }
+
+    @Test
+    void routes() {
+        Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+        Contract hc = Contract.builder().unifiedSymbol("hc2405@SHFE@FUTURES").contractId("hc2405@SHFE@FUTURES@CTP").build();
+        Contract ag = Contract.builder().unifiedSymbol("ag2406@SHFE@FUTURES").contractId("ag2406@SHFE@FUTURES@CTP").build();
+        IModule moduleA = mockBindedModule("A", "acc1", rb, hc);
+        IModule moduleB = mockBindedModule("B", "acc2", rb);
+        moduleManager.add(moduleA);
+        moduleManager.add(moduleB);
+
+        assertEquals(2, moduleManager.modulesOfContract(rb).length);
+        assertArrayEquals(new IModule[] {moduleA}, moduleManager.modulesOfContract(hc));
+        assertEquals(0, moduleManager.modulesOfContract(ag).length);
+        assertArrayEquals(new IModule[] {moduleB}, moduleManager.modulesOfAccount("acc2"));
+        assertEquals(0, moduleManager.modulesOfAccount("acc3").length);
+
+        moduleManager.remove(Identifier.of("A"));
+        assertArrayEquals(new IModule[] {moduleB}, moduleManager.modulesOfContract(rb));
+        assertEquals(0, moduleManager.modulesOfContract(hc).length);
+        assertEquals(0, moduleManager.modulesOfAccount("acc1").length);
+    }
+
+    @Test
+    void unresolvedModuleShouldReceiveAll() {
+        Contract rb = Contract.builder().unifiedSymbol("rb2405@SHFE@FUTURES").contractId("rb2405@SHFE@FUTURES@CTP").build();
+        IModule moduleA = mockBindedModule("A", "acc1", rb);
+        moduleManager.add(moduleA);
+        moduleManager.add(module1);
+
+        assertEquals(2, moduleManager.modulesOfContract(rb).length);
+        assertArrayEquals(new IModule[] {module1}, moduleManager.modulesOfContract(Contract.builder().unifiedSymbol("any").build()));
+        assertArrayEquals(new IModule[] {module1}, moduleManager.modulesOfAccount("acc2"));
+    }
+
+    private IModule mockBindedModule(String name, String accountId, Contract... contracts) {
+        IModule module = mock(IModule.class);
+        IModuleContext ctx = mock(IModuleContext.class);
+        ModuleDescription md = ModuleDescription.builder()
+                .moduleName(name)
+                .moduleAccountSettingsDescription(List.of(ModuleAccountDescription.builder().accountGatewayId(accountId).build()))
+                .build();
+        when(module.getName()).thenReturn(name);
+        when(module.getModuleDescription()).thenReturn(md);
+        when(module.getModuleContext()).thenReturn(ctx);
+        when(ctx.bindedContracts()).thenReturn(List.of(contracts));
+        return module;
+    }
 }
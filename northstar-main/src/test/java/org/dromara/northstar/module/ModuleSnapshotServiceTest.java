@@ -0,0 +1,149 @@
+package org.dromara.northstar.module;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.dromara.northstar.common.model.ModuleRuntimeDescription;
+import org.dromara.northstar.data.IModuleRepository;
+import org.dromara.northstar.strategy.IModule;
+import org.dromara.northstar.strategy.IModuleContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ModuleSnapshotServiceTest {
+
+	IModuleRepository repo = mock(IModuleRepository.class);
+
+	ModuleSnapshotService service;
+
+	@AfterEach
+	void cleanup() throws Exception {
+		service.destroy();
+	}
+
+	@Test
+	void shouldCoalesceMarksIntoOneSnapshotPerInterval() throws Exception {
+		service = new ModuleSnapshotService(repo, 100, false);
+		service.afterPropertiesSet();
+		IModule m1 = module("m1");
+		IModule m2 = module("m2");
+		service.register(m1);
+		service.register(m2);
+		for(int i=0; i<100; i++) {
+			service.markDirty("m1", false);
+			service.markDirty("m2", false);
+		}
+		Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(repo, times(2)).saveRuntime(any()));
+		// 快照只在刷新时生成，每个模组只生成一次
+		verify(m1.getModuleContext()).getRuntimeDescription(false);
+		verify(m2.getModuleContext()).getRuntimeDescription(false);
+		verify(repo).saveRuntime(same(m1.getModuleContext().getRuntimeDescription(false)));
+		verify(repo).saveRuntime(same(m2.getModuleContext().getRuntimeDescription(false)));
+	}
+
+	@Test
+	void shouldWriteImmediatelyOnTrade() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), true);
+		service.afterPropertiesSet();
+		service.register(module("m1"));
+		service.markDirty("m1", false);
+		verify(repo, never()).saveRuntime(any());
+		service.markDirty("m1", true);
+		Awaitility.await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(repo).saveRuntime(any()));
+	}
+
+	@Test
+	void shouldBuildSnapshotWhileHoldingModuleMonitor() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), false);
+		service.afterPropertiesSet();
+		IModule m1 = module("m1");
+		service.register(m1);
+		service.markDirty("m1", false);
+		CompletableFuture<Void> flushing;
+		// 模拟模组正在处理事件
+		synchronized (m1) {
+			flushing = CompletableFuture.runAsync(() -> service.flush("m1"));
+			Thread.sleep(200);
+			verify(m1.getModuleContext(), never()).getRuntimeDescription(false);
+			verify(repo, never()).saveRuntime(any());
+		}
+		flushing.get(5, TimeUnit.SECONDS);
+		verify(repo).saveRuntime(any());
+	}
+
+	@Test
+	void shouldFlushPendingSnapshotsOnShutdown() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), false);
+		service.afterPropertiesSet();
+		service.register(module("m1"));
+		service.register(module("m2"));
+		service.markDirty("m1", true);
+		service.markDirty("m2", false);
+		service.destroy();
+		verify(repo, times(2)).saveRuntime(any());
+	}
+
+	@Test
+	void shouldNotWriteDiscardedModule() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), false);
+		service.afterPropertiesSet();
+		service.register(module("m1"));
+		service.markDirty("m1", false);
+		service.discard("m1");
+		service.flushAll();
+		verify(repo, never()).saveRuntime(any());
+	}
+
+	@Test
+	void shouldRejectMarksOfDiscardedModuleUntilRegistered() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), false);
+		service.afterPropertiesSet();
+		IModule m1 = module("m1");
+		service.register(m1);
+		service.discard("m1");
+		// 删除后仍在途的事件不会让模组复活
+		service.markDirty("m1", false);
+		service.flushAll();
+		verify(repo, never()).saveRuntime(any());
+
+		service.register(m1);
+		service.markDirty("m1", false);
+		service.flushAll();
+		verify(repo).saveRuntime(any());
+	}
+
+	@Test
+	void shouldRetryFailedWrite() throws Exception {
+		service = new ModuleSnapshotService(repo, TimeUnit.MINUTES.toMillis(1), false);
+		service.afterPropertiesSet();
+		doThrow(new IllegalStateException()).doNothing().when(repo).saveRuntime(any());
+		service.register(module("m1"));
+		service.markDirty("m1", false);
+		service.flush("m1");
+		service.flush("m1");
+		verify(repo, times(2)).saveRuntime(any());
+		service.flush("m1");
+		verify(repo, times(2)).saveRuntime(any());
+	}
+
+	private IModule module(String name) {
+		IModule module = mock(IModule.class);
+		IModuleContext ctx = mock(IModuleContext.class);
+		ModuleRuntimeDescription snapshot = ModuleRuntimeDescription.builder().moduleName(name).build();
+		when(module.getName()).thenReturn(name);
+		when(module.getModuleContext()).thenReturn(ctx);
+		when(ctx.getRuntimeDescription(false)).thenReturn(snapshot);
+		return module;
+	}
+}
@@ -1,10 +1,17 @@
 package org.dromara.northstar.support.utils.bar;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -59,4 +66,134 @@ class BarMergerRegistryTest {
 		
 		assertThat(cnt.get()).isEqualTo(2);
 	}
+
+	@Test
+	void shouldOnlyFeedMergersOfTheSameContract() {
+		Contract other = Contract.builder().unifiedSymbol("rb2205").contractDefinition(cd).build();
+		registry.addListener(contract, 1, PeriodUnit.MINUTE, listener1);
+		registry.addListener(other, 1, PeriodUnit.MINUTE, listener2);
+
+		minuteBars(other, 3).forEach(registry::onBar);
+
+		verify(listener1, never()).onMergedBar(any());
+		verify(listener2, times(3)).onMergedBar(any());
+	}
+
+	@Test
+	void shouldShareMergedSeriesOnceLive() {
+		MergedBarService service = new MergedBarService();
+		BarMergerRegistry standalone = new BarMergerRegistry();
+		BarMergerRegistry shared1 = new BarMergerRegistry(service);
+		BarMergerRegistry shared2 = new BarMergerRegistry(service);
+		List<Bar> expected = new ArrayList<>();
+		List<Bar> received1 = new ArrayList<>();
+		List<Bar> received2 = new ArrayList<>();
+		standalone.addListener(contract, 5, PeriodUnit.MINUTE, expected::add);
+		shared1.addListener(contract, 5, PeriodUnit.MINUTE, received1::add);
+		shared2.addListener(contract, 5, PeriodUnit.MINUTE, received2::add);
+		shared1.enableSharing();
+		shared2.enableSharing();
+
+		List<Bar> bars = minuteBars(contract, 60);
+		for(int i=0; i<bars.size(); i++) {
+			standalone.onBar(bars.get(i));
+			shared1.onBar(bars.get(i));
+			// 第二个订阅者落后三根K线
+			if(i >= 3) {
+				shared2.onBar(bars.get(i - 3));
+			}
+		}
+		bars.subList(bars.size() - 3, bars.size()).forEach(shared2::onBar);
+
+		assertThat(expected).hasSize(12);
+		assertThat(received1).isEqualTo(expected);
+		assertThat(received2).isEqualTo(expected);
+		assertThat(service.numOfSeries()).isEqualTo(1);
+		assertThat(shared1.numOfSharedMergers()).isEqualTo(1);
+		assertThat(shared2.numOfSharedMergers()).isEqualTo(1);
+		// 共享后后到的订阅者直接取得先到者的合成结果
+		assertThat(received2.get(11)).isSameAs(received1.get(11));
+
+		shared1.release();
+		assertThat(service.numOfSeries()).isEqualTo(1);
+		shared2.release();
+		assertThat(service.numOfSeries()).isZero();
+	}
+
+	@Test
+	void shouldFallBackToOwnMergerWhenTooFarBehind() {
+		MergedBarService service = new MergedBarService();
+		BarMergerRegistry standalone = new BarMergerRegistry();
+		BarMergerRegistry leader = new BarMergerRegistry(service);
+		BarMergerRegistry laggard = new BarMergerRegistry(service);
+		List<Bar> expected = new ArrayList<>();
+		List<Bar> received = new ArrayList<>();
+		standalone.addListener(contract, 5, PeriodUnit.MINUTE, expected::add);
+		leader.addListener(contract, 5, PeriodUnit.MINUTE, bar -> {});
+		laggard.addListener(contract, 5, PeriodUnit.MINUTE, received::add);
+		leader.enableSharing();
+		laggard.enableSharing();
+
+		List<Bar> bars = minuteBars(contract, MergedBarSeries.MEMO_SIZE + 100);
+		bars.forEach(standalone::onBar);
+		bars.subList(0, 10).forEach(bar -> {
+			leader.onBar(bar);
+			laggard.onBar(bar);
+		});
+		assertThat(laggard.numOfSharedMergers()).isEqualTo(1);
+		bars.subList(10, bars.size()).forEach(leader::onBar);
+		// 落后超出记录范围时改用独立合成器，追回记录范围后重新共享
+		bars.subList(10, bars.size()).forEach(laggard::onBar);
+
+		assertThat(received).isEqualTo(expected);
+		assertThat(laggard.numOfSharedMergers()).isEqualTo(1);
+	}
+
+	/* 在周期中途落后时，改用的独立合成器补回该周期已投递的分钟K线，不会输出只覆盖部分周期的K线 */
+	@Test
+	void shouldKeepWholePeriodWhenFallingBackMidPeriod() {
+		MergedBarService service = new MergedBarService();
+		BarMergerRegistry standalone = new BarMergerRegistry();
+		BarMergerRegistry leader = new BarMergerRegistry(service);
+		BarMergerRegistry laggard = new BarMergerRegistry(service);
+		List<Bar> expected = new ArrayList<>();
+		List<Bar> received = new ArrayList<>();
+		standalone.addListener(contract, 5, PeriodUnit.MINUTE, expected::add);
+		leader.addListener(contract, 5, PeriodUnit.MINUTE, bar -> {});
+		laggard.addListener(contract, 5, PeriodUnit.MINUTE, received::add);
+		leader.enableSharing();
+		laggard.enableSharing();
+
+		List<Bar> bars = minuteBars(contract, MergedBarSeries.MEMO_SIZE + 100);
+		bars.forEach(standalone::onBar);
+		bars.subList(0, 12).forEach(bar -> {
+			leader.onBar(bar);
+			laggard.onBar(bar);
+		});
+		bars.subList(12, bars.size()).forEach(leader::onBar);
+		bars.subList(12, bars.size()).forEach(laggard::onBar);
+
+		assertThat(received).isEqualTo(expected);
+	}
+
+	private List<Bar> minuteBars(Contract c, int n) {
+		List<Bar> bars = new ArrayList<>();
+		LocalDateTime time = LocalDateTime.of(2024, 3, 5, 9, 0);
+		for(int i=0; i<n; i++) {
+			time = time.plusMinutes(1);
+			bars.add(Bar.builder()
+					.contract(c)
+					.actionDay(time.toLocalDate())
+					.actionTime(time.toLocalTime())
+					.tradingDay(time.toLocalDate())
+					.actionTimestamp(time.toInstant(ZoneOffset.ofHours(8)).toEpochMilli())
+					.openPrice(3500 + i)
+					.highPrice(3510 + i)
+					.lowPrice(3490 + i)
+					.closePrice(3505 + i)
+					.volumeDelta(10)
+					.build());
+		}
+		return bars;
+	}
 }
@@ -13,6 +13,8 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import org.dromara.northstar.common.model.core.Bar;
@@ -173,6 +175,78 @@ class BarMergerTest {
 		
     }
     
+    /* 合成逻辑优化前的实现在 noisySampling 上的合成结果摘要，格式见 digest */
+    static final Map<String, String> GOLDEN = Map.ofEntries(
+    		Map.entry("rb2401@SHFE@FUTURES 1", "1105|2024-03-04 2024-03-04 21:01 1709557260000 3523.00/3526.00/3457.00/3461.00 10003.00/-3.00 20030/25 30009.90/8.60|2024-03-06 2024-03-06 15:00 1709737200000 3540.00/3543.00/3539.00/3542.00 12522.00/-2.00 45220/10 38322.60/5.30|3866655.0000|3871233.0000|3865366.0000|3868858.0000|19.0000|17809|4795.9000"),
+    		Map.entry("rb2401@SHFE@FUTURES 3", "373|2024-03-04 2024-03-04 21:03 1709557380000 3523.00/3539.00/3457.00/3535.00 10005.00/-2.00 20050/54 30016.50/18.20|2024-03-06 2024-03-06 15:00 1709708400000 3466.00/3543.00/3467.00/3542.00 12522.00/-9.00 45220/53 38322.60/12.90|1305134.0000|1318905.0000|1292676.0000|1306219.0000|28.0000|17758|4786.0000"),
+    		Map.entry("rb2401@SHFE@FUTURES 5", "224|2024-03-04 2024-03-04 21:05 1709557500000 3523.00/3539.00/3457.00/3508.00 10007.00/3.00 20070/87 30023.10/25.80|2024-03-06 2024-03-06 15:00 1709708400000 3493.00/3543.00/3467.00/3542.00 12522.00/-2.00 45220/92 38322.60/22.50|783412.0000|793274.0000|774971.0000|784029.0000|19.0000|17777|4787.3000"),
+    		Map.entry("rb2401@SHFE@FUTURES 15", "74|2024-03-04 2024-03-04 21:15 1709558100000 3523.00/3545.00/3452.00/3474.00 10017.00/10.00 20170/254 30056.10/69.80|2024-03-06 2024-03-06 15:00 1709708400000 3527.00/3549.00/3455.00/3542.00 12522.00/0.00 45220/240 38322.60/64.50|258335.0000|262677.0000|255425.0000|259236.0000|19.0000|17809|4795.9000"),
+    		Map.entry("rb2401@SHFE@FUTURES 60", "20|2024-03-04 2024-03-04 22:00 1709560800000 3523.00/3553.00/3451.00/3523.00 10062.00/10.00 20620/983 30204.60/263.30|2024-03-06 2024-03-06 15:00 1709708400000 3527.00/3549.00/3455.00/3542.00 12522.00/0.00 45220/240 38322.60/64.50|69838.0000|71062.0000|68987.0000|70049.0000|19.0000|17809|4795.9000"),
+    		Map.entry("rb2401@SHFE@FUTURES 120", "10|2024-03-04 2024-03-04 23:00 1709564400000 3523.00/3554.00/3449.00/3521.00 10122.00/3.00 21220/1917 30402.60/516.00|2024-03-06 2024-03-06 15:00 1709708400000 3529.00/3555.00/3451.00/3542.00 12522.00/-9.00 45220/1212 38322.60/322.50|34943.0000|35543.0000|34488.0000|34999.0000|19.0000|17809|4795.9000"),
+    		Map.entry("BTC 1", "2864|2024-03-04 2024-03-04 20:58 1709585880000 3449.00/3450.00/3450.00/3451.00 10000.00/-4.00 20000/10 30000.00/3.30|2024-03-06 2024-03-06 20:57 1709758620000 3518.00/3521.00/3515.00/3520.00 12879.00/4.00 48790/16 39500.70/5.30|10021078.0000|10032523.0000|10018213.0000|10026806.0000|7.0000|45805|12316.2000"),
+    		Map.entry("BTC 3", "965|2024-03-04 2024-03-04 21:00 1709557200000 3449.00/3526.00/3450.00/3525.00 10002.00/-9.00 20020/33 30006.60/12.90|2024-03-06 2024-03-06 20:57 1709729820000 3545.00/3546.00/3479.00/3520.00 12879.00/9.00 48790/45 39500.70/12.90|3376642.0000|3411981.0000|3344005.0000|3378509.0000|17.0000|45644|12283.2000"),
+    		Map.entry("BTC 5", "579|2024-03-04 2024-03-04 21:00 1709557200000 3449.00/3526.00/3450.00/3525.00 10002.00/-9.00 20020/33 30006.60/12.90|2024-03-06 2024-03-06 20:55 1709729700000 3498.00/3546.00/3472.00/3547.00 12877.00/0.00 48770/60 39494.10/21.50|2025755.0000|2050380.0000|2003020.0000|2026985.0000|-3.0000|45680|12280.8000"),
+    		Map.entry("BTC 15", "193|2024-03-04 2024-03-04 21:00 1709557200000 3449.00/3526.00/3450.00/3525.00 10002.00/-9.00 20020/33 30006.60/12.90|2024-03-06 2024-03-06 20:45 1709729100000 3465.00/3552.00/3458.00/3480.00 12867.00/-9.00 48670/241 39461.10/64.50|675311.0000|685001.0000|666185.0000|675608.0000|0.0000|45587|12258.0000"),
+    		Map.entry("BTC 60", "48|2024-03-04 2024-03-04 21:00 1709557200000 3449.00/3526.00/3450.00/3525.00 10002.00/-9.00 20020/33 30006.60/12.90|2024-03-06 2024-03-06 20:00 1709726400000 3468.00/3551.00/3448.00/3532.00 12822.00/-9.00 48220/970 39312.60/258.00|168001.0000|170512.0000|165533.0000|167954.0000|-6.0000|44918|12074.4000"),
+    		Map.entry("BTC 120", "24|2024-03-04 2024-03-04 22:00 1709560800000 3449.00/3553.00/3450.00/3523.00 10062.00/3.00 20620/1004 30204.60/270.90|2024-03-06 2024-03-06 20:00 1709726400000 3470.00/3556.00/3448.00/3532.00 12822.00/3.00 48220/1910 39312.60/516.00|83968.0000|85299.0000|82751.0000|83953.0000|-6.0000|44918|12074.4000"));
+
+    @Test
+    void shouldMatchGoldenResults() {
+    	for(Contract c : List.of(contract, contract2)) {
+    		for(int numOfMin : new int[] {1, 3, 5, 15, 60, 120}) {
+    			BarMerger merger = new BarMerger(numOfMin, c);
+    			List<Bar> results = new ArrayList<>();
+    			merger.addListener(results::add);
+    			noisySampling(c).forEach(merger::onBar);
+    			String key = c.unifiedSymbol() + " " + numOfMin;
+    			assertThat(digest(results)).as(key).isEqualTo(GOLDEN.get(key));
+    		}
+    	}
+    }
+    
+    /* 根数|首根K线|末根K线|开高低收之和|持仓变化之和|成交量之和|成交额之和 */
+    static String digest(List<Bar> bars) {
+    	return String.format(Locale.ROOT, "%d|%s|%s|%.4f|%.4f|%.4f|%.4f|%.4f|%d|%.4f", bars.size(), line(bars.get(0)), line(bars.get(bars.size() - 1)),
+    			bars.stream().mapToDouble(Bar::openPrice).sum(), bars.stream().mapToDouble(Bar::highPrice).sum(),
+    			bars.stream().mapToDouble(Bar::lowPrice).sum(), bars.stream().mapToDouble(Bar::closePrice).sum(),
+    			bars.stream().mapToDouble(Bar::openInterestDelta).sum(), bars.stream().mapToLong(Bar::volumeDelta).sum(),
+    			bars.stream().mapToDouble(Bar::turnoverDelta).sum());
+    }
+    
+    static String line(Bar b) {
+    	return String.format(Locale.ROOT, "%s %s %s %d %.2f/%.2f/%.2f/%.2f %.2f/%.2f %d/%d %.2f/%.2f", b.tradingDay(), b.actionDay(), b.actionTime(), b.actionTimestamp(),
+    			b.openPrice(), b.highPrice(), b.lowPrice(), b.closePrice(), b.openInterest(), b.openInterestDelta(), b.volume(), b.volumeDelta(), b.turnover(), b.turnoverDelta());
+    }
+    
+    /* 两个自然日的分钟K线，价格逐根变化，夹杂缺失、重复、过时与非整分钟的数据 */
+    List<Bar> noisySampling(Contract c){
+    	List<Bar> result = new ArrayList<>();
+    	LocalDateTime t = LocalDateTime.of(LocalDate.of(2024, 3, 4), LocalTime.of(20, 58));
+    	for(int i=0; i<2 * 1440; i++, t = t.plusMinutes(1)) {
+    		if(i % 97 == 13) {
+    			continue;
+    		}
+    		double price = 3500 + (i * 37 % 101) - 50;
+    		Bar bar = genBar(t.toLocalDate(), t.toLocalTime(), price + i % 7, price - i % 5, price - 1, price + 1, 10000 + i, i % 9 - 4, 20000 + 10 * i, 10 + i % 13, 30000 + 3.3 * i, 3.3 + i % 3).toBuilder()
+    				.contract(c)
+    				.gatewayId("G")
+    				.tradingDay(t.toLocalDate())
+    				.preClosePrice(3490)
+    				.preOpenInterest(9999)
+    				.preSettlePrice(3495)
+    				.build();
+    		result.add(bar);
+    		if(i % 211 == 7) {
+    			result.add(bar);
+    			result.add(result.get(result.size() - 5));
+    		}
+    		if(i % 307 == 11) {
+    			result.add(bar.toBuilder().actionTime(t.toLocalTime().plusSeconds(30)).build());
+    		}
+    	}
+    	return result;
+    }
+    
     List<Bar> sampling(LocalTime start){
     	List<Bar> result = new ArrayList<>();
     	LocalDateTime dtStart = LocalDateTime.of(LocalDate.now(), start);
@@ -1,5 +1,6 @@
 package org.dromara.northstar.support.utils.bar;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -8,7 +9,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.dromara.northstar.common.model.core.Bar;
 import org.dromara.northstar.common.model.core.Contract;
@@ -61,6 +64,29 @@ class DailyBarMergerTest {
 		verify(listener, Mockito.times(1)).onMergedBar(any(Bar.class));
 	}
 	
+	/* 合成逻辑优化前的实现在以下数据上的合成结果摘要，格式见 BarMergerTest#digest */
+	static final Map<Integer, String> GOLDEN = Map.of(
+			1, "7|null 2024-03-04 14:00 1709532000000 3508.00/3519.00/3504.00/3515.00 10000.00/-8.00 14/400 0.00/1200042.00|null 2024-03-10 14:00 1710050400000 3568.00/3579.00/3564.00/3575.00 10006.00/16.00 12014/424 18000000.00/1200042.00|24766.0000|24843.0000|24738.0000|24815.0000|28.0000|2884|8400294.0000",
+			2, "3|null 2024-03-05 14:00 1709618400000 3508.00/3529.00/3504.00/3525.00 10001.00/-13.00 2014/803 3000000.00/2400090.00|null 2024-03-09 14:00 1709964000000 3548.00/3569.00/3544.00/3565.00 10005.00/19.00 10014/835 15000000.00/2400090.00|10584.0000|10647.0000|10572.0000|10635.0000|9.0000|2457|7200270.0000",
+			3, "2|null 2024-03-06 14:00 1709704800000 3508.00/3539.00/3504.00/3535.00 10002.00/-14.00 4014/1210 6000000.00/3600138.00|null 2024-03-09 14:00 1709964000000 3538.00/3569.00/3534.00/3565.00 10005.00/22.00 10014/1246 15000000.00/3600138.00|7046.0000|7108.0000|7038.0000|7100.0000|8.0000|2456|7200276.0000");
+	
+	@Test
+	void shouldMatchGoldenResults() {
+		for(int numOfDay : new int[] {1, 2, 3}) {
+			DailyBarMerger merger = new DailyBarMerger(numOfDay, contract);
+			List<Bar> results = new ArrayList<>();
+			merger.addListener(results::add);
+			LocalDate date = LocalDate.of(2024, 3, 4);
+			for(int d=0; d<7; d++, date = date.plusDays(1)) {
+				for(LocalTime time : List.of(LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(14, 0), LocalTime.of(15, 0))) {
+					double price = 3500 + d * 10 + time.getHour();
+					merger.onBar(genBar(date, time, price + 5, price - 5, price - 1, price + 1, 10000 + d, d - 2, 2000 * d + time.getHour(), 100 + d, 3e6 * d, 3e5 + time.getHour()));
+				}
+			}
+			assertThat(BarMergerTest.digest(results)).as("%d日", numOfDay).isEqualTo(GOLDEN.get(numOfDay));
+		}
+	}
+	
 	 Bar genBar(LocalDate date, LocalTime time, double h, double l, double o, double c, double op, double opDelta, long vol, long volDelta, double tr, double trDelta){
 	    	return Bar.builder()
 	    			.contract(contract)